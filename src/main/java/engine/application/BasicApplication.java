@@ -11,6 +11,7 @@ import engine.input.Input;
 import engine.input.Key;
 import engine.processing.ProcessingApplication;
 import engine.resources.Font;
+import engine.resources.ResourceLoader;
 import engine.scene.Scene;
 import engine.scene.SceneNode;
 import engine.scene.camera.PerspectiveCamera;
@@ -74,6 +75,8 @@ public abstract class BasicApplication implements Application {
 
   @Override
   public void initialize() {
+    // Claims the main thread for synchronous loads in onInitialize.
+    ResourceLoader.getInstance().processMainThreadTasks();
     rootUI = new SceneNode();
     initializeDebugOverlay();
     fpsGraph = new FpsGraph(new FpsHistory());
@@ -99,6 +102,8 @@ public abstract class BasicApplication implements Application {
 
   @Override
   public void update() {
+    ResourceLoader.getInstance().processMainThreadTasks();
+
     if (activeScene != null) {
 
       if (input.isKeyPressed(Key.Z) && !lastZ) {
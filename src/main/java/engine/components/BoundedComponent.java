@@ -0,0 +1,23 @@
+package engine.components;
+
+import engine.scene.SceneNode;
+import math.Bounds;
+
+/**
+ * A {@link RenderableComponent} whose drawing fits in a known bounding box.
+ *
+ * <p>The scene uses the bounds to skip components outside the view of the active camera. A
+ * renderable component that does not implement this interface is always drawn, and so is every
+ * node above it.
+ *
+ * @see SceneNode
+ */
+public interface BoundedComponent extends RenderableComponent {
+
+  /**
+   * Returns the box enclosing everything this component draws, in the local space of its node.
+   *
+   * @return The bounding box, or {@code null} if the component currently draws nothing.
+   */
+  Bounds getBounds();
+}
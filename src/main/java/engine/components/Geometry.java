@@ -21,7 +21,7 @@ import workspace.ui.Graphics;
  * @see Mesh3D
  * @see Bounds
  */
-public class Geometry extends AbstractComponent implements RenderableComponent {
+public class Geometry extends AbstractComponent implements BoundedComponent {
 
   /** The mesh representing the geometry of the object. */
   private Mesh3D mesh;
@@ -32,6 +32,9 @@ public class Geometry extends AbstractComponent implements RenderableComponent {
   /** The bounding box of the mesh used for culling, spatial partitioning, and debugging. */
   private Bounds bounds;
 
+  /** {@link Mesh3D#getModificationCount()} at the time the bounds were calculated. */
+  private long boundsModificationCount;
+
   /**
    * Constructs a {@code Geometry} with the specified mesh and a default material.
    *
@@ -54,6 +57,7 @@ public class Geometry extends AbstractComponent implements RenderableComponent {
     this.mesh = mesh;
     this.material = material;
     this.bounds = MeshBoundsCalculator.calculateBounds(mesh);
+    this.boundsModificationCount = mesh.getModificationCount();
   }
 
   /**
@@ -72,6 +76,20 @@ public class Geometry extends AbstractComponent implements RenderableComponent {
     }
   }
 
+  /**
+   * Returns the bounding box of the mesh, recalculated if the mesh was modified since.
+   *
+   * @return The bounding box of the mesh in local space.
+   */
+  @Override
+  public Bounds getBounds() {
+    if (boundsModificationCount != mesh.getModificationCount()) {
+      bounds = MeshBoundsCalculator.calculateBounds(mesh);
+      boundsModificationCount = mesh.getModificationCount();
+    }
+    return bounds;
+  }
+
   /**
    * Renders the geometry by applying the material and drawing the mesh using the specified graphics
    * context.
@@ -0,0 +1,115 @@
+package engine.components;
+
+import engine.render.Material;
+import engine.vbo.InstanceData;
+import engine.vbo.InstancedVBO;
+import engine.vbo.VBOFactory;
+import math.Matrix4f;
+import mesh.IndexedMesh3D;
+import mesh.Mesh3D;
+import workspace.ui.Graphics;
+
+/**
+ * Renders many copies of one mesh, each with its own transform and color, in a single draw call.
+ *
+ * <p>The mesh is uploaded once to an {@link InstancedVBO} created by the current VBO creation
+ * strategy. Instances are edited through {@link #getInstances()}; only the instances changed since
+ * the last frame are uploaded again. Instance transforms are relative to the node this component is
+ * attached to.
+ *
+ * <p>This class implements the {@link RenderableComponent} interface, indicating that it has a
+ * render method to be invoked during the render loop of the engine.
+ *
+ * @see InstanceData
+ * @see StaticGeometry
+ */
+public class InstancedGeometry extends AbstractComponent implements RenderableComponent {
+
+  private Mesh3D mesh;
+
+  private Material material;
+
+  private InstanceData instances;
+
+  private InstancedVBO vbo;
+
+  /** {@link Mesh3D#getModificationCount()} at the time the mesh was uploaded. */
+  private long builtModificationCount;
+
+  /**
+   * Constructs an {@code InstancedGeometry} with the specified mesh and a default material.
+   *
+   * @param mesh The {@link Mesh3D} shared by all instances.
+   * @throws IllegalArgumentException If the mesh is {@code null}.
+   */
+  public InstancedGeometry(Mesh3D mesh) {
+    this(mesh, Material.DEFAULT_WHITE);
+  }
+
+  /**
+   * Constructs an {@code InstancedGeometry} with the specified mesh and material.
+   *
+   * @param mesh The {@link Mesh3D} shared by all instances.
+   * @param material The {@link Material} applied to all instances.
+   * @throws IllegalArgumentException If the mesh or material is {@code null}.
+   */
+  public InstancedGeometry(Mesh3D mesh, Material material) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    if (material == null) {
+      throw new IllegalArgumentException("Material cannot be null.");
+    }
+    this.mesh = mesh;
+    this.material = material;
+    this.instances = new InstanceData();
+    this.vbo = VBOFactory.getInstance().createInstanced();
+    build();
+  }
+
+  private void build() {
+    builtModificationCount = mesh.getModificationCount();
+    vbo.create(IndexedMesh3D.fromMesh(mesh), material);
+  }
+
+  /**
+   * Adds an instance with a white color.
+   *
+   * @param transform The transform of the instance.
+   * @return The index of the instance in {@link #getInstances()}.
+   */
+  public int addInstance(Matrix4f transform) {
+    return instances.add(transform);
+  }
+
+  /**
+   * Returns the per-instance transforms and colors. Changes are uploaded on the next render.
+   *
+   * @return The instance data of this geometry.
+   */
+  public InstanceData getInstances() {
+    return instances;
+  }
+
+  public int getInstanceCount() {
+    return instances.getCount();
+  }
+
+  @Override
+  public void render(Graphics g) {
+    if (builtModificationCount != mesh.getModificationCount()) {
+      build();
+    }
+    vbo.update(instances);
+    g.draw(vbo);
+  }
+
+  @Override
+  public void onUpdate(float tpf) {}
+
+  @Override
+  public void onAttach() {}
+
+  @Override
+  public void onDetach() {}
+}
@@ -1,9 +1,14 @@
 package engine.components;
 
+import java.util.Arrays;
+
 import engine.render.Material;
+import engine.vbo.BufferUsage;
 import engine.vbo.VBO;
 import engine.vbo.VBOFactory;
 import math.Bounds;
+import math.Vector3f;
+import mesh.IndexedMesh3D;
 import mesh.Mesh3D;
 import mesh.util.MeshBoundsCalculator;
 import workspace.ui.Graphics;
@@ -14,6 +19,10 @@ import workspace.ui.Graphics;
  * class also provides access to the mesh's bounding box, which is useful for purposes like culling,
  * spatial partitioning, and debugging.
  *
+ * <p>The mesh is uploaded once and kept in sync with it: when only vertex positions change, they
+ * are copied into the existing VBO with a range update; changes to faces, UVs or the vertex list
+ * recreate it. Meshes deformed every frame should use {@link BufferUsage#STREAM}.
+ *
  * <p>This class implements the {@link RenderableComponent} interface, indicating that it has a
  * render method to be invoked during the render loop of the engine.
  *
@@ -22,13 +31,43 @@ import workspace.ui.Graphics;
  * @see Mesh3D
  * @see Bounds
  */
-public class StaticGeometry extends AbstractComponent implements RenderableComponent {
+public class StaticGeometry extends AbstractComponent implements BoundedComponent {
 
   /** The bounding box of the mesh used for culling, spatial partitioning, and debugging. */
   private Bounds bounds;
 
   private VBO vbo;
 
+  /** The mesh the VBO was built from. */
+  private Mesh3D mesh;
+
+  /** The material the VBO was built with. */
+  private Material material;
+
+  private BufferUsage usage;
+
+  /** The uploaded layout of the mesh, its vertex data is reused for position updates. */
+  private IndexedMesh3D indexedMesh;
+
+  /** {@link Mesh3D#getPositionsVersion()} at the time the VBO was updated. */
+  private long builtPositionsVersion;
+
+  /** {@link Mesh3D#getTopologyVersion()} at the time the VBO was built. */
+  private long builtTopologyVersion;
+
+  /** {@link Mesh3D#getUvVersion()} at the time the VBO was built. */
+  private long builtUvVersion;
+
+  private int builtVertexCount;
+
+  /** {@link Mesh3D#getPositionsVersion()} the bounds were computed for, -1 if none. */
+  private long boundsPositionsVersion = -1;
+
+  /** {@link Mesh3D#getTopologyVersion()} the bounds were computed for. */
+  private long boundsTopologyVersion;
+
+  private int boundsVertexCount;
+
   /**
    * Constructs a {@code StaticGeometry} with the specified mesh and a default material.
    *
@@ -47,10 +86,89 @@ public class StaticGeometry extends AbstractComponent implements RenderableCompo
    * @throws IllegalArgumentException If the mesh or material is {@code null}.
    */
   public StaticGeometry(Mesh3D mesh, Material material) {
+    this(mesh, material, BufferUsage.STATIC);
+  }
+
+  /**
+   * Constructs a {@code StaticGeometry} with the specified mesh, material and buffer usage.
+   *
+   * @param mesh The {@link Mesh3D} object representing the geometry of the object.
+   * @param material The {@link Material} to be applied to the mesh.
+   * @param usage How often the vertex positions of the mesh change.
+   * @throws IllegalArgumentException If the mesh, material or usage is {@code null}.
+   */
+  public StaticGeometry(Mesh3D mesh, Material material, BufferUsage usage) {
     validate(mesh, material);
-    this.bounds = MeshBoundsCalculator.calculateBounds(mesh);
+    if (usage == null) {
+      throw new IllegalArgumentException("Usage cannot be null.");
+    }
+    this.mesh = mesh;
+    this.material = material;
+    this.usage = usage;
     this.vbo = VBOFactory.getInstance().create();
-    this.vbo.create(mesh, material);
+    build();
+  }
+
+  /** Uploads the mesh to the VBO. */
+  private void build() {
+    builtPositionsVersion = mesh.getPositionsVersion();
+    builtTopologyVersion = mesh.getTopologyVersion();
+    builtUvVersion = mesh.getUvVersion();
+    builtVertexCount = mesh.getVertexCount();
+    indexedMesh = IndexedMesh3D.fromMesh(mesh);
+    vbo.create(indexedMesh, material, usage);
+  }
+
+  /**
+   * Brings the VBO up to date if the mesh was changed since it was built. This is a few counter
+   * comparisons for unchanged meshes.
+   */
+  private void updateIfModified() {
+    if (builtTopologyVersion != mesh.getTopologyVersion()
+        || builtUvVersion != mesh.getUvVersion()
+        || builtVertexCount != mesh.getVertexCount()) {
+      vbo.delete();
+      build();
+    } else if (builtPositionsVersion != mesh.getPositionsVersion()) {
+      updatePositions();
+    }
+  }
+
+  /**
+   * Copies the vertex positions into the uploaded vertex data and updates the VBO with the span of
+   * vertices that actually moved.
+   */
+  private void updatePositions() {
+    builtPositionsVersion = mesh.getPositionsVersion();
+    float[] data = indexedMesh.getVertexData();
+    int[] positionIndices = indexedMesh.getPositionIndices();
+    int stride = indexedMesh.getStride();
+    int first = -1;
+    int last = -1;
+    for (int i = 0; i < positionIndices.length; i++) {
+      Vector3f v = mesh.getVertexAt(positionIndices[i]);
+      int offset = i * stride;
+      if (data[offset] != v.getX()
+          || data[offset + 1] != v.getY()
+          || data[offset + 2] != v.getZ()) {
+        data[offset] = v.getX();
+        data[offset + 1] = v.getY();
+        data[offset + 2] = v.getZ();
+        if (first < 0) {
+          first = i;
+        }
+        last = i;
+      }
+    }
+    if (first < 0) {
+      return;
+    }
+    if (first == 0 && last == positionIndices.length - 1) {
+      vbo.updateRange(0, data);
+    } else {
+      vbo.updateRange(
+          first * stride, Arrays.copyOfRange(data, first * stride, (last + 1) * stride));
+    }
   }
 
   /**
@@ -69,8 +187,29 @@ public class StaticGeometry extends AbstractComponent implements RenderableCompo
     }
   }
 
+  /**
+   * Returns the bounding box of the mesh, recomputed if the mesh changed since the last call. The
+   * VBO is only brought up to date when the geometry is rendered, so querying the bounds of culled
+   * geometry does no upload.
+   *
+   * @return The bounding box of the mesh in local space.
+   */
+  @Override
+  public Bounds getBounds() {
+    if (boundsPositionsVersion != mesh.getPositionsVersion()
+        || boundsTopologyVersion != mesh.getTopologyVersion()
+        || boundsVertexCount != mesh.getVertexCount()) {
+      boundsPositionsVersion = mesh.getPositionsVersion();
+      boundsTopologyVersion = mesh.getTopologyVersion();
+      boundsVertexCount = mesh.getVertexCount();
+      bounds = MeshBoundsCalculator.calculateBounds(mesh);
+    }
+    return bounds;
+  }
+
   @Override
   public void render(Graphics g) {
+    updateIfModified();
     g.draw(vbo);
   }
 
@@ -1,5 +1,6 @@
 package engine.components;
 
+import math.Matrix4f;
 import math.Vector3f;
 import workspace.ui.Graphics;
 
@@ -64,6 +65,22 @@ public class Transform extends AbstractComponent {
     g.translate(position.x, position.y, position.z); // Translate last
   }
 
+  /**
+   * Returns the matrix {@link #apply(Graphics)} multiplies onto a graphics context, composed in
+   * the same order.
+   *
+   * @return A new matrix transforming from the local space of this transform to its parent space.
+   */
+  public Matrix4f getLocalMatrix() {
+    Matrix4f matrix =
+        new Matrix4f(scale.x, 0, 0, 0, 0, scale.y, 0, 0, 0, 0, scale.z, 0, 0, 0, 0, 1);
+    return matrix
+        .rotateX(rotation.x)
+        .rotateY(rotation.y)
+        .rotateZ(rotation.z)
+        .translate(position.x, position.y, position.z);
+  }
+
   /**
    * Translates this transformation by the given delta vector.
    *
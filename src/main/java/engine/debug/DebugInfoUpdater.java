@@ -8,6 +8,8 @@ import com.sun.management.OperatingSystemMXBean;
 import engine.Timer;
 import engine.input.Input;
 import engine.input.Key;
+import engine.resources.ResourceManager;
+import engine.resources.TextureManager;
 import engine.scene.Scene;
 import engine.scene.camera.Camera;
 import math.Mathf;
@@ -32,6 +34,8 @@ public class DebugInfoUpdater {
 
   private static final String CATEGORY_CAMERA = "Camera";
 
+  private static final String CATEGORY_RESOURCES = "Resources";
+
   private final DebugOverlay debugOverlay;
 
   private final PerformanceMetrics performanceMetrics = new PerformanceMetrics();
@@ -88,6 +92,7 @@ public class DebugInfoUpdater {
       updateCameraInfo(activeScene.getActiveCamera());
     }
     updateOsMetrics();
+    updateResourceMetrics();
   }
 
   private String keysToString(Collection<Key> keys) {
@@ -128,6 +133,19 @@ public class DebugInfoUpdater {
     setInfo(CATEGORY_SCENE, "Wireframe mode", activeScene.isWireframeMode());
     setInfo(CATEGORY_SCENE, "Faces", GraphicsPImpl.faceCount);
     setInfo(CATEGORY_SCENE, "Vertices", GraphicsPImpl.vertexCount);
+    setInfo(CATEGORY_SCENE, "Drawn", activeScene.getCullingStatistics().getDrawnCount());
+    setInfo(CATEGORY_SCENE, "Culled", activeScene.getCullingStatistics().getCulledCount());
+  }
+
+  private void updateResourceMetrics() {
+    setInfo(
+        CATEGORY_RESOURCES,
+        "Images",
+        ResourceManager.getInstance().getCacheStatistics().toString());
+    setInfo(
+        CATEGORY_RESOURCES,
+        "Textures",
+        TextureManager.getInstance().getCacheStatistics().toString());
   }
 
   private void updateTimeMetrics(Timer timer) {
@@ -6,6 +6,7 @@ import engine.components.RoundReticle;
 import engine.components.SmoothFlyByCameraControl;
 import engine.components.StaticGeometry;
 import engine.render.Material;
+import engine.resources.ResourceLoader;
 import engine.resources.Texture2D;
 import engine.scene.Scene;
 import engine.scene.SceneNode;
@@ -71,15 +72,20 @@ public class ProceduralLandmassDemo extends BasicApplication {
     //    endlessTerrain = new EndlessTerrain(scene, chunkSize * chunkScale);
   }
 
+  /**
+   * Generates the terrain data on a worker thread and adds the terrain to the scene on the main
+   * thread, so the frame keeps rendering meanwhile.
+   */
   private void runTerrainCreation() {
-    new Thread(
-            new Runnable() {
-              @Override
-              public void run() {
-                createTerrain();
-              }
-            })
-        .start();
+    ResourceLoader loader = ResourceLoader.getInstance();
+    loader
+        .supplyAsync(this::generateTerrain)
+        .thenAcceptAsync(this::createTerrain, loader.getMainThreadExecutor())
+        .exceptionally(
+            e -> {
+              e.printStackTrace();
+              return null;
+            });
   }
 
   /** Sets up the base scene with a background color and directional lighting. */
@@ -106,18 +112,35 @@ public class ProceduralLandmassDemo extends BasicApplication {
     rootUI.addChild(loadingScreenNode);
   }
 
-  /** Creates the terrain based on the selected draw mode and level of detail. */
-  private void createTerrain() {
+  /** The generated noise map, its pixels and the terrain mesh. */
+  private static class TerrainData {
+    private float[][] noiseMap;
+    private int[] pixels;
+    private Mesh3D mesh;
+  }
+
+  /** Generates the terrain based on the selected draw mode and level of detail. */
+  private TerrainData generateTerrain() {
     MapGenerator generator = new MapGenerator(chunkSize);
-    float[][] noiseMap = generator.getHeightMap();
+    TerrainData data = new TerrainData();
+    data.noiseMap = generator.getHeightMap();
+    data.pixels =
+        drawMode == DrawMode.COLOR_MAP ? generator.createColorMap() : generator.createNoiseMap();
+
+    // Generate the terrain mesh and apply transformations
+    data.mesh = new TerrainMeshLOD(data.noiseMap, levelOfDetail).getMesh();
+    data.mesh.apply(new ScaleModifier(chunkScale));
+    data.mesh.apply(new CenterAtModifier());
+    return data;
+  }
+
+  /** Adds the generated terrain to the scene, creating its textures on the main thread. */
+  private void createTerrain(TerrainData data) {
+    float[][] noiseMap = data.noiseMap;
 
     // Create and display the noise map or color map based on the draw mode
     NoiseMapDisplay display = new NoiseMapDisplay(noiseMap.length, noiseMap[0].length);
-    if (drawMode == DrawMode.COLOR_MAP) {
-      display.setPixels(generator.createColorMap());
-    } else {
-      display.setPixels(generator.createNoiseMap());
-    }
+    display.setPixels(data.pixels);
     SceneNode noiseDisplayNode = new SceneNode();
     noiseDisplayNode.addComponent(display);
     scene.addNode(noiseDisplayNode);
@@ -127,12 +150,8 @@ public class ProceduralLandmassDemo extends BasicApplication {
     Material mapMaterial = new Material();
     mapMaterial.setDiffuseTexture(texture);
 
-    // Generate the terrain mesh, apply transformations, and create a geometry node
-    Mesh3D terrainMesh = new TerrainMeshLOD(noiseMap, levelOfDetail).getMesh();
-    terrainMesh.apply(new ScaleModifier(chunkScale));
-    terrainMesh.apply(new CenterAtModifier());
-
-    StaticGeometry terrainGeometry = new StaticGeometry(terrainMesh, mapMaterial);
+    // Create a geometry node for the terrain mesh
+    StaticGeometry terrainGeometry = new StaticGeometry(data.mesh, mapMaterial);
     SceneNode terrainNode = new SceneNode();
     terrainNode.addComponent(terrainGeometry);
     scene.addNode(terrainNode);
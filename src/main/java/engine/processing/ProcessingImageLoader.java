@@ -2,6 +2,7 @@ package engine.processing;
 
 import engine.resources.ImageLoader;
 import processing.core.PApplet;
+import processing.core.PImage;
 
 public class ProcessingImageLoader implements ImageLoader {
   PApplet parent;
@@ -15,4 +16,10 @@ public class ProcessingImageLoader implements ImageLoader {
     return parent.loadImage(
         ProcessingImageLoader.class.getClassLoader().getResource("images/" + path).getPath());
   }
+
+  @Override
+  public long estimateSize(Object backendImage) {
+    PImage image = (PImage) backendImage;
+    return 4L * image.width * image.height;
+  }
 }
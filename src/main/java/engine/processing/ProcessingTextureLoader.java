@@ -17,14 +17,19 @@ public class ProcessingTextureLoader implements TextureLoader {
 
   @Override
   public Texture loadTexture(String filePath) {
-    PImage image =
-        parent.loadImage(
-            ProcessingTextureLoader.class
-                .getClassLoader()
-                .getResource("images/" + filePath)
-                .getPath());
-    ProcessingTexture texture = new ProcessingTexture(image);
-    return texture;
+    return createDecodedTexture(decodeTexture(filePath));
+  }
+
+  @Override
+  public Object decodeTexture(String filePath) {
+    // PApplet.loadImage only decodes the file, it is safe to call from worker threads.
+    return parent.loadImage(
+        ProcessingTextureLoader.class.getClassLoader().getResource("images/" + filePath).getPath());
+  }
+
+  @Override
+  public Texture createDecodedTexture(Object decoded) {
+    return new ProcessingTexture((PImage) decoded);
   }
 
   @Override
@@ -2,121 +2,267 @@ package engine.processing;
 
 import engine.render.Material;
 import engine.resources.Texture;
-import engine.vbo.VBO;
-import math.Vector2f;
-import math.Vector3f;
-import mesh.Face3D;
-import mesh.Mesh3D;
+import engine.vbo.AbstractVBO;
+import engine.vbo.BufferUsage;
+import mesh.QuantizedMesh3D;
 import processing.core.PApplet;
 import processing.core.PGraphics;
+import processing.core.PImage;
 import processing.core.PShape;
 
-public class VBOProcessing implements VBO {
+/**
+ * Processing backend of the vertex buffer.
+ *
+ * <p>Processing has no indexed drawing, so the triangles are unrolled into a retained {@link
+ * PShape}, one shape vertex per index. Range updates are written into the shape vertices that
+ * reference the changed vertices; the lookup from vertex to shape vertices is built on the first
+ * update, static buffers never pay for it. Buffers with {@link BufferUsage#STREAM} usage keep no
+ * shape at all and are drawn in immediate mode from the vertex data, which avoids retessellating a
+ * shape every frame.
+ */
+public class VBOProcessing extends AbstractVBO {
   private PShape shape;
   private PGraphics graphics;
-  private int faceCount;
-  private int vertexCount;
+
+  /** Shape vertices of every vertex, grouped by vertex. Built on the first update. */
+  private int[] corners;
+
+  /** Start of the shape vertices of every vertex in {@link #corners}, plus the end. */
+  private int[] cornerStarts;
 
   public VBOProcessing(PGraphics graphics) {
     this.graphics = graphics;
   }
 
   @Override
-  public void create(Mesh3D mesh, Material material) {
-    faceCount = mesh.getFaceCount();
-    vertexCount = mesh.getVertexCount();
+  protected void onCreate() {
+    corners = null;
+    cornerStarts = null;
+    shape = null;
+    if (getUsage() == BufferUsage.STREAM) {
+      return;
+    }
+    createTriangles(getVertexData(), getStride(), getUvOffset(), getNormalOffset(), getIndices());
+    Material material = getMaterial();
+    if (material != null) {
+      // TODO Full material support
+      shape.setFill(material.getColor().getRGBA());
+      applyTexture(material);
+    }
+  }
 
+  /**
+   * Creates the shape from a quantized mesh. Attributes are decoded while they are streamed into
+   * the shape, the mesh is never expanded to full precision floats. The buffer cannot be updated.
+   *
+   * @param mesh the mesh to upload
+   * @param material the material of the mesh
+   */
+  public void create(QuantizedMesh3D mesh, Material material) {
+    float[] attribute = new float[3];
     shape = graphics.createShape();
-
-    shape.beginShape();
+    shape.beginShape(PApplet.TRIANGLES);
     shape.noStroke();
-    // TODO Full material support
-    shape.fill(material.getColor().getRGBA());
-
-    for (Face3D f : mesh.getFaces()) {
-      if (f.indices.length == 3) {
-        shape.beginShape(PApplet.TRIANGLES);
-      } else if (f.indices.length == 4) {
-        shape.beginShape(PApplet.QUADS);
-      } else {
-        shape.beginShape(PApplet.POLYGON);
+    for (int i = 0; i < mesh.getIndexCount(); i++) {
+      int vertex = mesh.getIndex(i);
+      if (mesh.hasNormals()) {
+        mesh.getNormal(vertex, attribute, 0);
+        shape.normal(attribute[0], attribute[1], attribute[2]);
       }
-      int[] indices = f.indices;
-      for (int i = 0; i < indices.length; i++) {
-        Vector3f v = mesh.vertices.get(f.indices[i]);
-        int uvIndex = f.getUvIndexAt(i);
-        if (uvIndex != -1) {
-          Vector2f uv = mesh.getUvAt(uvIndex);
-          shape.vertex(v.getX(), v.getY(), v.getZ(), uv.getX(), 1 - uv.getY());
-        } else {
-          shape.vertex(v.getX(), v.getY(), v.getZ());
-        }
+      mesh.getPosition(vertex, attribute, 0);
+      if (mesh.hasUvs()) {
+        float x = attribute[0];
+        float y = attribute[1];
+        float z = attribute[2];
+        mesh.getUv(vertex, attribute, 0);
+        shape.vertex(x, y, z, attribute[0], 1 - attribute[1]);
+      } else {
+        shape.vertex(attribute[0], attribute[1], attribute[2]);
       }
     }
     shape.endShape();
-
-    Texture texture = material.getDiffuseTexture();
-    if (texture != null) {
-      ProcessingTexture processingTexture = (ProcessingTexture) texture.getBackendTexture();
-      shape.setTextureMode(PApplet.NORMAL);
-      shape.setTexture(processingTexture.getImage());
-    }
+    createWithoutData(mesh.getVertexCount(), mesh.getFaceCount(), material);
+    // TODO Full material support
+    shape.setFill(material.getColor().getRGBA());
+    applyTexture(material);
   }
 
-  @Override
-  public void create(float[] vertices, int[] indices) {
-    // TODO Full implementation
-    // Create a PShape object for the mesh
-    shape = new PShape();
-    // Load vertices into the PShape
-    shape.beginShape();
-    for (int i = 0; i < vertices.length; i += 3) {
-      shape.vertex(vertices[i], vertices[i + 1], vertices[i + 2]);
+  private void createTriangles(
+      float[] vertices, int stride, int uvOffset, int normalOffset, int[] indices) {
+    shape = graphics.createShape();
+    shape.beginShape(PApplet.TRIANGLES);
+    shape.noStroke();
+    for (int i = 0; i < indices.length; i++) {
+      int offset = indices[i] * stride;
+      if (normalOffset != -1) {
+        int n = offset + normalOffset;
+        shape.normal(vertices[n], vertices[n + 1], vertices[n + 2]);
+      }
+      if (uvOffset != -1) {
+        int uv = offset + uvOffset;
+        shape.vertex(
+            vertices[offset],
+            vertices[offset + 1],
+            vertices[offset + 2],
+            vertices[uv],
+            1 - vertices[uv + 1]);
+      } else {
+        shape.vertex(vertices[offset], vertices[offset + 1], vertices[offset + 2]);
+      }
     }
     shape.endShape();
-    // Optional: store indices if using indexed rendering
-    vertexCount = vertices.length / 3; // Assuming vertices are in 3D (x, y, z)
   }
 
   @Override
-  public void bind() {
-    // Binding is not necessary for PShape in Processing
-    // Processing automatically handles the shape for rendering
+  protected void onUpdate(int firstVertex, int lastVertex) {
+    if (shape == null) {
+      // Streamed buffers are drawn from the vertex data directly.
+      return;
+    }
+    if (corners == null) {
+      buildCorners();
+    }
+    float[] vertices = getVertexData();
+    int stride = getStride();
+    int uvOffset = getUvOffset();
+    int normalOffset = getNormalOffset();
+    for (int vertex = firstVertex; vertex <= lastVertex; vertex++) {
+      int offset = vertex * stride;
+      for (int i = cornerStarts[vertex]; i < cornerStarts[vertex + 1]; i++) {
+        int corner = corners[i];
+        shape.setVertex(corner, vertices[offset], vertices[offset + 1], vertices[offset + 2]);
+        if (uvOffset != -1) {
+          int uv = offset + uvOffset;
+          shape.setTextureUV(corner, vertices[uv], 1 - vertices[uv + 1]);
+        }
+        if (normalOffset != -1) {
+          int n = offset + normalOffset;
+          shape.setNormal(corner, vertices[n], vertices[n + 1], vertices[n + 2]);
+        }
+      }
+    }
   }
 
-  @Override
-  public void unbind() {
-    // Unbinding is not needed in Processing as it handles rendering context automatically
+  /** Groups the shape vertices by the vertex they were created from, a counting sort. */
+  private void buildCorners() {
+    int[] indices = getIndices();
+    cornerStarts = new int[getVertexCount() + 1];
+    for (int index : indices) {
+      cornerStarts[index + 1]++;
+    }
+    for (int i = 0; i < getVertexCount(); i++) {
+      cornerStarts[i + 1] += cornerStarts[i];
+    }
+    int[] next = cornerStarts.clone();
+    corners = new int[indices.length];
+    for (int i = 0; i < indices.length; i++) {
+      corners[next[indices[i]]++] = i;
+    }
   }
 
   @Override
-  public void updateData(float[] newData) {
-    // Update the vertices in the PShape
-    shape.beginShape();
-    for (int i = 0; i < newData.length; i += 3) {
-      shape.vertex(newData[i], newData[i + 1], newData[i + 2]);
+  protected void onUpdateColors(int firstVertex, int lastVertex) {
+    if (shape == null) {
+      return;
+    }
+    if (corners == null) {
+      buildCorners();
+    }
+    int[] colors = getColors();
+    for (int vertex = firstVertex; vertex <= lastVertex; vertex++) {
+      for (int i = cornerStarts[vertex]; i < cornerStarts[vertex + 1]; i++) {
+        shape.setFill(corners[i], colors[vertex]);
+      }
     }
-    shape.endShape();
   }
 
   @Override
-  public void delete() {
+  protected void onDelete() {
     // In Processing, there's no explicit delete method for PShape
     shape = null;
+    corners = null;
+    cornerStarts = null;
+  }
+
+  private void applyTexture(Material material) {
+    PImage image = getTextureImage(material);
+    if (image != null) {
+      shape.setTextureMode(PApplet.NORMAL);
+      shape.setTexture(image);
+    }
+  }
+
+  private PImage getTextureImage(Material material) {
+    Texture texture = material == null ? null : material.getDiffuseTexture();
+    if (texture == null) {
+      return null;
+    }
+    ProcessingTexture processingTexture = (ProcessingTexture) texture.getBackendTexture();
+    return processingTexture.getImage();
   }
 
   @Override
-  public int getVertexCount() {
-    return vertexCount;
+  public void bind() {
+    // Binding is not necessary for PShape in Processing
+    // Processing automatically handles the shape for rendering
   }
 
   @Override
-  public int getFaceCount() { // TODO Auto-generated method stub
-    return faceCount;
+  public void unbind() {
+    // Unbinding is not needed in Processing as it handles rendering context automatically
   }
 
   public void draw(PGraphics graphics) {
-    // Use Processing's drawing methods to render the shape
-    graphics.shape(shape, 0, 0);
+    if (shape != null) {
+      // Use Processing's drawing methods to render the shape
+      graphics.shape(shape, 0, 0);
+    } else if (getVertexData() != null) {
+      drawImmediate(graphics);
+    }
+  }
+
+  private void drawImmediate(PGraphics graphics) {
+    float[] vertices = getVertexData();
+    int[] indices = getIndices();
+    int stride = getStride();
+    int uvOffset = getUvOffset();
+    int normalOffset = getNormalOffset();
+    int[] colors = getColors();
+    Material material = getMaterial();
+    PImage image = getTextureImage(material);
+
+    graphics.pushStyle();
+    graphics.noStroke();
+    if (material != null) {
+      graphics.fill(material.getColor().getRGBA());
+    }
+    graphics.beginShape(PApplet.TRIANGLES);
+    if (image != null) {
+      graphics.textureMode(PApplet.NORMAL);
+      graphics.texture(image);
+    }
+    for (int i = 0; i < indices.length; i++) {
+      int offset = indices[i] * stride;
+      if (colors != null) {
+        graphics.fill(colors[indices[i]]);
+      }
+      if (normalOffset != -1) {
+        int n = offset + normalOffset;
+        graphics.normal(vertices[n], vertices[n + 1], vertices[n + 2]);
+      }
+      if (uvOffset != -1) {
+        int uv = offset + uvOffset;
+        graphics.vertex(
+            vertices[offset],
+            vertices[offset + 1],
+            vertices[offset + 2],
+            vertices[uv],
+            1 - vertices[uv + 1]);
+      } else {
+        graphics.vertex(vertices[offset], vertices[offset + 1], vertices[offset + 2]);
+      }
+    }
+    graphics.endShape();
+    graphics.popStyle();
   }
 }
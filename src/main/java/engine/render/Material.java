@@ -1,6 +1,7 @@
 package engine.render;
 
 import engine.resources.Texture;
+import engine.resources.TextureManager;
 import math.Color;
 import workspace.ui.Graphics;
 
@@ -286,11 +287,14 @@ public class Material {
   }
 
   /**
-   * Sets the diffuse texture map (map_Kd) of the material.
+   * Sets the diffuse texture map (map_Kd) of the material. The texture is pinned in the texture
+   * cache while the material holds it; set null to release a material that is no longer used.
    *
    * @param diffuseTexture The new diffuse texture map to set.
    */
   public void setDiffuseTexture(Texture diffuseTexture) {
+    TextureManager.getInstance().pinTexture(diffuseTexture);
+    TextureManager.getInstance().unpinTexture(this.diffuseTexture);
     this.diffuseTexture = diffuseTexture;
   }
 
@@ -304,11 +308,14 @@ public class Material {
   }
 
   /**
-   * Sets the opacity texture map (map_d) of the material.
+   * Sets the opacity texture map (map_d) of the material. The texture is pinned like the {@link
+   * #setDiffuseTexture(Texture) diffuse texture}.
    *
    * @param opacityMap The new opacity texture map to set.
    */
   public void setOpacityMap(Texture opacityMap) {
+    TextureManager.getInstance().pinTexture(opacityMap);
+    TextureManager.getInstance().unpinTexture(this.opacityMap);
     this.opacityMap = opacityMap;
   }
 }
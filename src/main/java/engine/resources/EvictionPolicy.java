@@ -0,0 +1,24 @@
+package engine.resources;
+
+/** Selects which cached resource is evicted first when a cache exceeds its memory budget. */
+public enum EvictionPolicy {
+
+  /** Evicts the least recently used resource. */
+  LRU {
+    @Override
+    boolean isBefore(ResourceCache.Entry<?> a, ResourceCache.Entry<?> b) {
+      return a.lastUse < b.lastUse;
+    }
+  },
+
+  /** Evicts the least frequently used resource, the least recently used of equally used ones. */
+  LFU {
+    @Override
+    boolean isBefore(ResourceCache.Entry<?> a, ResourceCache.Entry<?> b) {
+      return a.useCount < b.useCount || (a.useCount == b.useCount && a.lastUse < b.lastUse);
+    }
+  };
+
+  /** Returns whether {@code a} is evicted before {@code b}. */
+  abstract boolean isBefore(ResourceCache.Entry<?> a, ResourceCache.Entry<?> b);
+}
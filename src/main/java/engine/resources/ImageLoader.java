@@ -3,4 +3,24 @@ package engine.resources;
 public interface ImageLoader {
 
   Object loadImage(String path); // Returns the backend-specific image object
+
+  /**
+   * Estimates the memory held by a backend image, used for the memory budget of the {@link
+   * ResourceManager} cache. The default estimate is zero, so images of loaders that do not
+   * implement it are never evicted for size.
+   *
+   * @param backendImage an image returned by {@link #loadImage(String)}
+   * @return the estimated size in bytes
+   */
+  default long estimateSize(Object backendImage) {
+    return 0;
+  }
+
+  /**
+   * Releases the backend data of an image that was evicted from or unloaded by the {@link
+   * ResourceManager}. The default does nothing.
+   *
+   * @param backendImage an image returned by {@link #loadImage(String)}
+   */
+  default void releaseImage(Object backendImage) {}
 }
@@ -10,6 +10,8 @@ public class ImageResource implements Resource {
   public void load(String path) {
     this.image = ResourceManager.getInstance().loadImage(path);
     this.path = path;
+    // Keep the image cached while this resource holds it.
+    ResourceManager.getInstance().pinImage(path);
   }
 
   @Override
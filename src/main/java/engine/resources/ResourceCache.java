@@ -0,0 +1,313 @@
+package engine.resources;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe cache of resources by path that also deduplicates loads in flight.
+ *
+ * <p>Each path maps to one future. Concurrent requests for a path that is still loading receive
+ * the same future, so the resource is loaded only once. Failed loads are removed, a later request
+ * tries again.
+ *
+ * <p>The estimated size of all loaded resources is kept within a memory budget. When a load
+ * exceeds it, unpinned resources are evicted according to the {@link EvictionPolicy} and passed to
+ * the release hook, which frees their backend data. Pinned resources and loads in flight are never
+ * evicted, so everything that keeps a resource beyond the current frame has to pin it. A resource
+ * counts as used when it is requested and when its last pin is released, so LRU and LFU order the
+ * resources nobody holds by when they were last held or requested.
+ *
+ * @param <T> the resource type
+ */
+class ResourceCache<T> {
+
+  private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+  /** Entries of loaded resources by identity, guarded by the cache lock. */
+  private final Map<T, Entry<T>> entriesByResource = new IdentityHashMap<>();
+
+  private final ToLongFunction<T> sizeEstimator;
+
+  private final Consumer<T> releaseHook;
+
+  private long memoryBudget;
+
+  private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+  /** Estimated size of all loaded entries. */
+  private long size;
+
+  /** Logical clock for recency. */
+  private long clock;
+
+  private long hitCount;
+
+  private long missCount;
+
+  private long evictionCount;
+
+  /**
+   * Creates a cache.
+   *
+   * @param memoryBudget the initial memory budget in bytes
+   * @param sizeEstimator estimates the size of a loaded resource in bytes
+   * @param releaseHook releases the backend data of evicted or removed resources
+   */
+  ResourceCache(long memoryBudget, ToLongFunction<T> sizeEstimator, Consumer<T> releaseHook) {
+    this.memoryBudget = memoryBudget;
+    this.sizeEstimator = sizeEstimator;
+    this.releaseHook = releaseHook;
+  }
+
+  /**
+   * Returns the future for the given path, starting the load if there is none yet.
+   *
+   * @param path the resource path
+   * @param loader starts the load of a path, called at most once per path until it is removed
+   * @return the future of the resource
+   */
+  CompletableFuture<T> get(String path, Function<String, CompletableFuture<T>> loader) {
+    Entry<T> existing = entries.get(path);
+    if (existing != null) {
+      touch(existing, true);
+      return existing.future;
+    }
+    Entry<T> created = new Entry<>();
+    existing = entries.putIfAbsent(path, created);
+    if (existing != null) {
+      touch(existing, true);
+      return existing.future;
+    }
+    touch(created, false);
+    CompletableFuture<T> load;
+    try {
+      load = loader.apply(path);
+    } catch (RuntimeException e) {
+      load = CompletableFuture.failedFuture(e);
+    }
+    load.whenComplete(
+        (resource, error) -> {
+          if (error != null) {
+            entries.remove(path, created);
+            created.future.completeExceptionally(error);
+          } else {
+            loaded(path, created, resource);
+            created.future.complete(resource);
+          }
+        });
+    return created.future;
+  }
+
+  private synchronized void touch(Entry<T> entry, boolean hit) {
+    if (hit) {
+      hitCount++;
+    } else {
+      missCount++;
+    }
+    entry.lastUse = ++clock;
+    entry.useCount++;
+  }
+
+  private void loaded(String path, Entry<T> entry, T resource) {
+    List<T> evicted;
+    synchronized (this) {
+      if (entries.get(path) != entry) {
+        // Removed while loading, the caller still receives the resource.
+        return;
+      }
+      entry.resource = resource;
+      entriesByResource.put(resource, entry);
+      entry.size = Math.max(0, sizeEstimator.applyAsLong(resource));
+      size += entry.size;
+      evicted = evict(entry);
+    }
+    release(evicted);
+  }
+
+  /**
+   * Evicts entries until the cache fits its budget or only pinned, loading or the given entry
+   * remain. Must hold the lock; the returned resources are released after it is dropped.
+   */
+  private List<T> evict(Entry<T> keep) {
+    List<T> evicted = new ArrayList<>();
+    while (size > memoryBudget) {
+      String victimPath = null;
+      Entry<T> victim = null;
+      for (Map.Entry<String, Entry<T>> candidate : entries.entrySet()) {
+        Entry<T> entry = candidate.getValue();
+        if (entry == keep || entry.resource == null || entry.pinCount > 0) {
+          continue;
+        }
+        if (victim == null || evictionPolicy.isBefore(entry, victim)) {
+          victimPath = candidate.getKey();
+          victim = entry;
+        }
+      }
+      if (victim == null) {
+        break;
+      }
+      entries.remove(victimPath);
+      entriesByResource.remove(victim.resource);
+      size -= victim.size;
+      evictionCount++;
+      evicted.add(victim.resource);
+    }
+    return evicted;
+  }
+
+  private void release(List<T> resources) {
+    for (T resource : resources) {
+      releaseHook.accept(resource);
+    }
+  }
+
+  /**
+   * Removes the resource of the given path and releases it, even if it is pinned. A load in flight
+   * completes for its callers but is not cached.
+   *
+   * @param path the resource path
+   */
+  void remove(String path) {
+    T resource;
+    synchronized (this) {
+      Entry<T> entry = entries.remove(path);
+      if (entry == null || entry.resource == null) {
+        return;
+      }
+      entriesByResource.remove(entry.resource);
+      size -= entry.size;
+      resource = entry.resource;
+    }
+    releaseHook.accept(resource);
+  }
+
+  /**
+   * Pins the resource of the given path so it is not evicted. Pins are counted, every pin needs an
+   * {@link #unpin(String)}.
+   *
+   * @param path the resource path
+   * @return false if the cache holds no resource for the path
+   */
+  synchronized boolean pin(String path) {
+    return pin(entries.get(path));
+  }
+
+  /**
+   * Pins the given loaded resource, see {@link #pin(String)}. Resources that are not cached, such
+   * as textures created directly, are ignored.
+   *
+   * @param resource the resource
+   * @return false if the resource is not cached
+   */
+  synchronized boolean pinResource(T resource) {
+    return pin(entriesByResource.get(resource));
+  }
+
+  private boolean pin(Entry<T> entry) {
+    if (entry == null) {
+      return false;
+    }
+    entry.pinCount++;
+    return true;
+  }
+
+  /**
+   * Releases one pin of the given path. Evicts resources if the cache exceeds its budget.
+   *
+   * @param path the resource path
+   */
+  void unpin(String path) {
+    List<T> evicted;
+    synchronized (this) {
+      evicted = unpin(entries.get(path));
+    }
+    release(evicted);
+  }
+
+  /**
+   * Releases one pin of the given loaded resource, see {@link #unpin(String)}.
+   *
+   * @param resource the resource
+   */
+  void unpinResource(T resource) {
+    List<T> evicted;
+    synchronized (this) {
+      evicted = unpin(entriesByResource.get(resource));
+    }
+    release(evicted);
+  }
+
+  private List<T> unpin(Entry<T> entry) {
+    if (entry == null || entry.pinCount == 0) {
+      return new ArrayList<>();
+    }
+    entry.pinCount--;
+    if (entry.pinCount == 0) {
+      // Held until now, which is a use for the eviction order.
+      entry.lastUse = ++clock;
+    }
+    return evict(null);
+  }
+
+  boolean contains(String path) {
+    return entries.containsKey(path);
+  }
+
+  void setMemoryBudget(long memoryBudget) {
+    if (memoryBudget < 0) {
+      throw new IllegalArgumentException("Memory budget cannot be negative.");
+    }
+    List<T> evicted;
+    synchronized (this) {
+      this.memoryBudget = memoryBudget;
+      evicted = evict(null);
+    }
+    release(evicted);
+  }
+
+  synchronized long getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+    if (evictionPolicy == null) {
+      throw new IllegalArgumentException("Eviction policy cannot be null.");
+    }
+    synchronized (this) {
+      this.evictionPolicy = evictionPolicy;
+    }
+  }
+
+  synchronized EvictionPolicy getEvictionPolicy() {
+    return evictionPolicy;
+  }
+
+  synchronized ResourceCacheStatistics getStatistics() {
+    return new ResourceCacheStatistics(
+        entries.size(), size, memoryBudget, hitCount, missCount, evictionCount);
+  }
+
+  /** Cache state of one path. Fields other than the future are guarded by the cache lock. */
+  static class Entry<T> {
+
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    /** The loaded resource, null while loading. */
+    private T resource;
+
+    private long size;
+
+    long lastUse;
+
+    long useCount;
+
+    private int pinCount;
+  }
+}
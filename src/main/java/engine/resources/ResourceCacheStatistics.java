@@ -0,0 +1,91 @@
+package engine.resources;
+
+/** An immutable snapshot of the counters of a resource cache. */
+public class ResourceCacheStatistics {
+
+  private final int entryCount;
+
+  private final long size;
+
+  private final long memoryBudget;
+
+  private final long hitCount;
+
+  private final long missCount;
+
+  private final long evictionCount;
+
+  public ResourceCacheStatistics(
+      int entryCount,
+      long size,
+      long memoryBudget,
+      long hitCount,
+      long missCount,
+      long evictionCount) {
+    this.entryCount = entryCount;
+    this.size = size;
+    this.memoryBudget = memoryBudget;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+  }
+
+  /**
+   * Returns the number of cached resources, including loads in flight.
+   *
+   * @return the entry count
+   */
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  /**
+   * Returns the estimated size of all loaded resources.
+   *
+   * @return the size in bytes
+   */
+  public long getSize() {
+    return size;
+  }
+
+  public long getMemoryBudget() {
+    return memoryBudget;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the fraction of requests served from the cache.
+   *
+   * @return the hit ratio between 0 and 1, 0 if there were no requests
+   */
+  public float getHitRatio() {
+    long requests = hitCount + missCount;
+    return requests == 0 ? 0 : hitCount / (float) requests;
+  }
+
+  @Override
+  public String toString() {
+    return entryCount
+        + " entries, "
+        + size / (1024 * 1024)
+        + "/"
+        + memoryBudget / (1024 * 1024)
+        + " MB, hits="
+        + hitCount
+        + ", misses="
+        + missCount
+        + ", evictions="
+        + evictionCount;
+  }
+}
@@ -0,0 +1,142 @@
+package engine.resources;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs resource loading work off the main thread and hands results back to it.
+ *
+ * <p>Decoding and other blocking work runs on a fixed-size pool of daemon worker threads. Work
+ * that must happen on the main (render) thread, such as creating backend textures, is queued with
+ * {@link #getMainThreadExecutor()} and executed by {@link #processMainThreadTasks()}, which the
+ * application calls once per frame. The thread creating the loader is the main thread until a
+ * thread calls {@link #processMainThreadTasks()}, so synchronous loads during setup, before the
+ * first frame, already keep main thread tasks running.
+ */
+public class ResourceLoader {
+
+  /** Pause between polls while the main thread waits for a result. */
+  private static final long WAIT_NANOS = 100_000;
+
+  private static ResourceLoader instance;
+
+  private final ExecutorService workers;
+
+  private final Queue<Runnable> mainThreadTasks = new ConcurrentLinkedQueue<>();
+
+  private final Executor mainThreadExecutor = mainThreadTasks::add;
+
+  private volatile Thread mainThread;
+
+  /**
+   * Creates a loader with the given number of worker threads.
+   *
+   * @param workerCount the number of worker threads, at least one
+   */
+  public ResourceLoader(int workerCount) {
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("Worker count must be at least one.");
+    }
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadFactory factory =
+        runnable -> {
+          Thread thread = new Thread(runnable, "resource-loader-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        };
+    workers = Executors.newFixedThreadPool(workerCount, factory);
+    mainThread = Thread.currentThread();
+  }
+
+  /**
+   * Returns the shared loader. Its pool leaves one processor to the main thread and uses at most
+   * four workers, loading is mostly bound by disk access and decoding.
+   *
+   * @return the shared loader
+   */
+  public static synchronized ResourceLoader getInstance() {
+    if (instance == null) {
+      int processors = Runtime.getRuntime().availableProcessors();
+      instance = new ResourceLoader(Math.max(1, Math.min(4, processors - 1)));
+    }
+    return instance;
+  }
+
+  /**
+   * Runs the given work on a worker thread.
+   *
+   * @param <T> the result type
+   * @param work the work to run
+   * @return a future completed with the result of the work
+   */
+  public <T> CompletableFuture<T> supplyAsync(Supplier<T> work) {
+    return CompletableFuture.supplyAsync(work, workers);
+  }
+
+  /**
+   * Returns an executor running tasks on the main thread during {@link
+   * #processMainThreadTasks()}.
+   *
+   * @return the main thread executor
+   */
+  public Executor getMainThreadExecutor() {
+    return mainThreadExecutor;
+  }
+
+  /**
+   * Runs all tasks queued for the main thread and makes the calling thread the main thread. Called
+   * once per frame by the application.
+   */
+  public void processMainThreadTasks() {
+    mainThread = Thread.currentThread();
+    Runnable task;
+    while ((task = mainThreadTasks.poll()) != null) {
+      task.run();
+    }
+  }
+
+  public int getPendingMainThreadTaskCount() {
+    return mainThreadTasks.size();
+  }
+
+  /**
+   * Waits for the given future. On the main thread, queued main thread tasks keep running while
+   * waiting, so waiting for a result that needs a main thread handoff cannot deadlock.
+   *
+   * @param <T> the result type
+   * @param future the future to wait for
+   * @return the result
+   * @throws RuntimeException the exception the future completed with, unwrapped from {@link
+   *     CompletionException}
+   */
+  public <T> T await(CompletableFuture<T> future) {
+    if (Thread.currentThread() == mainThread) {
+      while (!future.isDone()) {
+        processMainThreadTasks();
+        if (!future.isDone()) {
+          LockSupport.parkNanos(WAIT_NANOS);
+        }
+      }
+    }
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
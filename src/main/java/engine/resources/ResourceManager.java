@@ -1,19 +1,22 @@
 package engine.resources;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ResourceManager {
 
+  /** Default memory budget of the image cache. */
+  public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
   private static ResourceManager instance;
 
-  private ImageLoader imageLoader;
+  private volatile ImageLoader imageLoader;
 
-  private final Map<String, Image> resourceCache = new HashMap<>();
+  private final ResourceCache<Image> resourceCache =
+      new ResourceCache<>(DEFAULT_MEMORY_BUDGET, this::estimateSize, this::release);
 
   private ResourceManager() {}
 
-  public static ResourceManager getInstance() {
+  public static synchronized ResourceManager getInstance() {
     if (instance == null) {
       instance = new ResourceManager();
     }
@@ -24,24 +27,97 @@ public class ResourceManager {
     this.imageLoader = loader;
   }
 
+  /**
+   * Loads an image on the calling thread, or waits for a load of the same path already in flight.
+   * Loaded images are cached.
+   *
+   * @param path the image path
+   * @return the image
+   */
   public Image loadImage(String path) {
-    if (resourceCache.containsKey(path)) {
-      return resourceCache.get(path); // Return cached resource
-    }
+    return ResourceLoader.getInstance()
+        .await(resourceCache.get(path, p -> CompletableFuture.completedFuture(decode(p))));
+  }
 
-    if (imageLoader == null) {
+  /**
+   * Loads an image on a worker thread. Requests for a path that is loading or loaded share the same
+   * future.
+   *
+   * @param path the image path
+   * @return a future completed with the image
+   */
+  public CompletableFuture<Image> loadImageAsync(String path) {
+    return resourceCache.get(
+        path, p -> ResourceLoader.getInstance().supplyAsync(() -> decode(p)));
+  }
+
+  private Image decode(String path) {
+    ImageLoader loader = imageLoader;
+    if (loader == null) {
       throw new IllegalStateException("ImageLoader is not set!");
     }
+    return new Image(loader.loadImage(path));
+  }
 
-    Object obj = imageLoader.loadImage(path);
-    Image image = new Image(obj);
-
-    resourceCache.put(path, image);
+  private long estimateSize(Image image) {
+    ImageLoader loader = imageLoader;
+    return loader == null ? 0 : loader.estimateSize(image.getBackendImage());
+  }
 
-    return image;
+  private void release(Image image) {
+    ImageLoader loader = imageLoader;
+    if (loader != null) {
+      loader.releaseImage(image.getBackendImage());
+    }
   }
 
+  /**
+   * Removes an image from the cache and releases its backend data, even if it is pinned.
+   *
+   * @param path the image path
+   */
   public void unloadImage(String path) {
-    resourceCache.remove(path); // Optionally handle cleanup for backend-specific resources
+    resourceCache.remove(path);
+  }
+
+  /**
+   * Keeps a cached image from being evicted while it is in use. Every pin needs an {@link
+   * #unpinImage(String)}.
+   *
+   * @param path the image path
+   * @return false if the image is not cached
+   */
+  public boolean pinImage(String path) {
+    return resourceCache.pin(path);
+  }
+
+  public void unpinImage(String path) {
+    resourceCache.unpin(path);
+  }
+
+  /**
+   * Sets the memory budget of the image cache. Unpinned images are evicted when their estimated
+   * size exceeds it.
+   *
+   * @param memoryBudget the budget in bytes
+   */
+  public void setMemoryBudget(long memoryBudget) {
+    resourceCache.setMemoryBudget(memoryBudget);
+  }
+
+  public long getMemoryBudget() {
+    return resourceCache.getMemoryBudget();
+  }
+
+  public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+    resourceCache.setEvictionPolicy(evictionPolicy);
+  }
+
+  public EvictionPolicy getEvictionPolicy() {
+    return resourceCache.getEvictionPolicy();
+  }
+
+  public ResourceCacheStatistics getCacheStatistics() {
+    return resourceCache.getStatistics();
   }
 }
@@ -20,6 +20,33 @@ public interface TextureLoader {
    */
   Texture loadTexture(String filePath);
 
+  /**
+   * Decodes the texture image at the specified file path without creating a backend texture.
+   *
+   * <p>This method is called on a worker thread by {@link TextureManager#loadTextureAsync(String)},
+   * the result is passed to {@link #createDecodedTexture(Object)} on the main thread. The default
+   * implementation returns {@code null}, in which case the whole texture is loaded with {@link
+   * #loadTexture(String)} on the main thread.
+   *
+   * @param filePath the path to the texture file (e.g., PNG, JPG) on the local file system.
+   * @return the decoded image in a backend-specific form, or {@code null} if decoding is not
+   *     supported off the main thread.
+   */
+  default Object decodeTexture(String filePath) {
+    return null;
+  }
+
+  /**
+   * Creates a texture from an image decoded by {@link #decodeTexture(String)}. Called on the main
+   * thread.
+   *
+   * @param decoded the decoded image.
+   * @return a {@link Texture} instance representing the created texture.
+   */
+  default Texture createDecodedTexture(Object decoded) {
+    throw new UnsupportedOperationException("Decoded textures are not supported.");
+  }
+
   /**
    * Creates a texture from an {@link Image} instance.
    *
@@ -1,20 +1,23 @@
 package engine.resources;
 
 import java.awt.Image;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class TextureManager {
 
+  /** Default memory budget of the texture cache. */
+  public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
   private static TextureManager instance;
 
-  private TextureLoader textureLoader;
+  private volatile TextureLoader textureLoader;
 
-  private final Map<String, Texture> resourceCache = new HashMap<>();
+  private final ResourceCache<Texture> resourceCache =
+      new ResourceCache<>(DEFAULT_MEMORY_BUDGET, TextureManager::estimateSize, Texture::delete);
 
   private TextureManager() {}
 
-  public static TextureManager getInstance() {
+  public static synchronized TextureManager getInstance() {
     if (instance == null) {
       instance = new TextureManager();
     }
@@ -25,30 +28,130 @@ public class TextureManager {
     this.textureLoader = loader;
   }
 
+  /**
+   * Loads a texture on the calling thread, or waits for a load of the same path already in flight.
+   * Loaded textures are cached.
+   *
+   * @param path the texture path
+   * @return the texture
+   */
   public Texture loadTexture(String path) {
-    if (resourceCache.containsKey(path)) {
-      return resourceCache.get(path); // Return cached resource
-    }
+    return ResourceLoader.getInstance()
+        .await(
+            resourceCache.get(
+                path, p -> CompletableFuture.completedFuture(getTextureLoader().loadTexture(p))));
+  }
+
+  /**
+   * Loads a texture asynchronously. The image is decoded on a worker thread, the backend texture is
+   * created on the main thread. Requests for a path that is loading or loaded share the same
+   * future.
+   *
+   * @param path the texture path
+   * @return a future completed on the main thread with the texture
+   */
+  public CompletableFuture<Texture> loadTextureAsync(String path) {
+    return resourceCache.get(path, this::startLoad);
+  }
+
+  private CompletableFuture<Texture> startLoad(String path) {
+    TextureLoader loader = getTextureLoader();
+    ResourceLoader resourceLoader = ResourceLoader.getInstance();
+    return resourceLoader
+        .supplyAsync(() -> loader.decodeTexture(path))
+        .thenApplyAsync(
+            decoded ->
+                decoded == null ? loader.loadTexture(path) : loader.createDecodedTexture(decoded),
+            resourceLoader.getMainThreadExecutor());
+  }
 
-    if (textureLoader == null) {
+  private TextureLoader getTextureLoader() {
+    TextureLoader loader = textureLoader;
+    if (loader == null) {
       throw new IllegalStateException("TextureLoader is not set.");
     }
+    return loader;
+  }
 
-    Texture texture = textureLoader.loadTexture(path);
-    resourceCache.put(path, texture);
-
-    return texture;
+  /** Estimates a texture as four bytes per pixel. */
+  private static long estimateSize(Texture texture) {
+    return 4L * texture.getWidth() * texture.getHeight();
   }
 
+  /**
+   * Removes a texture from the cache and deletes it, even if it is pinned.
+   *
+   * @param path the texture path
+   */
   public void unloadImage(String path) {
-    resourceCache.remove(path); // Optionally handle cleanup for backend-specific resources
+    resourceCache.remove(path);
+  }
+
+  /**
+   * Keeps a cached texture from being evicted while it is in use. Every pin needs an {@link
+   * #unpinTexture(String)}.
+   *
+   * @param path the texture path
+   * @return false if the texture is not cached
+   */
+  public boolean pinTexture(String path) {
+    return resourceCache.pin(path);
+  }
+
+  public void unpinTexture(String path) {
+    resourceCache.unpin(path);
+  }
+
+  /**
+   * Keeps the given texture from being evicted while it is in use, for holders that have the
+   * texture rather than its path, such as {@link engine.render.Material}. Every pin needs an {@link
+   * #unpinTexture(Texture)}. Textures not loaded through the cache and null are ignored.
+   *
+   * @param texture the texture, may be null
+   * @return false if the texture is not cached
+   */
+  public boolean pinTexture(Texture texture) {
+    return texture != null && resourceCache.pinResource(texture);
+  }
+
+  public void unpinTexture(Texture texture) {
+    if (texture != null) {
+      resourceCache.unpinResource(texture);
+    }
+  }
+
+  /**
+   * Sets the memory budget of the texture cache. Unpinned textures are evicted and deleted when
+   * their estimated size exceeds it. Materials pin their textures, other holders have to pin the
+   * textures they keep.
+   *
+   * @param memoryBudget the budget in bytes
+   */
+  public void setMemoryBudget(long memoryBudget) {
+    resourceCache.setMemoryBudget(memoryBudget);
+  }
+
+  public long getMemoryBudget() {
+    return resourceCache.getMemoryBudget();
+  }
+
+  public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+    resourceCache.setEvictionPolicy(evictionPolicy);
+  }
+
+  public EvictionPolicy getEvictionPolicy() {
+    return resourceCache.getEvictionPolicy();
+  }
+
+  public ResourceCacheStatistics getCacheStatistics() {
+    return resourceCache.getStatistics();
   }
 
   public Texture createTexture(Image image) {
-    return textureLoader.createTexture(image);
+    return getTextureLoader().createTexture(image);
   }
 
   public Texture createTexture(int width, int height) {
-    return textureLoader.createTexture(width, height);
+    return getTextureLoader().createTexture(width, height);
   }
 }
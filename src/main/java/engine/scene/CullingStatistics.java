@@ -0,0 +1,49 @@
+package engine.scene;
+
+/**
+ * Counts the renderable components drawn and skipped by frustum culling during one {@link
+ * Scene#render} call.
+ */
+public class CullingStatistics {
+
+  private int drawnCount;
+
+  private int culledCount;
+
+  void reset() {
+    drawnCount = 0;
+    culledCount = 0;
+  }
+
+  void addDrawn(int count) {
+    drawnCount += count;
+  }
+
+  void addCulled(int count) {
+    culledCount += count;
+  }
+
+  /**
+   * Returns the number of renderable components drawn in the last frame.
+   *
+   * @return The drawn component count.
+   */
+  public int getDrawnCount() {
+    return drawnCount;
+  }
+
+  /**
+   * Returns the number of renderable components skipped in the last frame because their node was
+   * outside the view of the active camera.
+   *
+   * @return The culled component count.
+   */
+  public int getCulledCount() {
+    return culledCount;
+  }
+
+  @Override
+  public String toString() {
+    return "CullingStatistics [drawn=" + drawnCount + ", culled=" + culledCount + "]";
+  }
+}
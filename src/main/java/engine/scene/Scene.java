@@ -11,6 +11,8 @@ import engine.scene.audio.AudioSystem;
 import engine.scene.camera.Camera;
 import engine.scene.light.Light;
 import math.Color;
+import math.Frustum;
+import math.Matrix4f;
 import math.Vector3f;
 import workspace.GraphicsPImpl;
 import workspace.ui.Graphics;
@@ -49,6 +51,24 @@ public class Scene {
 
   private AudioSystem audioSystem;
 
+  /** Flag indicating whether nodes outside the view of the active camera are skipped. */
+  private boolean frustumCulling = true;
+
+  /** The frustum of the active camera, reused between frames. */
+  private final Frustum frustum = new Frustum();
+
+  /** Drawn and culled counts of the last rendered frame. */
+  private final CullingStatistics cullingStatistics = new CullingStatistics();
+
+  /** Bounding volume hierarchy over the world bounds of the nodes with bounded components. */
+  private final SpatialIndex spatialIndex = new SpatialIndex();
+
+  /**
+   * Whether the world bounds and the spatial index reflect the current frame. Cleared by {@link
+   * #update(float)} and changes to the root nodes, guarded by {@link #rootNodes}.
+   */
+  private boolean worldBoundsValid;
+
   /** Constructs a {@code Scene} with a default name. */
   public Scene() {
     this(DEFAULT_NAME);
@@ -80,6 +100,7 @@ public class Scene {
     }
     synchronized (rootNodes) {
       rootNodes.add(node);
+      worldBoundsValid = false;
     }
   }
 
@@ -108,6 +129,7 @@ public class Scene {
     if (node == null) return;
     synchronized (rootNodes) {
       rootNodes.remove(node);
+      worldBoundsValid = false;
     }
   }
 
@@ -121,6 +143,9 @@ public class Scene {
       //      updateExecutor.submit(() -> node.update(deltaTime));
       node.update(deltaTime);
     }
+    synchronized (rootNodes) {
+      worldBoundsValid = false;
+    }
     updateAudio();
   }
 
@@ -140,6 +165,10 @@ public class Scene {
   /**
    * Render lights and nodes concurrently. However, rendering must still run on the main thread for
    * compatibility with most rendering APIs.
+   *
+   * <p>With frustum culling enabled and an active camera, the world bounds of every node are
+   * computed first, unless a spatial query already did so since the last update, and subtrees
+   * whose bounds are outside the camera frustum are skipped.
    */
   public void render(Graphics g) {
     if (activeCamera != null) {
@@ -154,12 +183,37 @@ public class Scene {
     synchronized (rootNodes) {
       GraphicsPImpl.faceCount = 0;
       GraphicsPImpl.vertexCount = 0;
-      for (SceneNode node : rootNodes) {
-        node.render(g);
+      cullingStatistics.reset();
+      if (frustumCulling && activeCamera != null) {
+        frustum.set(activeCamera.getViewProjectionMatrix());
+        ensureWorldBounds();
+        for (SceneNode node : rootNodes) {
+          node.render(g, frustum, cullingStatistics);
+        }
+      } else {
+        for (SceneNode node : rootNodes) {
+          node.render(g);
+        }
       }
     }
   }
 
+  /**
+   * Computes the world bounds of all nodes and refreshes the spatial index with them, at most once
+   * per frame. Must hold the lock of {@link #rootNodes}.
+   */
+  private void ensureWorldBounds() {
+    if (worldBoundsValid) {
+      return;
+    }
+    spatialIndex.beginUpdate();
+    for (SceneNode node : rootNodes) {
+      node.updateWorldBounds(Matrix4f.IDENTITY, spatialIndex);
+    }
+    spatialIndex.endUpdate();
+    worldBoundsValid = true;
+  }
+
   /**
    * Renders all lights in the scene safely by synchronizing access to the lights list. This ensures
    * thread-safe iteration and rendering, especially when lights are added or removed concurrently.
@@ -183,6 +237,8 @@ public class Scene {
         node.cleanup();
       }
       rootNodes.clear();
+      spatialIndex.clear();
+      worldBoundsValid = false;
     }
   }
 
@@ -211,6 +267,8 @@ public class Scene {
         node.cleanup();
       }
       rootNodes.clear();
+      spatialIndex.clear();
+      worldBoundsValid = false;
     }
     updateExecutor.shutdown();
   }
@@ -324,6 +382,50 @@ public class Scene {
     this.wireframeMode = wireframeMode;
   }
 
+  /**
+   * Checks if nodes outside the view of the active camera are skipped during rendering.
+   *
+   * @return {@code true} if frustum culling is enabled, {@code false} otherwise.
+   */
+  public boolean isFrustumCulling() {
+    return frustumCulling;
+  }
+
+  /**
+   * Enables or disables frustum culling. Culling is enabled by default and requires an active
+   * camera.
+   *
+   * @param frustumCulling {@code true} to skip nodes outside the camera view, {@code false} to
+   *     draw every node.
+   */
+  public void setFrustumCulling(boolean frustumCulling) {
+    this.frustumCulling = frustumCulling;
+  }
+
+  /**
+   * Retrieves the number of renderable components drawn and culled in the last rendered frame.
+   * Both counts are zero when the frame was rendered without frustum culling.
+   *
+   * @return The culling statistics of the last frame.
+   */
+  public CullingStatistics getCullingStatistics() {
+    return cullingStatistics;
+  }
+
+  /**
+   * Retrieves the spatial index over the nodes of the scene, for frustum, ray and range queries in
+   * world space. The index is refreshed on the first call after an update, or by a culled render,
+   * and reflects the world bounds as of the last {@link #update(float)}.
+   *
+   * @return The spatial index of the scene.
+   */
+  public SpatialIndex getSpatialIndex() {
+    synchronized (rootNodes) {
+      ensureWorldBounds();
+    }
+    return spatialIndex;
+  }
+
   /**
    * Retrieves the background color of the scene.
    *
@@ -3,11 +3,15 @@ package engine.scene;
 import java.util.ArrayList;
 import java.util.List;
 
+import engine.components.BoundedComponent;
 import engine.components.Component;
 import engine.components.RenderableComponent;
 import engine.components.Transform;
 import engine.scene.audio.AudioSource;
 import engine.scene.audio.AudioSystem;
+import math.Bounds;
+import math.Frustum;
+import math.Matrix4f;
 import workspace.ui.Graphics;
 
 /**
@@ -55,6 +59,27 @@ public class SceneNode {
   /** List of components (logic/rendering behavior) attached to this node. */
   private List<Component> components;
 
+  /** World space box around the bounded components of this subtree, null if there are none. */
+  private Bounds worldBounds;
+
+  /** Whether this subtree holds a renderable component without bounds, which is never culled. */
+  private boolean unbounded;
+
+  /** Number of active renderable components attached to this node. */
+  private int localRenderableCount;
+
+  /** Number of active renderable components in this subtree. */
+  private int renderableCount;
+
+  /** Proxy of this node in the {@link SpatialIndex} of its scene, -1 if it is not indexed. */
+  int spatialProxy = -1;
+
+  /** Position of this node in the node list of the {@link SpatialIndex}. */
+  int spatialSlot = -1;
+
+  /** The last index refresh that found this node. */
+  int spatialFrame;
+
   /**
    * Creates a new {@code SceneNode} with the specified name.
    *
@@ -105,6 +130,97 @@ public class SceneNode {
     g.popMatrix();
   }
 
+  /**
+   * Renders this node and its children, skipping every subtree whose world bounds are outside the
+   * frustum. {@link #updateWorldBounds(Matrix4f, SpatialIndex)} must have been called for the
+   * current frame.
+   *
+   * @param g The graphics context used for rendering this node and its children.
+   * @param frustum The view frustum of the active camera in world space.
+   * @param statistics Receives the number of drawn and culled renderable components.
+   */
+  void render(Graphics g, Frustum frustum, CullingStatistics statistics) {
+    if (!active) return;
+
+    if (!unbounded && worldBounds != null && !frustum.intersects(worldBounds)) {
+      statistics.addCulled(renderableCount);
+      return;
+    }
+
+    g.pushMatrix();
+
+    applyLocalTransform(g);
+    renderComponents(g);
+    statistics.addDrawn(localRenderableCount);
+
+    for (SceneNode child : children) {
+      child.render(g, frustum, statistics);
+    }
+
+    g.popMatrix();
+  }
+
+  /**
+   * Computes the world space bounds of this subtree from the bounds of its {@link
+   * BoundedComponent}s and the transforms along the hierarchy, and passes the bounds of every node
+   * with bounded components to the spatial index.
+   *
+   * @param parentWorld The matrix transforming from the space of the parent node to world space.
+   * @param index The spatial index to refresh.
+   */
+  void updateWorldBounds(Matrix4f parentWorld, SpatialIndex index) {
+    worldBounds = null;
+    unbounded = false;
+    localRenderableCount = 0;
+    renderableCount = 0;
+    if (!active) return;
+
+    Matrix4f world = parentWorld.multiply(getTransform().getLocalMatrix());
+    for (RenderableComponent renderer : getRenderComponents()) {
+      if (!renderer.isActive()) continue;
+      localRenderableCount++;
+      if (!(renderer instanceof BoundedComponent)) {
+        unbounded = true;
+        continue;
+      }
+      Bounds bounds = ((BoundedComponent) renderer).getBounds();
+      if (bounds != null) {
+        encapsulateWorldBounds(bounds.transform(world));
+      }
+    }
+    renderableCount = localRenderableCount;
+    if (worldBounds != null) {
+      index.update(this, worldBounds);
+    }
+
+    for (SceneNode child : children) {
+      child.updateWorldBounds(world, index);
+      renderableCount += child.renderableCount;
+      unbounded |= child.unbounded;
+      if (child.worldBounds != null) {
+        encapsulateWorldBounds(new Bounds(child.worldBounds.getMin(), child.worldBounds.getMax()));
+      }
+    }
+  }
+
+  private void encapsulateWorldBounds(Bounds bounds) {
+    if (worldBounds == null) {
+      worldBounds = bounds;
+    } else {
+      worldBounds.encapsulate(bounds);
+    }
+  }
+
+  /**
+   * Returns the world space box around the bounded components of this subtree, as last computed by
+   * the scene for frustum culling or its spatial index.
+   *
+   * @return The world bounds of this subtree, or {@code null} if there are none.
+   */
+  public Bounds getWorldBounds() {
+    return worldBounds;
+  }
+
   /** Applies the local transformation to the graphics context. */
   private void applyLocalTransform(Graphics g) {
     getTransform().apply(g);
@@ -0,0 +1,199 @@
+package engine.scene;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import engine.components.BoundedComponent;
+import engine.scene.light.PointLight;
+import math.Bounds;
+import math.BoundsTree;
+import math.Frustum;
+import math.Ray3f;
+import math.Vector3f;
+
+/**
+ * A {@link BoundsTree} over the nodes of a {@link Scene} that have {@link BoundedComponent}s,
+ * keyed by the world bounds of those components.
+ *
+ * <p>The scene refreshes the index whenever it computes world bounds, once per frame on the first
+ * culled {@link Scene#render} or {@link Scene#getSpatialIndex()} after {@link
+ * Scene#update(float)}. Nodes whose bounds stay within the enlarged box of their leaf cost a
+ * comparison; nodes that were removed, deactivated or lost their bounded components are dropped
+ * from the index. Queries reflect the last refresh.
+ */
+public class SpatialIndex {
+
+  private final BoundsTree<SceneNode> tree = new BoundsTree<>();
+
+  /** All indexed nodes, each knows its position in this list. */
+  private final List<SceneNode> nodes = new ArrayList<>();
+
+  /** Incremented by every refresh, nodes not stamped with it are dropped. */
+  private int frame;
+
+  /** Starts a refresh, every node still present must be passed to {@link #update}. */
+  void beginUpdate() {
+    frame++;
+  }
+
+  /**
+   * Inserts the node or moves it to its new bounds.
+   *
+   * @param node the node
+   * @param bounds the world bounds of the bounded components of the node
+   */
+  void update(SceneNode node, Bounds bounds) {
+    node.spatialFrame = frame;
+    if (node.spatialProxy == -1) {
+      node.spatialProxy = tree.insert(bounds, node);
+      node.spatialSlot = nodes.size();
+      nodes.add(node);
+    } else {
+      tree.move(node.spatialProxy, bounds);
+    }
+  }
+
+  /** Ends a refresh, dropping the nodes that were not updated. */
+  void endUpdate() {
+    for (int i = nodes.size() - 1; i >= 0; i--) {
+      SceneNode node = nodes.get(i);
+      if (node.spatialFrame != frame) {
+        remove(node);
+      }
+    }
+  }
+
+  private void remove(SceneNode node) {
+    tree.remove(node.spatialProxy);
+    SceneNode last = nodes.remove(nodes.size() - 1);
+    if (last != node) {
+      nodes.set(node.spatialSlot, last);
+      last.spatialSlot = node.spatialSlot;
+    }
+    node.spatialProxy = -1;
+    node.spatialSlot = -1;
+  }
+
+  /** Removes all nodes. */
+  void clear() {
+    for (SceneNode node : nodes) {
+      node.spatialProxy = -1;
+      node.spatialSlot = -1;
+    }
+    nodes.clear();
+    tree.clear();
+  }
+
+  /**
+   * Finds the nodes with bounds inside or intersecting the frustum.
+   *
+   * @param frustum the frustum in world space
+   * @return the nodes, in no particular order
+   */
+  public List<SceneNode> query(Frustum frustum) {
+    if (frustum == null) {
+      throw new IllegalArgumentException("Frustum cannot be null.");
+    }
+    List<SceneNode> result = new ArrayList<>();
+    tree.query(frustum, result::add);
+    return result;
+  }
+
+  /**
+   * Finds the nodes with bounds intersecting the box.
+   *
+   * @param bounds the box in world space
+   * @return the nodes, in no particular order
+   */
+  public List<SceneNode> query(Bounds bounds) {
+    if (bounds == null) {
+      throw new IllegalArgumentException("Bounds cannot be null.");
+    }
+    List<SceneNode> result = new ArrayList<>();
+    tree.query(bounds, result::add);
+    return result;
+  }
+
+  /**
+   * Finds the nodes with bounds intersecting the sphere, for example the nodes within hearing
+   * distance of an audio source.
+   *
+   * @param center the center of the sphere in world space
+   * @param radius the radius of the sphere
+   * @return the nodes, in no particular order
+   */
+  public List<SceneNode> query(Vector3f center, float radius) {
+    if (center == null) {
+      throw new IllegalArgumentException("Center cannot be null.");
+    }
+    List<SceneNode> result = new ArrayList<>();
+    tree.query(center, radius, result::add);
+    return result;
+  }
+
+  /**
+   * Finds the nodes within the range of a point light.
+   *
+   * @param light the light
+   * @return the nodes with bounds intersecting the range sphere of the light
+   */
+  public List<SceneNode> query(PointLight light) {
+    if (light == null) {
+      throw new IllegalArgumentException("Light cannot be null.");
+    }
+    return query(light.getPosition(), light.getRange());
+  }
+
+  /**
+   * Finds the nodes whose bounds the ray hits, for picking. The bounds are boxes, so callers that
+   * need exact hits test the meshes of the returned nodes in order and stop at the first hit.
+   *
+   * @param ray the ray in world space
+   * @return the nodes, sorted by the distance at which the ray enters their bounds
+   */
+  public List<SceneNode> raycast(Ray3f ray) {
+    if (ray == null) {
+      throw new IllegalArgumentException("Ray cannot be null.");
+    }
+    List<RayHit> hits = new ArrayList<>();
+    tree.raycast(
+        ray, Float.POSITIVE_INFINITY, (node, distance) -> hits.add(new RayHit(node, distance)));
+    hits.sort(Comparator.comparingDouble(hit -> hit.distance));
+    List<SceneNode> result = new ArrayList<>(hits.size());
+    for (RayHit hit : hits) {
+      result.add(hit.node);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of indexed nodes.
+   *
+   * @return the node count
+   */
+  public int size() {
+    return nodes.size();
+  }
+
+  /**
+   * Returns the height of the underlying tree, roughly the logarithm of the node count.
+   *
+   * @return the tree height
+   */
+  public int getHeight() {
+    return tree.getHeight();
+  }
+
+  private static class RayHit {
+
+    private final SceneNode node;
+
+    private final float distance;
+
+    RayHit(SceneNode node, float distance) {
+      this.node = node;
+      this.distance = distance;
+    }
+  }
+}
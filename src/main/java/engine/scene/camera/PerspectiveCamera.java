@@ -152,10 +152,8 @@ public class PerspectiveCamera implements Camera {
 
   @Override
   public Matrix4f getViewMatrix() {
-    Matrix4f view = new Matrix4f();
-    view.setViewMatrix(transform.getPosition(), transform.getRotation());
-    // FIXME
-    return view;
+    // The view the graphics context applies for this camera, see Graphics#applyCamera.
+    return Matrix4f.lookAt(transform.getPosition(), target, new Vector3f(0, 1, 0));
   }
 
   @Override
@@ -0,0 +1,280 @@
+package engine.vbo;
+
+import java.util.Arrays;
+
+import engine.render.Material;
+import mesh.IndexedMesh3D;
+import mesh.Mesh3D;
+
+/**
+ * Base class of {@link VBO} backends that keeps the vertex data, indices and layout of the buffer.
+ *
+ * <p>The data given to a {@code create} method is copied, and {@link #updateRange(int, float[])}
+ * writes into the copy before it tells the backend which vertices changed. Backends only
+ * implement the upload itself in {@link #onCreate()} and {@link #onUpdate(int, int)}.
+ */
+public abstract class AbstractVBO implements VBO {
+
+  private static final int WHITE = 0xFFFFFFFF;
+
+  private float[] vertexData;
+
+  private int[] indices;
+
+  private int stride;
+
+  private int uvOffset = -1;
+
+  private int normalOffset = -1;
+
+  /** ARGB color per vertex, null until colors are set. */
+  private int[] colors;
+
+  private Material material;
+
+  private BufferUsage usage = BufferUsage.STATIC;
+
+  private int vertexCount;
+
+  private int faceCount;
+
+  @Override
+  public void create(float[] vertices, int[] indices) {
+    if (vertices == null) {
+      throw new IllegalArgumentException("Vertices cannot be null.");
+    }
+    if (indices == null) {
+      throw new IllegalArgumentException("Indices cannot be null.");
+    }
+    retain(
+        vertices.clone(),
+        3,
+        -1,
+        -1,
+        indices.clone(),
+        indices.length / 3,
+        null,
+        BufferUsage.STATIC);
+  }
+
+  /**
+   * Converts the mesh with {@link IndexedMesh3D#fromMesh(Mesh3D)}. Convex polygons become fans,
+   * concave polygons are ear clipped.
+   */
+  @Override
+  public void create(Mesh3D mesh, Material material) {
+    create(IndexedMesh3D.fromMesh(mesh), material, BufferUsage.STATIC);
+  }
+
+  @Override
+  public void create(IndexedMesh3D mesh, Material material, BufferUsage usage) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    if (usage == null) {
+      throw new IllegalArgumentException("Usage cannot be null.");
+    }
+    retain(
+        mesh.getVertexData().clone(),
+        mesh.getStride(),
+        mesh.getUvOffset(),
+        mesh.getNormalOffset(),
+        mesh.getIndices().clone(),
+        mesh.getFaceCount(),
+        material,
+        usage);
+  }
+
+  private void retain(
+      float[] vertexData,
+      int stride,
+      int uvOffset,
+      int normalOffset,
+      int[] indices,
+      int faceCount,
+      Material material,
+      BufferUsage usage) {
+    this.vertexData = vertexData;
+    colors = null;
+    this.stride = stride;
+    this.uvOffset = uvOffset;
+    this.normalOffset = normalOffset;
+    this.indices = indices;
+    this.faceCount = faceCount;
+    this.material = material;
+    this.usage = usage;
+    vertexCount = vertexData.length / stride;
+    onCreate();
+  }
+
+  /**
+   * Records a buffer the backend created from data it does not retain. Such a buffer cannot be
+   * updated.
+   *
+   * @param vertexCount the number of vertices
+   * @param faceCount the number of faces
+   * @param material the material, may be null
+   */
+  protected void createWithoutData(int vertexCount, int faceCount, Material material) {
+    vertexData = null;
+    colors = null;
+    indices = null;
+    stride = 0;
+    uvOffset = -1;
+    normalOffset = -1;
+    usage = BufferUsage.STATIC;
+    this.vertexCount = vertexCount;
+    this.faceCount = faceCount;
+    this.material = material;
+  }
+
+  @Override
+  public void updateData(float[] newData) {
+    updateRange(0, newData);
+  }
+
+  @Override
+  public void updateRange(int offset, float[] data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Data cannot be null.");
+    }
+    if (vertexData == null) {
+      throw new IllegalStateException("The buffer holds no updatable vertex data.");
+    }
+    if (offset < 0 || offset > vertexData.length - data.length) {
+      throw new IllegalArgumentException(
+          "Range " + offset + " + " + data.length + " exceeds " + vertexData.length + " floats.");
+    }
+    if (data.length == 0) {
+      return;
+    }
+    System.arraycopy(data, 0, vertexData, offset, data.length);
+    onUpdate(offset / stride, (offset + data.length - 1) / stride);
+  }
+
+  @Override
+  public void updateColors(int firstVertex, int[] colors) {
+    if (colors == null) {
+      throw new IllegalArgumentException("Colors cannot be null.");
+    }
+    if (vertexData == null) {
+      throw new IllegalStateException("The buffer holds no updatable vertex data.");
+    }
+    if (firstVertex < 0 || firstVertex > vertexCount - colors.length) {
+      throw new IllegalArgumentException(
+          "Range " + firstVertex + " + " + colors.length + " exceeds the vertex count.");
+    }
+    if (colors.length == 0) {
+      return;
+    }
+    if (this.colors == null) {
+      this.colors = new int[vertexCount];
+      Arrays.fill(this.colors, material == null ? WHITE : material.getColor().getRGBA());
+    }
+    System.arraycopy(colors, 0, this.colors, firstVertex, colors.length);
+    onUpdateColors(firstVertex, firstVertex + colors.length - 1);
+  }
+
+  @Override
+  public void delete() {
+    vertexData = null;
+    colors = null;
+    indices = null;
+    onDelete();
+  }
+
+  /** Uploads the retained data after a {@code create} call. */
+  protected abstract void onCreate();
+
+  /**
+   * Uploads changed vertices after {@link #updateRange(int, float[])} wrote them.
+   *
+   * @param firstVertex the first changed vertex
+   * @param lastVertex the last changed vertex, inclusive
+   */
+  protected abstract void onUpdate(int firstVertex, int lastVertex);
+
+  /**
+   * Uploads changed vertex colors after {@link #updateColors(int, int[])} wrote them.
+   *
+   * @param firstVertex the first changed vertex
+   * @param lastVertex the last changed vertex, inclusive
+   */
+  protected abstract void onUpdateColors(int firstVertex, int lastVertex);
+
+  /** Releases the backend data. */
+  protected abstract void onDelete();
+
+  /**
+   * Returns the retained interleaved vertex data.
+   *
+   * @return the vertex data, not a copy, or null if there is none
+   */
+  public float[] getVertexData() {
+    return vertexData;
+  }
+
+  /**
+   * Returns the retained triangle indices.
+   *
+   * @return three vertex indices per triangle, not a copy, or null if there are none
+   */
+  public int[] getIndices() {
+    return indices;
+  }
+
+  /**
+   * Returns the retained vertex colors.
+   *
+   * @return one ARGB color per vertex, not a copy, or null if no colors were set
+   */
+  public int[] getColors() {
+    return colors;
+  }
+
+  /**
+   * Returns the number of floats per vertex.
+   *
+   * @return the vertex stride in floats
+   */
+  public int getStride() {
+    return stride;
+  }
+
+  /**
+   * Returns the offset of the UV coordinate within a vertex.
+   *
+   * @return the UV offset in floats, or -1 if there are no UVs
+   */
+  public int getUvOffset() {
+    return uvOffset;
+  }
+
+  /**
+   * Returns the offset of the normal within a vertex.
+   *
+   * @return the normal offset in floats, or -1 if there are no normals
+   */
+  public int getNormalOffset() {
+    return normalOffset;
+  }
+
+  public Material getMaterial() {
+    return material;
+  }
+
+  @Override
+  public BufferUsage getUsage() {
+    return usage;
+  }
+
+  @Override
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  @Override
+  public int getFaceCount() {
+    return faceCount;
+  }
+}
@@ -0,0 +1,16 @@
+package engine.vbo;
+
+/**
+ * Tells a {@link VBO} backend how often the vertex data changes, so it can choose where to keep it.
+ */
+public enum BufferUsage {
+
+  /** Uploaded once and drawn many times. */
+  STATIC,
+
+  /** Updated now and then, drawn many times between updates. */
+  DYNAMIC,
+
+  /** Replaced about every frame, for example by a per-frame deformer. */
+  STREAM
+}
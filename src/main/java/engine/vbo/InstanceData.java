@@ -0,0 +1,239 @@
+package engine.vbo;
+
+import java.util.Arrays;
+
+import math.Color;
+import math.Matrix4f;
+
+/**
+ * The per-instance attributes of an instanced draw: a transform and a color for every instance.
+ *
+ * <p>Transforms are stored as 16 floats per instance, row-major like {@link Matrix4f}, colors as
+ * ARGB ints. Both live in flat arrays that backends upload as one attribute buffer. Changes are
+ * tracked as one dirty range of instances, so a backend uploads only what changed since it last
+ * called {@link #markClean()}. Setting a value equal to the current one does not mark anything,
+ * so refilling unchanged instances every frame costs no uploads.
+ *
+ * <p>Instance colors tint the material color of the draw. White, the default, keeps the material
+ * color unchanged.
+ */
+public class InstanceData {
+
+  private static final int WHITE = 0xFFFFFFFF;
+
+  private float[] transforms;
+
+  private int[] colors;
+
+  private int count;
+
+  /** First dirty instance, {@link #count} if none is dirty. */
+  private int dirtyStart;
+
+  /** One past the last dirty instance. */
+  private int dirtyEnd;
+
+  public InstanceData() {
+    this(16);
+  }
+
+  /**
+   * Creates empty instance data.
+   *
+   * @param capacity the number of instances to reserve space for
+   */
+  public InstanceData(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    transforms = new float[capacity * 16];
+    colors = new int[capacity];
+  }
+
+  /**
+   * Adds an instance with a white color.
+   *
+   * @param transform the transform of the instance
+   * @return the index of the instance
+   */
+  public int add(Matrix4f transform) {
+    return add(transform, null);
+  }
+
+  /**
+   * Adds an instance.
+   *
+   * @param transform the transform of the instance
+   * @param color the color of the instance, white if null
+   * @return the index of the instance
+   */
+  public int add(Matrix4f transform, Color color) {
+    if (transform == null) {
+      throw new IllegalArgumentException("Transform cannot be null.");
+    }
+    if (count == colors.length) {
+      int capacity = Math.max(16, count * 2);
+      transforms = Arrays.copyOf(transforms, capacity * 16);
+      colors = Arrays.copyOf(colors, capacity);
+    }
+    int index = count++;
+    System.arraycopy(transform.getValues(), 0, transforms, index * 16, 16);
+    colors[index] = color == null ? WHITE : color.getRGBA();
+    markDirty(index);
+    return index;
+  }
+
+  /**
+   * Replaces the transform of an instance.
+   *
+   * @param index the instance
+   * @param transform the new transform
+   */
+  public void setTransform(int index, Matrix4f transform) {
+    checkIndex(index);
+    if (transform == null) {
+      throw new IllegalArgumentException("Transform cannot be null.");
+    }
+    float[] values = transform.getValues();
+    if (Arrays.equals(transforms, index * 16, index * 16 + 16, values, 0, 16)) {
+      return;
+    }
+    System.arraycopy(values, 0, transforms, index * 16, 16);
+    markDirty(index);
+  }
+
+  /**
+   * Replaces the color of an instance.
+   *
+   * @param index the instance
+   * @param color the new color, white if null
+   */
+  public void setColor(int index, Color color) {
+    checkIndex(index);
+    int rgba = color == null ? WHITE : color.getRGBA();
+    if (colors[index] != rgba) {
+      colors[index] = rgba;
+      markDirty(index);
+    }
+  }
+
+  /**
+   * Removes an instance by moving the last instance into its place.
+   *
+   * @param index the instance to remove
+   */
+  public void remove(int index) {
+    checkIndex(index);
+    int last = --count;
+    if (index != last) {
+      System.arraycopy(transforms, last * 16, transforms, index * 16, 16);
+      colors[index] = colors[last];
+      markDirty(index);
+    }
+    dirtyEnd = Math.min(dirtyEnd, count);
+    dirtyStart = Math.min(dirtyStart, count);
+  }
+
+  /**
+   * Sets the number of instances, keeping the first ones. Use it with {@link #setTransform(int,
+   * Matrix4f)} to refill the data every frame without changing the layout.
+   *
+   * @param count the new number of instances
+   */
+  public void setCount(int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative.");
+    }
+    if (count == this.count) {
+      return;
+    }
+    if (count > colors.length) {
+      transforms = Arrays.copyOf(transforms, count * 16);
+      colors = Arrays.copyOf(colors, count);
+    }
+    for (int i = this.count; i < count; i++) {
+      int base = i * 16;
+      Arrays.fill(transforms, base, base + 16, 0);
+      transforms[base] = transforms[base + 5] = transforms[base + 10] = transforms[base + 15] = 1;
+      colors[i] = WHITE;
+    }
+    int previous = this.count;
+    this.count = count;
+    if (count > previous) {
+      markDirty(previous);
+      markDirty(count - 1);
+    }
+    dirtyEnd = Math.min(dirtyEnd, count);
+    dirtyStart = Math.min(dirtyStart, count);
+  }
+
+  public void clear() {
+    setCount(0);
+  }
+
+  private void markDirty(int index) {
+    if (dirtyStart >= dirtyEnd) {
+      dirtyStart = index;
+      dirtyEnd = index + 1;
+    } else {
+      dirtyStart = Math.min(dirtyStart, index);
+      dirtyEnd = Math.max(dirtyEnd, index + 1);
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("Instance " + index + " of " + count + ".");
+    }
+  }
+
+  /** Marks all instances as uploaded. Called by the backend after an upload. */
+  public void markClean() {
+    dirtyStart = count;
+    dirtyEnd = count;
+  }
+
+  public boolean isDirty() {
+    return dirtyStart < dirtyEnd;
+  }
+
+  /**
+   * Returns the first instance changed since the last {@link #markClean()}.
+   *
+   * @return the first dirty instance
+   */
+  public int getDirtyStart() {
+    return dirtyStart;
+  }
+
+  /**
+   * Returns the end of the instances changed since the last {@link #markClean()}.
+   *
+   * @return one past the last dirty instance
+   */
+  public int getDirtyEnd() {
+    return dirtyEnd;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the transforms of all instances, 16 floats per instance, row-major.
+   *
+   * @return the transforms, not a copy, may be longer than {@code getCount() * 16}
+   */
+  public float[] getTransforms() {
+    return transforms;
+  }
+
+  /**
+   * Returns the ARGB colors of all instances.
+   *
+   * @return the colors, not a copy, may be longer than {@link #getCount()}
+   */
+  public int[] getColors() {
+    return colors;
+  }
+}
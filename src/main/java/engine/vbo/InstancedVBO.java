@@ -0,0 +1,57 @@
+package engine.vbo;
+
+import engine.render.Material;
+import mesh.IndexedMesh3D;
+
+/**
+ * Draws many instances of one mesh with one draw call per batch.
+ *
+ * <p>The mesh is uploaded once with {@link #create(IndexedMesh3D, Material)}. Per-instance
+ * transforms and colors come from an {@link InstanceData} and are uploaded by {@link
+ * #update(InstanceData)}, which only transfers the instances changed since the previous update.
+ * Backends with hardware instancing keep the instance data in an attribute buffer; others fall
+ * back to {@link MergedInstancedVBO}.
+ */
+public interface InstancedVBO {
+
+  /**
+   * Sets the shared mesh of all instances.
+   *
+   * @param mesh the mesh
+   * @param material the material of all instances
+   */
+  void create(IndexedMesh3D mesh, Material material);
+
+  /**
+   * Uploads the instances changed since the previous update and marks the data clean.
+   *
+   * @param instances the instance data
+   * @throws IllegalStateException if no mesh was created
+   */
+  void update(InstanceData instances);
+
+  /**
+   * Returns whether instances are expanded by the graphics hardware, or merged into one buffer.
+   *
+   * @return true for hardware instancing
+   */
+  boolean isHardwareInstanced();
+
+  int getInstanceCount();
+
+  /**
+   * Returns the number of vertices drawn for all instances.
+   *
+   * @return the vertex count of the mesh times the instance count
+   */
+  int getVertexCount();
+
+  /**
+   * Returns the number of faces drawn for all instances.
+   *
+   * @return the face count of the mesh times the instance count
+   */
+  int getFaceCount();
+
+  void delete();
+}
@@ -0,0 +1,211 @@
+package engine.vbo;
+
+import java.util.Arrays;
+
+import engine.render.Material;
+import mesh.IndexedMesh3D;
+
+/**
+ * Instancing fallback for backends without hardware instancing.
+ *
+ * <p>Every instance is pre-transformed on the CPU into one merged {@link VBO}, so a batch is still
+ * a single draw call instead of one submission per instance. The merged buffer is recreated only
+ * when the instance count changes. Changed instances are transformed again and uploaded as one
+ * range update. Instance colors tint the material color and become vertex colors, so instances
+ * left white have the material color.
+ *
+ * <p>Normals are transformed with the upper 3x3 of the instance transform and normalized, which
+ * is exact for rotations and uniform scales.
+ */
+public class MergedInstancedVBO implements InstancedVBO {
+
+  private static final int WHITE = 0xFFFFFFFF;
+
+  private final VBO buffer;
+
+  private IndexedMesh3D mesh;
+
+  private Material material;
+
+  private int instanceCount = -1;
+
+  /**
+   * Creates an instanced buffer merging into the given buffer.
+   *
+   * @param buffer the buffer receiving the merged instances
+   */
+  public MergedInstancedVBO(VBO buffer) {
+    if (buffer == null) {
+      throw new IllegalArgumentException("Buffer cannot be null.");
+    }
+    this.buffer = buffer;
+  }
+
+  @Override
+  public void create(IndexedMesh3D mesh, Material material) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    this.mesh = mesh;
+    this.material = material;
+    instanceCount = -1;
+  }
+
+  @Override
+  public void update(InstanceData instances) {
+    if (instances == null) {
+      throw new IllegalArgumentException("Instances cannot be null.");
+    }
+    if (mesh == null) {
+      throw new IllegalStateException("No mesh was created.");
+    }
+    if (instances.getCount() != instanceCount) {
+      rebuild(instances);
+    } else if (instances.isDirty()) {
+      int start = instances.getDirtyStart();
+      int end = instances.getDirtyEnd();
+      buffer.updateRange(start * mesh.getVertexData().length, transform(instances, start, end));
+      buffer.updateColors(start * mesh.getVertexCount(), expandColors(instances, start, end));
+    }
+    instances.markClean();
+  }
+
+  private void rebuild(InstanceData instances) {
+    int count = instances.getCount();
+    int vertexCount = mesh.getVertexCount();
+    int[] indices = mesh.getIndices();
+    int[] mergedIndices = new int[indices.length * count];
+    for (int instance = 0; instance < count; instance++) {
+      int offset = instance * indices.length;
+      int base = instance * vertexCount;
+      for (int i = 0; i < indices.length; i++) {
+        mergedIndices[offset + i] = base + indices[i];
+      }
+    }
+    buffer.delete();
+    buffer.create(
+        IndexedMesh3D.of(
+            transform(instances, 0, count),
+            mesh.getStride(),
+            mesh.getUvOffset(),
+            mesh.getNormalOffset(),
+            mergedIndices,
+            mesh.getFaceCount() * count),
+        material,
+        BufferUsage.DYNAMIC);
+    buffer.updateColors(0, expandColors(instances, 0, count));
+    instanceCount = count;
+  }
+
+  /** Returns the merged vertex data of the given instances, the mesh transformed by each. */
+  private float[] transform(InstanceData instances, int start, int end) {
+    float[] source = mesh.getVertexData();
+    float[] transforms = instances.getTransforms();
+    int stride = mesh.getStride();
+    int normalOffset = mesh.getNormalOffset();
+    float[] mergedData = new float[(end - start) * source.length];
+    for (int instance = start; instance < end; instance++) {
+      int m = instance * 16;
+      float m00 = transforms[m];
+      float m01 = transforms[m + 1];
+      float m02 = transforms[m + 2];
+      float m03 = transforms[m + 3];
+      float m10 = transforms[m + 4];
+      float m11 = transforms[m + 5];
+      float m12 = transforms[m + 6];
+      float m13 = transforms[m + 7];
+      float m20 = transforms[m + 8];
+      float m21 = transforms[m + 9];
+      float m22 = transforms[m + 10];
+      float m23 = transforms[m + 11];
+      int target = (instance - start) * source.length;
+      System.arraycopy(source, 0, mergedData, target, source.length);
+      for (int v = 0; v < source.length; v += stride) {
+        float x = source[v];
+        float y = source[v + 1];
+        float z = source[v + 2];
+        mergedData[target + v] = m00 * x + m01 * y + m02 * z + m03;
+        mergedData[target + v + 1] = m10 * x + m11 * y + m12 * z + m13;
+        mergedData[target + v + 2] = m20 * x + m21 * y + m22 * z + m23;
+        if (normalOffset != -1) {
+          int n = v + normalOffset;
+          float nx = source[n];
+          float ny = source[n + 1];
+          float nz = source[n + 2];
+          float tx = m00 * nx + m01 * ny + m02 * nz;
+          float ty = m10 * nx + m11 * ny + m12 * nz;
+          float tz = m20 * nx + m21 * ny + m22 * nz;
+          float length = (float) Math.sqrt(tx * tx + ty * ty + tz * tz);
+          if (length > 0) {
+            tx /= length;
+            ty /= length;
+            tz /= length;
+          }
+          mergedData[target + n] = tx;
+          mergedData[target + n + 1] = ty;
+          mergedData[target + n + 2] = tz;
+        }
+      }
+    }
+    return mergedData;
+  }
+
+  /** Returns the color of every merged vertex of the given instances. */
+  private int[] expandColors(InstanceData instances, int start, int end) {
+    int vertexCount = mesh.getVertexCount();
+    int[] colors = new int[(end - start) * vertexCount];
+    int base = material == null ? WHITE : material.getColor().getRGBA();
+    for (int instance = start; instance < end; instance++) {
+      int offset = (instance - start) * vertexCount;
+      int color = tint(instances.getColors()[instance], base);
+      Arrays.fill(colors, offset, offset + vertexCount, color);
+    }
+    return colors;
+  }
+
+  /** Multiplies two ARGB colors per channel, white leaves the other color unchanged. */
+  private static int tint(int color, int base) {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 8) {
+      int a = (color >>> shift) & 0xFF;
+      int b = (base >>> shift) & 0xFF;
+      result |= ((a * b + 127) / 255) << shift;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the buffer holding the merged instances, the one to draw.
+   *
+   * @return the merged buffer
+   */
+  public VBO getBuffer() {
+    return buffer;
+  }
+
+  @Override
+  public boolean isHardwareInstanced() {
+    return false;
+  }
+
+  @Override
+  public int getInstanceCount() {
+    return Math.max(0, instanceCount);
+  }
+
+  @Override
+  public int getVertexCount() {
+    return mesh == null ? 0 : mesh.getVertexCount() * getInstanceCount();
+  }
+
+  @Override
+  public int getFaceCount() {
+    return mesh == null ? 0 : mesh.getFaceCount() * getInstanceCount();
+  }
+
+  @Override
+  public void delete() {
+    buffer.delete();
+    instanceCount = -1;
+  }
+}
@@ -0,0 +1,91 @@
+package engine.vbo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A headless {@link VBO} that uploads nothing and records what a backend would upload. Use it with
+ * {@link RecordingVBOCreationStrategy} to run and inspect rendering code without a graphics
+ * context.
+ */
+public class RecordingVBO extends AbstractVBO {
+
+  private int createCount;
+
+  private int bindCount;
+
+  private boolean deleted;
+
+  /** First and last vertex of every update, in order. */
+  private final List<int[]> updates = new ArrayList<>();
+
+  private long uploadedVertexCount;
+
+  private int colorUpdateCount;
+
+  @Override
+  protected void onCreate() {
+    createCount++;
+    deleted = false;
+    uploadedVertexCount += getVertexCount();
+  }
+
+  @Override
+  protected void onUpdate(int firstVertex, int lastVertex) {
+    updates.add(new int[] {firstVertex, lastVertex});
+    uploadedVertexCount += lastVertex - firstVertex + 1;
+  }
+
+  @Override
+  protected void onUpdateColors(int firstVertex, int lastVertex) {
+    colorUpdateCount++;
+  }
+
+  @Override
+  protected void onDelete() {
+    deleted = true;
+  }
+
+  @Override
+  public void bind() {
+    bindCount++;
+  }
+
+  @Override
+  public void unbind() {}
+
+  public int getCreateCount() {
+    return createCount;
+  }
+
+  public int getBindCount() {
+    return bindCount;
+  }
+
+  public int getColorUpdateCount() {
+    return colorUpdateCount;
+  }
+
+  public boolean isDeleted() {
+    return deleted;
+  }
+
+  /**
+   * Returns the vertex range of every update since the buffer was constructed.
+   *
+   * @return the first and last vertex of each update, inclusive
+   */
+  public List<int[]> getUpdates() {
+    return Collections.unmodifiableList(updates);
+  }
+
+  /**
+   * Returns the number of vertices uploaded by all creates and updates.
+   *
+   * @return the uploaded vertex count
+   */
+  public long getUploadedVertexCount() {
+    return uploadedVertexCount;
+  }
+}
@@ -0,0 +1,22 @@
+package engine.vbo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Creates {@link RecordingVBO}s and keeps them for inspection. */
+public class RecordingVBOCreationStrategy implements VBOCreationStrategy {
+
+  private final List<RecordingVBO> created = new ArrayList<>();
+
+  @Override
+  public VBO create() {
+    RecordingVBO vbo = new RecordingVBO();
+    created.add(vbo);
+    return vbo;
+  }
+
+  public List<RecordingVBO> getCreated() {
+    return Collections.unmodifiableList(created);
+  }
+}
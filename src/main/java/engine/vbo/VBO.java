@@ -1,22 +1,79 @@
 package engine.vbo;
 
 import engine.render.Material;
+import mesh.IndexedMesh3D;
 import mesh.Mesh3D;
 
+/**
+ * A retained vertex buffer holding interleaved vertex data and triangle indices.
+ *
+ * <p>The vertex data uses the layout of {@link IndexedMesh3D}: x, y, z, followed by u, v and nx,
+ * ny, nz if present. Once created, ranges of it can be replaced with {@link #updateRange(int,
+ * float[])} without recreating the buffer.
+ */
 public interface VBO {
+
+  /**
+   * Creates the buffer from positions and triangles.
+   *
+   * @param vertices the vertex positions, x, y, z interleaved
+   * @param indices three vertex indices per triangle
+   */
   void create(float[] vertices, int[] indices);
 
   void create(Mesh3D mesh, Material material);
 
+  /**
+   * Creates the buffer from a render-ready mesh.
+   *
+   * @param mesh the mesh providing the interleaved vertex data and triangle indices
+   * @param material the material of the mesh
+   * @param usage how often the vertex data will be updated
+   */
+  void create(IndexedMesh3D mesh, Material material, BufferUsage usage);
+
+  default void create(IndexedMesh3D mesh, Material material) {
+    create(mesh, material, BufferUsage.STATIC);
+  }
+
   void bind();
 
   void unbind();
 
+  /**
+   * Replaces the vertex data from its start, equivalent to {@code updateRange(0, newData)}.
+   *
+   * @param newData the new vertex data
+   */
   void updateData(float[] newData);
 
+  /**
+   * Replaces a range of the interleaved vertex data. Only the vertices overlapping the range are
+   * uploaded again.
+   *
+   * @param offset the index of the first float to replace
+   * @param data the new values
+   * @throws IllegalArgumentException if the range exceeds the vertex data
+   * @throws IllegalStateException if the buffer holds no updatable vertex data
+   */
+  void updateRange(int offset, float[] data);
+
+  /**
+   * Sets the colors of a range of vertices. Vertex colors replace the material color, a buffer has
+   * none until they are first set.
+   *
+   * @param firstVertex the first vertex to color
+   * @param colors one ARGB color per vertex
+   * @throws IllegalArgumentException if the range exceeds the vertices
+   * @throws IllegalStateException if the buffer holds no updatable vertex data
+   */
+  void updateColors(int firstVertex, int[] colors);
+
+  BufferUsage getUsage();
+
   void delete();
 
   int getVertexCount();
-  
+
   int getFaceCount();
 }
@@ -3,4 +3,14 @@ package engine.vbo;
 public interface VBOCreationStrategy {
 
   public VBO create();
+
+  /**
+   * Creates an instanced buffer. Strategies without hardware instancing use the default, which
+   * merges pre-transformed instances into one {@link VBO} of this strategy.
+   *
+   * @return a new instanced buffer
+   */
+  default InstancedVBO createInstanced() {
+    return new MergedInstancedVBO(create());
+  }
 }
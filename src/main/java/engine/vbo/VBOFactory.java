@@ -18,6 +18,10 @@ public class VBOFactory {
     VBOFactory.strategy = strategy;
   }
 
+  public VBOCreationStrategy getVBOCreationStrategy() {
+    return strategy;
+  }
+
   public VBO create() {
     if (strategy == null) {
       System.err.println("No VBOCreationStrategy set!");
@@ -25,4 +29,12 @@ public class VBOFactory {
     }
     return strategy.create();
   }
+
+  public InstancedVBO createInstanced() {
+    if (strategy == null) {
+      System.err.println("No VBOCreationStrategy set!");
+      return null;
+    }
+    return strategy.createInstanced();
+  }
 }
@@ -163,6 +163,44 @@ public class Bounds {
         && max.z >= other.min.z;
   }
 
+  /**
+   * Expands the bounding box to encompass the given {@code other} box.
+   *
+   * @param other the bounding box to include in this bounding box
+   */
+  public void encapsulate(Bounds other) {
+    encapsulate(other.min);
+    encapsulate(other.max);
+  }
+
+  /**
+   * Returns the axis-aligned bounding box of this box transformed by the given {@code matrix}. Each
+   * axis of the result is computed from the matrix row directly, without transforming the eight
+   * corners.
+   *
+   * @param matrix the affine transformation to apply
+   * @return a new {@code Bounds} enclosing the transformed box
+   */
+  public Bounds transform(Matrix4f matrix) {
+    float[] m = matrix.getValues();
+    float[] boxMin = {min.x, min.y, min.z};
+    float[] boxMax = {max.x, max.y, max.z};
+    float[] resultMin = new float[3];
+    float[] resultMax = new float[3];
+    for (int row = 0; row < 3; row++) {
+      resultMin[row] = resultMax[row] = m[row * 4 + 3];
+      for (int col = 0; col < 3; col++) {
+        float a = m[row * 4 + col] * boxMin[col];
+        float b = m[row * 4 + col] * boxMax[col];
+        resultMin[row] += Math.min(a, b);
+        resultMax[row] += Math.max(a, b);
+      }
+    }
+    return new Bounds(
+        new Vector3f(resultMin[0], resultMin[1], resultMin[2]),
+        new Vector3f(resultMax[0], resultMax[1], resultMax[2]));
+  }
+
   /**
    * Calculates the squared distance from the given {@code point} to the closest point on the
    * bounding box. This method avoids calculating the square root for performance reasons, returning
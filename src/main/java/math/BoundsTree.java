@@ -0,0 +1,646 @@
+package math;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A dynamic bounding volume hierarchy: a binary tree of axis-aligned boxes with one item per leaf,
+ * for finding the items in a frustum, along a ray or within a sphere in logarithmic time.
+ *
+ * <p>Leaves are inserted next to the sibling that increases the surface area of the tree the least
+ * (the surface area heuristic). After every insert and remove the changed path is refitted, and at
+ * each node on it a child may be swapped with a grandchild if that shrinks the tree, which keeps it
+ * close to the quality of a tree built from scratch without ever rebuilding it.
+ *
+ * <p>Leaves store an enlarged copy of the bounds of their item, so items moving by less than the
+ * margin do not change the tree at all. Queries test the exact bounds at the leaves.
+ *
+ * <p>The tree is stored in flat arrays and addressed by the integer proxy returned by {@link
+ * #insert(Bounds, Object)}. It is not thread-safe.
+ *
+ * @param <T> the type of the items
+ */
+public class BoundsTree<T> {
+
+  private static final int NULL = -1;
+
+  /** Fraction of the largest extent of an item its leaf box is enlarged by on every side. */
+  private static final float MARGIN = 0.1f;
+
+  /** Boxes of all tree nodes, min x, y, z then max x, y, z. Enlarged at the leaves. */
+  private float[] boxes;
+
+  /** Exact boxes of the leaves, same layout as {@link #boxes}. */
+  private float[] tightBoxes;
+
+  /** Parent of every node, or the next free node for free nodes. */
+  private int[] parents;
+
+  private int[] firstChildren;
+
+  private int[] secondChildren;
+
+  /** Height of every node, 0 for leaves and -1 for free nodes. */
+  private int[] heights;
+
+  private Object[] items;
+
+  private int root = NULL;
+
+  private int freeList = NULL;
+
+  private int leafCount;
+
+  private int[] stack = new int[64];
+
+  public BoundsTree() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty tree.
+   *
+   * @param capacity the number of items to reserve space for
+   */
+  public BoundsTree(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    int nodeCapacity = Math.max(1, capacity * 2 - 1);
+    boxes = new float[0];
+    tightBoxes = new float[0];
+    parents = new int[0];
+    firstChildren = new int[0];
+    secondChildren = new int[0];
+    heights = new int[0];
+    items = new Object[0];
+    grow(nodeCapacity);
+  }
+
+  /**
+   * Adds an item.
+   *
+   * @param bounds the bounds of the item
+   * @param item the item
+   * @return the proxy of the item, used to move and remove it
+   */
+  public int insert(Bounds bounds, T item) {
+    if (bounds == null) {
+      throw new IllegalArgumentException("Bounds cannot be null.");
+    }
+    if (item == null) {
+      throw new IllegalArgumentException("Item cannot be null.");
+    }
+    int leaf = allocateNode();
+    setTightBox(leaf, bounds);
+    enlarge(leaf);
+    items[leaf] = item;
+    insertLeaf(leaf);
+    leafCount++;
+    return leaf;
+  }
+
+  /**
+   * Removes an item.
+   *
+   * @param proxy the proxy returned when the item was inserted
+   */
+  public void remove(int proxy) {
+    checkProxy(proxy);
+    removeLeaf(proxy);
+    freeNode(proxy);
+    leafCount--;
+  }
+
+  /**
+   * Changes the bounds of an item. The tree is only changed if the new bounds leave the enlarged
+   * box of the leaf.
+   *
+   * @param proxy the proxy returned when the item was inserted
+   * @param bounds the new bounds of the item
+   * @return {@code true} if the item was reinserted, {@code false} if the tree is unchanged
+   */
+  public boolean move(int proxy, Bounds bounds) {
+    checkProxy(proxy);
+    if (bounds == null) {
+      throw new IllegalArgumentException("Bounds cannot be null.");
+    }
+    setTightBox(proxy, bounds);
+    int b = proxy * 6;
+    if (boxes[b] <= tightBoxes[b]
+        && boxes[b + 1] <= tightBoxes[b + 1]
+        && boxes[b + 2] <= tightBoxes[b + 2]
+        && boxes[b + 3] >= tightBoxes[b + 3]
+        && boxes[b + 4] >= tightBoxes[b + 4]
+        && boxes[b + 5] >= tightBoxes[b + 5]) {
+      return false;
+    }
+    removeLeaf(proxy);
+    enlarge(proxy);
+    insertLeaf(proxy);
+    return true;
+  }
+
+  /**
+   * Returns the item of a proxy.
+   *
+   * @param proxy the proxy returned when the item was inserted
+   * @return the item
+   */
+  @SuppressWarnings("unchecked")
+  public T getItem(int proxy) {
+    checkProxy(proxy);
+    return (T) items[proxy];
+  }
+
+  /** Removes all items. */
+  public void clear() {
+    Arrays.fill(items, null);
+    int capacity = heights.length;
+    for (int i = 0; i < capacity; i++) {
+      parents[i] = i + 1 < capacity ? i + 1 : NULL;
+      heights[i] = -1;
+    }
+    freeList = capacity > 0 ? 0 : NULL;
+    root = NULL;
+    leafCount = 0;
+  }
+
+  public int size() {
+    return leafCount;
+  }
+
+  /**
+   * Returns the number of edges on the longest path from the root to a leaf.
+   *
+   * @return the height of the tree, 0 if it has at most one item
+   */
+  public int getHeight() {
+    return root == NULL ? 0 : heights[root];
+  }
+
+  /**
+   * Returns the sum of the surface areas of all inner nodes, the cost the tree is optimized for.
+   * Lower is better; mostly useful to compare trees over the same items.
+   *
+   * @return the surface area cost of the tree
+   */
+  public float getAreaCost() {
+    float cost = 0;
+    for (int node = 0; node < heights.length; node++) {
+      if (heights[node] > 0) {
+        cost += area(node);
+      }
+    }
+    return cost;
+  }
+
+  /**
+   * Visits every item whose bounds intersect the given box.
+   *
+   * @param bounds the box to test
+   * @param visitor receives the items
+   */
+  public void query(Bounds bounds, Consumer<T> visitor) {
+    Vector3f min = bounds.getMin();
+    Vector3f max = bounds.getMax();
+    int size = push(0, root);
+    while (size > 0) {
+      int node = stack[--size];
+      float[] nodeBoxes = heights[node] == 0 ? tightBoxes : boxes;
+      int b = node * 6;
+      if (nodeBoxes[b] > max.x
+          || nodeBoxes[b + 1] > max.y
+          || nodeBoxes[b + 2] > max.z
+          || nodeBoxes[b + 3] < min.x
+          || nodeBoxes[b + 4] < min.y
+          || nodeBoxes[b + 5] < min.z) {
+        continue;
+      }
+      size = visitOrDescend(node, size, visitor);
+    }
+  }
+
+  /**
+   * Visits every item whose bounds intersect the frustum. Like {@link Frustum#intersects(Bounds)}
+   * the test is conservative near the corners of the frustum.
+   *
+   * @param frustum the frustum to test
+   * @param visitor receives the items
+   */
+  public void query(Frustum frustum, Consumer<T> visitor) {
+    int size = push(0, root);
+    while (size > 0) {
+      int node = stack[--size];
+      float[] nodeBoxes = heights[node] == 0 ? tightBoxes : boxes;
+      int b = node * 6;
+      if (!frustum.intersects(
+          nodeBoxes[b],
+          nodeBoxes[b + 1],
+          nodeBoxes[b + 2],
+          nodeBoxes[b + 3],
+          nodeBoxes[b + 4],
+          nodeBoxes[b + 5])) {
+        continue;
+      }
+      size = visitOrDescend(node, size, visitor);
+    }
+  }
+
+  /**
+   * Visits every item whose bounds intersect the sphere.
+   *
+   * @param center the center of the sphere
+   * @param radius the radius of the sphere
+   * @param visitor receives the items
+   */
+  public void query(Vector3f center, float radius, Consumer<T> visitor) {
+    float radiusSquared = radius * radius;
+    int size = push(0, root);
+    while (size > 0) {
+      int node = stack[--size];
+      float[] nodeBoxes = heights[node] == 0 ? tightBoxes : boxes;
+      int b = node * 6;
+      float dx = Math.max(0, Math.max(nodeBoxes[b] - center.x, center.x - nodeBoxes[b + 3]));
+      float dy = Math.max(0, Math.max(nodeBoxes[b + 1] - center.y, center.y - nodeBoxes[b + 4]));
+      float dz = Math.max(0, Math.max(nodeBoxes[b + 2] - center.z, center.z - nodeBoxes[b + 5]));
+      if (dx * dx + dy * dy + dz * dz > radiusSquared) {
+        continue;
+      }
+      size = visitOrDescend(node, size, visitor);
+    }
+  }
+
+  /**
+   * Visits every item whose bounds the ray enters within the given distance, in no particular
+   * order.
+   *
+   * @param ray the ray
+   * @param maxDistance the length of the ray, {@link Float#POSITIVE_INFINITY} for no limit
+   * @param visitor receives the items with the distance at which the ray enters their bounds, 0 if
+   *     the origin is inside
+   */
+  @SuppressWarnings("unchecked")
+  public void raycast(Ray3f ray, float maxDistance, RayVisitor<T> visitor) {
+    Vector3f origin = ray.getOrigin();
+    Vector3f direction = ray.getDirection();
+    int size = push(0, root);
+    while (size > 0) {
+      int node = stack[--size];
+      boolean leaf = heights[node] == 0;
+      float distance = rayDistance(leaf ? tightBoxes : boxes, node * 6, origin, direction);
+      if (distance == Float.POSITIVE_INFINITY || distance > maxDistance) {
+        continue;
+      }
+      if (leaf) {
+        visitor.visit((T) items[node], distance);
+      } else {
+        size = push(size, firstChildren[node]);
+        size = push(size, secondChildren[node]);
+      }
+    }
+  }
+
+  /** Receives the items hit by {@link BoundsTree#raycast(Ray3f, float, RayVisitor)}. */
+  public interface RayVisitor<T> {
+
+    /**
+     * Receives one hit item.
+     *
+     * @param item the item
+     * @param distance the distance along the ray at which it enters the bounds of the item
+     */
+    void visit(T item, float distance);
+  }
+
+  /** Returns where the ray enters the box, infinity if it misses. The slab method. */
+  private float rayDistance(float[] nodeBoxes, int b, Vector3f origin, Vector3f direction) {
+    float near = 0;
+    float far = Float.POSITIVE_INFINITY;
+    for (int axis = 0; axis < 3; axis++) {
+      float o = origin.get(axis);
+      float d = direction.get(axis);
+      float min = nodeBoxes[b + axis];
+      float max = nodeBoxes[b + 3 + axis];
+      if (d == 0) {
+        if (o < min || o > max) {
+          return Float.POSITIVE_INFINITY;
+        }
+        continue;
+      }
+      float inverse = 1 / d;
+      float t1 = (min - o) * inverse;
+      float t2 = (max - o) * inverse;
+      near = Math.max(near, Math.min(t1, t2));
+      far = Math.min(far, Math.max(t1, t2));
+      if (near > far) {
+        return Float.POSITIVE_INFINITY;
+      }
+    }
+    return near;
+  }
+
+  @SuppressWarnings("unchecked")
+  private int visitOrDescend(int node, int size, Consumer<T> visitor) {
+    if (heights[node] == 0) {
+      visitor.accept((T) items[node]);
+      return size;
+    }
+    size = push(size, firstChildren[node]);
+    return push(size, secondChildren[node]);
+  }
+
+  private int push(int size, int node) {
+    if (node == NULL) {
+      return size;
+    }
+    if (size == stack.length) {
+      stack = Arrays.copyOf(stack, size * 2);
+    }
+    stack[size] = node;
+    return size + 1;
+  }
+
+  private void insertLeaf(int leaf) {
+    if (root == NULL) {
+      root = leaf;
+      parents[leaf] = NULL;
+      return;
+    }
+    int sibling = findBestSibling(leaf);
+    int oldParent = parents[sibling];
+    int newParent = allocateNode();
+    parents[newParent] = oldParent;
+    firstChildren[newParent] = sibling;
+    secondChildren[newParent] = leaf;
+    parents[sibling] = newParent;
+    parents[leaf] = newParent;
+    if (oldParent == NULL) {
+      root = newParent;
+    } else if (firstChildren[oldParent] == sibling) {
+      firstChildren[oldParent] = newParent;
+    } else {
+      secondChildren[oldParent] = newParent;
+    }
+    refit(newParent);
+  }
+
+  /**
+   * Descends from the root towards the sibling whose enlargement costs the least surface area,
+   * pruning subtrees whose lower bound cannot beat the best sibling found so far.
+   */
+  private int findBestSibling(int leaf) {
+    float leafArea = area(leaf);
+    int index = root;
+    float nodeArea = area(root);
+    float directCost = unionArea(root, leaf);
+    float inheritedCost = 0;
+    int best = root;
+    float bestCost = directCost;
+    while (heights[index] > 0) {
+      float cost = directCost + inheritedCost;
+      if (cost < bestCost) {
+        best = index;
+        bestCost = cost;
+      }
+      // Every ancestor of a sibling below this node grows by the growth of this node.
+      inheritedCost += directCost - nodeArea;
+
+      int first = firstChildren[index];
+      float firstDirect = unionArea(first, leaf);
+      float firstArea = 0;
+      float firstLowerBound = Float.MAX_VALUE;
+      if (heights[first] == 0) {
+        if (firstDirect + inheritedCost < bestCost) {
+          best = first;
+          bestCost = firstDirect + inheritedCost;
+        }
+      } else {
+        firstArea = area(first);
+        firstLowerBound = inheritedCost + firstDirect + Math.min(leafArea - firstArea, 0);
+      }
+
+      int second = secondChildren[index];
+      float secondDirect = unionArea(second, leaf);
+      float secondArea = 0;
+      float secondLowerBound = Float.MAX_VALUE;
+      if (heights[second] == 0) {
+        if (secondDirect + inheritedCost < bestCost) {
+          best = second;
+          bestCost = secondDirect + inheritedCost;
+        }
+      } else {
+        secondArea = area(second);
+        secondLowerBound = inheritedCost + secondDirect + Math.min(leafArea - secondArea, 0);
+      }
+
+      if (bestCost <= firstLowerBound && bestCost <= secondLowerBound) {
+        break;
+      }
+      if (firstLowerBound <= secondLowerBound) {
+        index = first;
+        nodeArea = firstArea;
+        directCost = firstDirect;
+      } else {
+        index = second;
+        nodeArea = secondArea;
+        directCost = secondDirect;
+      }
+    }
+    return best;
+  }
+
+  private void removeLeaf(int leaf) {
+    if (leaf == root) {
+      root = NULL;
+      return;
+    }
+    int parent = parents[leaf];
+    int grandParent = parents[parent];
+    int sibling = firstChildren[parent] == leaf ? secondChildren[parent] : firstChildren[parent];
+    parents[sibling] = grandParent;
+    if (grandParent == NULL) {
+      root = sibling;
+    } else {
+      if (firstChildren[grandParent] == parent) {
+        firstChildren[grandParent] = sibling;
+      } else {
+        secondChildren[grandParent] = sibling;
+      }
+      refit(grandParent);
+    }
+    freeNode(parent);
+    parents[leaf] = NULL;
+  }
+
+  /** Recomputes boxes and heights from the node up to the root, rotating where it pays off. */
+  private void refit(int node) {
+    while (node != NULL) {
+      updateNode(node);
+      rotate(node);
+      node = parents[node];
+    }
+  }
+
+  /** Recomputes the box and height of an inner node from its children. */
+  private void updateNode(int node) {
+    int first = firstChildren[node];
+    int second = secondChildren[node];
+    int b = node * 6;
+    int b1 = first * 6;
+    int b2 = second * 6;
+    for (int i = 0; i < 3; i++) {
+      boxes[b + i] = Math.min(boxes[b1 + i], boxes[b2 + i]);
+      boxes[b + 3 + i] = Math.max(boxes[b1 + 3 + i], boxes[b2 + 3 + i]);
+    }
+    heights[node] = 1 + Math.max(heights[first], heights[second]);
+  }
+
+  /**
+   * Swaps a child of the node with a grandchild on the other side if that shrinks the surface area
+   * of the child subtree that changes. The box of the node itself stays the same.
+   */
+  private void rotate(int a) {
+    int b = firstChildren[a];
+    int c = secondChildren[a];
+    if (heights[b] == 0 && heights[c] == 0) {
+      return;
+    }
+    float bestGain = 0;
+    int bestX = NULL;
+    int bestY = NULL;
+    if (heights[c] > 0) {
+      // Swap b with a child of c: c then holds b and the other child.
+      float areaC = area(c);
+      float gain = areaC - unionArea(b, secondChildren[c]);
+      if (gain > bestGain) {
+        bestGain = gain;
+        bestX = b;
+        bestY = firstChildren[c];
+      }
+      gain = areaC - unionArea(b, firstChildren[c]);
+      if (gain > bestGain) {
+        bestGain = gain;
+        bestX = b;
+        bestY = secondChildren[c];
+      }
+    }
+    if (heights[b] > 0) {
+      // Swap c with a child of b.
+      float areaB = area(b);
+      float gain = areaB - unionArea(c, secondChildren[b]);
+      if (gain > bestGain) {
+        bestGain = gain;
+        bestX = c;
+        bestY = firstChildren[b];
+      }
+      gain = areaB - unionArea(c, firstChildren[b]);
+      if (gain > bestGain) {
+        bestX = c;
+        bestY = secondChildren[b];
+      }
+    }
+    if (bestX == NULL) {
+      return;
+    }
+    // bestY is a grandchild of a, bestX its uncle.
+    int parentY = parents[bestY];
+    if (firstChildren[a] == bestX) {
+      firstChildren[a] = bestY;
+    } else {
+      secondChildren[a] = bestY;
+    }
+    if (firstChildren[parentY] == bestY) {
+      firstChildren[parentY] = bestX;
+    } else {
+      secondChildren[parentY] = bestX;
+    }
+    parents[bestY] = a;
+    parents[bestX] = parentY;
+    updateNode(parentY);
+    heights[a] = 1 + Math.max(heights[firstChildren[a]], heights[secondChildren[a]]);
+  }
+
+  /** Half the surface area of a box, the cost of the surface area heuristic. */
+  private float area(int node) {
+    int b = node * 6;
+    float x = boxes[b + 3] - boxes[b];
+    float y = boxes[b + 4] - boxes[b + 1];
+    float z = boxes[b + 5] - boxes[b + 2];
+    return x * y + y * z + z * x;
+  }
+
+  private float unionArea(int first, int second) {
+    int b1 = first * 6;
+    int b2 = second * 6;
+    float x = Math.max(boxes[b1 + 3], boxes[b2 + 3]) - Math.min(boxes[b1], boxes[b2]);
+    float y = Math.max(boxes[b1 + 4], boxes[b2 + 4]) - Math.min(boxes[b1 + 1], boxes[b2 + 1]);
+    float z = Math.max(boxes[b1 + 5], boxes[b2 + 5]) - Math.min(boxes[b1 + 2], boxes[b2 + 2]);
+    return x * y + y * z + z * x;
+  }
+
+  private void setTightBox(int leaf, Bounds bounds) {
+    int b = leaf * 6;
+    tightBoxes[b] = bounds.getMin().x;
+    tightBoxes[b + 1] = bounds.getMin().y;
+    tightBoxes[b + 2] = bounds.getMin().z;
+    tightBoxes[b + 3] = bounds.getMax().x;
+    tightBoxes[b + 4] = bounds.getMax().y;
+    tightBoxes[b + 5] = bounds.getMax().z;
+  }
+
+  private void enlarge(int leaf) {
+    int b = leaf * 6;
+    float extent =
+        Math.max(
+            tightBoxes[b + 3] - tightBoxes[b],
+            Math.max(tightBoxes[b + 4] - tightBoxes[b + 1], tightBoxes[b + 5] - tightBoxes[b + 2]));
+    float margin = extent * MARGIN;
+    for (int i = 0; i < 3; i++) {
+      boxes[b + i] = tightBoxes[b + i] - margin;
+      boxes[b + 3 + i] = tightBoxes[b + 3 + i] + margin;
+    }
+  }
+
+  private int allocateNode() {
+    if (freeList == NULL) {
+      grow(heights.length * 2);
+    }
+    int node = freeList;
+    freeList = parents[node];
+    parents[node] = NULL;
+    firstChildren[node] = NULL;
+    secondChildren[node] = NULL;
+    heights[node] = 0;
+    return node;
+  }
+
+  private void freeNode(int node) {
+    items[node] = null;
+    heights[node] = -1;
+    parents[node] = freeList;
+    freeList = node;
+  }
+
+  private void grow(int capacity) {
+    int oldCapacity = heights.length;
+    boxes = Arrays.copyOf(boxes, capacity * 6);
+    tightBoxes = Arrays.copyOf(tightBoxes, capacity * 6);
+    parents = Arrays.copyOf(parents, capacity);
+    firstChildren = Arrays.copyOf(firstChildren, capacity);
+    secondChildren = Arrays.copyOf(secondChildren, capacity);
+    heights = Arrays.copyOf(heights, capacity);
+    items = Arrays.copyOf(items, capacity);
+    for (int i = oldCapacity; i < capacity; i++) {
+      parents[i] = i + 1 < capacity ? i + 1 : freeList;
+      heights[i] = -1;
+    }
+    freeList = oldCapacity;
+  }
+
+  private void checkProxy(int proxy) {
+    if (proxy < 0 || proxy >= heights.length || heights[proxy] != 0 || items[proxy] == null) {
+      throw new IllegalArgumentException("Invalid proxy " + proxy + ".");
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package math;
+
+/**
+ * The viewing volume of a camera, bounded by six {@link Plane}s whose normals point into the
+ * volume.
+ *
+ * <p>The planes are extracted from a view-projection matrix that maps to OpenGL clip space, where a
+ * point is visible if {@code -w <= x, y, z <= w}. Each of these six inequalities is one plane, the
+ * sum or difference of the fourth row and one of the first three rows of the matrix.
+ *
+ * <p>{@link #intersects(Bounds)} is conservative: a box near a frustum corner may be reported as
+ * intersecting although it lies just outside. That is fine for culling, where a false positive
+ * costs a draw and a false negative drops a visible object.
+ */
+public class Frustum {
+
+  /** Planes in the order left, right, bottom, top, near, far. */
+  private final Plane[] planes;
+
+  /** The normalized coefficients a, b, c, d of every plane, for allocation free tests. */
+  private final float[] coefficients;
+
+  /** Constructs an empty frustum. It must be set from a matrix before it is used. */
+  public Frustum() {
+    planes = new Plane[6];
+    coefficients = new float[24];
+    for (int i = 0; i < planes.length; i++) {
+      planes[i] = new Plane();
+    }
+  }
+
+  /**
+   * Constructs the frustum of a view-projection matrix.
+   *
+   * @param viewProjection the combined projection and view matrix, row-major
+   * @throws IllegalArgumentException if the matrix is {@code null}
+   */
+  public Frustum(Matrix4f viewProjection) {
+    this();
+    set(viewProjection);
+  }
+
+  /**
+   * Extracts the planes of a view-projection matrix into this frustum.
+   *
+   * @param viewProjection the combined projection and view matrix, row-major
+   * @throws IllegalArgumentException if the matrix is {@code null}
+   */
+  public void set(Matrix4f viewProjection) {
+    if (viewProjection == null) {
+      throw new IllegalArgumentException("Matrix cannot be null.");
+    }
+    float[] m = viewProjection.getValues();
+    for (int row = 0; row < 3; row++) {
+      setPlane(row * 2, m, row, 1);
+      setPlane(row * 2 + 1, m, row, -1);
+    }
+  }
+
+  private void setPlane(int index, float[] m, int row, float sign) {
+    int r = row * 4;
+    Plane plane = planes[index];
+    plane.set(
+        m[12] + sign * m[r],
+        m[13] + sign * m[r + 1],
+        m[14] + sign * m[r + 2],
+        m[15] + sign * m[r + 3]);
+    Vector3f normal = plane.getNormal();
+    int c = index * 4;
+    coefficients[c] = normal.x;
+    coefficients[c + 1] = normal.y;
+    coefficients[c + 2] = normal.z;
+    coefficients[c + 3] = plane.getDistance();
+  }
+
+  /**
+   * Tests whether a box is at least partially inside the frustum. For every plane only the corner
+   * of the box furthest along the plane normal is tested; if it is behind the plane, so is the box.
+   *
+   * @param bounds the box to test
+   * @return {@code false} if the box is certainly outside, {@code true} otherwise
+   */
+  public boolean intersects(Bounds bounds) {
+    Vector3f min = bounds.getMin();
+    Vector3f max = bounds.getMax();
+    return intersects(min.x, min.y, min.z, max.x, max.y, max.z);
+  }
+
+  /**
+   * Tests whether a box given by its corners is at least partially inside the frustum, like {@link
+   * #intersects(Bounds)}.
+   *
+   * @param minX the minimum x coordinate of the box
+   * @param minY the minimum y coordinate of the box
+   * @param minZ the minimum z coordinate of the box
+   * @param maxX the maximum x coordinate of the box
+   * @param maxY the maximum y coordinate of the box
+   * @param maxZ the maximum z coordinate of the box
+   * @return {@code false} if the box is certainly outside, {@code true} otherwise
+   */
+  public boolean intersects(
+      float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+    for (int c = 0; c < coefficients.length; c += 4) {
+      float a = coefficients[c];
+      float b = coefficients[c + 1];
+      float d = coefficients[c + 2];
+      float x = a >= 0 ? maxX : minX;
+      float y = b >= 0 ? maxY : minY;
+      float z = d >= 0 ? maxZ : minZ;
+      if (a * x + b * y + d * z + coefficients[c + 3] < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Tests whether a point is inside the frustum.
+   *
+   * @param point the point to test
+   * @return {@code true} if the point is on the inner side of all six planes
+   */
+  public boolean contains(Vector3f point) {
+    for (Plane plane : planes) {
+      if (plane.distanceToPoint(point) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns one of the six planes.
+   *
+   * @param index the plane, in the order left, right, bottom, top, near, far
+   * @return the plane, not a copy
+   */
+  public Plane getPlane(int index) {
+    return planes[index];
+  }
+}
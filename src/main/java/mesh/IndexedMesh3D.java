@@ -0,0 +1,579 @@
+package mesh;
+
+import java.util.Arrays;
+
+import math.Vector2f;
+import math.Vector3f;
+
+/**
+ * A render-ready, indexed triangle mesh.
+ *
+ * <p>Every vertex holds one unique combination of position, UV coordinate and normal, interleaved
+ * in {@link #getVertexData()} with a fixed {@link #getStride() stride}: x, y, z, followed by u, v
+ * if the mesh {@link #hasUvs() has UVs} and nx, ny, nz if it {@link #hasNormals() has normals}.
+ * {@link #getIndices()} holds three vertex indices per triangle. This is the layout graphics APIs
+ * consume directly, so uploading the mesh needs no further processing.
+ *
+ * <p>Meshes are assembled with a {@link Builder}, which deduplicates the position/uv/normal index
+ * triples of polygon corners, as found in Wavefront OBJ files, and triangulates the polygons:
+ * convex polygons as fans, concave ones by ear clipping.
+ */
+public class IndexedMesh3D {
+
+  private float[] vertexData;
+
+  private int vertexCount;
+
+  private int stride;
+
+  private int uvOffset;
+
+  private int normalOffset;
+
+  private int[] indices;
+
+  private int faceCount;
+
+  /** Source position index per vertex, null if unknown. */
+  private int[] positionIndices;
+
+  IndexedMesh3D(
+      float[] vertexData,
+      int vertexCount,
+      int stride,
+      int uvOffset,
+      int normalOffset,
+      int[] indices,
+      int faceCount,
+      int[] positionIndices) {
+    this.vertexData = vertexData;
+    this.vertexCount = vertexCount;
+    this.stride = stride;
+    this.uvOffset = uvOffset;
+    this.normalOffset = normalOffset;
+    this.indices = indices;
+    this.faceCount = faceCount;
+    this.positionIndices = positionIndices;
+  }
+
+  /**
+   * Creates a mesh from interleaved vertex data that is already laid out. The arrays are used
+   * directly, not copied.
+   *
+   * @param vertexData the interleaved vertex data, a multiple of {@code stride} floats
+   * @param stride the number of floats per vertex, at least 3
+   * @param uvOffset the offset of u, v within a vertex, or -1 if there are no UVs
+   * @param normalOffset the offset of the normal within a vertex, or -1 if there are no normals
+   * @param indices three vertex indices per triangle
+   * @param faceCount the number of polygons the triangles were created from
+   * @return the mesh
+   * @throws IllegalArgumentException if an array is null or does not match the layout
+   */
+  public static IndexedMesh3D of(
+      float[] vertexData,
+      int stride,
+      int uvOffset,
+      int normalOffset,
+      int[] indices,
+      int faceCount) {
+    if (vertexData == null) {
+      throw new IllegalArgumentException("Vertex data cannot be null.");
+    }
+    if (indices == null) {
+      throw new IllegalArgumentException("Indices cannot be null.");
+    }
+    if (stride < 3 || vertexData.length % stride != 0 || indices.length % 3 != 0) {
+      throw new IllegalArgumentException("Vertex data and indices do not match the layout.");
+    }
+    if (uvOffset > stride - 2 || normalOffset > stride - 3) {
+      throw new IllegalArgumentException("Attribute offsets exceed the stride.");
+    }
+    return new IndexedMesh3D(
+        vertexData,
+        vertexData.length / stride,
+        stride,
+        uvOffset,
+        normalOffset,
+        indices,
+        faceCount,
+        null);
+  }
+
+  /**
+   * Creates a render-ready mesh from the given mesh. Polygons are triangulated as by {@link
+   * Builder#addPolygon(int[], int, int)} and every unique combination of vertex and UV index
+   * becomes one vertex. The mesh has UVs if any face has UV indices; it has no normals.
+   *
+   * @param mesh the mesh to convert
+   * @return the indexed mesh
+   * @throws IllegalArgumentException if the mesh is null
+   */
+  public static IndexedMesh3D fromMesh(Mesh3D mesh) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    float[] positions = new float[mesh.getVertexCount() * 3];
+    for (int i = 0; i < mesh.getVertexCount(); i++) {
+      Vector3f v = mesh.getVertexAt(i);
+      positions[i * 3] = v.getX();
+      positions[i * 3 + 1] = v.getY();
+      positions[i * 3 + 2] = v.getZ();
+    }
+    float[] uvs = null;
+    for (Face3D face : mesh.getFaces()) {
+      if (face.getUvIndexAt(0) != -1) {
+        uvs = new float[mesh.getUvCount() * 2];
+        for (int i = 0; i < mesh.getUvCount(); i++) {
+          Vector2f uv = mesh.getUvAt(i);
+          uvs[i * 2] = uv.getX();
+          uvs[i * 2 + 1] = uv.getY();
+        }
+        break;
+      }
+    }
+
+    Builder builder = new Builder(positions, uvs, null);
+    int[] corners = new int[4];
+    for (Face3D face : mesh.getFaces()) {
+      int count = face.indices.length;
+      if (corners.length < count) {
+        corners = new int[count];
+      }
+      for (int i = 0; i < count; i++) {
+        corners[i] = builder.addCorner(face.indices[i], face.getUvIndexAt(i), -1);
+      }
+      builder.addPolygon(corners, 0, count);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the interleaved attributes of all vertices, {@code getVertexCount() * getStride()}
+   * floats.
+   *
+   * @return the vertex data, not a copy
+   */
+  public float[] getVertexData() {
+    return vertexData;
+  }
+
+  /**
+   * Returns the vertex indices of all triangles, three per triangle.
+   *
+   * @return the triangle indices, not a copy
+   */
+  public int[] getIndices() {
+    return indices;
+  }
+
+  /**
+   * Returns the index of the source position every vertex was created from, for example the
+   * {@link Mesh3D} vertex. Moved positions can be copied into {@link #getVertexData()} with it
+   * without rebuilding the mesh.
+   *
+   * @return one position index per vertex, not a copy, or null if the mesh was not assembled by a
+   *     {@link Builder}
+   */
+  public int[] getPositionIndices() {
+    return positionIndices;
+  }
+
+  /**
+   * Returns the memory held by the vertex data and indices.
+   *
+   * @return the size in bytes
+   */
+  public long getSizeInBytes() {
+    return vertexData.length * 4L + indices.length * 4L;
+  }
+
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  public int getTriangleCount() {
+    return indices.length / 3;
+  }
+
+  /**
+   * Returns the number of polygons the triangles were created from.
+   *
+   * @return the source face count
+   */
+  public int getFaceCount() {
+    return faceCount;
+  }
+
+  /**
+   * Returns the number of floats per vertex in {@link #getVertexData()}.
+   *
+   * @return the vertex stride in floats
+   */
+  public int getStride() {
+    return stride;
+  }
+
+  public boolean hasUvs() {
+    return uvOffset != -1;
+  }
+
+  public boolean hasNormals() {
+    return normalOffset != -1;
+  }
+
+  /**
+   * Returns the offset of the UV coordinate within a vertex.
+   *
+   * @return the UV offset in floats, or -1 if the mesh has no UVs
+   */
+  public int getUvOffset() {
+    return uvOffset;
+  }
+
+  /**
+   * Returns the offset of the normal within a vertex.
+   *
+   * @return the normal offset in floats, or -1 if the mesh has no normals
+   */
+  public int getNormalOffset() {
+    return normalOffset;
+  }
+
+  /**
+   * Assembles an {@link IndexedMesh3D} from polygons whose corners reference separate position, UV
+   * and normal lists.
+   *
+   * <p>The corners are looked up in an open addressing hash table keyed by their index triple.
+   * The first occurrence of a triple appends a new vertex and copies its attributes, later
+   * occurrences reuse it, so the vertex data is written exactly once per unique vertex.
+   */
+  public static class Builder {
+
+    private static final int EMPTY = -1;
+
+    private float[] positions;
+
+    private float[] uvs;
+
+    private float[] normals;
+
+    private int stride;
+
+    private int uvOffset;
+
+    private int normalOffset;
+
+    private float[] vertexData;
+
+    private int vertexCount;
+
+    /** Position, uv and normal index of every vertex. */
+    private int[] keys;
+
+    /** Vertex index per slot, {@link #EMPTY} for free slots. */
+    private int[] table;
+
+    private int[] indices;
+
+    private int indexCount;
+
+    private int faceCount;
+
+    /** Corners of the polygon being triangulated, projected onto its plane, u, v interleaved. */
+    private float[] projected = new float[8];
+
+    /** Corners of the polygon not clipped yet, as offsets into the polygon. */
+    private int[] remaining = new int[4];
+
+    /**
+     * Creates a builder for the given attribute lists.
+     *
+     * @param positions the interleaved positions (x, y, z) referenced by position indices
+     * @param uvs the interleaved UV coordinates (u, v) referenced by UV indices, or null if the
+     *     mesh has no UVs
+     * @param normals the interleaved normals (x, y, z) referenced by normal indices, or null if the
+     *     mesh has no normals
+     */
+    public Builder(float[] positions, float[] uvs, float[] normals) {
+      if (positions == null) {
+        throw new IllegalArgumentException("Positions cannot be null.");
+      }
+      this.positions = positions;
+      this.uvs = uvs;
+      this.normals = normals;
+      stride = 3;
+      uvOffset = EMPTY;
+      normalOffset = EMPTY;
+      if (uvs != null) {
+        uvOffset = stride;
+        stride += 2;
+      }
+      if (normals != null) {
+        normalOffset = stride;
+        stride += 3;
+      }
+      vertexData = new float[16 * stride];
+      keys = new int[16 * 3];
+      table = new int[32];
+      Arrays.fill(table, EMPTY);
+      indices = new int[48];
+    }
+
+    /**
+     * Returns the vertex for the given corner, adding it if the index triple is new.
+     *
+     * @param position the position index
+     * @param uv the UV index, or -1 if the corner has none
+     * @param normal the normal index, or -1 if the corner has none
+     * @return the index of the unique vertex
+     */
+    public int addCorner(int position, int uv, int normal) {
+      if (uvs == null) {
+        uv = EMPTY;
+      }
+      if (normals == null) {
+        normal = EMPTY;
+      }
+      int mask = table.length - 1;
+      int slot = hash(position, uv, normal) & mask;
+      while (true) {
+        int vertex = table[slot];
+        if (vertex == EMPTY) {
+          break;
+        }
+        int key = vertex * 3;
+        if (keys[key] == position && keys[key + 1] == uv && keys[key + 2] == normal) {
+          return vertex;
+        }
+        slot = (slot + 1) & mask;
+      }
+
+      int vertex = vertexCount++;
+      table[slot] = vertex;
+      appendVertex(vertex, position, uv, normal);
+      if (vertexCount * 2 > table.length) {
+        rehash();
+      }
+      return vertex;
+    }
+
+    /**
+     * Adds a polygon as triangles. Convex polygons become a fan from the first corner, concave
+     * polygons are triangulated by ear clipping in the plane of the polygon. The triangles keep
+     * the winding of the polygon. Polygons with less than three corners add no triangles.
+     *
+     * @param vertices the vertices returned by {@link #addCorner(int, int, int)}
+     * @param offset the first corner in {@code vertices}
+     * @param count the number of corners
+     */
+    public void addPolygon(int[] vertices, int offset, int count) {
+      faceCount++;
+      if (count < 3) {
+        return;
+      }
+      int required = indexCount + (count - 2) * 3;
+      if (required > indices.length) {
+        indices = Arrays.copyOf(indices, Math.max(required, indices.length * 2));
+      }
+      if (count > 3 && project(vertices, offset, count) && !isConvex(count)) {
+        clipEars(vertices, offset, count);
+        return;
+      }
+      int first = vertices[offset];
+      for (int i = 1; i < count - 1; i++) {
+        addTriangle(first, vertices[offset + i], vertices[offset + i + 1]);
+      }
+    }
+
+    private void addTriangle(int a, int b, int c) {
+      indices[indexCount++] = a;
+      indices[indexCount++] = b;
+      indices[indexCount++] = c;
+    }
+
+    /**
+     * Projects the polygon onto the axis plane its normal is closest to, oriented so the polygon
+     * winds counterclockwise.
+     *
+     * @return false if the polygon has no area
+     */
+    private boolean project(int[] vertices, int offset, int count) {
+      // Newell's method, robust for concave and slightly non-planar polygons.
+      float nx = 0;
+      float ny = 0;
+      float nz = 0;
+      for (int i = 0; i < count; i++) {
+        int a = vertices[offset + i] * stride;
+        int b = vertices[offset + (i + 1) % count] * stride;
+        nx += (vertexData[a + 1] - vertexData[b + 1]) * (vertexData[a + 2] + vertexData[b + 2]);
+        ny += (vertexData[a + 2] - vertexData[b + 2]) * (vertexData[a] + vertexData[b]);
+        nz += (vertexData[a] - vertexData[b]) * (vertexData[a + 1] + vertexData[b + 1]);
+      }
+      float ax = Math.abs(nx);
+      float ay = Math.abs(ny);
+      float az = Math.abs(nz);
+      if (ax == 0 && ay == 0 && az == 0) {
+        return false;
+      }
+      int u;
+      int v;
+      boolean flip;
+      if (ax >= ay && ax >= az) {
+        u = 1;
+        v = 2;
+        flip = nx < 0;
+      } else if (ay >= az) {
+        u = 2;
+        v = 0;
+        flip = ny < 0;
+      } else {
+        u = 0;
+        v = 1;
+        flip = nz < 0;
+      }
+      if (projected.length < count * 2) {
+        projected = new float[count * 2];
+      }
+      for (int i = 0; i < count; i++) {
+        int vertex = vertices[offset + i] * stride;
+        projected[i * 2] = vertexData[vertex + u];
+        projected[i * 2 + 1] = flip ? -vertexData[vertex + v] : vertexData[vertex + v];
+      }
+      return true;
+    }
+
+    private boolean isConvex(int count) {
+      for (int i = 0; i < count; i++) {
+        if (turn((i + count - 1) % count, i, (i + 1) % count) < 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Ear clipping on the projected polygon, O(n^2) and only used for concave polygons. */
+    private void clipEars(int[] vertices, int offset, int count) {
+      if (remaining.length < count) {
+        remaining = new int[count];
+      }
+      for (int i = 0; i < count; i++) {
+        remaining[i] = i;
+      }
+      int n = count;
+      int i = 0;
+      int misses = 0;
+      while (n > 3 && misses < n) {
+        int previous = remaining[(i + n - 1) % n];
+        int current = remaining[i];
+        int next = remaining[(i + 1) % n];
+        if (isEar(previous, current, next, n)) {
+          addTriangle(
+              vertices[offset + previous], vertices[offset + current], vertices[offset + next]);
+          System.arraycopy(remaining, i + 1, remaining, i, n - i - 1);
+          n--;
+          i %= n;
+          misses = 0;
+        } else {
+          i = (i + 1) % n;
+          misses++;
+        }
+      }
+      // Degenerate rest without ears, self-intersecting for example: fan it.
+      for (int j = 1; j < n - 1; j++) {
+        addTriangle(
+            vertices[offset + remaining[0]],
+            vertices[offset + remaining[j]],
+            vertices[offset + remaining[j + 1]]);
+      }
+    }
+
+    private boolean isEar(int a, int b, int c, int n) {
+      if (turn(a, b, c) <= 0) {
+        return false;
+      }
+      for (int j = 0; j < n; j++) {
+        int p = remaining[j];
+        if (p == a || p == b || p == c || samePoint(p, a) || samePoint(p, b) || samePoint(p, c)) {
+          continue;
+        }
+        if (turn(a, b, p) >= 0 && turn(b, c, p) >= 0 && turn(c, a, p) >= 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Twice the signed area of the projected corners a, b, c, positive for a left turn. */
+    private float turn(int a, int b, int c) {
+      float ux = projected[b * 2] - projected[a * 2];
+      float uy = projected[b * 2 + 1] - projected[a * 2 + 1];
+      float vx = projected[c * 2] - projected[a * 2];
+      float vy = projected[c * 2 + 1] - projected[a * 2 + 1];
+      return ux * vy - uy * vx;
+    }
+
+    private boolean samePoint(int a, int b) {
+      return projected[a * 2] == projected[b * 2] && projected[a * 2 + 1] == projected[b * 2 + 1];
+    }
+
+    /**
+     * Creates the mesh. The builder must not be used afterwards.
+     *
+     * @return the assembled mesh
+     */
+    public IndexedMesh3D build() {
+      int[] positionIndices = new int[vertexCount];
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        positionIndices[vertex] = keys[vertex * 3];
+      }
+      return new IndexedMesh3D(
+          Arrays.copyOf(vertexData, vertexCount * stride),
+          vertexCount,
+          stride,
+          uvOffset,
+          normalOffset,
+          Arrays.copyOf(indices, indexCount),
+          faceCount,
+          positionIndices);
+    }
+
+    private void appendVertex(int vertex, int position, int uv, int normal) {
+      if ((vertex + 1) * 3 > keys.length) {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+        vertexData = Arrays.copyOf(vertexData, vertexData.length * 2);
+      }
+      keys[vertex * 3] = position;
+      keys[vertex * 3 + 1] = uv;
+      keys[vertex * 3 + 2] = normal;
+
+      int offset = vertex * stride;
+      System.arraycopy(positions, position * 3, vertexData, offset, 3);
+      // Corners without an attribute keep the zeros of the new array.
+      if (uv != EMPTY) {
+        System.arraycopy(uvs, uv * 2, vertexData, offset + uvOffset, 2);
+      }
+      if (normal != EMPTY) {
+        System.arraycopy(normals, normal * 3, vertexData, offset + normalOffset, 3);
+      }
+    }
+
+    private void rehash() {
+      table = new int[table.length * 2];
+      Arrays.fill(table, EMPTY);
+      int mask = table.length - 1;
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        int key = vertex * 3;
+        int slot = hash(keys[key], keys[key + 1], keys[key + 2]) & mask;
+        while (table[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = vertex;
+      }
+    }
+
+    private static int hash(int position, int uv, int normal) {
+      int h = position * 0x9E3779B1 + uv * 0x85EBCA77 + normal * 0xC2B2AE3D;
+      return h ^ (h >>> 15);
+    }
+  }
+}
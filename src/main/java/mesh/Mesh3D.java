@@ -24,6 +24,27 @@ public class Mesh3D {
 
   private ArrayList<Vector2f> uvs;
 
+  /** Change flag for vertex positions and the vertex list. */
+  public static final int CHANGE_POSITIONS = 1;
+
+  /** Change flag for the face list and face indices. */
+  public static final int CHANGE_TOPOLOGY = 1 << 1;
+
+  /** Change flag for UV coordinates and face UV indices. */
+  public static final int CHANGE_UVS = 1 << 2;
+
+  /** All change flags combined. */
+  public static final int CHANGE_ALL = CHANGE_POSITIONS | CHANGE_TOPOLOGY | CHANGE_UVS;
+
+  private long positionsVersion;
+
+  private long topologyVersion;
+
+  private long uvVersion;
+
+  /** Created on demand, most meshes have no listeners. */
+  private List<MeshListener> listeners;
+
   public Mesh3D() {
     vertices = new ArrayList<Vector3f>();
     faces = new ArrayList<Face3D>();
@@ -39,7 +60,118 @@ public class Mesh3D {
    * @return this
    */
   public Mesh3D apply(IMeshModifier modifier) {
-    return modifier.modify(this);
+    Mesh3D result = modifier.modify(this);
+    markModified();
+    return result;
+  }
+
+  /**
+   * Returns the sum of all version stamps. It increases whenever this mesh is changed through its
+   * own methods, through {@link #apply(IMeshModifier)} or one of the {@code mark...} methods.
+   *
+   * @return the current modification count.
+   * @see #getPositionsVersion()
+   * @see #getTopologyVersion()
+   * @see #getUvVersion()
+   */
+  public long getModificationCount() {
+    return positionsVersion + topologyVersion + uvVersion;
+  }
+
+  /**
+   * Returns a stamp that increases whenever vertex positions or the vertex list change. Caches
+   * that depend on positions, like bounds or vertex normals, compare it to the value they were
+   * computed for.
+   *
+   * @return the positions version.
+   */
+  public long getPositionsVersion() {
+    return positionsVersion;
+  }
+
+  /**
+   * Returns a stamp that increases whenever the face list or face indices change.
+   *
+   * @return the topology version.
+   */
+  public long getTopologyVersion() {
+    return topologyVersion;
+  }
+
+  /**
+   * Returns a stamp that increases whenever UV coordinates change.
+   *
+   * @return the UV version.
+   */
+  public long getUvVersion() {
+    return uvVersion;
+  }
+
+  /**
+   * Signals that everything may have changed. Code that changes {@link #vertices}, {@link #faces}
+   * or individual vertices directly, bypassing the methods of this class, has to call this or one
+   * of the more precise {@code mark...} methods afterwards.
+   */
+  public void markModified() {
+    markChanged(CHANGE_ALL);
+  }
+
+  /** Signals that vertex positions were changed directly. */
+  public void markPositionsChanged() {
+    markChanged(CHANGE_POSITIONS);
+  }
+
+  /** Signals that faces or face indices were changed directly. */
+  public void markTopologyChanged() {
+    markChanged(CHANGE_TOPOLOGY);
+  }
+
+  /** Signals that UV coordinates or face UV indices were changed directly. */
+  public void markUvsChanged() {
+    markChanged(CHANGE_UVS);
+  }
+
+  /**
+   * Increases the version stamps selected by the bit mask and notifies the listeners.
+   *
+   * @param changes a combination of the {@code CHANGE_...} flags.
+   */
+  public void markChanged(int changes) {
+    if ((changes & CHANGE_POSITIONS) != 0) positionsVersion++;
+    if ((changes & CHANGE_TOPOLOGY) != 0) topologyVersion++;
+    if ((changes & CHANGE_UVS) != 0) uvVersion++;
+    if (listeners == null || (changes & CHANGE_ALL) == 0) return;
+    for (MeshListener listener : listeners) {
+      listener.onMeshChanged(this, changes);
+    }
+  }
+
+  /**
+   * Registers a listener notified after every change of this mesh. Listeners are not copied by
+   * {@link #copy()}.
+   *
+   * @param listener the listener to add.
+   * @throws IllegalArgumentException if the listener is null.
+   */
+  public void addMeshListener(MeshListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null.");
+    }
+    if (listeners == null) {
+      listeners = new ArrayList<MeshListener>(2);
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a previously registered listener.
+   *
+   * @param listener the listener to remove.
+   */
+  public void removeMeshListener(MeshListener listener) {
+    if (listeners != null) {
+      listeners.remove(listener);
+    }
   }
 
   /**
@@ -48,7 +180,7 @@ public class Mesh3D {
    * @deprecated Use {@link RotateYModifier} instead.
    */
   public Mesh3D rotateY(float angle) {
-    return new RotateYModifier(angle).modify(this);
+    return apply(new RotateYModifier(angle));
   }
 
   /**
@@ -57,7 +189,7 @@ public class Mesh3D {
    * @deprecated Use {@link RotateZModifier} instead.
    */
   public Mesh3D rotateZ(float angle) {
-    return new RotateZModifier(angle).modify(this);
+    return apply(new RotateZModifier(angle));
   }
 
   /**
@@ -67,7 +199,7 @@ public class Mesh3D {
    */
   @Deprecated
   public Mesh3D translateX(float tx) {
-    return new TranslateModifier(tx, 0, 0).modify(this);
+    return apply(new TranslateModifier(tx, 0, 0));
   }
 
   /**
@@ -76,7 +208,7 @@ public class Mesh3D {
    * @deprecated Use {@link TranslateModifier} instead.
    */
   public Mesh3D translateY(float ty) {
-    return new TranslateModifier(0, ty, 0).modify(this);
+    return apply(new TranslateModifier(0, ty, 0));
   }
 
   /**
@@ -85,7 +217,7 @@ public class Mesh3D {
    * @deprecated Use {@link TranslateModifier} instead.
    */
   public Mesh3D translateZ(float tz) {
-    return new TranslateModifier(0, 0, tz).modify(this);
+    return apply(new TranslateModifier(0, 0, tz));
   }
 
   /**
@@ -133,9 +265,16 @@ public class Mesh3D {
     return faceNormal.normalize();
   }
 
+  /**
+   * Rounds all vertex positions to the given number of decimal places and merges the vertices that
+   * end up at the same position.
+   *
+   * @param decimalPlaces The number of decimal places to round to.
+   * @see RemoveDoubleVerticesModifier
+   */
   public void removeDoubles(int decimalPlaces) {
     for (Vector3f v : vertices) v.roundLocalDecimalPlaces(decimalPlaces);
-    removeDoubles();
+    apply(new RemoveDoubleVerticesModifier());
   }
 
   /**
@@ -144,7 +283,7 @@ public class Mesh3D {
    * @deprecated Use {@link RemoveDoubleVerticesModifier} instead.
    */
   public void removeDoubles() {
-    new RemoveDoubleVerticesModifier().modify(this);
+    apply(new RemoveDoubleVerticesModifier());
   }
 
   public Mesh3D copy() {
@@ -179,6 +318,7 @@ public class Mesh3D {
     faces.clear();
     faces.addAll(result.faces);
 
+    markChanged(CHANGE_POSITIONS | CHANGE_TOPOLOGY);
     return this;
   }
 
@@ -206,42 +346,52 @@ public class Mesh3D {
 
   public void clearVertices() {
     vertices.clear();
+    markPositionsChanged();
   }
 
   public void addVertex(float x, float y, float z) {
     vertices.add(new Vector3f(x, y, z));
+    markPositionsChanged();
   }
 
   public void addFace(int... indices) {
     faces.add(new Face3D(indices));
+    markTopologyChanged();
   }
   
   public void addFace(boolean uvs, int... indices) {
       faces.add(new Face3D(indices, indices));
+      markChanged(CHANGE_TOPOLOGY | CHANGE_UVS);
   }
 
   public void addVertices(Collection<Vector3f> vertices) {
     this.vertices.addAll(vertices);
+    markPositionsChanged();
   }
 
   public void addFaces(Collection<Face3D> faces) {
     this.faces.addAll(faces);
+    markTopologyChanged();
   }
 
   public void removeFace(Face3D face) {
     faces.remove(face);
+    markTopologyChanged();
   }
 
   public void removeFaces(Collection<Face3D> faces) {
     this.faces.removeAll(faces);
+    markTopologyChanged();
   }
 
   public void add(Vector3f... vertices) {
     this.vertices.addAll(Arrays.asList(vertices));
+    markPositionsChanged();
   }
 
   public void add(Face3D... faces) {
     this.faces.addAll(Arrays.asList(faces));
+    markTopologyChanged();
   }
 
   public int getVertexCount() {
@@ -289,6 +439,7 @@ public class Mesh3D {
    */
   public void addUvCoordinate(float u, float v) {
     uvs.add(new Vector2f(u, v));
+    markUvsChanged();
   }
 
   /**
@@ -308,6 +459,16 @@ public class Mesh3D {
       throw new IllegalArgumentException("The list of UV coordinates cannot be null.");
     }
     this.uvs = uvs;
+    markUvsChanged();
+  }
+
+  /**
+   * Returns the number of UV coordinates stored in this mesh.
+   *
+   * @return The number of UV coordinates.
+   */
+  public int getUvCount() {
+    return uvs.size();
   }
 
   /**
@@ -0,0 +1,23 @@
+package mesh;
+
+/**
+ * Receives change notifications from a {@link Mesh3D}.
+ *
+ * <p>Listeners are called synchronously on the thread that changed the mesh, once per change. The
+ * {@code changes} argument is a bit mask of {@link Mesh3D#CHANGE_POSITIONS}, {@link
+ * Mesh3D#CHANGE_TOPOLOGY} and {@link Mesh3D#CHANGE_UVS}, so caches can invalidate only what
+ * depends on the changed data. Implementations should be cheap, typically just marking a cache as
+ * stale.
+ *
+ * @see Mesh3D#addMeshListener(MeshListener)
+ */
+public interface MeshListener {
+
+  /**
+   * Called after the mesh was changed.
+   *
+   * @param mesh the changed mesh.
+   * @param changes the bit mask of changed data.
+   */
+  void onMeshChanged(Mesh3D mesh, int changes);
+}
@@ -0,0 +1,707 @@
+package mesh;
+
+import java.util.Arrays;
+
+import math.Color;
+import math.Vector2f;
+import math.Vector3f;
+import mesh.creator.IMeshCreator;
+import mesh.modifier.IMeshModifier;
+import mesh.util.Bounds3;
+
+/**
+ * A compact, structure-of-arrays representation of a polygon mesh.
+ *
+ * <p>Unlike {@link Mesh3D}, which stores one {@link Vector3f} per vertex and one {@link Face3D}
+ * object per face, this class keeps all data in flat primitive arrays:
+ *
+ * <ul>
+ *   <li>{@code positions} holds the interleaved x, y, z coordinates of all vertices.
+ *   <li>{@code faceOffsets} holds, for every face, the start offset of its corners within {@code
+ *       faceIndices}. The array always contains {@code faceCount + 1} valid entries, so the corner
+ *       count of face {@code f} is {@code faceOffsets[f + 1] - faceOffsets[f]}.
+ *   <li>{@code faceIndices} holds the vertex indices of all face corners.
+ * </ul>
+ *
+ * <p>UV coordinates and face colors are optional attribute channels. They are only allocated when
+ * used, so a mesh without UVs or colors pays nothing for them.
+ *
+ * <p>Conversion to and from {@link Mesh3D} is provided by {@link #fromMesh(Mesh3D)} and {@link
+ * #toMesh3D()}. Existing {@link IMeshModifier} and {@link IMeshCreator} implementations operate on
+ * {@link Mesh3D} and can be used through {@link #apply(IMeshModifier)} and {@link
+ * #create(IMeshCreator)}.
+ *
+ * <p>The raw backing arrays are exposed for performance-critical loops. Their length may exceed the
+ * number of valid elements; always use {@link #getVertexCount()}, {@link #getFaceCount()} and
+ * {@link #getIndexCount()} as loop bounds.
+ */
+public class PackedMesh3D {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /** Interleaved vertex positions (x, y, z). */
+  private float[] positions;
+
+  /** Number of valid vertices in {@link #positions}. */
+  private int vertexCount;
+
+  /** Corner start offsets of all faces, {@code faceCount + 1} valid entries. */
+  private int[] faceOffsets;
+
+  /** Number of valid faces. */
+  private int faceCount;
+
+  /** Vertex indices of all face corners. */
+  private int[] faceIndices;
+
+  /** Optional UV indices parallel to {@link #faceIndices}, {@code -1} if a corner has no UV. */
+  private int[] faceUvIndices;
+
+  /** Optional interleaved UV coordinates (u, v). */
+  private float[] uvs;
+
+  /** Number of valid UV coordinates. */
+  private int uvCount;
+
+  /** Optional interleaved per-face colors (r, g, b, a). */
+  private float[] faceColors;
+
+  /** Creates a new empty mesh with a small default capacity. */
+  public PackedMesh3D() {
+    this(DEFAULT_CAPACITY, DEFAULT_CAPACITY, DEFAULT_CAPACITY * 4);
+  }
+
+  /**
+   * Creates a new empty mesh with the given capacity hints. Sizing the mesh up front avoids
+   * repeated array growth when the final element counts are known.
+   *
+   * @param vertexCapacity the expected number of vertices.
+   * @param faceCapacity the expected number of faces.
+   * @param indexCapacity the expected total number of face corners.
+   * @throws IllegalArgumentException if any capacity is negative.
+   */
+  public PackedMesh3D(int vertexCapacity, int faceCapacity, int indexCapacity) {
+    if (vertexCapacity < 0 || faceCapacity < 0 || indexCapacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    positions = new float[vertexCapacity * 3];
+    faceOffsets = new int[faceCapacity + 1];
+    faceIndices = new int[indexCapacity];
+  }
+
+  /**
+   * Creates a packed copy of the given mesh. Vertex positions, face indices, UV coordinates and
+   * face colors are copied. Face normals and tags are not part of the packed representation.
+   *
+   * @param mesh the mesh to convert.
+   * @return a new packed mesh holding the same geometry.
+   * @throws IllegalArgumentException if the mesh is null.
+   */
+  public static PackedMesh3D fromMesh(Mesh3D mesh) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    int indexCount = 0;
+    for (Face3D face : mesh.faces) {
+      indexCount += face.indices.length;
+    }
+
+    PackedMesh3D packed =
+        new PackedMesh3D(mesh.getVertexCount(), mesh.getFaceCount(), indexCount);
+
+    for (Vector3f v : mesh.vertices) {
+      packed.addVertex(v.x, v.y, v.z);
+    }
+
+    for (int i = 0; i < mesh.getUvCount(); i++) {
+      Vector2f uv = mesh.getUvAt(i);
+      packed.addUvCoordinate(uv.getX(), uv.getY());
+    }
+
+    for (Face3D face : mesh.faces) {
+      int faceIndex = packed.addFace(face.indices);
+      if (face.getUvIndexAt(0) != -1) {
+        int[] uvIndices = new int[face.indices.length];
+        for (int i = 0; i < uvIndices.length; i++) {
+          uvIndices[i] = face.getUvIndexAt(i);
+        }
+        packed.setFaceUvIndices(faceIndex, uvIndices);
+      }
+      if (face.color != null && !isDefaultColor(face.color)) {
+        packed.setFaceColor(faceIndex, face.color);
+      }
+    }
+    return packed;
+  }
+
+  /**
+   * Creates a packed mesh from the output of the given creator.
+   *
+   * @param creator the creator to run.
+   * @return a new packed mesh holding the created geometry.
+   * @throws IllegalArgumentException if the creator is null.
+   */
+  public static PackedMesh3D create(IMeshCreator creator) {
+    if (creator == null) {
+      throw new IllegalArgumentException("Creator cannot be null.");
+    }
+    return fromMesh(creator.create());
+  }
+
+  private static boolean isDefaultColor(Color color) {
+    return color.getRed() == 0
+        && color.getGreen() == 0
+        && color.getBlue() == 0
+        && color.getAlpha() == 0;
+  }
+
+  /**
+   * Converts this packed mesh into a new {@link Mesh3D}.
+   *
+   * @return a new mesh holding the same geometry.
+   */
+  public Mesh3D toMesh3D() {
+    Mesh3D mesh = new Mesh3D();
+    mesh.vertices.ensureCapacity(vertexCount);
+    mesh.faces.ensureCapacity(faceCount);
+
+    for (int i = 0; i < vertexCount; i++) {
+      int offset = i * 3;
+      mesh.addVertex(positions[offset], positions[offset + 1], positions[offset + 2]);
+    }
+
+    for (int i = 0; i < uvCount; i++) {
+      mesh.addUvCoordinate(uvs[i * 2], uvs[i * 2 + 1]);
+    }
+
+    for (int f = 0; f < faceCount; f++) {
+      int start = faceOffsets[f];
+      int end = faceOffsets[f + 1];
+      Face3D face = new Face3D(Arrays.copyOfRange(faceIndices, start, end));
+      if (faceUvIndices != null && faceUvIndices[start] != -1) {
+        face.setUvIndices(Arrays.copyOfRange(faceUvIndices, start, end));
+      }
+      if (faceColors != null) {
+        int offset = f * 4;
+        face.color.set(
+            faceColors[offset], faceColors[offset + 1], faceColors[offset + 2],
+            faceColors[offset + 3]);
+      }
+      mesh.faces.add(face);
+    }
+    return mesh;
+  }
+
+  /**
+   * Applies the provided {@link IMeshModifier} to this mesh.
+   *
+   * <p>Modifiers operate on {@link Mesh3D}, so the geometry is converted, modified and packed
+   * again. The contents of this mesh are replaced by the result.
+   *
+   * @param modifier the modifier to apply.
+   * @return this
+   * @throws IllegalArgumentException if the modifier is null.
+   */
+  public PackedMesh3D apply(IMeshModifier modifier) {
+    if (modifier == null) {
+      throw new IllegalArgumentException("Modifier cannot be null.");
+    }
+    Mesh3D mesh = toMesh3D();
+    set(fromMesh(modifier.modify(mesh)));
+    return this;
+  }
+
+  /**
+   * Replaces the contents of this mesh with the contents of the given mesh. The backing arrays of
+   * the other mesh are adopted, not copied.
+   */
+  private void set(PackedMesh3D other) {
+    positions = other.positions;
+    vertexCount = other.vertexCount;
+    faceOffsets = other.faceOffsets;
+    faceCount = other.faceCount;
+    faceIndices = other.faceIndices;
+    faceUvIndices = other.faceUvIndices;
+    uvs = other.uvs;
+    uvCount = other.uvCount;
+    faceColors = other.faceColors;
+  }
+
+  /**
+   * Adds a vertex to the mesh.
+   *
+   * @param x the x-coordinate of the vertex.
+   * @param y the y-coordinate of the vertex.
+   * @param z the z-coordinate of the vertex.
+   * @return the index of the new vertex.
+   */
+  public int addVertex(float x, float y, float z) {
+    ensureVertexCapacity(vertexCount + 1);
+    int offset = vertexCount * 3;
+    positions[offset] = x;
+    positions[offset + 1] = y;
+    positions[offset + 2] = z;
+    return vertexCount++;
+  }
+
+  /**
+   * Adds a face referencing the given vertex indices.
+   *
+   * @param indices the vertex indices of the face corners in winding order.
+   * @return the index of the new face.
+   * @throws IllegalArgumentException if indices is null.
+   */
+  public int addFace(int... indices) {
+    if (indices == null) {
+      throw new IllegalArgumentException("Indices cannot be null.");
+    }
+    ensureFaceCapacity(faceCount + 1);
+    int start = faceOffsets[faceCount];
+    int end = start + indices.length;
+    ensureIndexCapacity(end);
+    System.arraycopy(indices, 0, faceIndices, start, indices.length);
+    if (faceUvIndices != null) {
+      Arrays.fill(faceUvIndices, start, end, -1);
+    }
+    faceOffsets[faceCount + 1] = end;
+    return faceCount++;
+  }
+
+  /**
+   * Adds a UV coordinate to the mesh.
+   *
+   * @param u the horizontal texture coordinate.
+   * @param v the vertical texture coordinate.
+   * @return the index of the new UV coordinate.
+   */
+  public int addUvCoordinate(float u, float v) {
+    if (uvs == null) {
+      uvs = new float[DEFAULT_CAPACITY * 2];
+    }
+    if (uvs.length < (uvCount + 1) * 2) {
+      uvs = Arrays.copyOf(uvs, grow(uvs.length, (uvCount + 1) * 2));
+    }
+    uvs[uvCount * 2] = u;
+    uvs[uvCount * 2 + 1] = v;
+    return uvCount++;
+  }
+
+  /**
+   * Assigns UV indices to the corners of the given face.
+   *
+   * @param face the index of the face.
+   * @param uvIndices one UV index per face corner.
+   * @throws IllegalArgumentException if the number of UV indices does not match the corner count.
+   */
+  public void setFaceUvIndices(int face, int... uvIndices) {
+    checkFaceIndex(face);
+    int start = faceOffsets[face];
+    int count = faceOffsets[face + 1] - start;
+    if (uvIndices == null || uvIndices.length != count) {
+      throw new IllegalArgumentException("UV index count must match the face corner count.");
+    }
+    if (faceUvIndices == null) {
+      faceUvIndices = new int[faceIndices.length];
+      Arrays.fill(faceUvIndices, -1);
+    }
+    System.arraycopy(uvIndices, 0, faceUvIndices, start, count);
+  }
+
+  /**
+   * Sets the color of the given face.
+   *
+   * @param face the index of the face.
+   * @param color the color to assign.
+   * @throws IllegalArgumentException if the color is null.
+   */
+  public void setFaceColor(int face, Color color) {
+    checkFaceIndex(face);
+    if (color == null) {
+      throw new IllegalArgumentException("Color cannot be null.");
+    }
+    if (faceColors == null) {
+      faceColors = new float[(faceOffsets.length - 1) * 4];
+    }
+    int offset = face * 4;
+    faceColors[offset] = color.getRed();
+    faceColors[offset + 1] = color.getGreen();
+    faceColors[offset + 2] = color.getBlue();
+    faceColors[offset + 3] = color.getAlpha();
+  }
+
+  /**
+   * Returns a new {@link Color} holding the color of the given face. Faces without an assigned
+   * color report (0, 0, 0, 0), matching the default of {@link Face3D#color}.
+   *
+   * @param face the index of the face.
+   * @return the face color.
+   */
+  public Color getFaceColor(int face) {
+    checkFaceIndex(face);
+    if (faceColors == null) {
+      return new Color();
+    }
+    int offset = face * 4;
+    return new Color(
+        faceColors[offset], faceColors[offset + 1], faceColors[offset + 2], faceColors[offset + 3]);
+  }
+
+  /**
+   * Returns whether the face color channel is allocated.
+   *
+   * @return true if at least one face color was assigned.
+   */
+  public boolean hasFaceColors() {
+    return faceColors != null;
+  }
+
+  /**
+   * Returns whether the UV channel is allocated.
+   *
+   * @return true if at least one face has UV indices.
+   */
+  public boolean hasUvIndices() {
+    return faceUvIndices != null;
+  }
+
+  /**
+   * Sets the position of the vertex at the given index.
+   *
+   * @param index the index of the vertex.
+   * @param x the new x-coordinate.
+   * @param y the new y-coordinate.
+   * @param z the new z-coordinate.
+   */
+  public void setVertexAt(int index, float x, float y, float z) {
+    checkVertexIndex(index);
+    int offset = index * 3;
+    positions[offset] = x;
+    positions[offset + 1] = y;
+    positions[offset + 2] = z;
+  }
+
+  /**
+   * Returns a new {@link Vector3f} holding the position of the vertex at the given index.
+   *
+   * @param index the index of the vertex.
+   * @return a new vector with the vertex position.
+   */
+  public Vector3f getVertexAt(int index) {
+    return getVertexAt(index, new Vector3f());
+  }
+
+  /**
+   * Stores the position of the vertex at the given index into {@code store}.
+   *
+   * @param index the index of the vertex.
+   * @param store the vector to write into.
+   * @return store
+   */
+  public Vector3f getVertexAt(int index, Vector3f store) {
+    checkVertexIndex(index);
+    int offset = index * 3;
+    return store.set(positions[offset], positions[offset + 1], positions[offset + 2]);
+  }
+
+  public float getX(int index) {
+    return positions[index * 3];
+  }
+
+  public float getY(int index) {
+    return positions[index * 3 + 1];
+  }
+
+  public float getZ(int index) {
+    return positions[index * 3 + 2];
+  }
+
+  /**
+   * Returns the number of corners of the given face.
+   *
+   * @param face the index of the face.
+   * @return the corner count.
+   */
+  public int getFaceVertexCount(int face) {
+    checkFaceIndex(face);
+    return faceOffsets[face + 1] - faceOffsets[face];
+  }
+
+  /**
+   * Returns the vertex index of a face corner. Like {@link Face3D#getIndexAt(int)} the corner index
+   * wraps around the face.
+   *
+   * @param face the index of the face.
+   * @param corner the corner of the face.
+   * @return the vertex index at the given corner.
+   */
+  public int getFaceIndexAt(int face, int corner) {
+    int count = getFaceVertexCount(face);
+    return faceIndices[faceOffsets[face] + Math.floorMod(corner, count)];
+  }
+
+  /**
+   * Returns the UV index of a face corner, or {@code -1} if the corner has no UV coordinate.
+   *
+   * @param face the index of the face.
+   * @param corner the corner of the face.
+   * @return the UV index, or -1.
+   */
+  public int getFaceUvIndexAt(int face, int corner) {
+    int count = getFaceVertexCount(face);
+    if (faceUvIndices == null) {
+      return -1;
+    }
+    return faceUvIndices[faceOffsets[face] + Math.floorMod(corner, count)];
+  }
+
+  /**
+   * Returns the UV coordinate at the given index, or (0, 0) if the index is out of bounds. This
+   * mirrors {@link Mesh3D#getUvAt(int)}.
+   *
+   * @param index the index of the UV coordinate.
+   * @return a new vector holding the UV coordinate.
+   */
+  public Vector2f getUvAt(int index) {
+    if (index < 0 || index >= uvCount) {
+      return new Vector2f(0, 0);
+    }
+    return new Vector2f(uvs[index * 2], uvs[index * 2 + 1]);
+  }
+
+  /**
+   * Calculates the normal of the given face with Newell's method, the same way {@link
+   * Mesh3D#calculateFaceNormal(Face3D)} does.
+   *
+   * @param face the index of the face.
+   * @param store the vector to write the normalized result into.
+   * @return store
+   */
+  public Vector3f calculateFaceNormal(int face, Vector3f store) {
+    checkFaceIndex(face);
+    int start = faceOffsets[face];
+    int end = faceOffsets[face + 1];
+    float nx = 0;
+    float ny = 0;
+    float nz = 0;
+    for (int i = start; i < end; i++) {
+      int current = faceIndices[i] * 3;
+      int next = faceIndices[i + 1 < end ? i + 1 : start] * 3;
+      float cx = positions[current];
+      float cy = positions[current + 1];
+      float cz = positions[current + 2];
+      float px = positions[next];
+      float py = positions[next + 1];
+      float pz = positions[next + 2];
+      nx += (cy - py) * (cz + pz);
+      ny += (cz - pz) * (cx + px);
+      nz += (cx - px) * (cy + py);
+    }
+    return store.set(nx, ny, nz).normalizeLocal();
+  }
+
+  /**
+   * Calculates the average of the corner positions of the given face.
+   *
+   * @param face the index of the face.
+   * @param store the vector to write the result into.
+   * @return store
+   */
+  public Vector3f calculateFaceCenter(int face, Vector3f store) {
+    checkFaceIndex(face);
+    int start = faceOffsets[face];
+    int end = faceOffsets[face + 1];
+    float x = 0;
+    float y = 0;
+    float z = 0;
+    for (int i = start; i < end; i++) {
+      int offset = faceIndices[i] * 3;
+      x += positions[offset];
+      y += positions[offset + 1];
+      z += positions[offset + 2];
+    }
+    int count = end - start;
+    return store.set(x / count, y / count, z / count);
+  }
+
+  /**
+   * Calculates the axis-aligned bounding box of all vertices. If the mesh has no vertices an empty
+   * {@link Bounds3} is returned.
+   *
+   * @return the bounding box of this mesh.
+   */
+  public Bounds3 calculateBounds() {
+    Bounds3 bounds = new Bounds3();
+    if (vertexCount == 0) return bounds;
+
+    float minX = positions[0];
+    float minY = positions[1];
+    float minZ = positions[2];
+    float maxX = minX;
+    float maxY = minY;
+    float maxZ = minZ;
+    for (int i = 3; i < vertexCount * 3; i += 3) {
+      float x = positions[i];
+      float y = positions[i + 1];
+      float z = positions[i + 2];
+      minX = x < minX ? x : minX;
+      minY = y < minY ? y : minY;
+      minZ = z < minZ ? z : minZ;
+      maxX = x > maxX ? x : maxX;
+      maxY = y > maxY ? y : maxY;
+      maxZ = z > maxZ ? z : maxZ;
+    }
+    bounds.setMin(minX, minY, minZ);
+    bounds.setMax(maxX, maxY, maxZ);
+    return bounds;
+  }
+
+  /** Removes all vertices, faces and attributes while keeping the allocated capacity. */
+  public void clear() {
+    vertexCount = 0;
+    faceCount = 0;
+    uvCount = 0;
+    faceOffsets[0] = 0;
+    faceUvIndices = null;
+    faceColors = null;
+  }
+
+  /** Shrinks the backing arrays to the number of valid elements. */
+  public void trimToSize() {
+    int indexCount = getIndexCount();
+    positions = Arrays.copyOf(positions, vertexCount * 3);
+    faceOffsets = Arrays.copyOf(faceOffsets, faceCount + 1);
+    faceIndices = Arrays.copyOf(faceIndices, indexCount);
+    if (faceUvIndices != null) faceUvIndices = Arrays.copyOf(faceUvIndices, indexCount);
+    if (uvs != null) uvs = Arrays.copyOf(uvs, uvCount * 2);
+    if (faceColors != null) faceColors = Arrays.copyOf(faceColors, faceCount * 4);
+  }
+
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  public int getFaceCount() {
+    return faceCount;
+  }
+
+  public int getUvCount() {
+    return uvCount;
+  }
+
+  /**
+   * Returns the total number of face corners.
+   *
+   * @return the number of valid entries in {@link #getFaceIndices()}.
+   */
+  public int getIndexCount() {
+    return faceOffsets[faceCount];
+  }
+
+  /**
+   * Returns the backing position array (x, y, z interleaved). Only the first {@code
+   * getVertexCount() * 3} entries are valid. Writes go straight into the mesh.
+   *
+   * @return the backing position array.
+   */
+  public float[] getPositions() {
+    return positions;
+  }
+
+  /**
+   * Returns the backing face offset array. Only the first {@code getFaceCount() + 1} entries are
+   * valid.
+   *
+   * @return the backing face offset array.
+   */
+  public int[] getFaceOffsets() {
+    return faceOffsets;
+  }
+
+  /**
+   * Returns the backing corner index array. Only the first {@link #getIndexCount()} entries are
+   * valid.
+   *
+   * @return the backing corner index array.
+   */
+  public int[] getFaceIndices() {
+    return faceIndices;
+  }
+
+  /**
+   * Returns the backing UV array (u, v interleaved). Only the first {@code getUvCount() * 2}
+   * entries are valid.
+   *
+   * @return the backing UV array, or null if the mesh has no UVs.
+   */
+  public float[] getUvs() {
+    return uvs;
+  }
+
+  /**
+   * Returns the backing corner UV index array, parallel to {@link #getFaceIndices()}. Corners
+   * without UV coordinates hold -1.
+   *
+   * @return the backing corner UV index array, or null if no face has UV indices.
+   */
+  public int[] getFaceUvIndices() {
+    return faceUvIndices;
+  }
+
+  /**
+   * Makes sure the mesh can hold at least the given number of vertices without growing.
+   *
+   * @param capacity the minimum vertex capacity.
+   */
+  public void ensureVertexCapacity(int capacity) {
+    if (positions.length < capacity * 3) {
+      positions = Arrays.copyOf(positions, grow(positions.length, capacity * 3));
+    }
+  }
+
+  /**
+   * Makes sure the mesh can hold at least the given number of faces without growing.
+   *
+   * @param capacity the minimum face capacity.
+   */
+  public void ensureFaceCapacity(int capacity) {
+    if (faceOffsets.length < capacity + 1) {
+      faceOffsets = Arrays.copyOf(faceOffsets, grow(faceOffsets.length, capacity + 1));
+    }
+    if (faceColors != null && faceColors.length < capacity * 4) {
+      faceColors = Arrays.copyOf(faceColors, (faceOffsets.length - 1) * 4);
+    }
+  }
+
+  /**
+   * Makes sure the mesh can hold at least the given number of face corners without growing.
+   *
+   * @param capacity the minimum corner capacity.
+   */
+  public void ensureIndexCapacity(int capacity) {
+    if (faceIndices.length < capacity) {
+      int length = grow(faceIndices.length, capacity);
+      faceIndices = Arrays.copyOf(faceIndices, length);
+      if (faceUvIndices != null) {
+        int oldLength = faceUvIndices.length;
+        faceUvIndices = Arrays.copyOf(faceUvIndices, length);
+        Arrays.fill(faceUvIndices, oldLength, length, -1);
+      }
+    }
+  }
+
+  private static int grow(int current, int required) {
+    return Math.max(required, current + (current >> 1) + 1);
+  }
+
+  private void checkVertexIndex(int index) {
+    if (index < 0 || index >= vertexCount) {
+      throw new IndexOutOfBoundsException("Vertex index out of bounds: " + index);
+    }
+  }
+
+  private void checkFaceIndex(int face) {
+    if (face < 0 || face >= faceCount) {
+      throw new IndexOutOfBoundsException("Face index out of bounds: " + face);
+    }
+  }
+}
@@ -0,0 +1,496 @@
+package mesh;
+
+import math.Vector3f;
+import mesh.util.Bounds3;
+
+/**
+ * A compact, quantized form of an {@link IndexedMesh3D} for meshes that stay resident in memory.
+ *
+ * <p>Every attribute is stored with the precision rendering needs instead of full floats:
+ *
+ * <ul>
+ *   <li>positions as three unsigned 16-bit values within the {@link #getBounds() bounds} of the
+ *       mesh, an error of at most 1/131070 of the extent per axis,
+ *   <li>UV coordinates as two unsigned 16-bit values within the range of all UVs,
+ *   <li>normals octahedron-encoded into two signed bytes, an angular error below one degree,
+ *   <li>indices as {@code short} when the mesh has at most 65536 vertices, as {@code int}
+ *       otherwise.
+ * </ul>
+ *
+ * <p>A vertex with position, UV and normal takes 12 bytes instead of 32 and every index 2 bytes
+ * instead of 4. Attributes are decoded on access with {@link #getPosition(int, float[], int)},
+ * {@link #getUv(int, float[], int)} and {@link #getNormal(int, float[], int)}, or all at once with
+ * {@link #decode()}.
+ */
+public class QuantizedMesh3D {
+
+  private static final float MAX_UNSIGNED = 65535f;
+
+  private static final float MAX_SNORM = 127f;
+
+  private int vertexCount;
+
+  private int faceCount;
+
+  private Bounds3 bounds;
+
+  /** Minimum and extent of all positions per axis. */
+  private float[] positionRange;
+
+  /** Minimum and extent of all UVs per axis, null if the mesh has no UVs. */
+  private float[] uvRange;
+
+  private short[] positions;
+
+  private short[] uvs;
+
+  private byte[] normals;
+
+  private short[] shortIndices;
+
+  private int[] intIndices;
+
+  /**
+   * Creates a mesh from already quantized data, as stored by a binary mesh file.
+   *
+   * @param vertexCount the number of vertices
+   * @param faceCount the number of polygons the triangles were created from
+   * @param bounds the bounds the positions are quantized in
+   * @param uvMin the minimum u and v the UVs are quantized in, or null if the mesh has no UVs
+   * @param uvMax the maximum u and v the UVs are quantized in, or null if the mesh has no UVs
+   * @param positions three quantized coordinates per vertex
+   * @param uvs two quantized coordinates per vertex, or null
+   * @param normals two octahedral bytes per vertex, or null
+   * @param shortIndices the triangle indices if the mesh has at most 65536 vertices, else null
+   * @param intIndices the triangle indices if {@code shortIndices} is null
+   * @throws IllegalArgumentException if the arrays do not match the vertex count
+   */
+  public QuantizedMesh3D(
+      int vertexCount,
+      int faceCount,
+      Bounds3 bounds,
+      float[] uvMin,
+      float[] uvMax,
+      short[] positions,
+      short[] uvs,
+      byte[] normals,
+      short[] shortIndices,
+      int[] intIndices) {
+    if (bounds == null) {
+      throw new IllegalArgumentException("Bounds cannot be null.");
+    }
+    if (positions == null || positions.length != vertexCount * 3) {
+      throw new IllegalArgumentException("Positions do not match the vertex count.");
+    }
+    if (uvs != null && (uvs.length != vertexCount * 2 || uvMin == null || uvMax == null)) {
+      throw new IllegalArgumentException("UVs do not match the vertex count.");
+    }
+    if (normals != null && normals.length != vertexCount * 2) {
+      throw new IllegalArgumentException("Normals do not match the vertex count.");
+    }
+    if ((shortIndices == null) == (intIndices == null)) {
+      throw new IllegalArgumentException("Exactly one index array is required.");
+    }
+    if (shortIndices != null && vertexCount > 65536) {
+      throw new IllegalArgumentException("Short indices require at most 65536 vertices.");
+    }
+    this.vertexCount = vertexCount;
+    this.faceCount = faceCount;
+    this.bounds = copy(bounds);
+    this.positions = positions;
+    this.uvs = uvs;
+    this.normals = normals;
+    this.shortIndices = shortIndices;
+    this.intIndices = intIndices;
+    positionRange =
+        new float[] {
+          bounds.getMinX(), bounds.getMinY(), bounds.getMinZ(),
+          bounds.getWidth(), bounds.getHeight(), bounds.getDepth()
+        };
+    if (uvs != null) {
+      uvRange = new float[] {uvMin[0], uvMin[1], uvMax[0] - uvMin[0], uvMax[1] - uvMin[1]};
+    }
+  }
+
+  /**
+   * Quantizes the given mesh.
+   *
+   * @param mesh the mesh to quantize
+   * @return the quantized mesh
+   * @throws IllegalArgumentException if the mesh is null
+   */
+  public static QuantizedMesh3D encode(IndexedMesh3D mesh) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    float[] data = mesh.getVertexData();
+    int stride = mesh.getStride();
+    int count = mesh.getVertexCount();
+
+    float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+    float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+    range(data, count, stride, 0, 3, min, max);
+    if (count == 0) {
+      min = new float[3];
+      max = new float[3];
+    }
+    Bounds3 bounds = new Bounds3();
+    bounds.setMinMax(new Vector3f(min[0], min[1], min[2]), new Vector3f(max[0], max[1], max[2]));
+    short[] positions = new short[count * 3];
+    quantize(data, count, stride, 0, 3, min, max, positions);
+
+    float[] uvMin = null;
+    float[] uvMax = null;
+    short[] uvs = null;
+    if (mesh.hasUvs()) {
+      uvMin = new float[] {Float.MAX_VALUE, Float.MAX_VALUE};
+      uvMax = new float[] {-Float.MAX_VALUE, -Float.MAX_VALUE};
+      range(data, count, stride, mesh.getUvOffset(), 2, uvMin, uvMax);
+      if (count == 0) {
+        uvMin = new float[2];
+        uvMax = new float[2];
+      }
+      uvs = new short[count * 2];
+      quantize(data, count, stride, mesh.getUvOffset(), 2, uvMin, uvMax, uvs);
+    }
+
+    byte[] normals = null;
+    if (mesh.hasNormals()) {
+      normals = new byte[count * 2];
+      for (int i = 0; i < count; i++) {
+        int offset = i * stride + mesh.getNormalOffset();
+        encodeNormal(data[offset], data[offset + 1], data[offset + 2], normals, i * 2);
+      }
+    }
+
+    int[] indices = mesh.getIndices();
+    short[] shortIndices = null;
+    int[] intIndices = null;
+    if (count <= 65536) {
+      shortIndices = new short[indices.length];
+      for (int i = 0; i < indices.length; i++) {
+        shortIndices[i] = (short) indices[i];
+      }
+    } else {
+      intIndices = indices.clone();
+    }
+    return new QuantizedMesh3D(
+        count,
+        mesh.getFaceCount(),
+        bounds,
+        uvMin,
+        uvMax,
+        positions,
+        uvs,
+        normals,
+        shortIndices,
+        intIndices);
+  }
+
+  private static void range(
+      float[] data, int count, int stride, int offset, int size, float[] min, float[] max) {
+    for (int i = 0; i < count; i++) {
+      int base = i * stride + offset;
+      for (int j = 0; j < size; j++) {
+        float value = data[base + j];
+        min[j] = Math.min(min[j], value);
+        max[j] = Math.max(max[j], value);
+      }
+    }
+  }
+
+  private static void quantize(
+      float[] data,
+      int count,
+      int stride,
+      int offset,
+      int size,
+      float[] min,
+      float[] max,
+      short[] store) {
+    float[] scale = new float[size];
+    for (int j = 0; j < size; j++) {
+      float extent = max[j] - min[j];
+      scale[j] = extent > 0 ? MAX_UNSIGNED / extent : 0;
+    }
+    for (int i = 0; i < count; i++) {
+      int base = i * stride + offset;
+      for (int j = 0; j < size; j++) {
+        int q = Math.round((data[base + j] - min[j]) * scale[j]);
+        store[i * size + j] = (short) Math.max(0, Math.min(65535, q));
+      }
+    }
+  }
+
+  /**
+   * Encodes a normal into two signed bytes with an octahedral mapping. The unit sphere is
+   * projected onto an octahedron and the lower half folded over the upper one, which spreads the
+   * precision evenly over all directions.
+   *
+   * @param x the x coordinate of the normal
+   * @param y the y coordinate of the normal
+   * @param z the z coordinate of the normal
+   * @param store the array receiving the two bytes
+   * @param offset the position of the first byte
+   */
+  public static void encodeNormal(float x, float y, float z, byte[] store, int offset) {
+    float length = Math.abs(x) + Math.abs(y) + Math.abs(z);
+    float u = 0;
+    float v = 0;
+    if (length > 0) {
+      u = x / length;
+      v = y / length;
+      if (z < 0) {
+        float foldedU = (1 - Math.abs(v)) * signNotZero(u);
+        float foldedV = (1 - Math.abs(u)) * signNotZero(v);
+        u = foldedU;
+        v = foldedV;
+      }
+    }
+    store[offset] = (byte) Math.round(Math.max(-1, Math.min(1, u)) * MAX_SNORM);
+    store[offset + 1] = (byte) Math.round(Math.max(-1, Math.min(1, v)) * MAX_SNORM);
+  }
+
+  /**
+   * Decodes a normal encoded by {@link #encodeNormal(float, float, float, byte[], int)}.
+   *
+   * @param encoded the array holding the two bytes
+   * @param offset the position of the first byte
+   * @param store the array receiving the unit normal, x, y, z
+   * @param storeOffset the position of x in {@code store}
+   */
+  public static void decodeNormal(byte[] encoded, int offset, float[] store, int storeOffset) {
+    float x = encoded[offset] / MAX_SNORM;
+    float y = encoded[offset + 1] / MAX_SNORM;
+    float z = 1 - Math.abs(x) - Math.abs(y);
+    if (z < 0) {
+      float unfoldedX = (1 - Math.abs(y)) * signNotZero(x);
+      float unfoldedY = (1 - Math.abs(x)) * signNotZero(y);
+      x = unfoldedX;
+      y = unfoldedY;
+    }
+    float length = (float) Math.sqrt(x * x + y * y + z * z);
+    store[storeOffset] = x / length;
+    store[storeOffset + 1] = y / length;
+    store[storeOffset + 2] = z / length;
+  }
+
+  /** Returns 1 for zero as well, unlike {@link Math#signum(float)}, the fold needs a side. */
+  private static float signNotZero(float value) {
+    return value >= 0 ? 1 : -1;
+  }
+
+  /**
+   * Decodes the position of a vertex.
+   *
+   * @param vertex the vertex index
+   * @param store the array receiving x, y, z
+   * @param offset the position of x in {@code store}
+   */
+  public void getPosition(int vertex, float[] store, int offset) {
+    int base = vertex * 3;
+    for (int j = 0; j < 3; j++) {
+      store[offset + j] =
+          positionRange[j] + (positions[base + j] & 0xFFFF) / MAX_UNSIGNED * positionRange[j + 3];
+    }
+  }
+
+  /**
+   * Decodes the UV coordinate of a vertex. The mesh must {@link #hasUvs() have UVs}.
+   *
+   * @param vertex the vertex index
+   * @param store the array receiving u, v
+   * @param offset the position of u in {@code store}
+   */
+  public void getUv(int vertex, float[] store, int offset) {
+    int base = vertex * 2;
+    store[offset] = uvRange[0] + (uvs[base] & 0xFFFF) / MAX_UNSIGNED * uvRange[2];
+    store[offset + 1] = uvRange[1] + (uvs[base + 1] & 0xFFFF) / MAX_UNSIGNED * uvRange[3];
+  }
+
+  /**
+   * Decodes the unit normal of a vertex. The mesh must {@link #hasNormals() have normals}.
+   *
+   * @param vertex the vertex index
+   * @param store the array receiving x, y, z
+   * @param offset the position of x in {@code store}
+   */
+  public void getNormal(int vertex, float[] store, int offset) {
+    decodeNormal(normals, vertex * 2, store, offset);
+  }
+
+  /**
+   * Returns one triangle index.
+   *
+   * @param i the position in the index list
+   * @return the vertex index
+   */
+  public int getIndex(int i) {
+    return shortIndices != null ? shortIndices[i] & 0xFFFF : intIndices[i];
+  }
+
+  /**
+   * Decodes the mesh into full precision floats. The result has the same vertices, in the same
+   * order, as the mesh this one was encoded from, within the quantization error.
+   *
+   * @return the decoded mesh
+   */
+  public IndexedMesh3D decode() {
+    int uvOffset = hasUvs() ? 3 : -1;
+    int normalOffset = hasNormals() ? (hasUvs() ? 5 : 3) : -1;
+    int stride = 3 + (hasUvs() ? 2 : 0) + (hasNormals() ? 3 : 0);
+    float[] data = new float[vertexCount * stride];
+    for (int i = 0; i < vertexCount; i++) {
+      int offset = i * stride;
+      getPosition(i, data, offset);
+      if (uvOffset != -1) {
+        getUv(i, data, offset + uvOffset);
+      }
+      if (normalOffset != -1) {
+        getNormal(i, data, offset + normalOffset);
+      }
+    }
+    int[] indices = new int[getIndexCount()];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = getIndex(i);
+    }
+    return new IndexedMesh3D(
+        data, vertexCount, stride, uvOffset, normalOffset, indices, faceCount, null);
+  }
+
+  /**
+   * Returns the memory held by the attribute and index arrays.
+   *
+   * @return the size in bytes
+   */
+  public long getSizeInBytes() {
+    long size = positions.length * 2L;
+    if (uvs != null) {
+      size += uvs.length * 2L;
+    }
+    if (normals != null) {
+      size += normals.length;
+    }
+    size += shortIndices != null ? shortIndices.length * 2L : intIndices.length * 4L;
+    return size;
+  }
+
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  public int getIndexCount() {
+    return shortIndices != null ? shortIndices.length : intIndices.length;
+  }
+
+  public int getTriangleCount() {
+    return getIndexCount() / 3;
+  }
+
+  /**
+   * Returns the number of polygons the triangles were created from.
+   *
+   * @return the source face count
+   */
+  public int getFaceCount() {
+    return faceCount;
+  }
+
+  /**
+   * Returns the bounds the positions are quantized in, the bounds of the mesh.
+   *
+   * @return a copy of the bounds
+   */
+  public Bounds3 getBounds() {
+    return copy(bounds);
+  }
+
+  /** Copies the bounds by their corners, the copy constructor would round them. */
+  private static Bounds3 copy(Bounds3 bounds) {
+    Bounds3 copy = new Bounds3();
+    copy.setMinMax(bounds.getMin(), bounds.getMax());
+    return copy;
+  }
+
+  /**
+   * Returns the minimum u and v the UVs are quantized in.
+   *
+   * @return a new array holding u, v, or null if the mesh has no UVs
+   */
+  public float[] getUvMin() {
+    return uvRange == null ? null : new float[] {uvRange[0], uvRange[1]};
+  }
+
+  /**
+   * Returns the maximum u and v the UVs are quantized in.
+   *
+   * @return a new array holding u, v, or null if the mesh has no UVs
+   */
+  public float[] getUvMax() {
+    return uvRange == null
+        ? null
+        : new float[] {uvRange[0] + uvRange[2], uvRange[1] + uvRange[3]};
+  }
+
+  public boolean hasUvs() {
+    return uvs != null;
+  }
+
+  public boolean hasNormals() {
+    return normals != null;
+  }
+
+  /**
+   * Returns whether the indices are stored as {@code short}, see {@link #getShortIndices()}.
+   *
+   * @return true for 16-bit indices, false for 32-bit indices
+   */
+  public boolean hasShortIndices() {
+    return shortIndices != null;
+  }
+
+  /**
+   * Returns the quantized positions, three unsigned 16-bit values per vertex.
+   *
+   * @return the positions, not a copy
+   */
+  public short[] getPositions() {
+    return positions;
+  }
+
+  /**
+   * Returns the quantized UVs, two unsigned 16-bit values per vertex.
+   *
+   * @return the UVs, not a copy, or null if the mesh has no UVs
+   */
+  public short[] getUvs() {
+    return uvs;
+  }
+
+  /**
+   * Returns the octahedron-encoded normals, two signed bytes per vertex.
+   *
+   * @return the normals, not a copy, or null if the mesh has no normals
+   */
+  public byte[] getNormals() {
+    return normals;
+  }
+
+  /**
+   * Returns the triangle indices as unsigned 16-bit values.
+   *
+   * @return the indices, not a copy, or null if the indices are stored as int
+   */
+  public short[] getShortIndices() {
+    return shortIndices;
+  }
+
+  /**
+   * Returns the triangle indices of meshes with more than 65536 vertices.
+   *
+   * @return the indices, not a copy, or null if the indices are stored as short
+   */
+  public int[] getIntIndices() {
+    return intIndices;
+  }
+}
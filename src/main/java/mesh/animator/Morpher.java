@@ -90,6 +90,7 @@ public class Morpher extends AbstractAnimator {
         }
 
         count = 0;
+        mesh.markPositionsChanged();
     }
 
     public void toggle() {
@@ -40,6 +40,7 @@ public class MoveAlongNormalAnimator extends AbstractAnimator {
             Vector3f v0 = originals.get(i);
             v.set(v0);
         }
+        mesh.markPositionsChanged();
         time = 0;
         setFinished(false);
     }
@@ -58,6 +59,7 @@ public class MoveAlongNormalAnimator extends AbstractAnimator {
             Vector3f v = mesh.getVertexAt(face.indices[i]);
             v.addLocal(normal.mult(speed * tpf));
         }
+        mesh.markPositionsChanged();
     }
 
     public float getLifeTime() {
@@ -0,0 +1,38 @@
+package mesh.creator;
+
+import mesh.Mesh3D;
+
+/**
+ * Wraps a creator so its meshes are taken from a {@link MeshCache}. The key
+ * is derived from the wrapped creator on every call, so changing its
+ * parameters selects a different cache entry.
+ */
+public class CachedMeshCreator implements IMeshCreator {
+
+    private IMeshCreator creator;
+
+    private MeshCache cache;
+
+    public CachedMeshCreator(IMeshCreator creator, MeshCache cache) {
+        if (creator == null)
+            throw new IllegalArgumentException("Creator cannot be null.");
+        if (cache == null)
+            throw new IllegalArgumentException("Cache cannot be null.");
+        this.creator = creator;
+        this.cache = cache;
+    }
+
+    @Override
+    public Mesh3D create() {
+        return cache.create(creator);
+    }
+
+    public IMeshCreator getCreator() {
+        return creator;
+    }
+
+    public MeshCache getCache() {
+        return cache;
+    }
+
+}
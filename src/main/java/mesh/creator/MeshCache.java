@@ -0,0 +1,235 @@
+package mesh.creator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import mesh.Face3D;
+import mesh.Mesh3D;
+import mesh.io.BinaryMeshReader;
+import mesh.io.BinaryMeshWriter;
+
+/**
+ * A persistent, size-bounded cache of generated meshes in a local directory.
+ *
+ * Meshes are addressed by a digest of the creator that generates them, see
+ * {@link #createKey(IMeshCreator)}: on a hit the mesh is loaded from its
+ * binary cache file, on a miss the creator runs and the result is stored.
+ * Entries are written to a temporary file first and moved into place, so
+ * concurrent readers and interrupted writes never see partial files. When
+ * the total size of all entries exceeds the limit, the least recently used
+ * entries are deleted; the file modification time records the last use.
+ *
+ * Meshes with tagged faces are returned but not stored, the binary format
+ * does not keep face tags. Creators run outside the lock of the cache, so
+ * meshes are generated concurrently; two threads missing the same key may
+ * both generate it.
+ *
+ * The cache never makes mesh creation fail. Unreadable entries are deleted
+ * and regenerated, write errors are reported and the generated mesh is
+ * returned anyway.
+ *
+ * @see CachedMeshCreator
+ */
+public class MeshCache {
+
+    private static final String EXTENSION = ".msh";
+
+    private File directory;
+
+    private long maxSize;
+
+    private int hitCount;
+
+    private int missCount;
+
+    /**
+     * Creates a cache in the given directory, which is created if needed.
+     *
+     * @param directory the cache directory
+     * @param maxSize   the maximum total size of all entries in bytes
+     */
+    public MeshCache(File directory, long maxSize) {
+        if (directory == null)
+            throw new IllegalArgumentException("Directory cannot be null.");
+        if (maxSize < 0)
+            throw new IllegalArgumentException("Size cannot be negative.");
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the mesh of the given creator from the cache, creating and
+     * storing it on a miss.
+     *
+     * @param creator the creator of the mesh
+     * @return the cached or a newly created mesh
+     * @throws IllegalArgumentException if no key can be derived from the
+     *                                  creator
+     */
+    public Mesh3D create(IMeshCreator creator) {
+        return createCached(createKey(creator), creator);
+    }
+
+    /**
+     * Returns the mesh for an explicit key, creating and storing it on a
+     * miss. Use this for meshes whose creator state does not identify them,
+     * such as lambdas applying a Conway expression.
+     *
+     * @param name    the name identifying the mesh
+     * @param creator the creator of the mesh
+     * @return the cached or a newly created mesh
+     */
+    public Mesh3D create(String name, IMeshCreator creator) {
+        if (creator == null)
+            throw new IllegalArgumentException("Creator cannot be null.");
+        return createCached(MeshCacheKey.of(name), creator);
+    }
+
+    private Mesh3D createCached(String key, IMeshCreator creator) {
+        File file = new File(directory, key + EXTENSION);
+        synchronized (this) {
+            Mesh3D mesh = load(file);
+            if (mesh != null) {
+                hitCount++;
+                return mesh;
+            }
+            missCount++;
+        }
+        Mesh3D mesh = creator.create();
+        if (hasTags(mesh))
+            return mesh;
+        synchronized (this) {
+            try {
+                store(mesh, file);
+                evict(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return mesh;
+    }
+
+    private boolean hasTags(Mesh3D mesh) {
+        for (Face3D face : mesh.faces) {
+            if (face.tag != null && !face.tag.isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cache key for the current state of the given creator, a
+     * digest of its class, bytecode and field values.
+     *
+     * @param creator the creator
+     * @return the key, a hexadecimal SHA-256 digest
+     * @throws IllegalArgumentException if a field of the creator holds a
+     *                                  value that cannot be digested
+     */
+    public String createKey(IMeshCreator creator) {
+        return MeshCacheKey.of(creator);
+    }
+
+    private Mesh3D load(File file) {
+        if (!file.isFile())
+            return null;
+        try {
+            Mesh3D mesh = new BinaryMeshReader().read(file).toMesh3D();
+            file.setLastModified(System.currentTimeMillis());
+            return mesh;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            file.delete();
+            return null;
+        }
+    }
+
+    private void store(Mesh3D mesh, File file) throws IOException {
+        Files.createDirectories(directory.toPath());
+        File temporary = File.createTempFile("mesh", ".tmp", directory);
+        try {
+            new BinaryMeshWriter(temporary).write(mesh);
+            try {
+                Files.move(temporary.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temporary.delete();
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits its
+     * size limit. The given entry, which was just stored, is kept.
+     */
+    private void evict(File keep) {
+        File[] files = entries();
+        long size = 0;
+        for (File file : files)
+            size += file.length();
+        if (size <= maxSize)
+            return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (size <= maxSize)
+                break;
+            if (file.equals(keep))
+                continue;
+            long length = file.length();
+            if (file.delete())
+                size -= length;
+        }
+    }
+
+    private File[] entries() {
+        File[] files = directory
+                .listFiles((dir, name) -> name.endsWith(EXTENSION));
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * Deletes all entries.
+     */
+    public synchronized void clear() {
+        for (File file : entries())
+            file.delete();
+    }
+
+    /**
+     * Returns the total size of all entries.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        long size = 0;
+        for (File file : entries())
+            size += file.length();
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+}
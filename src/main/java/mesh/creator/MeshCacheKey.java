@@ -0,0 +1,333 @@
+package mesh.creator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import math.Vector2f;
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+
+/**
+ * Derives {@link MeshCache} keys from the state of mesh creators.
+ *
+ * The key is a SHA-256 digest of the library build, the creator class, its
+ * bytecode and the values of all instance fields, including those declared
+ * by superclasses. The library build is a digest of the code source of the
+ * {@code mesh} package, the jar file or the class files of the {@code mesh}
+ * and {@code math} packages, so changes to the modifiers and helpers a
+ * creator calls invalidate its entries as well.
+ * Field values are digested recursively: primitives, strings and enums by
+ * value, arrays, lists and maps in order, sets independent of their order,
+ * meshes by their geometry and any other object by its own fields. Static
+ * and transient fields are ignored.
+ */
+final class MeshCacheKey {
+
+    /** Changes whenever the key derivation or the stored format changes. */
+    private static final int VERSION = 1;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Digest of the library build, computed once per process. */
+    private static byte[] library;
+
+    private MessageDigest digest;
+
+    /** Objects on the current path, to cut reference cycles. */
+    private Map<Object, Integer> visiting;
+
+    private MeshCacheKey() {
+        digest = newDigest();
+        visiting = new IdentityHashMap<Object, Integer>();
+    }
+
+    /**
+     * Returns the key for the current state of the given creator.
+     *
+     * @param creator the creator
+     * @return a hexadecimal SHA-256 digest
+     * @throws IllegalArgumentException if a field holds a value that cannot
+     *                                  be digested
+     */
+    static String of(IMeshCreator creator) {
+        if (creator == null)
+            throw new IllegalArgumentException("Creator cannot be null.");
+        MeshCacheKey key = new MeshCacheKey();
+        key.putInt(VERSION);
+        key.digest.update(library());
+        key.putBytecode(creator.getClass());
+        key.putValue(creator);
+        return toHex(key.digest.digest());
+    }
+
+    /**
+     * Returns the key for an explicit name, such as a Conway expression.
+     *
+     * @param name the name identifying the mesh
+     * @return a hexadecimal SHA-256 digest
+     */
+    static String of(String name) {
+        if (name == null)
+            throw new IllegalArgumentException("Name cannot be null.");
+        MeshCacheKey key = new MeshCacheKey();
+        key.putInt(VERSION);
+        key.digest.update(library());
+        key.putString("name");
+        key.putString(name);
+        return toHex(key.digest.digest());
+    }
+
+    private static synchronized byte[] library() {
+        if (library == null) {
+            MessageDigest digest = newDigest();
+            CodeSource source = Mesh3D.class.getProtectionDomain()
+                    .getCodeSource();
+            try {
+                if (source != null && source.getLocation() != null)
+                    digestCodeSource(digest,
+                            Paths.get(source.getLocation().toURI()));
+            } catch (IOException | URISyntaxException
+                    | UncheckedIOException e) {
+                // Without the build the key still covers the creator.
+            }
+            library = digest.digest();
+        }
+        return library;
+    }
+
+    private static void digestCodeSource(MessageDigest digest, Path location)
+            throws IOException {
+        if (Files.isRegularFile(location)) {
+            digest.update(Files.readAllBytes(location));
+            return;
+        }
+        for (String name : new String[] { "mesh", "math" }) {
+            Path root = location.resolve(name);
+            if (!Files.isDirectory(root))
+                continue;
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(root)) {
+                files = walk.filter(Files::isRegularFile).sorted()
+                        .collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                digest.update(location.relativize(file).toString()
+                        .getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+        }
+    }
+
+    private void putBytecode(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class;
+                c = c.getSuperclass()) {
+            String resource = c.getName().replace('.', '/') + ".class";
+            ClassLoader loader = c.getClassLoader();
+            if (loader == null)
+                continue;
+            try (InputStream in = loader.getResourceAsStream(resource)) {
+                if (in == null)
+                    continue;
+                byte[] buffer = new byte[8192];
+                int length;
+                while ((length = in.read(buffer)) > 0)
+                    digest.update(buffer, 0, length);
+            } catch (IOException e) {
+                // Without bytecode the key still covers the state.
+            }
+        }
+    }
+
+    private void putValue(Object value) {
+        if (value == null) {
+            putString("null");
+            return;
+        }
+        Class<?> type = value.getClass();
+        if (value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof String) {
+            putString(type.getName());
+            putString(value.toString());
+        } else if (value instanceof Enum) {
+            putString(((Enum<?>) value).getDeclaringClass().getName());
+            putString(((Enum<?>) value).name());
+        } else if (value instanceof Class) {
+            putString("class");
+            putString(((Class<?>) value).getName());
+        } else if (visiting.containsKey(value)) {
+            putString("cycle");
+            putInt(visiting.get(value));
+        } else {
+            visiting.put(value, visiting.size());
+            putComposite(value, type);
+            visiting.remove(value);
+        }
+    }
+
+    private void putComposite(Object value, Class<?> type) {
+        if (type.isArray()) {
+            putString(type.getName());
+            int length = Array.getLength(value);
+            putInt(length);
+            for (int i = 0; i < length; i++)
+                putValue(Array.get(value, i));
+        } else if (value instanceof Mesh3D) {
+            putMesh((Mesh3D) value);
+        } else if (value instanceof Set) {
+            putSet((Set<?>) value);
+        } else if (value instanceof List) {
+            putString("list");
+            List<?> list = (List<?>) value;
+            putInt(list.size());
+            for (Object element : list)
+                putValue(element);
+        } else if (value instanceof Map) {
+            putString("map");
+            Map<?, ?> map = (Map<?, ?>) value;
+            putInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                putValue(entry.getKey());
+                putValue(entry.getValue());
+            }
+        } else if (type.getName().startsWith("java.")) {
+            throw new IllegalArgumentException(
+                    "Cannot derive a cache key from " + type.getName() + ".");
+        } else {
+            putFields(value, type);
+        }
+    }
+
+    private void putMesh(Mesh3D mesh) {
+        putString("mesh");
+        putInt(mesh.getVertexCount());
+        for (Vector3f v : mesh.vertices) {
+            putFloat(v.getX());
+            putFloat(v.getY());
+            putFloat(v.getZ());
+        }
+        putInt(mesh.getUvCount());
+        for (int i = 0; i < mesh.getUvCount(); i++) {
+            Vector2f uv = mesh.getUvAt(i);
+            putFloat(uv.getX());
+            putFloat(uv.getY());
+        }
+        putInt(mesh.getFaceCount());
+        for (Face3D face : mesh.faces)
+            putValue(face);
+    }
+
+    /**
+     * Digests every element on its own and combines the sorted element
+     * digests, so hash based iteration order does not change the key.
+     */
+    private void putSet(Set<?> set) {
+        putString("set");
+        List<byte[]> elements = new ArrayList<byte[]>(set.size());
+        MessageDigest outer = digest;
+        for (Object element : set) {
+            digest = newDigest();
+            putValue(element);
+            elements.add(digest.digest());
+        }
+        digest = outer;
+        elements.sort(new Comparator<byte[]>() {
+            @Override
+            public int compare(byte[] a, byte[] b) {
+                return Arrays.compareUnsigned(a, b);
+            }
+        });
+        putInt(elements.size());
+        for (byte[] element : elements)
+            digest.update(element);
+    }
+
+    private void putFields(Object value, Class<?> type) {
+        putString(type.getName());
+        for (Class<?> c = type; c != null && c != Object.class;
+                c = c.getSuperclass()) {
+            Field[] fields = c.getDeclaredFields();
+            Arrays.sort(fields, new Comparator<Field>() {
+                @Override
+                public int compare(Field a, Field b) {
+                    return a.getName().compareTo(b.getName());
+                }
+            });
+            for (Field field : fields) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers)
+                        || Modifier.isTransient(modifiers)
+                        || field.isSynthetic())
+                    continue;
+                putString(field.getName());
+                try {
+                    field.setAccessible(true);
+                    putValue(field.get(value));
+                } catch (ReflectiveOperationException
+                        | RuntimeException e) {
+                    if (e instanceof IllegalArgumentException)
+                        throw (IllegalArgumentException) e;
+                    throw new IllegalArgumentException(
+                            "Cannot read field " + field + ".", e);
+                }
+            }
+        }
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        digest.update(bytes);
+    }
+
+    private void putFloat(float value) {
+        putInt(Float.floatToIntBits(value));
+    }
+
+    private void putInt(int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+}
@@ -1,14 +1,12 @@
 package mesh.creator.special;
 
-import java.util.HashMap;
-import java.util.Vector;
+import java.util.Arrays;
 
 import math.Vector3f;
-import mesh.Edge3D;
 import mesh.Face3D;
 import mesh.Mesh3D;
 import mesh.creator.IMeshCreator;
-import mesh.util.TraverseHelper;
+import mesh.util.HalfEdgeTopology;
 
 public class DualCreator implements IMeshCreator {
 
@@ -16,34 +14,43 @@ public class DualCreator implements IMeshCreator {
 
     private Mesh3D mesh;
 
-    private HashMap<Face3D, Integer> faceVertexMap;
-
     public DualCreator(Mesh3D source) {
         this.source = source;
-        faceVertexMap = new HashMap<Face3D, Integer>();
     }
 
-    private void addFace(Vector<Integer> indices) {
-        int[] a = new int[indices.size()];
-        for (int j = 0; j < a.length; j++) {
-            a[a.length - j - 1] = indices.get(j);
+    private void addFace(int[] indices, int count) {
+        int[] a = new int[count];
+        for (int j = 0; j < count; j++) {
+            a[count - j - 1] = indices[j];
         }
         mesh.add(new Face3D(a));
     }
 
+    /**
+     * Creates one face per source vertex by circulating the faces around it.
+     * The vertex of the dual mesh at index i is the center of source face i,
+     * so the face indices found during the circulation can be used directly.
+     * Vertices on an open boundary have no closed ring of faces and are
+     * skipped.
+     */
     private void createFaces() {
-        TraverseHelper helper = new TraverseHelper(source);
+        HalfEdgeTopology topology = new HalfEdgeTopology(source);
+        int[] indices = new int[8];
         for (int i = 0; i < source.getVertexCount(); i++) {
-            Edge3D outgoingEdge = helper.getOutgoing(i);
-            Edge3D edge = outgoingEdge;
-            Vector<Integer> indices = new Vector<Integer>();
+            int outgoing = topology.getOutgoing(i);
+            if (outgoing == -1)
+                continue;
+            int halfEdge = outgoing;
+            int count = 0;
             do {
-                Face3D face = helper.getFaceByEdge(edge.fromIndex,
-                        edge.toIndex);
-                indices.add(faceVertexMap.get(face));
-                edge = helper.getPairNext(edge.fromIndex, edge.toIndex);
-            } while (!outgoingEdge.equals(edge));
-            addFace(indices);
+                if (count == indices.length)
+                    indices = Arrays.copyOf(indices, count * 2);
+                indices[count++] = topology.getFace(halfEdge);
+                halfEdge = topology.getTwinNext(halfEdge);
+            } while (halfEdge != outgoing && halfEdge != -1);
+            if (halfEdge == -1)
+                continue;
+            addFace(indices, count);
         }
     }
 
@@ -56,7 +63,6 @@ public class DualCreator implements IMeshCreator {
             Face3D face = source.getFaceAt(i);
             Vector3f center = source.calculateFaceCenter(face);
             addVertex(center);
-            mapFaceToCenterVertexIndex(face, i);
         }
     }
 
@@ -64,10 +70,6 @@ public class DualCreator implements IMeshCreator {
         mesh.add(v);
     }
 
-    private void mapFaceToCenterVertexIndex(Face3D face, int index) {
-        faceVertexMap.put(face, index);
-    }
-
     @Override
     public Mesh3D create() {
         initializeMesh();
@@ -1,10 +1,11 @@
 package mesh.creator.unsorted;
 
 import java.io.File;
+import java.io.IOException;
 
 import mesh.Mesh3D;
 import mesh.creator.IMeshCreator;
-import mesh.io.SimpleObjectReader;
+import mesh.io.MappedObjectReader;
 import mesh.modifier.ScaleModifier;
 
 public class FromObjectCreator implements IMeshCreator {
@@ -35,8 +36,13 @@ public class FromObjectCreator implements IMeshCreator {
 
     private void readMeshFromFile() {
         File file = new File(path);
-        SimpleObjectReader in = new SimpleObjectReader();
-        mesh = in.read(file);
+        MappedObjectReader in = new MappedObjectReader();
+        try {
+            mesh = in.read(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            mesh = new Mesh3D();
+        }
     }
 
     private void scaleMesh() {
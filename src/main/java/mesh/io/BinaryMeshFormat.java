@@ -0,0 +1,197 @@
+package mesh.io;
+
+/**
+ * Layout of the binary mesh container written by {@link BinaryMeshWriter}
+ * and read by {@link BinaryMeshReader}.
+ *
+ * All values are little-endian. The file starts with a fixed size header:
+ *
+ * <pre>
+ * offset  type   content
+ *      0  int    magic, the bytes "MSH1"
+ *      4  int    format version
+ *      8  int    flags, see FLAG_FACE_UV_INDICES and FLAG_FACE_COLORS
+ *     12  int    vertex count
+ *     16  int    face count
+ *     20  int    index count, the total number of face corners
+ *     24  int    uv count
+ *     28  int    reserved, 0
+ *     32  long   offset of the positions block, float x, y, z per vertex
+ *     40  long   offset of the face offsets block, int per face + 1
+ *     48  long   offset of the face indices block, int per corner
+ *     56  long   offset of the uvs block, float u, v per uv
+ *     64  long   offset of the face uv indices block, int per corner, or 0
+ *     72  long   offset of the face colors block, float r, g, b, a per face,
+ *                or 0
+ *     80  long   file size
+ * </pre>
+ *
+ * Every block starts at a multiple of {@link #ALIGNMENT}, so it can be
+ * mapped and viewed as a float or int buffer directly.
+ *
+ * Quantized meshes, see {@link mesh.QuantizedMesh3D}, are stored in a
+ * variant of the container with the same header size and alignment:
+ *
+ * <pre>
+ * offset  type   content
+ *      0  int    magic, the bytes "MSQ1"
+ *      4  int    format version
+ *      8  int    flags, see QUANTIZED_FLAG_UVS, QUANTIZED_FLAG_NORMALS and
+ *                QUANTIZED_FLAG_INT_INDICES
+ *     12  int    vertex count
+ *     16  int    index count, three per triangle
+ *     20  int    face count of the source polygons
+ *     24  float  bounds minimum x, y, z
+ *     36  float  bounds maximum x, y, z
+ *     48  float  uv minimum u, v, uv maximum u, v
+ *     64  long   offset of the positions block, ushort x, y, z per vertex
+ *     72  long   offset of the uvs block, ushort u, v per vertex, or 0
+ *     80  long   offset of the normals block, byte x, y per vertex, or 0
+ *     88  long   offset of the indices block, ushort or int per index
+ *     96  long   file size
+ * </pre>
+ */
+final class BinaryMeshFormat {
+
+    static final int MAGIC = 'M' | 'S' << 8 | 'H' << 16 | '1' << 24;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 128;
+
+    static final int ALIGNMENT = 64;
+
+    static final int FLAG_FACE_UV_INDICES = 1;
+
+    static final int FLAG_FACE_COLORS = 2;
+
+    static final int BLOCK_COUNT = 6;
+
+    static final int POSITIONS = 0;
+
+    static final int FACE_OFFSETS = 1;
+
+    static final int FACE_INDICES = 2;
+
+    static final int UVS = 3;
+
+    static final int FACE_UV_INDICES = 4;
+
+    static final int FACE_COLORS = 5;
+
+    /** Position of the first block offset in the header. */
+    static final int BLOCK_OFFSETS = 32;
+
+    /** Position of the file size in the header. */
+    static final int FILE_SIZE = 80;
+
+    static final int QUANTIZED_MAGIC = 'M' | 'S' << 8 | 'Q' << 16
+            | '1' << 24;
+
+    static final int QUANTIZED_FLAG_UVS = 1;
+
+    static final int QUANTIZED_FLAG_NORMALS = 2;
+
+    static final int QUANTIZED_FLAG_INT_INDICES = 4;
+
+    static final int QUANTIZED_BLOCK_COUNT = 4;
+
+    static final int QUANTIZED_POSITIONS = 0;
+
+    static final int QUANTIZED_UVS = 1;
+
+    static final int QUANTIZED_NORMALS = 2;
+
+    static final int QUANTIZED_INDICES = 3;
+
+    /** Position of the bounds in the quantized header. */
+    static final int QUANTIZED_BOUNDS = 24;
+
+    /** Position of the UV range in the quantized header. */
+    static final int QUANTIZED_UV_RANGE = 48;
+
+    /** Position of the first block offset in the quantized header. */
+    static final int QUANTIZED_BLOCK_OFFSETS = 64;
+
+    /** Position of the file size in the quantized header. */
+    static final int QUANTIZED_FILE_SIZE = 96;
+
+    private BinaryMeshFormat() {
+    }
+
+    /**
+     * Returns the sizes in bytes of all blocks for the given counts, 0 for
+     * absent blocks.
+     */
+    static long[] blockSizes(int flags, int vertexCount, int faceCount,
+            int indexCount, int uvCount) {
+        long[] sizes = new long[BLOCK_COUNT];
+        sizes[POSITIONS] = vertexCount * 12L;
+        sizes[FACE_OFFSETS] = (faceCount + 1) * 4L;
+        sizes[FACE_INDICES] = indexCount * 4L;
+        sizes[UVS] = uvCount * 8L;
+        if ((flags & FLAG_FACE_UV_INDICES) != 0)
+            sizes[FACE_UV_INDICES] = indexCount * 4L;
+        if ((flags & FLAG_FACE_COLORS) != 0)
+            sizes[FACE_COLORS] = faceCount * 16L;
+        return sizes;
+    }
+
+    /**
+     * Returns the aligned block offsets for the given block sizes. Absent
+     * optional blocks get offset 0. The last entry is the file size.
+     */
+    static long[] blockOffsets(long[] sizes) {
+        long[] offsets = new long[BLOCK_COUNT + 1];
+        long position = HEADER_SIZE;
+        for (int i = 0; i < BLOCK_COUNT; i++) {
+            boolean optional = i == FACE_UV_INDICES || i == FACE_COLORS;
+            if (optional && sizes[i] == 0)
+                continue;
+            offsets[i] = position;
+            position = align(position + sizes[i]);
+        }
+        offsets[BLOCK_COUNT] = position;
+        return offsets;
+    }
+
+    /**
+     * Returns the sizes in bytes of all blocks of a quantized mesh, 0 for
+     * absent blocks.
+     */
+    static long[] quantizedBlockSizes(int flags, int vertexCount,
+            int indexCount) {
+        long[] sizes = new long[QUANTIZED_BLOCK_COUNT];
+        sizes[QUANTIZED_POSITIONS] = vertexCount * 6L;
+        if ((flags & QUANTIZED_FLAG_UVS) != 0)
+            sizes[QUANTIZED_UVS] = vertexCount * 4L;
+        if ((flags & QUANTIZED_FLAG_NORMALS) != 0)
+            sizes[QUANTIZED_NORMALS] = vertexCount * 2L;
+        sizes[QUANTIZED_INDICES] = indexCount
+                * ((flags & QUANTIZED_FLAG_INT_INDICES) != 0 ? 4L : 2L);
+        return sizes;
+    }
+
+    /**
+     * Returns the aligned block offsets of a quantized mesh. Absent optional
+     * blocks get offset 0. The last entry is the file size.
+     */
+    static long[] quantizedBlockOffsets(long[] sizes) {
+        long[] offsets = new long[QUANTIZED_BLOCK_COUNT + 1];
+        long position = HEADER_SIZE;
+        for (int i = 0; i < QUANTIZED_BLOCK_COUNT; i++) {
+            boolean optional = i == QUANTIZED_UVS || i == QUANTIZED_NORMALS;
+            if (optional && sizes[i] == 0)
+                continue;
+            offsets[i] = position;
+            position = align(position + sizes[i]);
+        }
+        offsets[QUANTIZED_BLOCK_COUNT] = position;
+        return offsets;
+    }
+
+    static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+}
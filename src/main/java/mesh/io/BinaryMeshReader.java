@@ -0,0 +1,208 @@
+package mesh.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import math.Vector3f;
+import mesh.QuantizedMesh3D;
+import mesh.util.Bounds3;
+
+/**
+ * Reads meshes written by {@link BinaryMeshWriter}.
+ *
+ * Only the header is read eagerly. Every data block is memory-mapped and
+ * exposed as a float or int buffer view through {@link MappedMesh}, so
+ * opening a file takes constant time regardless of the mesh size; pages are
+ * loaded by the operating system when they are first accessed.
+ */
+public class BinaryMeshReader {
+
+    /**
+     * Maps the given file.
+     *
+     * @param file the file to read
+     * @return a mesh backed by the mapped file
+     * @throws IOException if the file cannot be read, is not a binary mesh,
+     *                     has an unsupported version or is truncated
+     */
+    public MappedMesh read(File file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel, BinaryMeshFormat.MAGIC);
+            int flags = header.getInt(8);
+            int vertexCount = header.getInt(12);
+            int faceCount = header.getInt(16);
+            int indexCount = header.getInt(20);
+            int uvCount = header.getInt(24);
+            if (vertexCount < 0 || faceCount < 0 || indexCount < 0
+                    || uvCount < 0)
+                throw new IOException("Invalid element counts.");
+
+            long[] sizes = BinaryMeshFormat.blockSizes(flags, vertexCount,
+                    faceCount, indexCount, uvCount);
+            long[] offsets = new long[BinaryMeshFormat.BLOCK_COUNT];
+            for (int i = 0; i < offsets.length; i++)
+                offsets[i] = header.getLong(
+                        BinaryMeshFormat.BLOCK_OFFSETS + i * 8);
+            if (header.getLong(BinaryMeshFormat.FILE_SIZE) > channel.size())
+                throw new IOException("Truncated binary mesh file.");
+
+            return new MappedMesh(vertexCount, faceCount, indexCount, uvCount,
+                    map(channel, offsets, sizes, BinaryMeshFormat.POSITIONS)
+                            .asFloatBuffer(),
+                    map(channel, offsets, sizes,
+                            BinaryMeshFormat.FACE_OFFSETS).asIntBuffer(),
+                    map(channel, offsets, sizes,
+                            BinaryMeshFormat.FACE_INDICES).asIntBuffer(),
+                    map(channel, offsets, sizes, BinaryMeshFormat.UVS)
+                            .asFloatBuffer(),
+                    sizes[BinaryMeshFormat.FACE_UV_INDICES] == 0 ? null
+                            : map(channel, offsets, sizes,
+                                    BinaryMeshFormat.FACE_UV_INDICES)
+                                            .asIntBuffer(),
+                    sizes[BinaryMeshFormat.FACE_COLORS] == 0 ? null
+                            : map(channel, offsets, sizes,
+                                    BinaryMeshFormat.FACE_COLORS)
+                                            .asFloatBuffer());
+        }
+    }
+
+    /**
+     * Reads a quantized mesh written by
+     * {@link BinaryMeshWriter#write(QuantizedMesh3D)}. The blocks are mapped
+     * and copied into the arrays of the mesh in bulk, the mesh does not keep
+     * the file open.
+     *
+     * @param file the file to read
+     * @return the quantized mesh
+     * @throws IOException if the file cannot be read, is not a quantized
+     *                     binary mesh, has an unsupported version or is
+     *                     truncated
+     */
+    public QuantizedMesh3D readQuantized(File file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel,
+                    BinaryMeshFormat.QUANTIZED_MAGIC);
+            int flags = header.getInt(8);
+            int vertexCount = header.getInt(12);
+            int indexCount = header.getInt(16);
+            int faceCount = header.getInt(20);
+            boolean intIndices = (flags
+                    & BinaryMeshFormat.QUANTIZED_FLAG_INT_INDICES) != 0;
+            if (vertexCount < 0 || indexCount < 0 || faceCount < 0
+                    || (!intIndices && vertexCount > 65536))
+                throw new IOException("Invalid element counts.");
+
+            int bounds = BinaryMeshFormat.QUANTIZED_BOUNDS;
+            Bounds3 box = new Bounds3();
+            box.setMinMax(
+                    new Vector3f(header.getFloat(bounds),
+                            header.getFloat(bounds + 4),
+                            header.getFloat(bounds + 8)),
+                    new Vector3f(header.getFloat(bounds + 12),
+                            header.getFloat(bounds + 16),
+                            header.getFloat(bounds + 20)));
+
+            long[] sizes = BinaryMeshFormat.quantizedBlockSizes(flags,
+                    vertexCount, indexCount);
+            long[] offsets = new long[BinaryMeshFormat.QUANTIZED_BLOCK_COUNT];
+            for (int i = 0; i < offsets.length; i++)
+                offsets[i] = header.getLong(
+                        BinaryMeshFormat.QUANTIZED_BLOCK_OFFSETS + i * 8);
+            if (header.getLong(BinaryMeshFormat.QUANTIZED_FILE_SIZE)
+                    > channel.size())
+                throw new IOException("Truncated binary mesh file.");
+
+            short[] positions = new short[vertexCount * 3];
+            map(channel, offsets, sizes, BinaryMeshFormat.QUANTIZED_POSITIONS)
+                    .asShortBuffer().get(positions);
+
+            float[] uvMin = null;
+            float[] uvMax = null;
+            short[] uvs = null;
+            if (sizes[BinaryMeshFormat.QUANTIZED_UVS] != 0) {
+                int range = BinaryMeshFormat.QUANTIZED_UV_RANGE;
+                uvMin = new float[] { header.getFloat(range),
+                        header.getFloat(range + 4) };
+                uvMax = new float[] { header.getFloat(range + 8),
+                        header.getFloat(range + 12) };
+                uvs = new short[vertexCount * 2];
+                map(channel, offsets, sizes, BinaryMeshFormat.QUANTIZED_UVS)
+                        .asShortBuffer().get(uvs);
+            }
+
+            byte[] normals = null;
+            if (sizes[BinaryMeshFormat.QUANTIZED_NORMALS] != 0) {
+                normals = new byte[vertexCount * 2];
+                map(channel, offsets, sizes,
+                        BinaryMeshFormat.QUANTIZED_NORMALS).get(normals);
+            }
+
+            ByteBuffer indexBlock = map(channel, offsets, sizes,
+                    BinaryMeshFormat.QUANTIZED_INDICES);
+            short[] shortIndices = null;
+            int[] ints = null;
+            if (intIndices) {
+                ints = new int[indexCount];
+                indexBlock.asIntBuffer().get(ints);
+            } else {
+                shortIndices = new short[indexCount];
+                indexBlock.asShortBuffer().get(shortIndices);
+            }
+            return new QuantizedMesh3D(vertexCount, faceCount, box, uvMin,
+                    uvMax, positions, uvs, normals, shortIndices, ints);
+        }
+    }
+
+    /**
+     * Reads and checks the fixed size header.
+     */
+    private ByteBuffer readHeader(FileChannel channel, int magic)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BinaryMeshFormat.HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining())
+            if (channel.read(header) < 0)
+                throw new IOException("Truncated mesh header.");
+        header.flip();
+
+        if (header.getInt(0) != magic)
+            throw new IOException(magic == BinaryMeshFormat.MAGIC
+                    ? "Not a binary mesh file."
+                    : "Not a quantized binary mesh file.");
+        int version = header.getInt(4);
+        if (version != BinaryMeshFormat.VERSION)
+            throw new IOException(
+                    "Unsupported binary mesh version " + version + ".");
+        return header;
+    }
+
+    /**
+     * Maps one block. Mappings stay valid after the channel is closed.
+     */
+    private ByteBuffer map(FileChannel channel, long[] offsets, long[] sizes,
+            int block) throws IOException {
+        long offset = offsets[block];
+        long size = sizes[block];
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Block too large to map.");
+        if (offset < BinaryMeshFormat.HEADER_SIZE
+                || offset % BinaryMeshFormat.ALIGNMENT != 0
+                || offset + size > channel.size())
+            throw new IOException("Invalid block offset " + offset + ".");
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+}
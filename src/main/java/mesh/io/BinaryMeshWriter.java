@@ -0,0 +1,329 @@
+package mesh.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import math.Color;
+import mesh.Mesh3D;
+import mesh.PackedMesh3D;
+import mesh.QuantizedMesh3D;
+import mesh.util.Bounds3;
+
+/**
+ * Writes a mesh into the binary container described by
+ * {@link BinaryMeshFormat}, for fast loading with {@link BinaryMeshReader}.
+ *
+ * Output is streamed through a fixed-size direct buffer, flat arrays are
+ * transferred in bulk.
+ */
+public class BinaryMeshWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private File file;
+
+    private ByteBuffer buffer;
+
+    private FileChannel channel;
+
+    /** File position of the next byte put into the buffer. */
+    private long position;
+
+    public BinaryMeshWriter(File file) {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+        this.file = file;
+    }
+
+    /**
+     * Writes the given mesh, replacing the file. Positions, faces, UV
+     * coordinates, face UV indices and face colors are stored.
+     *
+     * @param mesh the mesh to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Mesh3D mesh) throws IOException {
+        if (mesh == null)
+            throw new IllegalArgumentException("Mesh cannot be null.");
+        write(PackedMesh3D.fromMesh(mesh));
+    }
+
+    /**
+     * Writes the given mesh, replacing the file.
+     *
+     * @param mesh the mesh to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(PackedMesh3D mesh) throws IOException {
+        if (mesh == null)
+            throw new IllegalArgumentException("Mesh cannot be null.");
+        int flags = flags(mesh);
+        long[] sizes = BinaryMeshFormat.blockSizes(flags,
+                mesh.getVertexCount(), mesh.getFaceCount(),
+                mesh.getIndexCount(), mesh.getUvCount());
+        long[] offsets = BinaryMeshFormat.blockOffsets(sizes);
+        writeFile(() -> {
+            writeHeader(mesh, flags, offsets);
+            writeBlocks(mesh, offsets);
+        });
+    }
+
+    /**
+     * Writes the given quantized mesh into the quantized variant of the
+     * container, replacing the file. The quantized arrays are stored as they
+     * are, read them with {@link BinaryMeshReader#readQuantized(File)}.
+     *
+     * @param mesh the mesh to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(QuantizedMesh3D mesh) throws IOException {
+        if (mesh == null)
+            throw new IllegalArgumentException("Mesh cannot be null.");
+        int flags = flags(mesh);
+        long[] offsets = BinaryMeshFormat.quantizedBlockOffsets(
+                BinaryMeshFormat.quantizedBlockSizes(flags,
+                        mesh.getVertexCount(), mesh.getIndexCount()));
+        writeFile(() -> {
+            writeHeader(mesh, flags, offsets);
+            writeBlocks(mesh, offsets);
+        });
+    }
+
+    private static int flags(PackedMesh3D mesh) {
+        int flags = 0;
+        if (mesh.hasUvIndices())
+            flags |= BinaryMeshFormat.FLAG_FACE_UV_INDICES;
+        if (mesh.hasFaceColors())
+            flags |= BinaryMeshFormat.FLAG_FACE_COLORS;
+        return flags;
+    }
+
+    private static int flags(QuantizedMesh3D mesh) {
+        int flags = 0;
+        if (mesh.hasUvs())
+            flags |= BinaryMeshFormat.QUANTIZED_FLAG_UVS;
+        if (mesh.hasNormals())
+            flags |= BinaryMeshFormat.QUANTIZED_FLAG_NORMALS;
+        if (!mesh.hasShortIndices())
+            flags |= BinaryMeshFormat.QUANTIZED_FLAG_INT_INDICES;
+        return flags;
+    }
+
+    private void writeFile(Content content) throws IOException {
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        position = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.channel = channel;
+            content.write();
+            flush();
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private void writeHeader(PackedMesh3D mesh, int flags, long[] offsets)
+            throws IOException {
+        putInt(BinaryMeshFormat.MAGIC);
+        putInt(BinaryMeshFormat.VERSION);
+        putInt(flags);
+        putInt(mesh.getVertexCount());
+        putInt(mesh.getFaceCount());
+        putInt(mesh.getIndexCount());
+        putInt(mesh.getUvCount());
+        putInt(0);
+        for (int i = 0; i < BinaryMeshFormat.BLOCK_COUNT; i++)
+            putLong(offsets[i]);
+        putLong(offsets[BinaryMeshFormat.BLOCK_COUNT]);
+        pad(BinaryMeshFormat.HEADER_SIZE);
+    }
+
+    private void writeBlocks(PackedMesh3D mesh, long[] offsets)
+            throws IOException {
+        pad(offsets[BinaryMeshFormat.POSITIONS]);
+        putFloats(mesh.getPositions(), mesh.getVertexCount() * 3);
+
+        pad(offsets[BinaryMeshFormat.FACE_OFFSETS]);
+        putInts(mesh.getFaceOffsets(), mesh.getFaceCount() + 1);
+
+        pad(offsets[BinaryMeshFormat.FACE_INDICES]);
+        putInts(mesh.getFaceIndices(), mesh.getIndexCount());
+
+        pad(offsets[BinaryMeshFormat.UVS]);
+        for (int i = 0; i < mesh.getUvCount(); i++) {
+            putFloat(mesh.getUvAt(i).getX());
+            putFloat(mesh.getUvAt(i).getY());
+        }
+
+        if (offsets[BinaryMeshFormat.FACE_UV_INDICES] != 0) {
+            pad(offsets[BinaryMeshFormat.FACE_UV_INDICES]);
+            for (int f = 0; f < mesh.getFaceCount(); f++) {
+                for (int i = 0; i < mesh.getFaceVertexCount(f); i++)
+                    putInt(mesh.getFaceUvIndexAt(f, i));
+            }
+        }
+
+        if (offsets[BinaryMeshFormat.FACE_COLORS] != 0) {
+            pad(offsets[BinaryMeshFormat.FACE_COLORS]);
+            for (int f = 0; f < mesh.getFaceCount(); f++) {
+                Color color = mesh.getFaceColor(f);
+                putFloat(color.getRed());
+                putFloat(color.getGreen());
+                putFloat(color.getBlue());
+                putFloat(color.getAlpha());
+            }
+        }
+        pad(offsets[BinaryMeshFormat.BLOCK_COUNT]);
+    }
+
+    private void writeHeader(QuantizedMesh3D mesh, int flags, long[] offsets)
+            throws IOException {
+        putInt(BinaryMeshFormat.QUANTIZED_MAGIC);
+        putInt(BinaryMeshFormat.VERSION);
+        putInt(flags);
+        putInt(mesh.getVertexCount());
+        putInt(mesh.getIndexCount());
+        putInt(mesh.getFaceCount());
+        Bounds3 bounds = mesh.getBounds();
+        putFloat(bounds.getMinX());
+        putFloat(bounds.getMinY());
+        putFloat(bounds.getMinZ());
+        putFloat(bounds.getMaxX());
+        putFloat(bounds.getMaxY());
+        putFloat(bounds.getMaxZ());
+        float[] uvMin = mesh.hasUvs() ? mesh.getUvMin() : new float[2];
+        float[] uvMax = mesh.hasUvs() ? mesh.getUvMax() : new float[2];
+        putFloat(uvMin[0]);
+        putFloat(uvMin[1]);
+        putFloat(uvMax[0]);
+        putFloat(uvMax[1]);
+        for (int i = 0; i <= BinaryMeshFormat.QUANTIZED_BLOCK_COUNT; i++)
+            putLong(offsets[i]);
+        pad(BinaryMeshFormat.HEADER_SIZE);
+    }
+
+    private void writeBlocks(QuantizedMesh3D mesh, long[] offsets)
+            throws IOException {
+        pad(offsets[BinaryMeshFormat.QUANTIZED_POSITIONS]);
+        putShorts(mesh.getPositions());
+
+        if (mesh.hasUvs()) {
+            pad(offsets[BinaryMeshFormat.QUANTIZED_UVS]);
+            putShorts(mesh.getUvs());
+        }
+
+        if (mesh.hasNormals()) {
+            pad(offsets[BinaryMeshFormat.QUANTIZED_NORMALS]);
+            putBytes(mesh.getNormals());
+        }
+
+        pad(offsets[BinaryMeshFormat.QUANTIZED_INDICES]);
+        if (mesh.hasShortIndices())
+            putShorts(mesh.getShortIndices());
+        else
+            putInts(mesh.getIntIndices(), mesh.getIndexCount());
+        pad(offsets[BinaryMeshFormat.QUANTIZED_BLOCK_COUNT]);
+    }
+
+    private void putShorts(short[] values) throws IOException {
+        int offset = 0;
+        while (offset < values.length) {
+            ensureCapacity(2);
+            int length = Math.min(values.length - offset,
+                    buffer.remaining() / 2);
+            buffer.asShortBuffer().put(values, offset, length);
+            buffer.position(buffer.position() + length * 2);
+            position += length * 2L;
+            offset += length;
+        }
+    }
+
+    private void putBytes(byte[] values) throws IOException {
+        int offset = 0;
+        while (offset < values.length) {
+            ensureCapacity(1);
+            int length = Math.min(values.length - offset, buffer.remaining());
+            buffer.put(values, offset, length);
+            position += length;
+            offset += length;
+        }
+    }
+
+    private void putFloats(float[] values, int count) throws IOException {
+        int offset = 0;
+        while (offset < count) {
+            ensureCapacity(4);
+            int length = Math.min(count - offset, buffer.remaining() / 4);
+            buffer.asFloatBuffer().put(values, offset, length);
+            buffer.position(buffer.position() + length * 4);
+            position += length * 4L;
+            offset += length;
+        }
+    }
+
+    private void putInts(int[] values, int count) throws IOException {
+        int offset = 0;
+        while (offset < count) {
+            ensureCapacity(4);
+            int length = Math.min(count - offset, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(values, offset, length);
+            buffer.position(buffer.position() + length * 4);
+            position += length * 4L;
+            offset += length;
+        }
+    }
+
+    private void putFloat(float value) throws IOException {
+        ensureCapacity(4);
+        buffer.putFloat(value);
+        position += 4;
+    }
+
+    private void putInt(int value) throws IOException {
+        ensureCapacity(4);
+        buffer.putInt(value);
+        position += 4;
+    }
+
+    private void putLong(long value) throws IOException {
+        ensureCapacity(8);
+        buffer.putLong(value);
+        position += 8;
+    }
+
+    /** Writes zero bytes up to the given file position. */
+    private void pad(long target) throws IOException {
+        while (position < target) {
+            ensureCapacity(1);
+            buffer.put((byte) 0);
+            position++;
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes)
+            flush();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /** Writes the header and blocks of one file. */
+    private interface Content {
+
+        void write() throws IOException;
+
+    }
+
+}
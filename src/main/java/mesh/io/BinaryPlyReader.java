@@ -0,0 +1,307 @@
+package mesh.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+
+/**
+ * Reads binary PLY files, little or big endian.
+ *
+ * The header is parsed first; the element counts it declares size the
+ * vertex and face arrays up front, the body is then streamed from the file
+ * through a fixed-size buffer. The {@code x}, {@code y} and {@code z}
+ * properties of the {@code vertex} element and the {@code vertex_indices}
+ * (or {@code vertex_index}) list of the {@code face} element are read, any
+ * other property or element is skipped. ASCII PLY is not supported.
+ */
+public class BinaryPlyReader {
+
+    /**
+     * Reads the given file.
+     *
+     * @param file the file to read
+     * @return a new mesh
+     * @throws IOException if the file cannot be read, is malformed or is not
+     *                     a binary PLY file
+     */
+    public Mesh3D read(File file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+
+        try (ChannelReader in = new ChannelReader(file)) {
+            List<Element> elements = readHeader(in);
+            Vector3f[] vertices = new Vector3f[0];
+            Face3D[] faces = new Face3D[0];
+            for (Element element : elements) {
+                if (element.name.equals("vertex")) {
+                    vertices = readVertices(in, element);
+                } else if (element.name.equals("face")) {
+                    faces = readFaces(in, element);
+                } else {
+                    for (int i = 0; i < element.count; i++)
+                        for (Property property : element.properties)
+                            property.read(in);
+                }
+            }
+            for (Face3D face : faces) {
+                for (int index : face.indices) {
+                    if (index < 0 || index >= vertices.length)
+                        throw new IOException(
+                                "Face index out of range: " + index);
+                }
+            }
+
+            Mesh3D mesh = new Mesh3D();
+            mesh.vertices.ensureCapacity(vertices.length);
+            mesh.faces.ensureCapacity(faces.length);
+            mesh.add(vertices);
+            mesh.add(faces);
+            return mesh;
+        }
+    }
+
+    private List<Element> readHeader(ChannelReader in) throws IOException {
+        if (!in.readLine().equals("ply"))
+            throw new IOException("Not a PLY file.");
+        List<Element> elements = new ArrayList<Element>();
+        Element element = null;
+        while (true) {
+            String line = in.readLine().trim();
+            if (line.equals("end_header"))
+                break;
+            String[] tokens = line.split("\\s+");
+            switch (tokens[0]) {
+            case "format":
+                if (tokens.length < 2)
+                    throw new IOException("Malformed PLY format.");
+                if (tokens[1].equals("binary_little_endian")) {
+                    in.order(ByteOrder.LITTLE_ENDIAN);
+                } else if (tokens[1].equals("binary_big_endian")) {
+                    in.order(ByteOrder.BIG_ENDIAN);
+                } else {
+                    throw new IOException(
+                            "Unsupported PLY format " + tokens[1] + ".");
+                }
+                break;
+            case "element":
+                if (tokens.length != 3)
+                    throw new IOException("Malformed PLY element: " + line);
+                element = new Element(tokens[1], parseCount(tokens[2]));
+                elements.add(element);
+                break;
+            case "property":
+                if (element == null)
+                    throw new IOException("Property outside of element.");
+                element.properties.add(parseProperty(tokens, line));
+                break;
+            default:
+                // comment, obj_info and unknown statements
+                break;
+            }
+        }
+        return elements;
+    }
+
+    private int parseCount(String token) throws IOException {
+        try {
+            int count = Integer.parseInt(token);
+            if (count >= 0)
+                return count;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IOException("Invalid PLY element count " + token + ".");
+    }
+
+    private Property parseProperty(String[] tokens, String line)
+            throws IOException {
+        if (tokens.length == 3)
+            return new Property(tokens[2], Type.of(tokens[1]), null);
+        if (tokens.length == 5 && tokens[1].equals("list"))
+            return new Property(tokens[4], Type.of(tokens[3]),
+                    Type.of(tokens[2]));
+        throw new IOException("Malformed PLY property: " + line);
+    }
+
+    private Vector3f[] readVertices(ChannelReader in, Element element)
+            throws IOException {
+        int x = element.indexOf("x");
+        int y = element.indexOf("y");
+        int z = element.indexOf("z");
+        if (x == -1 || y == -1 || z == -1)
+            throw new IOException("PLY vertices need x, y and z.");
+        List<Property> properties = element.properties;
+        double[] values = new double[properties.size()];
+        Vector3f[] vertices = new Vector3f[element.count];
+        for (int i = 0; i < vertices.length; i++) {
+            for (int p = 0; p < values.length; p++)
+                values[p] = properties.get(p).read(in);
+            vertices[i] = new Vector3f((float) values[x], (float) values[y],
+                    (float) values[z]);
+        }
+        return vertices;
+    }
+
+    private Face3D[] readFaces(ChannelReader in, Element element)
+            throws IOException {
+        int list = element.indexOf("vertex_indices");
+        if (list == -1)
+            list = element.indexOf("vertex_index");
+        if (list == -1 || element.properties.get(list).countType == null)
+            throw new IOException("PLY faces need a vertex_indices list.");
+        List<Property> properties = element.properties;
+        Face3D[] faces = new Face3D[element.count];
+        for (int f = 0; f < faces.length; f++) {
+            for (int p = 0; p < properties.size(); p++) {
+                Property property = properties.get(p);
+                if (p == list) {
+                    faces[f] = new Face3D();
+                    faces[f].indices = property.readIndices(in);
+                } else {
+                    property.read(in);
+                }
+            }
+        }
+        return faces;
+    }
+
+    private static class Element {
+
+        private String name;
+
+        private int count;
+
+        private List<Property> properties;
+
+        Element(String name, int count) {
+            this.name = name;
+            this.count = count;
+            this.properties = new ArrayList<Property>();
+        }
+
+        int indexOf(String propertyName) {
+            for (int i = 0; i < properties.size(); i++)
+                if (properties.get(i).name.equals(propertyName))
+                    return i;
+            return -1;
+        }
+
+    }
+
+    private static class Property {
+
+        private String name;
+
+        private Type type;
+
+        /** Type of the list length, null for scalar properties. */
+        private Type countType;
+
+        Property(String name, Type type, Type countType) {
+            this.name = name;
+            this.type = type;
+            this.countType = countType;
+        }
+
+        /**
+         * Reads a scalar value, or skips a list and returns its length.
+         */
+        double read(ChannelReader in) throws IOException {
+            if (countType == null)
+                return type.read(in);
+            int count = readCount(in);
+            for (int i = 0; i < count; i++)
+                type.read(in);
+            return count;
+        }
+
+        int[] readIndices(ChannelReader in) throws IOException {
+            int[] indices = new int[readCount(in)];
+            for (int i = 0; i < indices.length; i++)
+                indices[i] = (int) type.read(in);
+            return indices;
+        }
+
+        private int readCount(ChannelReader in) throws IOException {
+            double count = countType.read(in);
+            if (count < 0 || count > Integer.MAX_VALUE)
+                throw new IOException("Invalid PLY list length.");
+            return (int) count;
+        }
+
+    }
+
+    private enum Type {
+
+        CHAR(1), UCHAR(1), SHORT(2), USHORT(2), INT(4), UINT(4), FLOAT(4),
+        DOUBLE(8);
+
+        private int size;
+
+        Type(int size) {
+            this.size = size;
+        }
+
+        static Type of(String name) throws IOException {
+            switch (name) {
+            case "char":
+            case "int8":
+                return CHAR;
+            case "uchar":
+            case "uint8":
+                return UCHAR;
+            case "short":
+            case "int16":
+                return SHORT;
+            case "ushort":
+            case "uint16":
+                return USHORT;
+            case "int":
+            case "int32":
+                return INT;
+            case "uint":
+            case "uint32":
+                return UINT;
+            case "float":
+            case "float32":
+                return FLOAT;
+            case "double":
+            case "float64":
+                return DOUBLE;
+            default:
+                throw new IOException("Unknown PLY type " + name + ".");
+            }
+        }
+
+        double read(ChannelReader in) throws IOException {
+            ByteBuffer buffer = in.require(size);
+            switch (this) {
+            case CHAR:
+                return buffer.get();
+            case UCHAR:
+                return buffer.get() & 0xFF;
+            case SHORT:
+                return buffer.getShort();
+            case USHORT:
+                return buffer.getShort() & 0xFFFF;
+            case INT:
+                return buffer.getInt();
+            case UINT:
+                return buffer.getInt() & 0xFFFFFFFFL;
+            case FLOAT:
+                return buffer.getFloat();
+            default:
+                return buffer.getDouble();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,140 @@
+package mesh.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+
+/**
+ * Writes meshes as little endian binary PLY files with float vertex
+ * positions and int vertex index lists.
+ *
+ * Polygons are kept as they are unless triangulation is enabled with
+ * {@link #setTriangulate(boolean)}. Faces with more corners than the
+ * {@code uchar} list count can hold are always triangulated as fans while
+ * they are written. Output is streamed through a fixed-size direct buffer
+ * into a {@link FileChannel}; memory use does not depend on the size of the
+ * mesh.
+ */
+public class BinaryPlyWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Largest corner count of the {@code uchar} face lists. */
+    static final int MAX_FACE_VERTICES = 255;
+
+    private File file;
+
+    private boolean triangulate;
+
+    private ByteBuffer buffer;
+
+    private FileChannel channel;
+
+    public BinaryPlyWriter(File file) {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+        this.file = file;
+    }
+
+    /**
+     * Writes the given mesh, replacing the file.
+     *
+     * @param mesh the mesh to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Mesh3D mesh) throws IOException {
+        if (mesh == null)
+            throw new IllegalArgumentException("Mesh cannot be null.");
+        long faceCount = 0;
+        for (Face3D face : mesh.faces)
+            faceCount += isSplit(face) ? face.indices.length - 2 : 1;
+        if (faceCount > Integer.MAX_VALUE)
+            throw new IOException("Too many faces for PLY.");
+
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.channel = channel;
+            String header = "ply\n"
+                    + "format binary_little_endian 1.0\n"
+                    + "element vertex " + mesh.getVertexCount() + "\n"
+                    + "property float x\n"
+                    + "property float y\n"
+                    + "property float z\n"
+                    + "element face " + faceCount + "\n"
+                    + "property list uchar int vertex_indices\n"
+                    + "end_header\n";
+            buffer.put(header.getBytes(StandardCharsets.US_ASCII));
+
+            for (Vector3f v : mesh.vertices) {
+                if (buffer.remaining() < 12)
+                    flush();
+                buffer.putFloat(v.getX()).putFloat(v.getY())
+                        .putFloat(v.getZ());
+            }
+            for (Face3D face : mesh.faces) {
+                int[] indices = face.indices;
+                if (isSplit(face)) {
+                    for (int i = 1; i < indices.length - 1; i++)
+                        writeTriangle(indices[0], indices[i], indices[i + 1]);
+                } else {
+                    writeFace(indices);
+                }
+            }
+            flush();
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private boolean isSplit(Face3D face) {
+        int length = face.indices.length;
+        return length > 3 && (triangulate || length > MAX_FACE_VERTICES);
+    }
+
+    private void writeTriangle(int a, int b, int c) throws IOException {
+        if (buffer.remaining() < 13)
+            flush();
+        buffer.put((byte) 3).putInt(a).putInt(b).putInt(c);
+    }
+
+    private void writeFace(int[] indices) throws IOException {
+        if (buffer.remaining() < 1 + indices.length * 4)
+            flush();
+        buffer.put((byte) indices.length);
+        for (int index : indices)
+            buffer.putInt(index);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    public boolean isTriangulate() {
+        return triangulate;
+    }
+
+    /**
+     * Sets whether all polygons are written as triangles.
+     *
+     * @param triangulate true to triangulate every face
+     */
+    public void setTriangulate(boolean triangulate) {
+        this.triangulate = triangulate;
+    }
+
+}
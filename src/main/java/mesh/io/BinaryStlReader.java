@@ -0,0 +1,177 @@
+package mesh.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+
+/**
+ * Reads binary STL files.
+ *
+ * The triangle count from the header sizes all arrays up front, triangles
+ * are then streamed from the file through a fixed-size buffer. STL stores
+ * every triangle with its own three vertices; by default vertices with
+ * identical positions are welded into one, so the resulting mesh is
+ * connected. Facet normals and attribute bytes are ignored.
+ */
+public class BinaryStlReader {
+
+    private static final int EMPTY = -1;
+
+    private boolean weldVertices;
+
+    public BinaryStlReader() {
+        weldVertices = true;
+    }
+
+    /**
+     * Reads the given file.
+     *
+     * @param file the file to read
+     * @return a new triangle mesh
+     * @throws IOException if the file cannot be read, is truncated or is an
+     *                     ASCII STL file
+     */
+    public Mesh3D read(File file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+
+        try (ChannelReader in = new ChannelReader(file)) {
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer buffer = in.require(BinaryStlWriter.HEADER_SIZE + 4);
+            buffer.position(buffer.position() + BinaryStlWriter.HEADER_SIZE);
+            long triangleCount = buffer.getInt() & 0xFFFFFFFFL;
+            if (in.size() < BinaryStlWriter.HEADER_SIZE + 4
+                    + triangleCount * BinaryStlWriter.TRIANGLE_SIZE)
+                throw new IOException("Truncated or ASCII STL file.");
+            if (triangleCount * 9 > Integer.MAX_VALUE - 8)
+                throw new IOException("STL file too large.");
+
+            int count = (int) triangleCount;
+            float[] positions = new float[count * 9];
+            for (int t = 0; t < count; t++) {
+                buffer = in.require(BinaryStlWriter.TRIANGLE_SIZE);
+                buffer.position(buffer.position() + 12);
+                for (int i = 0; i < 9; i++)
+                    positions[t * 9 + i] = buffer.getFloat();
+                buffer.getShort();
+            }
+            return weldVertices ? createWelded(positions, count)
+                    : create(positions, count);
+        }
+    }
+
+    private Mesh3D create(float[] positions, int triangleCount) {
+        int vertexCount = triangleCount * 3;
+        Vector3f[] vertices = new Vector3f[vertexCount];
+        for (int i = 0; i < vertexCount; i++)
+            vertices[i] = new Vector3f(positions[i * 3], positions[i * 3 + 1],
+                    positions[i * 3 + 2]);
+        Face3D[] faces = new Face3D[triangleCount];
+        for (int t = 0; t < triangleCount; t++) {
+            Face3D face = new Face3D();
+            face.indices = new int[] { t * 3, t * 3 + 1, t * 3 + 2 };
+            faces[t] = face;
+        }
+        return createMesh(vertices, faces);
+    }
+
+    /**
+     * Merges corners with bitwise identical positions through an open
+     * addressing hash table. Unique positions are compacted to the front of
+     * the position array, so no second array is needed.
+     */
+    private Mesh3D createWelded(float[] positions, int triangleCount) {
+        int cornerCount = triangleCount * 3;
+        // Power of two of at least twice the corner count, keeps the load
+        // factor at or below one half like LongIntHashMap.
+        long minimum = Math.max(1, cornerCount) * 2L;
+        int capacity = (int) Math.min(1 << 30,
+                Long.highestOneBit(minimum - 1) << 1);
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        int mask = capacity - 1;
+
+        int[] indices = new int[cornerCount];
+        int vertexCount = 0;
+        for (int i = 0; i < cornerCount; i++) {
+            int x = Float.floatToIntBits(positions[i * 3]);
+            int y = Float.floatToIntBits(positions[i * 3 + 1]);
+            int z = Float.floatToIntBits(positions[i * 3 + 2]);
+            int slot = hash(x, y, z) & mask;
+            int vertex;
+            while (true) {
+                vertex = table[slot];
+                if (vertex == EMPTY) {
+                    vertex = vertexCount++;
+                    table[slot] = vertex;
+                    positions[vertex * 3] = positions[i * 3];
+                    positions[vertex * 3 + 1] = positions[i * 3 + 1];
+                    positions[vertex * 3 + 2] = positions[i * 3 + 2];
+                    break;
+                }
+                if (Float.floatToIntBits(positions[vertex * 3]) == x
+                        && Float.floatToIntBits(positions[vertex * 3 + 1]) == y
+                        && Float.floatToIntBits(
+                                positions[vertex * 3 + 2]) == z)
+                    break;
+                slot = (slot + 1) & mask;
+            }
+            indices[i] = vertex;
+        }
+
+        Vector3f[] vertices = new Vector3f[vertexCount];
+        for (int i = 0; i < vertexCount; i++)
+            vertices[i] = new Vector3f(positions[i * 3], positions[i * 3 + 1],
+                    positions[i * 3 + 2]);
+        Face3D[] faces = new Face3D[triangleCount];
+        for (int t = 0; t < triangleCount; t++) {
+            Face3D face = new Face3D();
+            face.indices = Arrays.copyOfRange(indices, t * 3, t * 3 + 3);
+            faces[t] = face;
+        }
+        return createMesh(vertices, faces);
+    }
+
+    /**
+     * Mixes the float bits of a position. Round coordinates have many zero
+     * low bits, so all bits are spread before the table mask is applied.
+     */
+    private static int hash(int x, int y, int z) {
+        int h = (x * 31 + y) * 31 + z;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    private Mesh3D createMesh(Vector3f[] vertices, Face3D[] faces) {
+        Mesh3D mesh = new Mesh3D();
+        mesh.vertices.ensureCapacity(vertices.length);
+        mesh.faces.ensureCapacity(faces.length);
+        mesh.add(vertices);
+        mesh.add(faces);
+        return mesh;
+    }
+
+    public boolean isWeldVertices() {
+        return weldVertices;
+    }
+
+    /**
+     * Sets whether vertices with identical positions are merged. If not,
+     * every triangle gets three vertices of its own.
+     *
+     * @param weldVertices true to merge identical vertices
+     */
+    public void setWeldVertices(boolean weldVertices) {
+        this.weldVertices = weldVertices;
+    }
+
+}
@@ -0,0 +1,126 @@
+package mesh.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+
+/**
+ * Writes meshes as binary STL files.
+ *
+ * STL only knows triangles, so faces are triangulated as fans while they
+ * are written, each triangle with its own facet normal. Output is streamed
+ * through a fixed-size direct buffer into a {@link FileChannel}; memory use
+ * does not depend on the size of the mesh.
+ */
+public class BinaryStlWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    static final int HEADER_SIZE = 80;
+
+    /** Normal, three vertices and the attribute byte count. */
+    static final int TRIANGLE_SIZE = 50;
+
+    private File file;
+
+    private ByteBuffer buffer;
+
+    private FileChannel channel;
+
+    public BinaryStlWriter(File file) {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+        this.file = file;
+    }
+
+    /**
+     * Writes the given mesh, replacing the file. Faces with less than three
+     * vertices are skipped.
+     *
+     * @param mesh the mesh to write
+     * @throws IOException if the file cannot be written or the mesh has more
+     *                     triangles than binary STL can count
+     */
+    public void write(Mesh3D mesh) throws IOException {
+        if (mesh == null)
+            throw new IllegalArgumentException("Mesh cannot be null.");
+        long triangleCount = 0;
+        for (Face3D face : mesh.faces)
+            triangleCount += Math.max(0, face.indices.length - 2);
+        if (triangleCount > 0xFFFFFFFFL)
+            throw new IOException("Too many triangles for binary STL.");
+
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.channel = channel;
+            // The header must not start with "solid", which marks ASCII STL.
+            byte[] header = new byte[HEADER_SIZE];
+            byte[] text = "binary STL".getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(text, 0, header, 0, text.length);
+            buffer.put(header);
+            buffer.putInt((int) triangleCount);
+            for (Face3D face : mesh.faces) {
+                int[] indices = face.indices;
+                if (indices.length < 3)
+                    continue;
+                Vector3f first = mesh.vertices.get(indices[0]);
+                for (int i = 1; i < indices.length - 1; i++)
+                    writeTriangle(first, mesh.vertices.get(indices[i]),
+                            mesh.vertices.get(indices[i + 1]));
+            }
+            flush();
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private void writeTriangle(Vector3f a, Vector3f b, Vector3f c)
+            throws IOException {
+        if (buffer.remaining() < TRIANGLE_SIZE)
+            flush();
+        float ux = b.getX() - a.getX();
+        float uy = b.getY() - a.getY();
+        float uz = b.getZ() - a.getZ();
+        float vx = c.getX() - a.getX();
+        float vy = c.getY() - a.getY();
+        float vz = c.getZ() - a.getZ();
+        float nx = uy * vz - uz * vy;
+        float ny = uz * vx - ux * vz;
+        float nz = ux * vy - uy * vx;
+        float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length > 0) {
+            nx /= length;
+            ny /= length;
+            nz /= length;
+        }
+        buffer.putFloat(nx).putFloat(ny).putFloat(nz);
+        putVertex(a);
+        putVertex(b);
+        putVertex(c);
+        buffer.putShort((short) 0);
+    }
+
+    private void putVertex(Vector3f v) {
+        buffer.putFloat(v.getX()).putFloat(v.getY()).putFloat(v.getZ());
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,94 @@
+package mesh.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reads from a file through a fixed-size direct buffer.
+ *
+ * Callers request the number of bytes they are about to consume with
+ * {@link #require(int)} and read them from the returned buffer, which is
+ * refilled from the channel in large transfers.
+ */
+class ChannelReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Longest accepted text line. */
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private FileChannel channel;
+
+    private ByteBuffer buffer;
+
+    ChannelReader(File file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.flip();
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    void order(ByteOrder order) {
+        buffer.order(order);
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of bytes.
+     *
+     * @param bytes the number of bytes, at most the buffer size
+     * @return the buffer, positioned at the next unread byte
+     * @throws IOException if the file ends before
+     */
+    ByteBuffer require(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    buffer.flip();
+                    throw new IOException("Unexpected end of file.");
+                }
+            }
+            buffer.flip();
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads one line of ASCII text.
+     *
+     * @return the line without line terminator
+     * @throws IOException if the file ends before the end of the line
+     */
+    String readLine() throws IOException {
+        byte[] line = new byte[MAX_LINE_LENGTH];
+        int length = 0;
+        while (true) {
+            byte c = require(1).get();
+            if (c == '\n')
+                break;
+            if (length == line.length)
+                throw new IOException("Line too long.");
+            line[length++] = c;
+        }
+        if (length > 0 && line[length - 1] == '\r')
+            length--;
+        return new String(line, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,241 @@
+package mesh.io;
+
+/**
+ * Formats floats as ASCII into a byte array without allocating.
+ *
+ * {@link #format(float, byte[], int)} writes the shortest decimal that reads
+ * back as the same float, laid out like {@link Float#toString(float)}: plain
+ * notation for magnitudes in [1e-3, 1e7), computerized scientific notation
+ * ({@code 1.5E-5}) otherwise. Candidates are found by scaling in double
+ * arithmetic and are verified by an exact round trip, so the output always
+ * parses back to the input. Values whose round trip cannot be verified
+ * exactly in double arithmetic (mostly magnitudes below about 1e-14) fall
+ * back to {@link Float#toString(float)}.
+ *
+ * {@link #formatFixed(float, int, byte[], int)} writes a fixed number of
+ * decimals instead.
+ */
+final class FloatFormatter {
+
+    /** Enough room for any float, for example {@code -1.17549435E-38}. */
+    static final int MAX_LENGTH = 32;
+
+    /** Powers of ten up to which products with exact mantissas are exact. */
+    private static final int MAX_EXACT_POWER = 22;
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** Correctly rounded powers of ten, 1e0 to 1e60. */
+    private static final double[] POWERS_OF_TEN = new double[61];
+
+    private static final long[] LONG_POWERS_OF_TEN = new long[19];
+
+    static {
+        for (int i = 0; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = Double.parseDouble("1e" + i);
+        LONG_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++)
+            LONG_POWERS_OF_TEN[i] = LONG_POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private FloatFormatter() {
+    }
+
+    /**
+     * Writes the shortest round trip representation of the value.
+     *
+     * @param value  the value to format
+     * @param out    the target array, at least {@link #MAX_LENGTH} bytes
+     *               from {@code offset}
+     * @param offset the position of the first byte to write
+     * @return the position after the last written byte
+     */
+    static int format(float value, byte[] out, int offset) {
+        if (Float.isNaN(value) || Float.isInfinite(value))
+            return writeAscii(Float.toString(value), out, offset);
+        if (Float.floatToRawIntBits(value) < 0)
+            out[offset++] = '-';
+        double magnitude = Math.abs((double) value);
+        if (magnitude == 0)
+            return writeAscii("0.0", out, offset);
+
+        int exponent = (int) Math.floor(Math.log10(magnitude));
+        if (magnitude >= power(exponent + 1))
+            exponent++;
+        if (magnitude < power(exponent))
+            exponent--;
+
+        // Binary search for the smallest precision with a verified round
+        // trip. Precision 9 always suffices for floats.
+        float target = Math.abs(value);
+        long bestDigits = 0;
+        int bestExponent = 0;
+        int low = 1;
+        int high = 9;
+        while (low <= high) {
+            int precision = (low + high) >>> 1;
+            int scale = precision - 1 - exponent;
+            long digits = Math.round(scale >= 0 ? magnitude * power(scale)
+                    : magnitude / power(-scale));
+            long match = 0;
+            if (roundTrips(digits, -scale, target)) {
+                match = digits;
+            } else if (roundTrips(digits + 1, -scale, target)) {
+                match = digits + 1;
+            } else if (roundTrips(digits - 1, -scale, target)) {
+                match = digits - 1;
+            }
+            if (match != 0) {
+                bestDigits = match;
+                bestExponent = -scale;
+                high = precision - 1;
+            } else {
+                low = precision + 1;
+            }
+        }
+        if (bestDigits == 0)
+            return writeAscii(Float.toString(target), out, offset);
+        return write(bestDigits, bestExponent, out, offset);
+    }
+
+    /**
+     * Writes the value rounded to the given number of decimals in plain
+     * notation, for example {@code 0.250} for three decimals. Values too
+     * large to round exactly are written with {@link #format(float, byte[],
+     * int)}.
+     *
+     * @param value    the value to format
+     * @param decimals the number of digits after the decimal point, 0 to 9
+     * @param out      the target array, at least {@link #MAX_LENGTH} bytes
+     *                 from {@code offset}
+     * @param offset   the position of the first byte to write
+     * @return the position after the last written byte
+     */
+    static int formatFixed(float value, int decimals, byte[] out,
+            int offset) {
+        double scaled = Math.abs((double) value) * POWERS_OF_TEN[decimals];
+        if (!(scaled < MAX_EXACT_MANTISSA))
+            return format(value, out, offset);
+        long digits = Math.round(scaled);
+        if (digits != 0 && value < 0)
+            out[offset++] = '-';
+        long divisor = LONG_POWERS_OF_TEN[decimals];
+        offset = writeLong(digits / divisor, out, offset);
+        if (decimals > 0) {
+            out[offset++] = '.';
+            long fraction = digits % divisor;
+            for (int i = decimals - 1; i >= 0; i--) {
+                out[offset + i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            offset += decimals;
+        }
+        return offset;
+    }
+
+    /**
+     * Writes a non-negative integer.
+     *
+     * @return the position after the last written byte
+     */
+    static int writeLong(long value, byte[] out, int offset) {
+        int length = 1;
+        while (length < 19 && value >= LONG_POWERS_OF_TEN[length])
+            length++;
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + length;
+    }
+
+    /**
+     * Returns whether digits * 10^exponent parses back to the target, using
+     * the exactly rounded double product. A double lying exactly between two
+     * floats would be rounded twice and is treated as not verified.
+     */
+    private static boolean roundTrips(long digits, int exponent,
+            float target) {
+        if (digits <= 0)
+            return false;
+        // Move surplus powers of ten into the mantissa while it stays exact.
+        while (exponent > MAX_EXACT_POWER
+                && digits < MAX_EXACT_MANTISSA / 10) {
+            digits *= 10;
+            exponent--;
+        }
+        if (digits >= MAX_EXACT_MANTISSA
+                || Math.abs(exponent) > MAX_EXACT_POWER)
+            return false;
+        double value = exponent >= 0 ? digits * POWERS_OF_TEN[exponent]
+                : digits / POWERS_OF_TEN[-exponent];
+        if ((Double.doubleToRawLongBits(value) & 0x1FFFFFFFL) == 0x10000000L)
+            return false;
+        return (float) value == target;
+    }
+
+    /** Writes digits * 10^exponent in the layout of Float.toString. */
+    private static int write(long digits, int exponent, byte[] out,
+            int offset) {
+        while (digits % 10 == 0) {
+            digits /= 10;
+            exponent++;
+        }
+        int start = offset;
+        int end = writeLong(digits, out, offset);
+        int length = end - start;
+        int leading = exponent + length - 1;
+
+        if (leading >= -3 && leading < 7) {
+            if (leading >= 0) {
+                int integerDigits = leading + 1;
+                if (length <= integerDigits) {
+                    for (int i = length; i < integerDigits; i++)
+                        out[start + i] = '0';
+                    out[start + integerDigits] = '.';
+                    out[start + integerDigits + 1] = '0';
+                    return start + integerDigits + 2;
+                }
+                System.arraycopy(out, start + integerDigits, out,
+                        start + integerDigits + 1, length - integerDigits);
+                out[start + integerDigits] = '.';
+                return end + 1;
+            }
+            int zeros = -leading - 1;
+            System.arraycopy(out, start, out, start + 2 + zeros, length);
+            out[start] = '0';
+            out[start + 1] = '.';
+            for (int i = 0; i < zeros; i++)
+                out[start + 2 + i] = '0';
+            return end + 2 + zeros;
+        }
+
+        if (length == 1) {
+            out[start + 1] = '.';
+            out[start + 2] = '0';
+            end = start + 3;
+        } else {
+            System.arraycopy(out, start + 1, out, start + 2, length - 1);
+            out[start + 1] = '.';
+            end++;
+        }
+        out[end++] = 'E';
+        if (leading < 0) {
+            out[end++] = '-';
+            leading = -leading;
+        }
+        return writeLong(leading, out, end);
+    }
+
+    private static int writeAscii(String text, byte[] out, int offset) {
+        for (int i = 0; i < text.length(); i++)
+            out[offset++] = (byte) text.charAt(i);
+        return offset;
+    }
+
+    private static double power(int exponent) {
+        return exponent >= 0 ? POWERS_OF_TEN[exponent]
+                : 1 / POWERS_OF_TEN[-exponent];
+    }
+
+}
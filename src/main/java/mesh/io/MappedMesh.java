@@ -0,0 +1,222 @@
+package mesh.io;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.stream.IntStream;
+
+import math.Color;
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+import mesh.PackedMesh3D;
+
+/**
+ * A mesh read by {@link BinaryMeshReader}, backed by memory-mapped blocks of
+ * the file.
+ *
+ * The buffers use the layout of {@link PackedMesh3D}: interleaved positions,
+ * face offsets with one entry per face plus one, and the vertex indices of
+ * all face corners. They are views of the mapped file, nothing is copied
+ * until {@link #toMesh3D()} or {@link #toPackedMesh3D()} is called. Each
+ * getter returns a new view with its own position, the views are read-only.
+ */
+public class MappedMesh {
+
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private int vertexCount;
+
+    private int faceCount;
+
+    private int indexCount;
+
+    private int uvCount;
+
+    private FloatBuffer positions;
+
+    private IntBuffer faceOffsets;
+
+    private IntBuffer faceIndices;
+
+    private FloatBuffer uvs;
+
+    private IntBuffer faceUvIndices;
+
+    private FloatBuffer faceColors;
+
+    MappedMesh(int vertexCount, int faceCount, int indexCount, int uvCount,
+            FloatBuffer positions, IntBuffer faceOffsets,
+            IntBuffer faceIndices, FloatBuffer uvs, IntBuffer faceUvIndices,
+            FloatBuffer faceColors) {
+        this.vertexCount = vertexCount;
+        this.faceCount = faceCount;
+        this.indexCount = indexCount;
+        this.uvCount = uvCount;
+        this.positions = positions;
+        this.faceOffsets = faceOffsets;
+        this.faceIndices = faceIndices;
+        this.uvs = uvs;
+        this.faceUvIndices = faceUvIndices;
+        this.faceColors = faceColors;
+    }
+
+    /**
+     * Creates a new {@link Mesh3D} holding the same geometry, including UV
+     * coordinates and face colors.
+     *
+     * @return a new mesh
+     */
+    public Mesh3D toMesh3D() {
+        Vector3f[] vertices = new Vector3f[vertexCount];
+        range(vertexCount).forEach(i -> vertices[i] = new Vector3f(
+                positions.get(i * 3), positions.get(i * 3 + 1),
+                positions.get(i * 3 + 2)));
+
+        Face3D[] faces = new Face3D[faceCount];
+        range(faceCount).forEach(f -> faces[f] = createFace(f));
+
+        Mesh3D mesh = new Mesh3D();
+        mesh.vertices.ensureCapacity(vertexCount);
+        mesh.faces.ensureCapacity(faceCount);
+        mesh.add(vertices);
+        for (int i = 0; i < uvCount; i++)
+            mesh.addUvCoordinate(uvs.get(i * 2), uvs.get(i * 2 + 1));
+        mesh.add(faces);
+        return mesh;
+    }
+
+    private Face3D createFace(int face) {
+        int start = faceOffsets.get(face);
+        int end = faceOffsets.get(face + 1);
+        int[] indices = new int[end - start];
+        faceIndices.get(start, indices);
+        Face3D result = new Face3D();
+        result.indices = indices;
+        if (faceUvIndices != null && faceUvIndices.get(start) != -1) {
+            int[] uvIndices = new int[end - start];
+            faceUvIndices.get(start, uvIndices);
+            result.setUvIndices(uvIndices);
+        }
+        if (faceColors != null) {
+            int offset = face * 4;
+            result.color.set(faceColors.get(offset),
+                    faceColors.get(offset + 1), faceColors.get(offset + 2),
+                    faceColors.get(offset + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new {@link PackedMesh3D} holding the same geometry.
+     *
+     * @return a new packed mesh
+     */
+    public PackedMesh3D toPackedMesh3D() {
+        PackedMesh3D mesh = new PackedMesh3D(vertexCount, faceCount,
+                indexCount);
+        for (int i = 0; i < vertexCount; i++)
+            mesh.addVertex(positions.get(i * 3), positions.get(i * 3 + 1),
+                    positions.get(i * 3 + 2));
+        for (int i = 0; i < uvCount; i++)
+            mesh.addUvCoordinate(uvs.get(i * 2), uvs.get(i * 2 + 1));
+        for (int f = 0; f < faceCount; f++) {
+            int start = faceOffsets.get(f);
+            int[] indices = new int[faceOffsets.get(f + 1) - start];
+            faceIndices.get(start, indices);
+            mesh.addFace(indices);
+            if (faceUvIndices != null && faceUvIndices.get(start) != -1) {
+                int[] uvIndices = new int[indices.length];
+                faceUvIndices.get(start, uvIndices);
+                mesh.setFaceUvIndices(f, uvIndices);
+            }
+            if (faceColors != null) {
+                int offset = f * 4;
+                mesh.setFaceColor(f, new Color(faceColors.get(offset),
+                        faceColors.get(offset + 1),
+                        faceColors.get(offset + 2),
+                        faceColors.get(offset + 3)));
+            }
+        }
+        return mesh;
+    }
+
+    private IntStream range(int count) {
+        IntStream range = IntStream.range(0, count);
+        return count >= PARALLEL_THRESHOLD ? range.parallel() : range;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getFaceCount() {
+        return faceCount;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    public int getUvCount() {
+        return uvCount;
+    }
+
+    /**
+     * Returns the vertex positions, x, y, z interleaved.
+     *
+     * @return a read-only view of the mapped positions
+     */
+    public FloatBuffer getPositions() {
+        return positions.duplicate();
+    }
+
+    /**
+     * Returns the start of the corners of every face in
+     * {@link #getFaceIndices()}, one entry per face plus one.
+     *
+     * @return a read-only view of the mapped face offsets
+     */
+    public IntBuffer getFaceOffsets() {
+        return faceOffsets.duplicate();
+    }
+
+    /**
+     * Returns the vertex indices of all face corners.
+     *
+     * @return a read-only view of the mapped face indices
+     */
+    public IntBuffer getFaceIndices() {
+        return faceIndices.duplicate();
+    }
+
+    /**
+     * Returns the UV coordinates, u, v interleaved.
+     *
+     * @return a read-only view of the mapped UV coordinates
+     */
+    public FloatBuffer getUvs() {
+        return uvs.duplicate();
+    }
+
+    /**
+     * Returns the UV index of every face corner, -1 for faces without UV
+     * indices.
+     *
+     * @return a read-only view of the mapped UV indices, or null if the mesh
+     *         has none
+     */
+    public IntBuffer getFaceUvIndices() {
+        return faceUvIndices == null ? null : faceUvIndices.duplicate();
+    }
+
+    /**
+     * Returns the face colors, r, g, b, a interleaved.
+     *
+     * @return a read-only view of the mapped face colors, or null if the mesh
+     *         has none
+     */
+    public FloatBuffer getFaceColors() {
+        return faceColors == null ? null : faceColors.duplicate();
+    }
+
+}
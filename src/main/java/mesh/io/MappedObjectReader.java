@@ -0,0 +1,734 @@
+package mesh.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import math.Vector2f;
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.IndexedMesh3D;
+import mesh.Mesh3D;
+
+/**
+ * Reads the vertices and faces of a Wavefront OBJ file into a single mesh,
+ * like {@link SimpleObjectReader}, but fast enough for files of several
+ * gigabytes.
+ *
+ * The file is memory-mapped and split into line-aligned chunks that are
+ * parsed in parallel. Each chunk is copied out of its mapping in one bulk
+ * transfer and numbers are parsed directly from the bytes, no strings or
+ * per-line objects are created. Every chunk collects its vertices
+ * and faces in flat arrays; afterwards the chunks are merged into
+ * preallocated vertex and face arrays and relative (negative) face indices
+ * are resolved against the vertex count of the preceding chunks.
+ *
+ * Only {@code v}, {@code vt}, {@code vn} and {@code f} statements are read,
+ * everything else is skipped. Face corners may use the {@code v/vt/vn},
+ * {@code v/vt} and {@code v//vn} syntax. {@link #read(File)} keeps texture
+ * coordinates as UV indices of the faces; {@link #readIndexed(File)} also
+ * keeps normals and produces one vertex per distinct corner. Floats are
+ * parsed to the same values as {@link Float#parseFloat(String)}.
+ */
+public class MappedObjectReader {
+
+    /** Files smaller than this are parsed as a single chunk. */
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 24;
+
+    /** Maximum length of a line reaching past the end of its chunk. */
+    private static final int MAX_LINE_LENGTH = 1 << 20;
+
+    /** Powers of ten that are exactly representable as double. */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /** Mantissas above this value are not exact as double. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private int chunkSize;
+
+    private boolean parallel;
+
+    public MappedObjectReader() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a reader that splits files into chunks of the given size.
+     *
+     * @param chunkSize the number of bytes per chunk
+     */
+    MappedObjectReader(int chunkSize) {
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE - MAX_LINE_LENGTH)
+            throw new IllegalArgumentException("Invalid chunk size.");
+        this.chunkSize = chunkSize;
+        this.parallel = true;
+    }
+
+    /**
+     * Reads the given OBJ file.
+     *
+     * @param file the file to read
+     * @return a new mesh with all vertices and faces of the file
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public Mesh3D read(File file) throws IOException {
+        return merge(parse(file));
+    }
+
+    /**
+     * Reads the given OBJ file into a render-ready indexed triangle mesh.
+     * Every distinct position/texture/normal index triple of the face
+     * corners becomes one vertex, polygons are triangulated by
+     * {@link IndexedMesh3D.Builder#addPolygon(int[], int, int)}.
+     * Normals are taken from the file as they are; the mesh has UVs or
+     * normals if any face corner references one.
+     *
+     * @param file the file to read
+     * @return a new indexed mesh
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public IndexedMesh3D readIndexed(File file) throws IOException {
+        Chunk[] chunks = parse(file);
+        resolve(chunks);
+
+        boolean hasUvs = false;
+        boolean hasNormals = false;
+        for (Chunk chunk : chunks) {
+            hasUvs |= chunk.uvIndices != null;
+            hasNormals |= chunk.normalIndices != null;
+        }
+        Chunk last = chunks.length == 0 ? null : chunks[chunks.length - 1];
+        float[] positions = new float[last == null ? 0
+                : (last.vertexBase + last.vertexCount) * 3];
+        float[] uvs = hasUvs ? new float[(last.uvBase + last.uvCount) * 2]
+                : null;
+        float[] normals = hasNormals
+                ? new float[(last.normalBase + last.normalCount) * 3]
+                : null;
+        for (Chunk chunk : chunks) {
+            System.arraycopy(chunk.positions, 0, positions,
+                    chunk.vertexBase * 3, chunk.vertexCount * 3);
+            if (hasUvs)
+                System.arraycopy(chunk.uvs, 0, uvs, chunk.uvBase * 2,
+                        chunk.uvCount * 2);
+            if (hasNormals)
+                System.arraycopy(chunk.normals, 0, normals,
+                        chunk.normalBase * 3, chunk.normalCount * 3);
+        }
+
+        // Deduplication assigns vertex numbers in corner order, so it runs
+        // sequentially over all chunks.
+        IndexedMesh3D.Builder builder = new IndexedMesh3D.Builder(positions,
+                uvs, normals);
+        int[] polygon = new int[16];
+        for (Chunk chunk : chunks) {
+            for (int f = 0; f < chunk.faceCount; f++) {
+                int start = chunk.faceOffsets[f];
+                int count = chunk.faceOffsets[f + 1] - start;
+                if (polygon.length < count)
+                    polygon = new int[count];
+                for (int i = 0; i < count; i++) {
+                    int corner = start + i;
+                    polygon[i] = builder.addCorner(chunk.indices[corner],
+                            chunk.uvIndices == null ? -1
+                                    : chunk.uvIndices[corner],
+                            chunk.normalIndices == null ? -1
+                                    : chunk.normalIndices[corner]);
+                }
+                builder.addPolygon(polygon, 0, count);
+            }
+        }
+        return builder.build();
+    }
+
+    private Chunk[] parse(File file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException("File cannot be null.");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+            Chunk[] chunks = new Chunk[chunkCount];
+            IntStream range = IntStream.range(0, chunkCount);
+            if (parallel)
+                range = range.parallel();
+            try {
+                range.forEach(i -> chunks[i] = parseChunk(channel, size, i));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return chunks;
+        }
+    }
+
+    private Chunk parseChunk(FileChannel channel, long size, int index) {
+        long start = (long) index * chunkSize;
+        long end = Math.min(size, start + chunkSize);
+        // Map one byte before the chunk to see whether a line starts at the
+        // chunk start, and enough after it to finish the last line.
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + MAX_LINE_LENGTH);
+        try {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, mapStart,
+                    mapEnd - mapStart);
+            // One bulk copy is much cheaper than bounds checked single byte
+            // reads from the buffer. Only the bytes up to the end of the last
+            // line starting in the chunk are copied, not the whole margin.
+            int length = lineEnd(buffer, (int) (end - mapStart) - 1);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            Chunk chunk = new Chunk(bytes, (int) (end - start));
+            chunk.base = mapStart;
+            chunk.parse((int) (start - mapStart), (int) (end - mapStart),
+                    mapStart + length == size);
+            return chunk;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the position behind the first line feed at or after the given
+     * position, or the end of the buffer if there is none.
+     */
+    private int lineEnd(MappedByteBuffer buffer, int position) {
+        int limit = buffer.limit();
+        for (int i = Math.max(0, position); i < limit; i++) {
+            if (buffer.get(i) == '\n')
+                return i + 1;
+        }
+        return limit;
+    }
+
+    private Mesh3D merge(Chunk[] chunks) throws IOException {
+        resolve(chunks);
+        int vertexCount = 0;
+        int faceCount = 0;
+        int uvCount = 0;
+        for (Chunk chunk : chunks) {
+            vertexCount += chunk.vertexCount;
+            faceCount += chunk.faceCount;
+            uvCount += chunk.uvCount;
+        }
+
+        Vector3f[] vertices = new Vector3f[vertexCount];
+        Face3D[] faces = new Face3D[faceCount];
+        Vector2f[] uvs = new Vector2f[uvCount];
+        IntStream range = IntStream.range(0, chunks.length);
+        if (parallel)
+            range = range.parallel();
+        range.forEach(i -> chunks[i].copyTo(vertices, faces, uvs));
+
+        Mesh3D mesh = new Mesh3D();
+        mesh.vertices.ensureCapacity(vertexCount);
+        mesh.faces.ensureCapacity(faceCount);
+        mesh.add(vertices);
+        if (uvCount > 0)
+            mesh.setUvs(new ArrayList<Vector2f>(Arrays.asList(uvs)));
+        mesh.add(faces);
+        return mesh;
+    }
+
+    /**
+     * Assigns every chunk the number of elements in the preceding chunks and
+     * resolves relative indices against them.
+     */
+    private void resolve(Chunk[] chunks) throws IOException {
+        int vertexCount = 0;
+        int faceCount = 0;
+        int uvCount = 0;
+        int normalCount = 0;
+        for (Chunk chunk : chunks) {
+            chunk.vertexBase = vertexCount;
+            chunk.faceBase = faceCount;
+            chunk.uvBase = uvCount;
+            chunk.normalBase = normalCount;
+            vertexCount += chunk.vertexCount;
+            faceCount += chunk.faceCount;
+            uvCount += chunk.uvCount;
+            normalCount += chunk.normalCount;
+        }
+
+        int totalVertexCount = vertexCount;
+        int totalUvCount = uvCount;
+        int totalNormalCount = normalCount;
+        IntStream range = IntStream.range(0, chunks.length);
+        if (parallel)
+            range = range.parallel();
+        try {
+            range.forEach(i -> {
+                try {
+                    chunks[i].resolveIndices(totalVertexCount, totalUvCount,
+                            totalNormalCount);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * The vertices, texture coordinates, normals and faces of one
+     * line-aligned chunk of the file. A chunk
+     * owns every line that starts inside it. Lines are parsed in a single
+     * pass with a cursor over the mapped bytes.
+     */
+    private static class Chunk {
+
+        private static final int VERTEX = 0;
+
+        private static final int UV = 1;
+
+        private static final int NORMAL = 2;
+
+        private byte[] bytes;
+
+        /** File position of the first mapped byte. */
+        private long base;
+
+        /** Number of mapped bytes. */
+        private int limit;
+
+        /** Whether the mapping ends at the end of the file. */
+        private boolean endOfFile;
+
+        /** Current parse position. */
+        private int position;
+
+        private float[] positions;
+
+        private int vertexCount;
+
+        /** Start of each face in {@link #indices}, one entry per face + 1. */
+        private int[] faceOffsets;
+
+        private int faceCount;
+
+        /** Zero based vertex indices of all face corners. */
+        private int[] indices;
+
+        private float[] uvs;
+
+        private int uvCount;
+
+        /**
+         * Zero based UV indices parallel to {@link #indices}, -1 for corners
+         * without one. Null until a corner references a UV.
+         */
+        private int[] uvIndices;
+
+        private float[] normals;
+
+        private int normalCount;
+
+        /** Like {@link #uvIndices}, for normals. */
+        private int[] normalIndices;
+
+        /**
+         * Corners holding relative indices, stored as offsets from the first
+         * element of this chunk. Each entry is the corner shifted left by two
+         * bits, combined with the kind of index.
+         */
+        private int[] relative;
+
+        private int relativeCount;
+
+        private int vertexBase;
+
+        private int faceBase;
+
+        private int uvBase;
+
+        private int normalBase;
+
+        Chunk(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.limit = bytes.length;
+            // Guess from typical line lengths, the arrays grow as needed.
+            int lines = Math.max(16, length / 64);
+            positions = new float[lines * 3];
+            faceOffsets = new int[lines + 1];
+            indices = new int[lines * 4];
+            uvs = new float[0];
+            normals = new float[0];
+            relative = new int[0];
+        }
+
+        void parse(int start, int end, boolean endOfFile) throws IOException {
+            this.endOfFile = endOfFile;
+            position = start;
+            if (start > 0 && bytes[start - 1] != '\n')
+                skipLine();
+            while (position < end)
+                parseLine();
+            // The parsed arrays are kept until the merge, the bytes are not.
+            bytes = null;
+        }
+
+        /** Returns the byte at the given position, a line feed past the end. */
+        private byte at(int position) {
+            return position < limit ? bytes[position] : (byte) '\n';
+        }
+
+        /** Moves the cursor behind the next line feed. */
+        private void skipLine() throws IOException {
+            while (position < limit && bytes[position] != '\n')
+                position++;
+            if (position == limit && !endOfFile)
+                throw error(position, "Line too long");
+            position++;
+        }
+
+        private void parseLine() throws IOException {
+            skipWhitespace();
+            byte keyword = at(position);
+            byte next = at(position + 1);
+            if ((keyword == 'v' || keyword == 'f') && isWhitespace(next)) {
+                position += 2;
+                if (keyword == 'v') {
+                    parseVertex();
+                } else {
+                    parseFace();
+                }
+            } else if (keyword == 'v' && (next == 't' || next == 'n')
+                    && isWhitespace(at(position + 2))) {
+                position += 3;
+                if (next == 't') {
+                    parseUv();
+                } else {
+                    parseNormal();
+                }
+            }
+            skipLine();
+        }
+
+        private void parseVertex() throws IOException {
+            if (vertexCount * 3 == positions.length)
+                positions = Arrays.copyOf(positions, positions.length * 2);
+            int offset = vertexCount * 3;
+            for (int i = 0; i < 3; i++) {
+                skipWhitespace();
+                if (at(position) == '\n')
+                    throw error(position, "Missing vertex coordinate");
+                positions[offset + i] = parseFloat();
+            }
+            vertexCount++;
+        }
+
+        /** Reads u and an optional v, a third coordinate is ignored. */
+        private void parseUv() throws IOException {
+            if (uvCount * 2 == uvs.length)
+                uvs = Arrays.copyOf(uvs, Math.max(32, uvs.length * 2));
+            int offset = uvCount * 2;
+            skipWhitespace();
+            if (at(position) == '\n')
+                throw error(position, "Missing texture coordinate");
+            uvs[offset] = parseFloat();
+            skipWhitespace();
+            byte c = at(position);
+            uvs[offset + 1] = c == '\n' || c == '#' ? 0 : parseFloat();
+            uvCount++;
+        }
+
+        private void parseNormal() throws IOException {
+            if (normalCount * 3 == normals.length)
+                normals = Arrays.copyOf(normals,
+                        Math.max(48, normals.length * 2));
+            int offset = normalCount * 3;
+            for (int i = 0; i < 3; i++) {
+                skipWhitespace();
+                if (at(position) == '\n')
+                    throw error(position, "Missing normal coordinate");
+                normals[offset + i] = parseFloat();
+            }
+            normalCount++;
+        }
+
+        private void parseFace() throws IOException {
+            if (faceCount + 1 == faceOffsets.length)
+                faceOffsets = Arrays.copyOf(faceOffsets,
+                        faceOffsets.length * 2);
+            int corner = faceOffsets[faceCount];
+            while (true) {
+                skipWhitespace();
+                byte c = at(position);
+                if (c == '\n' || c == '#')
+                    break;
+                if (corner == indices.length) {
+                    indices = Arrays.copyOf(indices, indices.length * 2);
+                    uvIndices = grow(uvIndices, indices.length);
+                    normalIndices = grow(normalIndices, indices.length);
+                }
+                indices[corner] = toIndex(parseIndex(), vertexCount, corner,
+                        VERTEX);
+                if (uvIndices != null)
+                    uvIndices[corner] = -1;
+                if (normalIndices != null)
+                    normalIndices[corner] = -1;
+                if (at(position) == '/') {
+                    position++;
+                    if (at(position) != '/') {
+                        if (uvIndices == null)
+                            uvIndices = newIndices();
+                        uvIndices[corner] = toIndex(parseIndex(), uvCount,
+                                corner, UV);
+                    }
+                    if (at(position) == '/') {
+                        position++;
+                        if (normalIndices == null)
+                            normalIndices = newIndices();
+                        normalIndices[corner] = toIndex(parseIndex(),
+                                normalCount, corner, NORMAL);
+                    }
+                }
+                corner++;
+            }
+            faceCount++;
+            faceOffsets[faceCount] = corner;
+        }
+
+        /**
+         * Turns a one based OBJ index into a zero based one. Relative indices
+         * are resolved against the elements of this chunk and recorded for
+         * {@link #resolveIndices(int, int, int)}.
+         */
+        private int toIndex(int index, int count, int corner, int kind) {
+            if (index > 0)
+                return index - 1;
+            addRelative(corner << 2 | kind);
+            return count + index;
+        }
+
+        /** Creates an attribute index array with no attribute per corner. */
+        private int[] newIndices() {
+            int[] result = new int[indices.length];
+            Arrays.fill(result, -1);
+            return result;
+        }
+
+        private int[] grow(int[] array, int length) {
+            if (array == null)
+                return null;
+            int previous = array.length;
+            array = Arrays.copyOf(array, length);
+            Arrays.fill(array, previous, length, -1);
+            return array;
+        }
+
+        private int parseIndex() throws IOException {
+            int start = position;
+            boolean negative = false;
+            byte c = at(position);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                position++;
+            }
+            long value = 0;
+            int digitsStart = position;
+            while (true) {
+                int digit = at(position) - '0';
+                if (digit < 0 || digit > 9)
+                    break;
+                value = value * 10 + digit;
+                if (value > Integer.MAX_VALUE)
+                    throw error(start, "Face index too large");
+                position++;
+            }
+            c = at(position);
+            if (position == digitsStart || !(c == '/' || isSeparator(c)))
+                throw error(start, "Malformed face index");
+            if (value == 0)
+                throw error(start, "Invalid face index 0");
+            return (int) (negative ? -value : value);
+        }
+
+        private void addRelative(int entry) {
+            if (relativeCount == relative.length)
+                relative = Arrays.copyOf(relative,
+                        Math.max(16, relative.length * 2));
+            relative[relativeCount++] = entry;
+        }
+
+        /**
+         * Turns relative indices into absolute ones and checks the range of
+         * all indices.
+         */
+        void resolveIndices(int totalVertexCount, int totalUvCount,
+                int totalNormalCount) throws IOException {
+            for (int i = 0; i < relativeCount; i++) {
+                int corner = relative[i] >>> 2;
+                int kind = relative[i] & 3;
+                int[] array = kind == VERTEX ? indices
+                        : kind == UV ? uvIndices : normalIndices;
+                array[corner] += kind == VERTEX ? vertexBase
+                        : kind == UV ? uvBase : normalBase;
+                // -1 marks a missing attribute, it is never a valid result.
+                if (array[corner] < 0)
+                    throw new IOException("Face index out of range: "
+                            + (array[corner] + 1));
+            }
+            int cornerCount = faceOffsets[faceCount];
+            for (int i = 0; i < cornerCount; i++) {
+                if (indices[i] < 0 || indices[i] >= totalVertexCount)
+                    throw new IOException(
+                            "Face index out of range: " + indices[i]);
+                if (uvIndices != null && uvIndices[i] >= totalUvCount)
+                    throw new IOException(
+                            "Texture index out of range: " + uvIndices[i]);
+                if (normalIndices != null
+                        && normalIndices[i] >= totalNormalCount)
+                    throw new IOException(
+                            "Normal index out of range: " + normalIndices[i]);
+            }
+        }
+
+        void copyTo(Vector3f[] vertices, Face3D[] faces, Vector2f[] uvs) {
+            for (int i = 0; i < vertexCount; i++) {
+                vertices[vertexBase + i] = new Vector3f(positions[i * 3],
+                        positions[i * 3 + 1], positions[i * 3 + 2]);
+            }
+            for (int i = 0; i < uvCount; i++) {
+                uvs[uvBase + i] = new Vector2f(this.uvs[i * 2],
+                        this.uvs[i * 2 + 1]);
+            }
+            for (int i = 0; i < faceCount; i++) {
+                int start = faceOffsets[i];
+                int end = faceOffsets[i + 1];
+                Face3D face = new Face3D();
+                face.indices = Arrays.copyOfRange(indices, start, end);
+                // Mesh3D has no per corner normals, only UVs are kept.
+                if (uvIndices != null && uvIndices[start] != -1)
+                    face.setUvIndices(
+                            Arrays.copyOfRange(uvIndices, start, end));
+                faces[faceBase + i] = face;
+            }
+            positions = null;
+            indices = null;
+            uvIndices = null;
+            normalIndices = null;
+            faceOffsets = null;
+        }
+
+        /**
+         * Parses a decimal float at the cursor. The common case of up to 15
+         * significant digits and a small exponent is computed exactly in
+         * double arithmetic; everything else, and the rare doubles that lie
+         * exactly between two floats, falls back to
+         * {@link Float#parseFloat(String)}.
+         */
+        private float parseFloat() throws IOException {
+            int start = position;
+            boolean negative = false;
+            byte c = at(position);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                c = at(++position);
+            }
+            long mantissa = 0;
+            int exponent = 0;
+            int digits = 0;
+            boolean exact = true;
+            boolean point = false;
+            while (true) {
+                if (c == '.' && !point) {
+                    point = true;
+                } else if (c >= '0' && c <= '9') {
+                    if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        if (point)
+                            exponent--;
+                    } else {
+                        exact = false;
+                    }
+                    digits++;
+                } else {
+                    break;
+                }
+                c = at(++position);
+            }
+            if (c == 'e' || c == 'E') {
+                c = at(++position);
+                boolean negativeExponent = false;
+                if (c == '-' || c == '+') {
+                    negativeExponent = c == '-';
+                    c = at(++position);
+                }
+                int value = 0;
+                int exponentStart = position;
+                while (c >= '0' && c <= '9') {
+                    value = Math.min(value * 10 + (c - '0'), 10000);
+                    c = at(++position);
+                }
+                if (position == exponentStart)
+                    exact = false;
+                exponent += negativeExponent ? -value : value;
+            }
+            if (!exact || digits == 0 || !isSeparator(c)
+                    || exponent < -22 || exponent > 22)
+                return parseFloatSlow(start);
+
+            double value = exponent < 0
+                    ? mantissa / POWERS_OF_TEN[-exponent]
+                    : mantissa * POWERS_OF_TEN[exponent];
+            // A double exactly between two floats would be rounded twice.
+            long bits = Double.doubleToRawLongBits(value);
+            if ((bits & 0x1FFFFFFFL) == 0x10000000L)
+                return parseFloatSlow(start);
+            float result = (float) value;
+            return negative ? -result : result;
+        }
+
+        private float parseFloatSlow(int start) throws IOException {
+            position = start;
+            while (!isSeparator(at(position)))
+                position++;
+            String token = new String(bytes, start, position - start,
+                    StandardCharsets.US_ASCII);
+            try {
+                return Float.parseFloat(token);
+            } catch (NumberFormatException e) {
+                throw error(start, "Malformed number '" + token + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (isWhitespace(at(position)))
+                position++;
+        }
+
+        private boolean isWhitespace(byte c) {
+            return c == ' ' || c == '\t' || c == '\r';
+        }
+
+        private boolean isSeparator(byte c) {
+            return isWhitespace(c) || c == '\n';
+        }
+
+        private IOException error(int position, String message) {
+            return new IOException(message + " at byte " + (base + position));
+        }
+
+    }
+
+}
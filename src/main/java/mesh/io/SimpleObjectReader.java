@@ -35,6 +35,11 @@ public class SimpleObjectReader {
             addVertex(sArray);
         }
 
+        if (line.startsWith("vt ")) {
+            String[] sArray = line.split(" ");
+            addUvCoordinate(sArray);
+        }
+
         if (line.startsWith("f ")) {
             String[] sArray = line.split(" ");
             addFace(sArray);
@@ -53,14 +58,33 @@ public class SimpleObjectReader {
         mesh.add(v);
     }
 
+    protected void addUvCoordinate(String[] sArray) {
+        float u = Float.parseFloat(sArray[1]);
+        float v = sArray.length > 2 ? Float.parseFloat(sArray[2]) : 0;
+        mesh.addUvCoordinate(u, v);
+    }
+
     protected void addFace(String[] sArray) {
         Face3D f = null;
         int[] iArray = new int[sArray.length - 1];
+        int[] uvArray = null;
         for (int i = 0; i < iArray.length; i++) {
-            iArray[i] = Integer.parseInt(sArray[i + 1]) - 1;
+            // Corners are v, v/vt, v/vt/vn or v//vn.
+            String[] corner = sArray[i + 1].split("/");
+            iArray[i] = toIndex(corner[0], mesh.getVertexCount());
+            if (corner.length > 1 && !corner[1].isEmpty()) {
+                if (uvArray == null)
+                    uvArray = new int[iArray.length];
+                uvArray[i] = toIndex(corner[1], mesh.getUvCount());
+            }
         }
-        f = new Face3D(iArray);
+        f = uvArray == null ? new Face3D(iArray) : new Face3D(iArray, uvArray);
         mesh.add(f);
     }
 
+    private int toIndex(String token, int count) {
+        int index = Integer.parseInt(token);
+        return index > 0 ? index - 1 : count + index;
+    }
+
 }
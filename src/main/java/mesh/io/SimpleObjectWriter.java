@@ -1,105 +1,172 @@
 package mesh.io;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 
 import math.Vector3f;
 import mesh.Face3D;
 import mesh.Mesh3D;
-
+import mesh.PackedMesh3D;
+
+/**
+ * Writes meshes as Wavefront OBJ objects into one file.
+ *
+ * Output is streamed through a fixed-size direct buffer into a
+ * {@link FileChannel}, so memory use does not depend on the size of the
+ * model. Floats are formatted without allocation by {@link FloatFormatter},
+ * either as the shortest representation that reads back as the same value
+ * (the default) or with a fixed number of decimals, see
+ * {@link #setPrecision(int)}.
+ *
+ * Several meshes can be written to the same file; face indices of later
+ * meshes are offset by the vertices written before. The file is created on
+ * the first write and completed by {@link #close()}.
+ */
 public class SimpleObjectWriter {
 
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Precision value selecting shortest round trip output. */
+    public static final int SHORTEST = -1;
+
     private int vertexOffset;
 
-    private StringBuffer buffer;
+    private int precision;
 
-    private String objectName;
+    private ByteBuffer buffer;
 
-    private File file;
+    /** Scratch space for formatting one number. */
+    private byte[] number;
+
+    private FileChannel channel;
 
-    private Mesh3D mesh;
+    private File file;
 
     public SimpleObjectWriter(File file) {
         this.file = file;
-        initializeBuffer();
+        this.precision = SHORTEST;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.number = new byte[FloatFormatter.MAX_LENGTH];
     }
 
-    private void writeVerticesToBuffer() {
+    public void write(Mesh3D mesh, String objectName) throws IOException {
+        writeObjectName(objectName);
         for (Vector3f vertex : mesh.vertices)
-            writeVertex(vertex);
+            writeVertex(vertex.getX(), vertex.getY(), vertex.getZ());
+        for (Face3D face : mesh.faces)
+            writeFace(face.indices, 0, face.indices.length);
+        vertexOffset += mesh.getVertexCount();
     }
 
-    private void writeVertex(Vector3f vertex) {
-        append("v ");
-        append(vertex.getX());
-        append(" ");
-        append(vertex.getY());
-        append(" ");
-        append(vertex.getZ());
-        append("\n");
+    public void write(PackedMesh3D mesh, String objectName) throws IOException {
+        writeObjectName(objectName);
+        float[] positions = mesh.getPositions();
+        for (int i = 0; i < mesh.getVertexCount() * 3; i += 3)
+            writeVertex(positions[i], positions[i + 1], positions[i + 2]);
+        int[] offsets = mesh.getFaceOffsets();
+        int[] indices = mesh.getFaceIndices();
+        for (int f = 0; f < mesh.getFaceCount(); f++)
+            writeFace(indices, offsets[f], offsets[f + 1]);
+        vertexOffset += mesh.getVertexCount();
     }
 
-    private void writeObjectNameToBuffer() {
-        append("o ");
-        append(objectName);
-        append("\n");
+    /**
+     * Flushes the remaining output and closes the file. Creates an empty file
+     * if nothing was written.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void close() throws IOException {
+        flush();
+        channel.close();
     }
 
-    private void writeFacesToBuffer() {
-        for (Face3D f : mesh.faces) {
-            buffer.append("f ");
-            for (int i = 0; i < f.indices.length; i++) {
-                append(f.indices[i] + 1 + vertexOffset);
-                append(" ");
-            }
-            append("\n");
+    private void writeObjectName(String objectName) throws IOException {
+        append("o ");
+        byte[] bytes = String.valueOf(objectName)
+                .getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            ensureCapacity(1);
+            buffer.put(b);
         }
+        append("\n");
     }
 
-    private void writeBufferToFile() throws IOException {
-        BufferedWriter out = new BufferedWriter(new FileWriter(file));
-        out.write(buffer.toString());
-        out.flush();
-        out.close();
+    private void writeVertex(float x, float y, float z) throws IOException {
+        ensureCapacity(3 * FloatFormatter.MAX_LENGTH + 5);
+        buffer.put((byte) 'v');
+        buffer.put((byte) ' ');
+        appendFloat(x);
+        buffer.put((byte) ' ');
+        appendFloat(y);
+        buffer.put((byte) ' ');
+        appendFloat(z);
+        buffer.put((byte) '\n');
     }
 
-    public void write(Mesh3D mesh, String objectName) throws IOException {
-        setObjectName(objectName);
-        setMesh(mesh);
-        writeObjectNameToBuffer();
-        writeVerticesToBuffer();
-        writeFacesToBuffer();
-        vertexOffset += mesh.getVertexCount();
-    }
-
-    public void close() throws IOException {
-        writeBufferToFile();
+    private void writeFace(int[] indices, int from, int to)
+            throws IOException {
+        append("f ");
+        for (int i = from; i < to; i++) {
+            ensureCapacity(FloatFormatter.MAX_LENGTH);
+            int length = FloatFormatter.writeLong(
+                    indices[i] + 1L + vertexOffset, number, 0);
+            buffer.put(number, 0, length);
+            buffer.put((byte) ' ');
+        }
+        append("\n");
     }
 
-    private void append(String str) {
-        buffer.append(str);
+    private void appendFloat(float value) {
+        int length = precision == SHORTEST
+                ? FloatFormatter.format(value, number, 0)
+                : FloatFormatter.formatFixed(value, precision, number, 0);
+        buffer.put(number, 0, length);
     }
 
-    private void append(float value) {
-        buffer.append(value);
+    private void append(String ascii) throws IOException {
+        ensureCapacity(ascii.length());
+        for (int i = 0; i < ascii.length(); i++)
+            buffer.put((byte) ascii.charAt(i));
     }
 
-    private void append(int value) {
-        buffer.append(value);
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes)
+            flush();
     }
 
-    private void initializeBuffer() {
-        buffer = new StringBuffer();
+    private void flush() throws IOException {
+        if (channel == null)
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
     }
 
-    private void setMesh(Mesh3D mesh) {
-        this.mesh = mesh;
+    public int getPrecision() {
+        return precision;
     }
 
-    private void setObjectName(String objectName) {
-        this.objectName = objectName;
+    /**
+     * Sets the number of decimals written for vertex coordinates.
+     *
+     * @param precision the number of decimals from 0 to 9, or
+     *                  {@link #SHORTEST} for the shortest representation
+     *                  that reads back as the same float
+     * @throws IllegalArgumentException if the precision is out of range
+     */
+    public void setPrecision(int precision) {
+        if (precision != SHORTEST && (precision < 0 || precision > 9))
+            throw new IllegalArgumentException(
+                    "Precision must be SHORTEST or between 0 and 9.");
+        this.precision = precision;
     }
 
 }
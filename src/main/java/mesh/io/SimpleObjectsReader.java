@@ -3,72 +3,337 @@ package mesh.io;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import math.Vector3f;
 import mesh.Face3D;
 import mesh.Mesh3D;
 
+/**
+ * Reads the objects ({@code o} groups) of a Wavefront OBJ file as separate
+ * meshes.
+ *
+ * OBJ vertex indices are global to the file. Every object receives only the
+ * vertices its faces reference, in file order, and its face indices are
+ * remapped accordingly. Objects are emitted one at a time when the next
+ * {@code o} statement or the end of the file is reached, so apart from a
+ * compact float array of all positions read so far, memory stays
+ * proportional to the largest object when using
+ * {@link #read(File, ObjectHandler)}.
+ *
+ * Faces before the first {@code o} statement form an unnamed object.
+ * Face corners may use the {@code v/vt/vn} syntax and negative (relative)
+ * indices; faces may only reference vertices defined before the end of
+ * their object. Texture coordinates ({@code vt}) are remapped per object
+ * like vertices and become the UV indices of the faces, normals are ignored.
+ */
 public class SimpleObjectsReader {
 
-    private List<Vector3f> vertices;
+    /**
+     * Receives the objects of a file in file order.
+     */
+    public interface ObjectHandler {
 
-    private Mesh3D mesh;
+        /**
+         * Called once per object.
+         *
+         * @param name the object name, empty for faces before the first
+         *             {@code o} statement
+         * @param mesh the object mesh, owned by the handler
+         */
+        void objectRead(String name, Mesh3D mesh);
 
-    private List<Mesh3D> meshes;
-
-    protected void addVertex(String[] sArray) {
-        float x = Float.parseFloat(sArray[1]);
-        float y = Float.parseFloat(sArray[2]);
-        float z = Float.parseFloat(sArray[3]);
-        vertices.add(new Vector3f(x, y, z));
     }
 
-    protected void addFace(String[] sArray) {
-        Face3D f = null;
-        int[] iArray = new int[sArray.length - 1];
-        for (int i = 0; i < iArray.length; i++) {
-            iArray[i] = Integer.parseInt(sArray[i + 1]) - 1;
-        }
-        f = new Face3D(iArray);
-        mesh.add(f);
-    }
+    /** Positions of all vertices read so far, x, y, z interleaved. */
+    private float[] positions;
 
-    public List<Mesh3D> read(File file) {
-        meshes = new ArrayList<Mesh3D>();
-        vertices = new ArrayList<Vector3f>();
+    private int vertexCount;
+
+    /** Texture coordinates read so far, u, v interleaved. */
+    private float[] uvs;
+
+    private int uvCount;
+
+    /** Name of the current object, null before the first one. */
+    private String objectName;
+
+    /** Start of each face of the current object in {@link #indices}. */
+    private int[] faceOffsets;
 
+    private int faceCount;
+
+    /** Global vertex indices of the face corners of the current object. */
+    private int[] indices;
+
+    /** Global UV indices parallel to {@link #indices}, -1 if not present. */
+    private int[] uvIndices;
+
+    /** Local index of every global vertex while an object is emitted. */
+    private int[] localIndices;
+
+    /** Local index of every global UV while an object is emitted. */
+    private int[] localUvIndices;
+
+    /**
+     * Reads all objects of the given file. Read errors are reported and
+     * the objects read up to that point are returned.
+     *
+     * @param file the file to read
+     * @return one mesh per object
+     */
+    public List<Mesh3D> read(File file) {
+        List<Mesh3D> meshes = new ArrayList<Mesh3D>();
         try {
-            BufferedReader in = new BufferedReader(new FileReader(file));
+            read(file, (name, mesh) -> meshes.add(mesh));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return meshes;
+    }
 
-            String line = null;
+    /**
+     * Reads the given file and passes every object to the handler as soon as
+     * it is complete.
+     *
+     * @param file    the file to read
+     * @param handler receives the objects
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public void read(File file, ObjectHandler handler) throws IOException {
+        if (handler == null)
+            throw new IllegalArgumentException("Handler cannot be null.");
+        initialize();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
             while ((line = in.readLine()) != null) {
                 if (line.startsWith("o ")) {
-                    mesh = new Mesh3D();
-                    meshes.add(mesh);
-                }
-                if (line.startsWith("v ")) {
-                    String[] sArray = line.split(" ");
-                    addVertex(sArray);
-                }
-                if (line.startsWith("f ")) {
-                    String[] sArray = line.split(" ");
-                    addFace(sArray);
+                    emitObject(handler);
+                    objectName = line.substring(2).trim();
+                } else if (line.startsWith("v ")) {
+                    addVertex(line);
+                } else if (line.startsWith("vt ")) {
+                    addUvCoordinate(line);
+                } else if (line.startsWith("f ")) {
+                    addFace(line);
                 }
             }
-            in.close();
-        } catch (Exception e) {
-            e.printStackTrace();
+            emitObject(handler);
+        } finally {
+            release();
         }
+    }
+
+    private void addVertex(String line) throws IOException {
+        if (vertexCount * 3 == positions.length)
+            positions = Arrays.copyOf(positions, positions.length * 2);
+        int position = 2;
+        for (int i = 0; i < 3; i++) {
+            position = skipSpaces(line, position);
+            int end = tokenEnd(line, position);
+            if (position == end)
+                throw new IOException("Missing vertex coordinate: " + line);
+            positions[vertexCount * 3 + i] = Float
+                    .parseFloat(line.substring(position, end));
+            position = end;
+        }
+        vertexCount++;
+    }
 
-        for (Mesh3D mesh : meshes) {
-            for (Vector3f v : vertices) {
-                mesh.add(new Vector3f(v));
+    private void addUvCoordinate(String line) throws IOException {
+        if (uvCount * 2 == uvs.length)
+            uvs = Arrays.copyOf(uvs, uvs.length * 2);
+        int position = skipSpaces(line, 3);
+        for (int i = 0; i < 2; i++) {
+            int end = tokenEnd(line, position);
+            if (position == end || line.charAt(position) == '#') {
+                if (i == 0)
+                    throw new IOException(
+                            "Missing texture coordinate: " + line);
+                uvs[uvCount * 2 + i] = 0;
+                break;
             }
+            uvs[uvCount * 2 + i] = Float
+                    .parseFloat(line.substring(position, end));
+            position = skipSpaces(line, end);
         }
+        uvCount++;
+    }
 
-        return meshes;
+    private void addFace(String line) throws IOException {
+        if (faceCount + 1 == faceOffsets.length)
+            faceOffsets = Arrays.copyOf(faceOffsets, faceOffsets.length * 2);
+        int corner = faceOffsets[faceCount];
+        int position = skipSpaces(line, 2);
+        while (position < line.length() && line.charAt(position) != '#') {
+            int end = tokenEnd(line, position);
+            int slash = line.indexOf('/', position);
+            if (slash >= end)
+                slash = -1;
+            if (corner == indices.length) {
+                indices = Arrays.copyOf(indices, indices.length * 2);
+                uvIndices = Arrays.copyOf(uvIndices, indices.length);
+            }
+            indices[corner] = parseIndex(line, position,
+                    slash == -1 ? end : slash, vertexCount);
+            uvIndices[corner] = -1;
+            if (slash != -1) {
+                int uvEnd = line.indexOf('/', slash + 1);
+                if (uvEnd == -1 || uvEnd > end)
+                    uvEnd = end;
+                if (uvEnd > slash + 1)
+                    uvIndices[corner] = parseIndex(line, slash + 1, uvEnd,
+                            uvCount);
+            }
+            corner++;
+            position = skipSpaces(line, end);
+        }
+        faceCount++;
+        faceOffsets[faceCount] = corner;
+    }
+
+    private int parseIndex(String line, int start, int end, int count)
+            throws IOException {
+        int index;
+        try {
+            index = Integer.parseInt(line.substring(start, end));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed face: " + line);
+        }
+        if (index == 0)
+            throw new IOException("Invalid face index 0: " + line);
+        return index > 0 ? index - 1 : count + index;
+    }
+
+    /**
+     * Builds the mesh of the current object from the vertices its faces
+     * reference and passes it to the handler.
+     */
+    private void emitObject(ObjectHandler handler) throws IOException {
+        if (objectName == null && faceCount == 0)
+            return;
+
+        int cornerCount = faceOffsets[faceCount];
+        localIndices = ensureLength(localIndices, vertexCount);
+        localUvIndices = ensureLength(localUvIndices, uvCount);
+
+        int[] used = new int[cornerCount];
+        int usedCount = 0;
+        int[] usedUvs = new int[cornerCount];
+        int usedUvCount = 0;
+        for (int i = 0; i < cornerCount; i++) {
+            int index = indices[i];
+            if (index < 0 || index >= vertexCount)
+                throw new IOException("Face index out of range: " + index);
+            if (localIndices[index] == -1) {
+                localIndices[index] = 0;
+                used[usedCount++] = index;
+            }
+            int uvIndex = uvIndices[i];
+            if (uvIndex == -1)
+                continue;
+            if (uvIndex < 0 || uvIndex >= uvCount)
+                throw new IOException(
+                        "Texture index out of range: " + uvIndex);
+            if (localUvIndices[uvIndex] == -1) {
+                localUvIndices[uvIndex] = 0;
+                usedUvs[usedUvCount++] = uvIndex;
+            }
+        }
+        Arrays.sort(used, 0, usedCount);
+        Arrays.sort(usedUvs, 0, usedUvCount);
+
+        Mesh3D mesh = new Mesh3D();
+        mesh.vertices.ensureCapacity(usedCount);
+        mesh.faces.ensureCapacity(faceCount);
+        Vector3f[] vertices = new Vector3f[usedCount];
+        for (int i = 0; i < usedCount; i++) {
+            int offset = used[i] * 3;
+            localIndices[used[i]] = i;
+            vertices[i] = new Vector3f(positions[offset],
+                    positions[offset + 1], positions[offset + 2]);
+        }
+        for (int i = 0; i < usedUvCount; i++) {
+            localUvIndices[usedUvs[i]] = i;
+            mesh.addUvCoordinate(uvs[usedUvs[i] * 2],
+                    uvs[usedUvs[i] * 2 + 1]);
+        }
+        Face3D[] faces = new Face3D[faceCount];
+        for (int f = 0; f < faceCount; f++) {
+            int start = faceOffsets[f];
+            int[] face = new int[faceOffsets[f + 1] - start];
+            for (int i = 0; i < face.length; i++)
+                face[i] = localIndices[indices[start + i]];
+            faces[f] = new Face3D(face);
+            if (uvIndices[start] != -1) {
+                int[] uvFace = new int[face.length];
+                for (int i = 0; i < face.length; i++) {
+                    int uvIndex = uvIndices[start + i];
+                    uvFace[i] = uvIndex == -1 ? -1 : localUvIndices[uvIndex];
+                }
+                faces[f].setUvIndices(uvFace);
+            }
+        }
+        mesh.add(vertices);
+        mesh.add(faces);
+
+        for (int i = 0; i < usedCount; i++)
+            localIndices[used[i]] = -1;
+        for (int i = 0; i < usedUvCount; i++)
+            localUvIndices[usedUvs[i]] = -1;
+        faceCount = 0;
+        handler.objectRead(objectName == null ? "" : objectName, mesh);
+    }
+
+    /** Grows a local index array, new entries are -1. */
+    private int[] ensureLength(int[] array, int length) {
+        if (array.length >= length)
+            return array;
+        int previous = array.length;
+        array = Arrays.copyOf(array, Math.max(length, previous * 2));
+        Arrays.fill(array, previous, array.length, -1);
+        return array;
+    }
+
+    private int skipSpaces(String line, int position) {
+        while (position < line.length()
+                && Character.isWhitespace(line.charAt(position)))
+            position++;
+        return position;
+    }
+
+    private int tokenEnd(String line, int position) {
+        while (position < line.length()
+                && !Character.isWhitespace(line.charAt(position)))
+            position++;
+        return position;
+    }
+
+    private void initialize() {
+        positions = new float[3 * 1024];
+        vertexCount = 0;
+        uvs = new float[2 * 1024];
+        uvCount = 0;
+        objectName = null;
+        faceOffsets = new int[1024];
+        faceCount = 0;
+        indices = new int[4 * 1024];
+        uvIndices = new int[indices.length];
+        localIndices = new int[0];
+        localUvIndices = new int[0];
+    }
+
+    private void release() {
+        positions = null;
+        faceOffsets = null;
+        indices = null;
+        uvIndices = null;
+        uvs = null;
+        localIndices = null;
+        localUvIndices = null;
     }
 
 }
@@ -6,10 +6,11 @@ import java.util.List;
 import java.util.Map;
 
 import math.Vector3f;
-import mesh.Edge3D;
 import mesh.Face3D;
 import mesh.Mesh3D;
-import mesh.util.TraverseHelper;
+import mesh.util.HalfEdgeTopology;
+import mesh.util.collections.EdgeKeys;
+import mesh.util.collections.LongIntHashMap;
 
 /**
  * This class modifies a 3D mesh by beveling its vertices.
@@ -43,11 +44,11 @@ public class BevelVerticesModifier implements IMeshModifier {
   private List<Face3D> facesToAdd;
 
   /**
-   * A map connecting edges to their corresponding new beveled vertex indices. This is used to
-   * efficiently track which new vertices are associated with specific edges, ensuring the mesh
-   * geometry is modified correctly.
+   * A map connecting directed edges, keyed by {@link EdgeKeys#directed(int, int)}, to their
+   * corresponding new beveled vertex indices. This is used to efficiently track which new vertices
+   * are associated with specific edges, ensuring the mesh geometry is modified correctly.
    */
-  private Map<Edge3D, Integer> edgeToEdgePointIndex;
+  private LongIntHashMap edgeToEdgePointIndex;
 
   /**
    * A map that tracks unique vertices (edge points) to their corresponding index. This ensures that
@@ -74,7 +75,7 @@ public class BevelVerticesModifier implements IMeshModifier {
     this.amount = amount;
     this.verticesToAdd = new ArrayList<>();
     this.facesToAdd = new ArrayList<>();
-    this.edgeToEdgePointIndex = new HashMap<>();
+    this.edgeToEdgePointIndex = new LongIntHashMap();
     this.vertexIndexMap = new HashMap<>();
   }
 
@@ -131,51 +132,64 @@ public class BevelVerticesModifier implements IMeshModifier {
       indices[index] = addEdgePoint(calculateEdgePoint(to, from));
       indices[index + 1] = addEdgePoint(calculateEdgePoint(from, to));
 
-      mapEdgeToEdgePointIndex(face, i, indices[index]);
+      mapEdgeToEdgePointIndex(face, i, indices[index], indices[index + 1]);
     }
     addFace(indices);
   }
 
   /**
-   * Maps edge points to their corresponding indices for quick lookup.
+   * Maps edge points to their corresponding indices for quick lookup. The edge point near a vertex
+   * is keyed by the edge directed away from that vertex, so boundary edges, which have no twin,
+   * can be looked up from both ends.
    *
    * @param face The face associated with the edge.
    * @param i The index of the edge in the face.
-   * @param index The computed index for the edge.
+   * @param fromIndex The index of the edge point near the start of the edge.
+   * @param toIndex The index of the edge point near the end of the edge.
    */
-  private void mapEdgeToEdgePointIndex(Face3D face, int i, int index) {
-    Edge3D edge = new Edge3D(getIndexAt(face, i), getIndexAt(face, i + 1));
-    edgeToEdgePointIndex.put(edge, index);
+  private void mapEdgeToEdgePointIndex(Face3D face, int i, int fromIndex, int toIndex) {
+    int from = getIndexAt(face, i);
+    int to = getIndexAt(face, i + 1);
+    edgeToEdgePointIndex.put(EdgeKeys.directed(from, to), fromIndex);
+    edgeToEdgePointIndex.put(EdgeKeys.directed(to, from), toIndex);
   }
 
   /** Creates new faces by connecting edge points around vertices in the mesh. */
   private void createFacesAroundVertices() {
-    TraverseHelper helper = new TraverseHelper(mesh);
+    HalfEdgeTopology topology = new HalfEdgeTopology(mesh);
     for (int i = 0; i < mesh.getVertexCount(); i++) {
-      List<Integer> indices = collectEdgePointsAroundVertex(helper, i);
-      if (!indices.isEmpty()) {
+      List<Integer> indices = collectEdgePointsAroundVertex(topology, i);
+      if (indices.size() >= 3) {
         facesToAdd.add(new Face3D(toReverseArray(indices)));
       }
     }
   }
 
   /**
-   * Collects edge points surrounding a specific vertex using traversal logic.
+   * Collects edge points surrounding a specific vertex by circulating its outgoing half-edges. On
+   * a boundary the walk starts at the incoming boundary edge and ends at the outgoing one, so the
+   * points of an open fan are collected in order.
    *
-   * @param helper The traversal helper instance.
+   * @param topology The half-edge topology of the mesh.
    * @param vertexIndex The index of the vertex to process.
-   * @return A list of edge indices surrounding the vertex.
+   * @return A list of edge indices surrounding the vertex, empty for unreferenced vertices.
    */
-  private List<Integer> collectEdgePointsAroundVertex(TraverseHelper helper, int vertexIndex) {
-    Edge3D outgoingEdge = helper.getOutgoing(vertexIndex);
-    Edge3D edge = outgoingEdge;
+  private List<Integer> collectEdgePointsAroundVertex(HalfEdgeTopology topology, int vertexIndex) {
+    int outgoing = topology.getFanStart(vertexIndex);
+    int halfEdge = outgoing;
     List<Integer> indices = new ArrayList<>();
 
-    do {
-      int index = edgeToEdgePointIndex.get(edge);
-      indices.add(index);
-      edge = helper.getPairNext(edge.fromIndex, edge.toIndex);
-    } while (!outgoingEdge.equals(edge));
+    if (outgoing != -1 && topology.isBoundary(topology.getPrevious(outgoing))) {
+      int incoming = topology.getPrevious(outgoing);
+      long edge = EdgeKeys.directed(vertexIndex, topology.getOrigin(incoming));
+      indices.add(edgeToEdgePointIndex.get(edge));
+    }
+    while (halfEdge != -1) {
+      long edge = EdgeKeys.directed(topology.getOrigin(halfEdge), topology.getTarget(halfEdge));
+      indices.add(edgeToEdgePointIndex.get(edge));
+      halfEdge = topology.getTwinNext(halfEdge);
+      if (halfEdge == outgoing) break;
+    }
 
     return indices;
   }
@@ -1,86 +1,69 @@
 package mesh.modifier;
 
-import java.util.HashSet;
-
-import math.Vector3f;
-import mesh.Face3D;
 import mesh.Mesh3D;
-
+import mesh.util.VertexWelder;
+
+/**
+ * Merges duplicated vertices of a mesh and remaps the faces to the remaining vertices.
+ *
+ * <p>By default only vertices at exactly the same position are merged. A tolerance can be set to
+ * also merge vertices that are close to each other. The work is done by {@link VertexWelder} in
+ * linear time; see there for ordering guarantees. Vertices that are not referenced by any face are
+ * removed as well.
+ */
 public class RemoveDoubleVerticesModifier implements IMeshModifier {
 
-  private Mesh3D temporaryMesh;
-
-  private Mesh3D mesh;
+  private VertexWelder welder;
 
-  private HashSet<Vector3f> vertexSet;
-
-  @Override
-  public Mesh3D modify(Mesh3D mesh) {
-    setMesh(mesh);
-    initializeTmpMesh();
-    initializeVertexSet();
-    hashVertices();
-    addAllVerticesFromSetToTmpMesh();
-    createNewFaces();
-    clearOldVertices();
-    clearOldFaces();
-    addVertices();
-    addFaces();
-    return mesh;
+  /** Creates a modifier that merges exactly coincident vertices only. */
+  public RemoveDoubleVerticesModifier() {
+    this(0);
   }
 
-  private void createNewFaces() {
-    for (Face3D face : mesh.getFaces()) {
-      for (int i = 0; i < face.indices.length; i++) {
-        Vector3f v = getVertexAt(face.indices[i]);
-        int index = temporaryMesh.vertices.indexOf(v);
-        face.indices[i] = index;
-      }
-      temporaryMesh.add(face);
-    }
+  /**
+   * Creates a modifier that merges vertices within the given distance.
+   *
+   * @param tolerance the maximum distance between merged vertices, zero for exact matches.
+   * @throws IllegalArgumentException if the tolerance is negative or not finite.
+   */
+  public RemoveDoubleVerticesModifier(float tolerance) {
+    welder = new VertexWelder(tolerance);
   }
 
-  private void hashVertices() {
-    for (Face3D face : mesh.getFaces()) {
-      for (int i = 0; i < face.indices.length; i++) {
-        vertexSet.add(getVertexAt(face.indices[i]));
-      }
+  /**
+   * Merges the duplicated vertices of the given mesh in place.
+   *
+   * @param mesh the mesh to modify.
+   * @return the modified mesh.
+   * @throws IllegalArgumentException if the mesh is null.
+   */
+  @Override
+  public Mesh3D modify(Mesh3D mesh) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
     }
+    welder.weld(mesh);
+    return mesh;
   }
 
-  private void addVertices() {
-    mesh.addVertices(temporaryMesh.vertices);
-  }
-
-  private void addFaces() {
-    mesh.addFaces(temporaryMesh.faces);
-  }
-
-  private void addAllVerticesFromSetToTmpMesh() {
-    temporaryMesh.vertices.addAll(vertexSet);
-  }
-
-  private void initializeVertexSet() {
-    vertexSet = new HashSet<Vector3f>();
-  }
-
-  private void initializeTmpMesh() {
-    temporaryMesh = new Mesh3D();
-  }
-
-  private Vector3f getVertexAt(int index) {
-    return mesh.getVertexAt(index);
+  public float getTolerance() {
+    return welder.getTolerance();
   }
 
-  private void setMesh(Mesh3D mesh) {
-    this.mesh = mesh;
+  public void setTolerance(float tolerance) {
+    welder.setTolerance(tolerance);
   }
 
-  private void clearOldVertices() {
-    mesh.clearVertices();
+  public boolean isParallel() {
+    return welder.isParallel();
   }
 
-  private void clearOldFaces() {
-    mesh.faces.clear();
+  /**
+   * Enables parallel key computation and face remapping. Useful for very large meshes.
+   *
+   * @param parallel true to run in parallel.
+   */
+  public void setParallel(boolean parallel) {
+    welder.setParallel(parallel);
   }
 }
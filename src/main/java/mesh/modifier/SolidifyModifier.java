@@ -1,15 +1,15 @@
 package mesh.modifier;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.stream.IntStream;
 
 import math.Vector3f;
-import mesh.Edge3D;
 import mesh.Face3D;
 import mesh.Mesh3D;
 import mesh.util.FaceBridging;
 import mesh.util.VertexNormals;
+import mesh.util.collections.EdgeKeys;
+import mesh.util.collections.LongHashSet;
 
 /**
  * A modifier that solidifies a 3D mesh by creating an inner mesh offset along vertex normals, and
@@ -42,8 +42,8 @@ public class SolidifyModifier implements IMeshModifier {
   /** The vertex normals of the original mesh. */
   private List<Vector3f> vertexNormals;
 
-  /** The edges of the original mesh. */
-  private HashSet<Edge3D> edges;
+  /** The directed edges of the original mesh, keyed by {@link EdgeKeys#directed(int, int)}. */
+  private LongHashSet edges;
 
   /** The faces of the original mesh before modifications. */
   private List<Face3D> originalFaces;
@@ -118,10 +118,10 @@ public class SolidifyModifier implements IMeshModifier {
     for (Face3D face : originalFaces) {
       int size = face.indices.length;
       for (int i = 0; i < size; i++) {
-        Edge3D forwardEdge = createEdgeAt(face, i);
-        Edge3D reverseEdge = forwardEdge.createPair();
-        if (!edges.contains(reverseEdge)) {
-          bridgeHole(forwardEdge);
+        int fromIndex = face.indices[i];
+        int toIndex = face.indices[(i + 1) % size];
+        if (!edges.contains(EdgeKeys.directed(toIndex, fromIndex))) {
+          bridgeHole(fromIndex, toIndex);
         }
       }
     }
@@ -130,38 +130,28 @@ public class SolidifyModifier implements IMeshModifier {
   /**
    * Bridges a single hole between the original and inner meshes for the given edge.
    *
-   * @param forwardEdge The edge of the face to bridge.
+   * @param fromIndex The start vertex of the face edge to bridge.
+   * @param toIndex The end vertex of the face edge to bridge.
    */
-  private void bridgeHole(Edge3D forwardEdge) {
-    Vector3f v0 = innerMesh.getVertexAt(forwardEdge.fromIndex);
-    Vector3f v1 = innerMesh.getVertexAt(forwardEdge.toIndex);
-    Vector3f v2 = mesh.getVertexAt(forwardEdge.fromIndex);
-    Vector3f v3 = mesh.getVertexAt(forwardEdge.toIndex);
+  private void bridgeHole(int fromIndex, int toIndex) {
+    Vector3f v0 = innerMesh.getVertexAt(fromIndex);
+    Vector3f v1 = innerMesh.getVertexAt(toIndex);
+    Vector3f v2 = mesh.getVertexAt(fromIndex);
+    Vector3f v3 = mesh.getVertexAt(toIndex);
     FaceBridging.bridge(mesh, v0, v1, v2, v3);
   }
 
-  /** Maps all edges of the mesh and stores them in a hash set. */
+  /** Maps all directed edges of the mesh and stores them in a hash set. */
   private void mapEdges() {
     for (Face3D face : mesh.faces) {
       for (int i = 0; i < face.indices.length; i++) {
-        edges.add(createEdgeAt(face, i));
+        int fromIndex = face.indices[i];
+        int toIndex = face.indices[(i + 1) % face.indices.length];
+        edges.add(EdgeKeys.directed(fromIndex, toIndex));
       }
     }
   }
 
-  /**
-   * Creates an edge for the specified face at the given index.
-   *
-   * @param face The face containing the edge.
-   * @param i The index of the edge in the face.
-   * @return The edge created at the specified index.
-   */
-  private Edge3D createEdgeAt(Face3D face, int i) {
-    int fromIndex = face.indices[i];
-    int toIndex = face.indices[(i + 1) % face.indices.length];
-    return new Edge3D(fromIndex, toIndex);
-  }
-
   /** Moves the vertices of the inner mesh along their normals by the specified thickness. */
   private void moveInnerMeshAlongVertexNormals() {
     IntStream.range(0, innerMesh.vertices.size())
@@ -205,9 +195,13 @@ public class SolidifyModifier implements IMeshModifier {
     innerMesh = mesh.copy();
   }
 
-  /** Initializes the edge map for tracking unique edges in the mesh. */
+  /** Initializes the edge set, sized for the number of face corners of the mesh. */
   private void initializeEdgeMap() {
-    edges = new HashSet<>();
+    int corners = 0;
+    for (Face3D face : mesh.faces) {
+      corners += face.indices.length;
+    }
+    edges = new LongHashSet(corners);
   }
 
   /** Initializes the list of original faces of the mesh. */
@@ -1,28 +1,61 @@
 package mesh.modifier.subdivision;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import math.Vector3f;
-import mesh.Edge3D;
 import mesh.Face3D;
 import mesh.Mesh3D;
 import mesh.modifier.IMeshModifier;
-
+import mesh.util.HalfEdgeTopology;
+
+/**
+ * Catmull-Clark subdivision surface modifier.
+ *
+ * Each iteration splits every n-gon into n quads built from the original
+ * vertex, two edge points and the face point, and moves the original
+ * vertices towards the limit surface.
+ *
+ * The implementation works on flat arrays. Edge points are looked up in an
+ * edge table derived from a {@link HalfEdgeTopology}, valence sums are
+ * accumulated directly from the topology and all output vertices and faces
+ * are allocated up front from the known counts (one face point per face, one
+ * edge point per edge, one new face per face corner). Face points, edge
+ * points, vertex smoothing and face creation run in parallel for large
+ * meshes. Every output value is computed with the same sequence of float
+ * operations as the former object-based implementation, so results do not
+ * depend on the number of threads.
+ *
+ * Vertices not referenced by any face are left untouched.
+ */
 public class CatmullClarkModifier implements IMeshModifier {
 
+    /**
+     * Below this number of elements the per-element work is done on the
+     * calling thread only.
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
     private int subdivisions;
 
+    private Mesh3D mesh;
+
+    private HalfEdgeTopology topology;
+
     private int originalVertexCount;
 
-    private Mesh3D mesh;
+    /** Snapshot of the original vertex positions, x, y, z interleaved. */
+    private float[] positions;
 
-    private List<Face3D> facesToProcess;
+    /** Vertex index of the face point of every face. */
+    private int[] facePointIndices;
 
-    private HashMap<Edge3D, Integer> edgeToEdgePointIndex;
+    /** Vertex index of the edge point of every half-edge. */
+    private int[] edgePointIndices;
 
-    private HashMap<Integer, VertexData> vertexDataMap;
+    /** Positions of all new vertices, indexed by vertex index minus
+     * {@link #originalVertexCount}. */
+    private float[] newPositions;
 
     public CatmullClarkModifier() {
         this(1);
@@ -42,211 +75,192 @@ public class CatmullClarkModifier implements IMeshModifier {
     private void process() {
         for (int i = 0; i < subdivisions; i++)
             processOneIteration();
+        release();
     }
 
     private void processOneIteration() {
         initialize();
-        clearOriginalFaces();
-        subdivideFaces();
-        smoothVertices();
-    }
-
-    private void clearOriginalFaces() {
-        mesh.faces.clear();
+        createEdgeTable();
+        calculateFacePoints();
+        calculateEdgePoints();
+        float[] smoothed = smoothVertices();
+        writeVertices(smoothed);
+        writeFaces();
     }
 
     private void initialize() {
         originalVertexCount = mesh.getVertexCount();
-        facesToProcess = mesh.getFaces();
-        edgeToEdgePointIndex = new HashMap<Edge3D, Integer>();
-        vertexDataMap = new HashMap<Integer, VertexData>();
-    }
-
-    private void subdivideFaces() {
-        for (Face3D face : facesToProcess)
-            subdivideFace(face);
+        topology = new HalfEdgeTopology(mesh);
+        positions = new float[originalVertexCount * 3];
+        for (int i = 0; i < originalVertexCount; i++) {
+            Vector3f v = mesh.getVertexAt(i);
+            positions[i * 3] = v.getX();
+            positions[i * 3 + 1] = v.getY();
+            positions[i * 3 + 2] = v.getZ();
+        }
     }
 
-    private void subdivideFace(Face3D face) {
-        FaceSplit faceSplit = new FaceSplit(face);
-
-        for (int i = 0; i < face.indices.length; i++) {
-            Integer edgePointIndex = getMappedEdgePointIndex(
-                    createEdgeAt(face, i));
-            faceSplit.setIndexAt(i + 1, edgePointIndex);
-            setVertexDataAt(faceSplit, i);
-            addFacePointToEdgePointAt(faceSplit.getFacePoint(), edgePointIndex);
+    /**
+     * Numbers all new vertices in the order the former implementation added
+     * them: per face the face point first, followed by the edge points of
+     * edges not seen before, in corner order.
+     */
+    private void createEdgeTable() {
+        int faceCount = topology.getFaceCount();
+        facePointIndices = new int[faceCount];
+        edgePointIndices = new int[topology.getHalfEdgeCount()];
+        int next = originalVertexCount;
+        for (int f = 0; f < faceCount; f++) {
+            facePointIndices[f] = next++;
+            int first = topology.getFaceHalfEdge(f);
+            int last = first + topology.getFaceHalfEdgeCount(f);
+            for (int h = first; h < last; h++) {
+                int twin = topology.getTwin(h);
+                if (twin == -1 || twin > h) {
+                    edgePointIndices[h] = next++;
+                } else {
+                    edgePointIndices[h] = edgePointIndices[twin];
+                }
+            }
         }
-
-        faceSplit.createNewFaces();
+        newPositions = new float[(next - originalVertexCount) * 3];
     }
 
-    private void setVertexDataAt(FaceSplit faceSplit, int i) {
-        Face3D face = faceSplit.getFace();
-        VertexData vertexData = getVertexData(face.indices[i]);
-        vertexData.incrementNumberOfOutgoingEdges();
-        vertexData.addFacePoint(faceSplit.getFacePoint());
-        vertexData.addEdgePoint(calculateMidPoint(createEdgeAt(face, i)));
+    private void calculateFacePoints() {
+        range(topology.getFaceCount()).forEach(this::calculateFacePoint);
     }
 
-    private void addFacePointToEdgePointAt(Vector3f facePoint,
-            int edgePointIndex) {
-        Vector3f edgePoint = mesh.getVertexAt(edgePointIndex);
-        edgePoint.addLocal(facePoint.mult(0.25f));
+    private void calculateFacePoint(int face) {
+        int first = topology.getFaceHalfEdge(face);
+        int count = topology.getFaceHalfEdgeCount(face);
+        float x = 0;
+        float y = 0;
+        float z = 0;
+        for (int h = first; h < first + count; h++) {
+            int offset = topology.getOrigin(h) * 3;
+            x += positions[offset];
+            y += positions[offset + 1];
+            z += positions[offset + 2];
+        }
+        int offset = newOffset(facePointIndices[face]);
+        newPositions[offset] = x / count;
+        newPositions[offset + 1] = y / count;
+        newPositions[offset + 2] = z / count;
     }
 
-    private Edge3D createEdgeAt(Face3D face, int index) {
-        int fromIndex = face.indices[index];
-        int toIndex = face.indices[(index + 1) % face.indices.length];
-        return new Edge3D(fromIndex, toIndex);
+    private void calculateEdgePoints() {
+        range(topology.getHalfEdgeCount()).forEach(this::calculateEdgePoint);
     }
 
-    private Vector3f calculateMidPoint(Edge3D edge) {
-        Vector3f from = mesh.getVertexAt(edge.fromIndex);
-        Vector3f to = mesh.getVertexAt(edge.toIndex);
-        return from.add(to).mult(0.5f);
+    /**
+     * Edge point = half the edge mid point plus a quarter of each adjacent
+     * face point. Only the half-edge that created the edge point writes it.
+     */
+    private void calculateEdgePoint(int halfEdge) {
+        int twin = topology.getTwin(halfEdge);
+        if (twin != -1 && twin < halfEdge)
+            return;
+
+        int from = topology.getOrigin(halfEdge) * 3;
+        int to = topology.getTarget(halfEdge) * 3;
+        int offset = newOffset(edgePointIndices[halfEdge]);
+        for (int i = 0; i < 3; i++) {
+            float value = (positions[from + i] + positions[to + i]) * 0.5f
+                    * 0.5f;
+            value += facePoint(topology.getFace(halfEdge), i) * 0.25f;
+            if (twin != -1)
+                value += facePoint(topology.getFace(twin), i) * 0.25f;
+            newPositions[offset + i] = value;
+        }
     }
 
-    private void smoothVertices() {
-        for (int i = 0; i < originalVertexCount; i++)
-            getVertexData(i).smoothOriginalVertex();
+    private float[] smoothVertices() {
+        float[] smoothed = Arrays.copyOf(positions, positions.length);
+        range(originalVertexCount).forEach(i -> smoothVertex(i, smoothed));
+        return smoothed;
     }
 
-    private Integer getMappedEdgePointIndex(Edge3D edge) {
-        Integer edgePointIndex = edgeToEdgePointIndex.get(edge.createPair());
-        if (edgePointIndex == null) {
-            edgePointIndex = addVertex(calculateMidPoint(edge).mult(0.5f));
-            edgeToEdgePointIndex.put(edge, edgePointIndex);
+    /**
+     * Moves an original vertex P to (F + 2R + (n - 3)P) / n, where n is the
+     * number of outgoing edges, F the average of the adjacent face points and
+     * R the average of the outgoing edge mid points.
+     */
+    private void smoothVertex(int vertex, float[] smoothed) {
+        int n = topology.getOutgoingCount(vertex);
+        if (n == 0)
+            return;
+        for (int i = 0; i < 3; i++) {
+            float p = positions[vertex * 3 + i];
+            float f = 0;
+            float r = 0;
+            for (int j = 0; j < n; j++) {
+                int h = topology.getOutgoingAt(vertex, j);
+                f += facePoint(topology.getFace(h), i);
+                r += (p + positions[topology.getTarget(h) * 3 + i]) * 0.5f;
+            }
+            f /= n;
+            r /= n;
+            smoothed[vertex * 3 + i] = (p * (n - 3) + (f + r * 2)) / n;
         }
-        return edgePointIndex;
     }
 
-    private int addVertex(Vector3f v) {
-        int index = mesh.getVertexCount();
-        mesh.add(v);
-        return index;
-    }
+    private void writeVertices(float[] smoothed) {
+        range(originalVertexCount).forEach(i -> mesh.getVertexAt(i).set(
+                smoothed[i * 3], smoothed[i * 3 + 1], smoothed[i * 3 + 2]));
 
-    private Vector3f calculateFacePoint(Face3D face) {
-        return mesh.calculateFaceCenter(face);
+        Vector3f[] vertices = new Vector3f[newPositions.length / 3];
+        range(vertices.length).forEach(i -> vertices[i] = new Vector3f(
+                newPositions[i * 3], newPositions[i * 3 + 1],
+                newPositions[i * 3 + 2]));
+        mesh.vertices.ensureCapacity(originalVertexCount + vertices.length);
+        mesh.add(vertices);
     }
 
-    private VertexData getVertexData(int index) {
-        VertexData vertexData = vertexDataMap.get(index);
-        if (vertexData == null) {
-            vertexData = new VertexData();
-            vertexData.setIndex(index);
-            vertexDataMap.put(index, vertexData);
-        }
-        return vertexData;
+    /**
+     * Replaces every n-gon by n quads (vertex, edge point, face point,
+     * previous edge point).
+     */
+    private void writeFaces() {
+        Face3D[] faces = new Face3D[topology.getHalfEdgeCount()];
+        range(topology.getFaceCount()).forEach(f -> {
+            int first = topology.getFaceHalfEdge(f);
+            int count = topology.getFaceHalfEdgeCount(f);
+            for (int i = 0; i < count; i++) {
+                int h = first + i;
+                int previous = first + (i == 0 ? count - 1 : i - 1);
+                faces[h] = new Face3D(topology.getOrigin(h),
+                        edgePointIndices[h], facePointIndices[f],
+                        edgePointIndices[previous]);
+            }
+        });
+        mesh.faces.clear();
+        mesh.faces.ensureCapacity(faces.length);
+        mesh.add(faces);
     }
 
-    private void setMesh(Mesh3D mesh) {
-        this.mesh = mesh;
+    private float facePoint(int face, int axis) {
+        return newPositions[newOffset(facePointIndices[face]) + axis];
     }
 
-    private class FaceSplit {
-
-        private int[] indices;
-
-        private Face3D face;
-
-        private Vector3f facePoint;
-
-        public FaceSplit(Face3D face) {
-            this.face = face;
-            indices = new int[face.indices.length + 1];
-            facePoint = calculateFacePoint(face);
-            setIndexAt(0, addVertex(facePoint));
-        }
-
-        public void setIndexAt(int index, int value) {
-            indices[index] = value;
-        }
-
-        private void createNewFaces() {
-            for (int i = 0; i < face.indices.length; i++)
-                createFace(i);
-        }
-
-        private void createFace(int i) {
-            int originalVertexIndex = face.indices[i];
-            int edgePointIndex0 = indices[i + 1];
-            int facePointIndex = indices[0];
-            int edgePointIndex1 = indices[i == 0 ? face.indices.length : i];
-            addFace(originalVertexIndex, edgePointIndex0, facePointIndex,
-                    edgePointIndex1);
-        }
-
-        private void addFace(int... indices) {
-            mesh.add(new Face3D(indices));
-        }
-
-        public Face3D getFace() {
-            return face;
-        }
-
-        public Vector3f getFacePoint() {
-            return facePoint;
-        }
-
+    private int newOffset(int vertexIndex) {
+        return (vertexIndex - originalVertexCount) * 3;
     }
 
-    private class VertexData {
-
-        private int index;
-
-        private int numberOfOutgoingEdges;
-
-        private List<Vector3f> facePoints;
-
-        private List<Vector3f> edgePoints;
-
-        public VertexData() {
-            facePoints = new ArrayList<>();
-            edgePoints = new ArrayList<>();
-        }
-
-        private void smoothOriginalVertex() {
-            int n = numberOfOutgoingEdges;
-            Vector3f originalVertex = mesh.getVertexAt(index);
-            Vector3f f = calculateFacePointsAverage();
-            Vector3f r = calculateEdgePointsAverage();
-            originalVertex.set(
-                    originalVertex.mult(n - 3).add(f.add(r.mult(2))).divide(n));
-        }
-
-        private Vector3f calculateAverage(List<Vector3f> vertices) {
-            Vector3f average = new Vector3f();
-            for (Vector3f v : vertices)
-                average.addLocal(v);
-            return average.divideLocal(vertices.size());
-        }
-
-        private Vector3f calculateFacePointsAverage() {
-            return calculateAverage(facePoints);
-        }
-
-        private Vector3f calculateEdgePointsAverage() {
-            return calculateAverage(edgePoints);
-        }
-
-        public void addFacePoint(Vector3f facePoint) {
-            facePoints.add(facePoint);
-        }
-
-        public void addEdgePoint(Vector3f edgePoint) {
-            edgePoints.add(new Vector3f(edgePoint));
-        }
-
-        public void incrementNumberOfOutgoingEdges() {
-            numberOfOutgoingEdges++;
-        }
+    private IntStream range(int count) {
+        IntStream range = IntStream.range(0, count);
+        return count >= PARALLEL_THRESHOLD ? range.parallel() : range;
+    }
 
-        public void setIndex(int index) {
-            this.index = index;
-        }
+    private void release() {
+        topology = null;
+        positions = null;
+        facePointIndices = null;
+        edgePointIndices = null;
+        newPositions = null;
+    }
 
+    private void setMesh(Mesh3D mesh) {
+        this.mesh = mesh;
     }
 
     public int getSubdivisions() {
@@ -0,0 +1,360 @@
+package mesh.modifier.subdivision;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import math.Vector3f;
+import mesh.Mesh3D;
+import mesh.util.HalfEdgeTopology;
+
+/**
+ * Precomputed Catmull-Clark subdivision of a fixed control cage.
+ *
+ * Every vertex of the subdivided mesh is a weighted sum of control cage
+ * vertices. The table records these weights (the stencils) once, so as long
+ * as the topology of the cage does not change, the subdivided surface can be
+ * re-evaluated for new control positions with a single sparse matrix-vector
+ * multiply instead of running {@link CatmullClarkModifier} again. This is
+ * meant for cages deformed by animators like {@link mesh.animator.Morpher} or
+ * {@link mesh.animator.MoveAlongNormalAnimator}:
+ *
+ * <pre>
+ * CatmullClarkStencilTable table = new CatmullClarkStencilTable(cage, 2);
+ * Mesh3D surface = table.createMesh(cage);
+ * // every frame
+ * animator.update(tpf);
+ * table.evaluate(cage, surface);
+ * </pre>
+ *
+ * The subdivided topology and vertex order are the same as produced by
+ * {@link CatmullClarkModifier}. Positions match up to float rounding, since
+ * the weights are combined before they are applied.
+ */
+public class CatmullClarkStencilTable {
+
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private int subdivisions;
+
+    private int controlVertexCount;
+
+    /** Subdivided mesh at build time, used as topology template. */
+    private Mesh3D template;
+
+    /** Start of each stencil in {@link #indices}, one entry per vertex + 1. */
+    private int[] offsets;
+
+    /** Control vertex indices of all stencils. */
+    private int[] indices;
+
+    /** Weights of all stencils, parallel to {@link #indices}. */
+    private float[] weights;
+
+    /**
+     * Builds the stencil table for the given control cage.
+     *
+     * @param cage         the control cage, only its faces and vertex count
+     *                     are used
+     * @param subdivisions the number of subdivision levels
+     * @throws IllegalArgumentException if the cage is null or subdivisions is
+     *                                  negative
+     */
+    public CatmullClarkStencilTable(Mesh3D cage, int subdivisions) {
+        if (cage == null)
+            throw new IllegalArgumentException("Mesh cannot be null.");
+        if (subdivisions < 0)
+            throw new IllegalArgumentException(
+                    "Subdivisions must be >= 0.");
+        this.subdivisions = subdivisions;
+        this.controlVertexCount = cage.getVertexCount();
+        build(cage);
+    }
+
+    private void build(Mesh3D cage) {
+        Stencils stencils = Stencils.identity(controlVertexCount);
+        Mesh3D level = cage.copy();
+        for (int i = 0; i < subdivisions; i++) {
+            stencils = subdivide(new HalfEdgeTopology(level), stencils);
+            new CatmullClarkModifier(1).modify(level);
+        }
+        offsets = Arrays.copyOf(stencils.offsets, stencils.rows + 1);
+        indices = Arrays.copyOf(stencils.indices, stencils.size);
+        weights = Arrays.copyOf(stencils.weights, stencils.size);
+        template = level;
+    }
+
+    /**
+     * Creates the stencils of the next level from the stencils of the current
+     * level, applying the rules of {@link CatmullClarkModifier}. Vertices are
+     * emitted in the order the modifier creates them.
+     */
+    private Stencils subdivide(HalfEdgeTopology topology, Stencils previous) {
+        int vertexCount = topology.getVertexCount();
+        int faceCount = topology.getFaceCount();
+        Stencils next = new Stencils(previous.size * 4,
+                vertexCount + faceCount + topology.getHalfEdgeCount());
+        Accumulator accumulator = new Accumulator(controlVertexCount,
+                previous);
+
+        for (int v = 0; v < vertexCount; v++) {
+            int n = topology.getOutgoingCount(v);
+            if (n == 0) {
+                accumulator.add(v, 1);
+            } else {
+                accumulator.add(v, (n - 2) / (float) n);
+                float w = 1f / (n * n);
+                for (int j = 0; j < n; j++) {
+                    int h = topology.getOutgoingAt(v, j);
+                    accumulator.add(topology.getTarget(h), w);
+                    addFacePoint(topology, topology.getFace(h), w,
+                            accumulator);
+                }
+            }
+            accumulator.emit(next);
+        }
+
+        for (int f = 0; f < faceCount; f++) {
+            addFacePoint(topology, f, 1, accumulator);
+            accumulator.emit(next);
+            int first = topology.getFaceHalfEdge(f);
+            int last = first + topology.getFaceHalfEdgeCount(f);
+            for (int h = first; h < last; h++) {
+                int twin = topology.getTwin(h);
+                if (twin != -1 && twin < h)
+                    continue;
+                accumulator.add(topology.getOrigin(h), 0.25f);
+                accumulator.add(topology.getTarget(h), 0.25f);
+                addFacePoint(topology, f, 0.25f, accumulator);
+                if (twin != -1)
+                    addFacePoint(topology, topology.getFace(twin), 0.25f,
+                            accumulator);
+                accumulator.emit(next);
+            }
+        }
+        return next;
+    }
+
+    private void addFacePoint(HalfEdgeTopology topology, int face,
+            float weight, Accumulator accumulator) {
+        int first = topology.getFaceHalfEdge(face);
+        int count = topology.getFaceHalfEdgeCount(face);
+        for (int h = first; h < first + count; h++)
+            accumulator.add(topology.getOrigin(h), weight / count);
+    }
+
+    /**
+     * Creates a new subdivided mesh for the given control positions. Faces
+     * are copied from the topology template, so the returned mesh can be
+     * modified independently of the table.
+     *
+     * @param cage the control cage
+     * @return the subdivided mesh
+     */
+    public Mesh3D createMesh(Mesh3D cage) {
+        Mesh3D mesh = template.copy();
+        evaluate(cage, mesh);
+        return mesh;
+    }
+
+    /**
+     * Writes the subdivided positions for the current control positions into
+     * the vertices of the target mesh and marks its positions as changed.
+     * Does not allocate.
+     *
+     * @param cage   the control cage, with the vertex count the table was
+     *               built for
+     * @param target the mesh receiving the positions, usually created by
+     *               {@link #createMesh(Mesh3D)}
+     * @throws IllegalArgumentException if a mesh is null or the vertex counts
+     *                                  do not match the table
+     */
+    public void evaluate(Mesh3D cage, Mesh3D target) {
+        if (cage == null || target == null)
+            throw new IllegalArgumentException("Mesh cannot be null.");
+        if (cage.getVertexCount() != controlVertexCount)
+            throw new IllegalArgumentException(
+                    "Control vertex count does not match the stencil table.");
+        if (target.getVertexCount() != getVertexCount())
+            throw new IllegalArgumentException(
+                    "Target vertex count does not match the stencil table.");
+
+        range(getVertexCount()).forEach(i -> {
+            float x = 0;
+            float y = 0;
+            float z = 0;
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                Vector3f v = cage.getVertexAt(indices[j]);
+                float w = weights[j];
+                x += v.getX() * w;
+                y += v.getY() * w;
+                z += v.getZ() * w;
+            }
+            target.getVertexAt(i).set(x, y, z);
+        });
+        target.markPositionsChanged();
+    }
+
+    /**
+     * Evaluates the table for packed positions.
+     *
+     * @param controlPositions the control positions, x, y, z interleaved
+     * @param result           receives the subdivided positions, x, y, z
+     *                         interleaved, at least 3 * {@link
+     *                         #getVertexCount()} floats long
+     * @throws IllegalArgumentException if an array is too short
+     */
+    public void evaluate(float[] controlPositions, float[] result) {
+        if (controlPositions.length < controlVertexCount * 3
+                || result.length < getVertexCount() * 3)
+            throw new IllegalArgumentException("Array too short.");
+
+        range(getVertexCount()).forEach(i -> {
+            float x = 0;
+            float y = 0;
+            float z = 0;
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                int offset = indices[j] * 3;
+                float w = weights[j];
+                x += controlPositions[offset] * w;
+                y += controlPositions[offset + 1] * w;
+                z += controlPositions[offset + 2] * w;
+            }
+            result[i * 3] = x;
+            result[i * 3 + 1] = y;
+            result[i * 3 + 2] = z;
+        });
+    }
+
+    private IntStream range(int count) {
+        IntStream range = IntStream.range(0, count);
+        return count >= PARALLEL_THRESHOLD ? range.parallel() : range;
+    }
+
+    public int getSubdivisions() {
+        return subdivisions;
+    }
+
+    public int getControlVertexCount() {
+        return controlVertexCount;
+    }
+
+    /**
+     * Returns the number of vertices of the subdivided mesh.
+     *
+     * @return the number of stencils
+     */
+    public int getVertexCount() {
+        return offsets.length - 1;
+    }
+
+    public int getFaceCount() {
+        return template.getFaceCount();
+    }
+
+    /**
+     * Returns the total number of weights of all stencils.
+     *
+     * @return the number of non-zero entries of the stencil matrix
+     */
+    public int getWeightCount() {
+        return weights.length;
+    }
+
+    /**
+     * Sparse rows in compressed form, appended one row at a time.
+     */
+    private static class Stencils {
+
+        private int[] offsets;
+
+        private int[] indices;
+
+        private float[] weights;
+
+        private int rows;
+
+        private int size;
+
+        Stencils(int capacity, int rowCount) {
+            offsets = new int[rowCount + 1];
+            indices = new int[Math.max(16, capacity)];
+            weights = new float[indices.length];
+        }
+
+        static Stencils identity(int count) {
+            Stencils stencils = new Stencils(count, count);
+            for (int i = 0; i < count; i++) {
+                stencils.add(i, 1);
+                stencils.endRow();
+            }
+            return stencils;
+        }
+
+        void add(int index, float weight) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            indices[size] = index;
+            weights[size] = weight;
+            size++;
+        }
+
+        void endRow() {
+            rows++;
+            offsets[rows] = size;
+        }
+
+    }
+
+    /**
+     * Dense accumulator over control vertices. Collects weighted rows of the
+     * previous level and emits their sum as one sparse row.
+     */
+    private static class Accumulator {
+
+        private float[] values;
+
+        private int[] touched;
+
+        private int touchedCount;
+
+        private boolean[] used;
+
+        private Stencils previous;
+
+        Accumulator(int controlVertexCount, Stencils previous) {
+            this.values = new float[controlVertexCount];
+            this.touched = new int[controlVertexCount];
+            this.used = new boolean[controlVertexCount];
+            this.previous = previous;
+        }
+
+        void add(int row, float weight) {
+            for (int j = previous.offsets[row]; j < previous.offsets[row
+                    + 1]; j++) {
+                int index = previous.indices[j];
+                if (!used[index]) {
+                    used[index] = true;
+                    touched[touchedCount++] = index;
+                }
+                values[index] += previous.weights[j] * weight;
+            }
+        }
+
+        void emit(Stencils target) {
+            Arrays.sort(touched, 0, touchedCount);
+            for (int i = 0; i < touchedCount; i++) {
+                int index = touched[i];
+                if (values[index] != 0)
+                    target.add(index, values[index]);
+                values[index] = 0;
+                used[index] = false;
+            }
+            touchedCount = 0;
+            target.endRow();
+        }
+
+    }
+
+}
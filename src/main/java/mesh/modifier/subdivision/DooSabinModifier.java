@@ -1,17 +1,10 @@
 package mesh.modifier.subdivision;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Vector;
-
 import math.Vector3f;
-import mesh.Edge3D;
 import mesh.Face3D;
 import mesh.Mesh3D;
 import mesh.modifier.IMeshModifier;
-import mesh.util.TraverseHelper;
+import mesh.util.HalfEdgeTopology;
 
 /**
  * An implementation of the Doo-Sabin subdivision surface. This type of
@@ -31,13 +24,13 @@ public class DooSabinModifier implements IMeshModifier {
 
     private Mesh3D target;
 
-    private HashSet<Edge3D> edges;
-
-    private HashMap<Edge3D, Face3D> edgeToFaceMap;
+    private HalfEdgeTopology topology;
 
-    private HashMap<Vector3f, List<Vector3f>> oldToNewVertexMap;
-
-    private HashMap<VertexFacePair, Integer> vertexFaceMap;
+    /**
+     * The index of the new vertex created for each face corner, indexed by
+     * the half-edge leaving that corner.
+     */
+    private int[] cornerToNewIndex;
 
     /**
      * Constructs a new instance of this modifier.
@@ -54,10 +47,6 @@ public class DooSabinModifier implements IMeshModifier {
      */
     public DooSabinModifier(int subdivisions) {
         this.subdivisions = subdivisions;
-        oldToNewVertexMap = new HashMap<Vector3f, List<Vector3f>>();
-        edgeToFaceMap = new HashMap<>();
-        edges = new HashSet<>();
-        vertexFaceMap = new HashMap<VertexFacePair, Integer>();
     }
 
     /**
@@ -65,18 +54,17 @@ public class DooSabinModifier implements IMeshModifier {
      * that have been generated for each original vertex of the face.
      */
     private void createAndConnectNewVertices() {
-        List<Face3D> faces = source.getFaces(0, source.getFaceCount());
-        for (Face3D face : faces) {
+        for (int f = 0; f < source.getFaceCount(); f++) {
+            Face3D face = source.getFaceAt(f);
             Vector3f center = source.calculateFaceCenter(face);
-            int[] indices = new int[face.indices.length];
-            int n = indices.length;
-            for (int i = 0; i < face.indices.length; i++) {
-                Vector3f v = source.getVertexAt(face.indices[(i + 1) % n]);
+            int first = topology.getFaceHalfEdge(f);
+            int n = face.indices.length;
+            int[] indices = new int[n];
+            for (int i = 0; i < n; i++) {
                 Vector3f res = calculateNewPoint(face, center, i);
                 int index = target.getVertexCount();
                 target.add(res);
-                mapOldToNewVertex(v, res);
-                vertexFaceMap.put(new VertexFacePair(v, face), index);
+                cornerToNewIndex[first + (i + 1) % n] = index;
                 indices[i] = index;
             }
             target.add(new Face3D(indices));
@@ -85,23 +73,25 @@ public class DooSabinModifier implements IMeshModifier {
 
     /**
      * For each vertex of the original mesh, connect the new points that have
-     * been generated for the faces that are adjacent to this vertex.
+     * been generated for the faces that are adjacent to this vertex. On a
+     * boundary the faces are collected from one end of the open fan to the
+     * other, and fans of fewer than three faces create no face.
      */
     private void createFacesFromAdjacentVertices() {
-        TraverseHelper helper = new TraverseHelper(source);
         for (int i = 0; i < source.getVertexCount(); i++) {
-            Edge3D outgoingEdge = helper.getOutgoing(i);
-            Edge3D edge = outgoingEdge;
-            Vector<Integer> indices = new Vector<Integer>();
+            int outgoing = topology.getFanStart(i);
+            if (outgoing == -1)
+                continue;
+            int[] indices = new int[topology.getOutgoingCount(i)];
+            int count = 0;
+            int halfEdge = outgoing;
             do {
-                Face3D face = helper.getFaceByEdge(edge.fromIndex,
-                        edge.toIndex);
-                int index = vertexFaceMap
-                        .get(new VertexFacePair(source.getVertexAt(i), face));
-                indices.add(index);
-                edge = helper.getPairNext(edge.fromIndex, edge.toIndex);
-            } while (!outgoingEdge.equals(edge));
-            addFace(indices);
+                indices[count++] = cornerToNewIndex[halfEdge];
+                halfEdge = topology.getTwinNext(halfEdge);
+            } while (halfEdge != outgoing && halfEdge != -1
+                    && count < indices.length);
+            if (count >= 3)
+                addFace(indices, count);
         }
     }
 
@@ -110,15 +100,14 @@ public class DooSabinModifier implements IMeshModifier {
      * generated for the faces that are adjacent to the respective edge.
      */
     private void createFacesAdjacentToEdge() {
-        for (Edge3D edge : edges) {
-            Face3D face0 = edgeToFaceMap.get(edge);
-            Face3D face1 = edgeToFaceMap.get(edge.createPair());
-            Vector3f v0 = source.getVertexAt(edge.fromIndex);
-            Vector3f v1 = source.getVertexAt(edge.toIndex);
-            int idx0 = vertexFaceMap.get(new VertexFacePair(v1, face0));
-            int idx1 = vertexFaceMap.get(new VertexFacePair(v0, face0));
-            int idx2 = vertexFaceMap.get(new VertexFacePair(v0, face1));
-            int idx3 = vertexFaceMap.get(new VertexFacePair(v1, face1));
+        for (int h = 0; h < topology.getHalfEdgeCount(); h++) {
+            int twin = topology.getTwin(h);
+            if (twin == -1 || twin < h)
+                continue;
+            int idx0 = cornerToNewIndex[topology.getNext(h)];
+            int idx1 = cornerToNewIndex[h];
+            int idx2 = cornerToNewIndex[topology.getNext(twin)];
+            int idx3 = cornerToNewIndex[twin];
             target.addFace(idx0, idx1, idx2, idx3);
         }
     }
@@ -149,45 +138,20 @@ public class DooSabinModifier implements IMeshModifier {
         return center.add(v1).add(e1).add(e2).divide(4);
     }
 
-    private void addFace(Vector<Integer> indices) {
-        int[] a = new int[indices.size()];
-        for (int j = 0; j < a.length; j++) {
-            a[a.length - j - 1] = indices.get(j);
+    private void addFace(int[] indices, int count) {
+        int[] a = new int[count];
+        for (int j = 0; j < count; j++) {
+            a[count - j - 1] = indices[j];
         }
         target.add(new Face3D(a));
     }
 
-    private void mapOldToNewVertex(Vector3f oldVertex, Vector3f newVertex) {
-        List<Vector3f> vertices = oldToNewVertexMap.get(oldVertex);
-        if (vertices == null) {
-            vertices = new ArrayList<Vector3f>();
-            oldToNewVertexMap.put(oldVertex, vertices);
-        }
-        vertices.add(newVertex);
-    }
-
-    private void mapEdgesToFaces() {
-        for (Face3D face : source.faces) {
-            for (int i = 0; i < face.indices.length; i++) {
-                int a = face.indices[i];
-                int b = face.indices[(i + 1) % face.indices.length];
-                Edge3D pair0 = new Edge3D(a, b);
-                Edge3D pair1 = new Edge3D(b, a);
-                if (!edges.contains(pair1)) {
-                    edges.add(pair0);
-                }
-                edgeToFaceMap.put(pair0, face);
-            }
-        }
-    }
-
     private void subdivide(Mesh3D mesh) {
         source = mesh;
         target = new Mesh3D();
+        topology = new HalfEdgeTopology(source);
+        cornerToNewIndex = new int[topology.getHalfEdgeCount()];
 
-        clear();
-
-        mapEdgesToFaces();
         createAndConnectNewVertices();
         createFacesFromAdjacentVertices();
         createFacesAdjacentToEdge();
@@ -196,13 +160,13 @@ public class DooSabinModifier implements IMeshModifier {
         this.source.vertices.clear();
         this.source.faces.addAll(target.faces);
         this.source.vertices.addAll(target.vertices);
+        clear();
     }
 
     private void clear() {
-        edges.clear();
-        edgeToFaceMap.clear();
-        oldToNewVertexMap.clear();
-        vertexFaceMap.clear();
+        topology = null;
+        cornerToNewIndex = null;
+        target = null;
     }
 
     @Override
@@ -213,56 +177,4 @@ public class DooSabinModifier implements IMeshModifier {
         return mesh;
     }
 
-    private class VertexFacePair {
-
-        private Vector3f vertex;
-
-        private Face3D face;
-
-        private VertexFacePair(Vector3f vertex, Face3D face) {
-            this.vertex = vertex;
-            this.face = face;
-        }
-
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + getOuterType().hashCode();
-            result = prime * result + ((face == null) ? 0 : face.hashCode());
-            result = prime * result
-                    + ((vertex == null) ? 0 : vertex.hashCode());
-            return result;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj)
-                return true;
-            if (obj == null)
-                return false;
-            if (getClass() != obj.getClass())
-                return false;
-            VertexFacePair other = (VertexFacePair) obj;
-            if (!getOuterType().equals(other.getOuterType()))
-                return false;
-            if (face == null) {
-                if (other.face != null)
-                    return false;
-            } else if (!face.equals(other.face))
-                return false;
-            if (vertex == null) {
-                if (other.vertex != null)
-                    return false;
-            } else if (!vertex.equals(other.vertex))
-                return false;
-            return true;
-        }
-
-        private DooSabinModifier getOuterType() {
-            return DooSabinModifier.this;
-        }
-
-    }
-
 }
@@ -0,0 +1,56 @@
+package mesh.modifier.subdivision;
+
+import mesh.Face3D;
+import mesh.Mesh3D;
+import mesh.util.collections.EdgeKeys;
+import mesh.util.collections.LongIntHashMap;
+
+/**
+ * Maps undirected edges to the index of the vertex created on them (edge
+ * point or mid point) during one subdivision pass.
+ *
+ * Edges are keyed by {@link EdgeKeys#undirected(int, int)}, so (a, b) and
+ * (b, a) share one entry, in a {@link LongIntHashMap}. Lookups neither
+ * allocate nor box, which keeps the planar subdivision schemes linear in the
+ * number of faces.
+ */
+class EdgePointIndex {
+
+    private LongIntHashMap map;
+
+    /**
+     * Creates an index sized for the edges of the given mesh.
+     *
+     * @param mesh the mesh about to be subdivided
+     */
+    EdgePointIndex(Mesh3D mesh) {
+        int corners = 0;
+        for (Face3D face : mesh.faces)
+            corners += face.indices.length;
+        map = new LongIntHashMap(corners);
+    }
+
+    /**
+     * Returns the edge point index of the edge between the two vertices.
+     *
+     * @param fromIndex one vertex of the edge
+     * @param toIndex   the other vertex of the edge
+     * @return the edge point index, or -1 if none was stored yet
+     */
+    int get(int fromIndex, int toIndex) {
+        return map.get(EdgeKeys.undirected(fromIndex, toIndex));
+    }
+
+    /**
+     * Stores the edge point index of the edge between the two vertices,
+     * replacing a previous value.
+     *
+     * @param fromIndex      one vertex of the edge
+     * @param toIndex        the other vertex of the edge
+     * @param edgePointIndex the vertex index of the edge point
+     */
+    void put(int fromIndex, int toIndex, int edgePointIndex) {
+        map.put(EdgeKeys.undirected(fromIndex, toIndex), edgePointIndex);
+    }
+
+}
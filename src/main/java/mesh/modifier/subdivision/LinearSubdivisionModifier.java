@@ -41,6 +41,8 @@ public class LinearSubdivisionModifier implements IMeshModifier {
 
     private ArrayList<Face3D> newFaces;
 
+    private EdgePointIndex edgePoints;
+
     public LinearSubdivisionModifier() {
         this(1);
     }
@@ -61,16 +63,17 @@ public class LinearSubdivisionModifier implements IMeshModifier {
     private void createEdgePoints() {
         int n = face.indices.length;
         for (int i = 0; i < n; i++) {
-            Vector3f from = mesh.getVertexAt(face.indices[i % n]);
-            Vector3f to = mesh.getVertexAt(face.indices[(i + 1) % n]);
-            Vector3f edgePoint = from.add(to).mult(0.5f);
-            int idx = mesh.vertices.indexOf(edgePoint);
-            if (idx > -1) {
-                indices[i + 1] = idx;
-            } else {
-                indices[i + 1] = getNextIndex();
-                mesh.add(edgePoint);
+            int fromIndex = face.indices[i % n];
+            int toIndex = face.indices[(i + 1) % n];
+            int idx = edgePoints.get(fromIndex, toIndex);
+            if (idx == -1) {
+                Vector3f from = mesh.getVertexAt(fromIndex);
+                Vector3f to = mesh.getVertexAt(toIndex);
+                idx = getNextIndex();
+                mesh.add(from.add(to).mult(0.5f));
+                edgePoints.put(fromIndex, toIndex, idx);
             }
+            indices[i + 1] = idx;
         }
     }
 
@@ -110,7 +113,8 @@ public class LinearSubdivisionModifier implements IMeshModifier {
     }
 
     private void oneIteration() {
-        for (Face3D face : mesh.getFaces()) {
+        edgePoints = new EdgePointIndex(mesh);
+        for (Face3D face : mesh.faces) {
             this.face = face;
             indices = new int[face.indices.length + 1];
             createFaceCenter();
@@ -118,6 +122,7 @@ public class LinearSubdivisionModifier implements IMeshModifier {
             createFaces();
         }
         applyFaces();
+        edgePoints = null;
     }
 
     private void subdivide() {
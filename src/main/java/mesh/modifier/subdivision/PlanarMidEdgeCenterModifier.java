@@ -49,6 +49,8 @@ public class PlanarMidEdgeCenterModifier implements IMeshModifier {
 
     private ArrayList<Face3D> newFaces = new ArrayList<>();
 
+    private EdgePointIndex edgePoints;
+
     public PlanarMidEdgeCenterModifier() {
         this(1);
     }
@@ -80,17 +82,18 @@ public class PlanarMidEdgeCenterModifier implements IMeshModifier {
 
             // Create edge points
             for (int i = 0; i < f.indices.length; i++) {
-                Vector3f from = mesh.vertices.get(f.indices[i % n]);
-                Vector3f to = mesh.vertices.get(f.indices[(i + 1) % n]);
-                Vector3f edgePoint = from.add(to).mult(0.5f);
-                int idx = mesh.vertices.indexOf(edgePoint);
-                if (idx > -1) {
-                    idxs[i + 1] = idx;
-                } else {
-                    mesh.vertices.add(edgePoint);
-                    idxs[i + 1] = nextIndex;
+                int fromIndex = f.indices[i % n];
+                int toIndex = f.indices[(i + 1) % n];
+                int idx = edgePoints.get(fromIndex, toIndex);
+                if (idx == -1) {
+                    Vector3f from = mesh.vertices.get(fromIndex);
+                    Vector3f to = mesh.vertices.get(toIndex);
+                    mesh.vertices.add(from.add(to).mult(0.5f));
+                    idx = nextIndex;
+                    edgePoints.put(fromIndex, toIndex, idx);
                     nextIndex++;
                 }
+                idxs[i + 1] = idx;
             }
 
             createNewFaces(f, idxs);
@@ -115,10 +118,12 @@ public class PlanarMidEdgeCenterModifier implements IMeshModifier {
 
     private void initializeNextIndex() {
         nextIndex = mesh.vertices.size();
+        edgePoints = new EdgePointIndex(mesh);
     }
 
     private void clear() {
         newFaces.clear();
+        edgePoints = null;
     }
 
     private void addNewFaces() {
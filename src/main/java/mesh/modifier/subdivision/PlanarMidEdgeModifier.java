@@ -1,11 +1,9 @@
 package mesh.modifier.subdivision;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import math.Vector3f;
-import mesh.Edge3D;
 import mesh.Face3D;
 import mesh.Mesh3D;
 import mesh.modifier.IMeshModifier;
@@ -20,7 +18,7 @@ public class PlanarMidEdgeModifier implements IMeshModifier {
 
     private List<Face3D> facesToAdd;
 
-    private HashMap<Edge3D, Integer> edgeToMidPointIndex;
+    private EdgePointIndex edgeToMidPointIndex;
 
     public PlanarMidEdgeModifier() {
         this(1);
@@ -29,7 +27,6 @@ public class PlanarMidEdgeModifier implements IMeshModifier {
     public PlanarMidEdgeModifier(int iterations) {
         this.iterations = iterations;
         this.facesToAdd = new ArrayList<Face3D>();
-        this.edgeToMidPointIndex = new HashMap<Edge3D, Integer>();
     }
 
     @Override
@@ -49,6 +46,7 @@ public class PlanarMidEdgeModifier implements IMeshModifier {
 
     private void subdivideFaces() {
         nextIndex = mesh.vertices.size();
+        edgeToMidPointIndex = new EdgePointIndex(mesh);
         for (Face3D face : mesh.faces) {
             subdivide(face);
         }
@@ -67,35 +65,27 @@ public class PlanarMidEdgeModifier implements IMeshModifier {
     }
 
     private int createMidPointAt(Face3D face, int index) {
-        Edge3D edge = createEdgeAt(face, index);
-        Vector3f midPoint = calculateMidPoint(edge);
-        Integer midPointIndex = edgeToMidPointIndex.get(edge.createPair());
+        int fromIndex = face.indices[index % face.indices.length];
+        int toIndex = face.indices[(index + 1) % face.indices.length];
+        int midPointIndex = edgeToMidPointIndex.get(fromIndex, toIndex);
 
-        if (midPointIndex == null)
-            midPointIndex = edgeToMidPointIndex.get(edge);
-
-        if (midPointIndex == null) {
-            edgeToMidPointIndex.put(edge, nextIndex);
+        if (midPointIndex == -1) {
+            edgeToMidPointIndex.put(fromIndex, toIndex, nextIndex);
             midPointIndex = nextIndex;
-            mesh.add(midPoint);
+            mesh.add(calculateMidPoint(fromIndex, toIndex));
             nextIndex++;
         }
 
         return midPointIndex;
     }
 
-    private Edge3D createEdgeAt(Face3D face, int index) {
-        return new Edge3D(face.indices[index % face.indices.length],
-                face.indices[(index + 1) % face.indices.length]);
-    }
-
     private void addNGon(int[] indices) {
         facesToAdd.add(new Face3D(indices));
     }
 
-    private Vector3f calculateMidPoint(Edge3D edge) {
-        Vector3f from = mesh.getVertexAt(edge.fromIndex);
-        Vector3f to = mesh.getVertexAt(edge.toIndex);
+    private Vector3f calculateMidPoint(int fromIndex, int toIndex) {
+        Vector3f from = mesh.getVertexAt(fromIndex);
+        Vector3f to = mesh.getVertexAt(toIndex);
         Vector3f midPoint = from.subtract(to).mult(0.5f).add(to);
         return midPoint;
     }
@@ -114,7 +104,7 @@ public class PlanarMidEdgeModifier implements IMeshModifier {
 
     private void reset() {
         nextIndex = 0;
-        edgeToMidPointIndex.clear();
+        edgeToMidPointIndex = null;
         facesToAdd.clear();
     }
 
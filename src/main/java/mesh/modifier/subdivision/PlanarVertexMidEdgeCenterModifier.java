@@ -1,11 +1,9 @@
 package mesh.modifier.subdivision;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import math.Vector3f;
-import mesh.Edge3D;
 import mesh.Face3D;
 import mesh.Mesh3D;
 import mesh.modifier.IMeshModifier;
@@ -26,7 +24,7 @@ public class PlanarVertexMidEdgeCenterModifier implements IMeshModifier {
 
     private List<Face3D> newlyCreatedFaces;
 
-    private HashMap<Edge3D, Integer> edgeToEdgePointIndexMap;
+    private EdgePointIndex edgeToEdgePointIndexMap;
 
     @Override
     public Mesh3D modify(Mesh3D mesh) {
@@ -41,7 +39,7 @@ public class PlanarVertexMidEdgeCenterModifier implements IMeshModifier {
     }
 
     private void createNewFaces() {
-        for (Face3D face : mesh.getFaces()) {
+        for (Face3D face : mesh.faces) {
             addCenterVertexOfFace(face);
             processFace(face);
         }
@@ -87,20 +85,7 @@ public class PlanarVertexMidEdgeCenterModifier implements IMeshModifier {
     }
 
     private int getEdgePointIndex() {
-        Edge3D edge = getCurrentEdge();
-        Integer index = getIndexOfEdgePoint(edge);
-        if (index < 0)
-            index = getIndexOfEdgePoint(edge.createPair());
-        return index;
-    }
-
-    private Edge3D getCurrentEdge() {
-        return new Edge3D(fromIndex, toIndex);
-    }
-
-    private int getIndexOfEdgePoint(Edge3D edge) {
-        Integer index = edgeToEdgePointIndexMap.get(edge);
-        return index == null ? -1 : index;
+        return edgeToEdgePointIndexMap.get(fromIndex, toIndex);
     }
 
     private Vector3f calculateMidPoint() {
@@ -122,11 +107,11 @@ public class PlanarVertexMidEdgeCenterModifier implements IMeshModifier {
     }
 
     private void map(int fromIndex, int toIndex, int index) {
-        edgeToEdgePointIndexMap.put(new Edge3D(fromIndex, toIndex), index);
+        edgeToEdgePointIndexMap.put(fromIndex, toIndex, index);
     }
 
     private void initializeEdgePointMap() {
-        edgeToEdgePointIndexMap = new HashMap<Edge3D, Integer>();
+        edgeToEdgePointIndexMap = new EdgePointIndex(mesh);
     }
 
     private void initializeFaceList() {
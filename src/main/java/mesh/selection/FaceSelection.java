@@ -9,7 +9,7 @@ import math.Vector3f;
 import mesh.Face3D;
 import mesh.Mesh3D;
 import mesh.util.Mesh3DUtil;
-import mesh.util.TraverseHelper;
+import mesh.util.HalfEdgeTopology;
 
 public class FaceSelection {
 
@@ -91,18 +91,25 @@ public class FaceSelection {
         }
     }
 
+    /**
+     * Replaces the selection with the unselected faces that share an edge
+     * with the selection.
+     */
     public void outerBoundary() {
-        TraverseHelper helper = new TraverseHelper(mesh);
+        HalfEdgeTopology topology = new HalfEdgeTopology(mesh);
 
         HashSet<Face3D> deselected = new HashSet<Face3D>();
 
-        for (Face3D face : faceSet) {
-            for (int i = 0; i < face.indices.length; i++) {
-                if (deselected.contains(face))
+        for (int f = 0; f < mesh.getFaceCount(); f++) {
+            if (!faceSet.contains(mesh.faces.get(f)))
+                continue;
+            int first = topology.getFaceHalfEdge(f);
+            int last = first + topology.getFaceHalfEdgeCount(f);
+            for (int h = first; h < last; h++) {
+                int twin = topology.getTwin(h);
+                if (twin == -1)
                     continue;
-                int index0 = face.indices[i];
-                int index1 = face.indices[(i + 1) % face.indices.length];
-                Face3D face1 = helper.getFaceByEdge(index1, index0);
+                Face3D face1 = mesh.faces.get(topology.getFace(twin));
                 if (!faceSet.contains(face1))
                     deselected.add(face1);
             }
@@ -112,20 +119,28 @@ public class FaceSelection {
         faceSet.addAll(deselected);
     }
 
+    /**
+     * Reduces the selection to the selected faces that share an edge with an
+     * unselected face or lie on an open boundary of the mesh.
+     */
     public void innerBoundary() {
-        TraverseHelper helper = new TraverseHelper(mesh);
+        HalfEdgeTopology topology = new HalfEdgeTopology(mesh);
 
         HashSet<Face3D> deselected = new HashSet<Face3D>();
 
-        for (Face3D face : faceSet) {
-            for (int i = 0; i < face.indices.length; i++) {
-                if (deselected.contains(face))
-                    continue;
-                int index0 = face.indices[i];
-                int index1 = face.indices[(i + 1) % face.indices.length];
-                Face3D face1 = helper.getFaceByEdge(index1, index0);
-                if (!faceSet.contains(face1))
+        for (int f = 0; f < mesh.getFaceCount(); f++) {
+            Face3D face = mesh.faces.get(f);
+            if (!faceSet.contains(face))
+                continue;
+            int first = topology.getFaceHalfEdge(f);
+            int last = first + topology.getFaceHalfEdgeCount(f);
+            for (int h = first; h < last; h++) {
+                int twin = topology.getTwin(h);
+                if (twin == -1
+                        || !faceSet.contains(mesh.faces.get(topology.getFace(twin)))) {
                     deselected.add(face);
+                    break;
+                }
             }
         }
 
@@ -3,7 +3,8 @@ package mesh.selection;
 import java.util.HashSet;
 
 import mesh.Face3D;
-import mesh.util.TraverseHelper;
+import mesh.Mesh3D;
+import mesh.util.HalfEdgeTopology;
 
 public class LoopSelect {
 
@@ -11,33 +12,37 @@ public class LoopSelect {
 
     private HashSet<Face3D> loopSelectedFaces;
 
-    private TraverseHelper helper;
+    private HalfEdgeTopology topology;
 
     public LoopSelect(FaceSelection selection) {
         this.selection = selection;
         this.loopSelectedFaces = new HashSet<Face3D>();
-        this.helper = new TraverseHelper(selection.getMesh());
+        this.topology = new HalfEdgeTopology(selection.getMesh());
     }
 
     public void select(int index) {
         if (selection.getMesh().faces.isEmpty())
             return;
-        Face3D start = selection.getMesh().getFaceAt(index);
-        loop(start);
+        loop(index);
         selection.addAll(loopSelectedFaces);
         loopSelectedFaces.clear();
     }
 
-    private void loop(Face3D face) {
-        if (loopSelectedFaces.contains(face))
-            return;
-
-        loopSelectedFaces.add(face);
-
-        int from = face.indices[0];
-        int to = face.indices[1];
-        Face3D pairFace = helper.getFaceByEdge(to, from);
-        loop(pairFace);
+    /**
+     * Walks across the first edge of each face to the neighboring face until
+     * the walk returns to an already selected face or reaches an open
+     * boundary.
+     */
+    private void loop(int faceIndex) {
+        Mesh3D mesh = selection.getMesh();
+        while (faceIndex != -1) {
+            Face3D face = mesh.getFaceAt(faceIndex);
+            if (!loopSelectedFaces.add(face))
+                return;
+            int from = face.indices[0];
+            int to = face.indices[1];
+            faceIndex = topology.getFaceByEdge(to, from);
+        }
     }
 
 }
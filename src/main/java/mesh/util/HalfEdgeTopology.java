@@ -0,0 +1,304 @@
+package mesh.util;
+
+import java.util.Arrays;
+
+import mesh.Face3D;
+import mesh.Mesh3D;
+
+/**
+ * A compact, array-based half-edge index of a polygon mesh.
+ *
+ * <p>Every face corner defines one half-edge, pointing from the corner's vertex to the next vertex
+ * of the face. Half-edges are numbered in face order, so the half-edges of face {@code f} are the
+ * consecutive range {@code [getFaceHalfEdge(f), getFaceHalfEdge(f + 1))}.
+ *
+ * <p>The topology is stored in plain {@code int} arrays (origin, face, next, twin) instead of
+ * hash maps keyed by {@link mesh.Edge3D}. Twins are resolved by bucketing all half-edges by their
+ * origin vertex with a counting sort, so building the index is linear in the number of face
+ * corners and none of the traversal methods allocate.
+ *
+ * <p>Index values of {@code -1} mean "none": a boundary half-edge has no twin, and an unreferenced
+ * vertex has no outgoing half-edge.
+ *
+ * <p>The index is a snapshot. It must be rebuilt after the faces of the mesh were changed.
+ *
+ * @see TraverseHelper
+ */
+public class HalfEdgeTopology {
+
+  /** The mesh this topology was built from. */
+  private final Mesh3D mesh;
+
+  /** The origin vertex of every half-edge. */
+  private int[] origin;
+
+  /** The face every half-edge belongs to. */
+  private int[] face;
+
+  /** The next half-edge within the same face. */
+  private int[] next;
+
+  /** The opposite half-edge, or -1 for boundary half-edges. */
+  private int[] twin;
+
+  /** Start offsets into {@link #face} ordered half-edges, one entry per face plus one. */
+  private int[] faceStart;
+
+  /** Start offsets into {@link #outgoing}, one entry per vertex plus one. */
+  private int[] outgoingStart;
+
+  /** Half-edges bucketed by origin vertex, in half-edge order within each bucket. */
+  private int[] outgoing;
+
+  /**
+   * Builds the half-edge index for the given mesh.
+   *
+   * @param mesh the mesh to index.
+   * @throws IllegalArgumentException if the mesh is null.
+   */
+  public HalfEdgeTopology(Mesh3D mesh) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    this.mesh = mesh;
+    build();
+  }
+
+  private void build() {
+    int faceCount = mesh.getFaceCount();
+    int vertexCount = mesh.getVertexCount();
+
+    faceStart = new int[faceCount + 1];
+    for (int f = 0; f < faceCount; f++) {
+      faceStart[f + 1] = faceStart[f] + mesh.faces.get(f).indices.length;
+    }
+
+    int halfEdgeCount = faceStart[faceCount];
+    origin = new int[halfEdgeCount];
+    face = new int[halfEdgeCount];
+    next = new int[halfEdgeCount];
+    twin = new int[halfEdgeCount];
+
+    for (int f = 0; f < faceCount; f++) {
+      int[] indices = mesh.faces.get(f).indices;
+      int start = faceStart[f];
+      int end = faceStart[f + 1];
+      for (int h = start; h < end; h++) {
+        origin[h] = indices[h - start];
+        face[h] = f;
+        next[h] = h + 1 < end ? h + 1 : start;
+      }
+    }
+
+    bucketByOrigin(vertexCount);
+    linkTwins();
+  }
+
+  /** Counting sort of all half-edges by origin vertex. The sort is stable. */
+  private void bucketByOrigin(int vertexCount) {
+    outgoingStart = new int[vertexCount + 1];
+    for (int h = 0; h < origin.length; h++) {
+      outgoingStart[origin[h] + 1]++;
+    }
+    for (int v = 0; v < vertexCount; v++) {
+      outgoingStart[v + 1] += outgoingStart[v];
+    }
+    outgoing = new int[origin.length];
+    int[] fill = Arrays.copyOf(outgoingStart, vertexCount);
+    for (int h = 0; h < origin.length; h++) {
+      outgoing[fill[origin[h]]++] = h;
+    }
+  }
+
+  private void linkTwins() {
+    for (int h = 0; h < origin.length; h++) {
+      twin[h] = findHalfEdge(getTarget(h), origin[h]);
+    }
+  }
+
+  /**
+   * Returns the half-edge pointing from {@code fromIndex} to {@code toIndex}, or -1 if no face
+   * contains that directed edge. If several faces share the directed edge (non-manifold input), the
+   * one of the last such face is returned, as {@link TraverseHelper} does.
+   *
+   * @param fromIndex the origin vertex.
+   * @param toIndex the target vertex.
+   * @return the half-edge index, or -1.
+   */
+  public int findHalfEdge(int fromIndex, int toIndex) {
+    if (fromIndex < 0 || fromIndex >= outgoingStart.length - 1) {
+      return -1;
+    }
+    for (int i = outgoingStart[fromIndex + 1] - 1; i >= outgoingStart[fromIndex]; i--) {
+      int h = outgoing[i];
+      if (getTarget(h) == toIndex) {
+        return h;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the face containing the directed edge {@code fromIndex -> toIndex}.
+   *
+   * @param fromIndex the origin vertex.
+   * @param toIndex the target vertex.
+   * @return the face index, or -1 if no face contains the edge.
+   */
+  public int getFaceByEdge(int fromIndex, int toIndex) {
+    int h = findHalfEdge(fromIndex, toIndex);
+    return h == -1 ? -1 : face[h];
+  }
+
+  /**
+   * Returns the face object containing the directed edge {@code fromIndex -> toIndex}.
+   *
+   * @param fromIndex the origin vertex.
+   * @param toIndex the target vertex.
+   * @return the face, or null if no face contains the edge.
+   */
+  public Face3D getFace3DByEdge(int fromIndex, int toIndex) {
+    int f = getFaceByEdge(fromIndex, toIndex);
+    return f == -1 ? null : mesh.faces.get(f);
+  }
+
+  /**
+   * Returns an outgoing half-edge of the given vertex. Like {@link TraverseHelper#getOutgoing(int)}
+   * this is the half-edge of the last face referencing the vertex.
+   *
+   * @param vertexIndex the vertex.
+   * @return the outgoing half-edge, or -1 if no face references the vertex.
+   */
+  public int getOutgoing(int vertexIndex) {
+    int end = outgoingStart[vertexIndex + 1];
+    return end == outgoingStart[vertexIndex] ? -1 : outgoing[end - 1];
+  }
+
+  /**
+   * Returns the number of half-edges leaving the given vertex.
+   *
+   * @param vertexIndex the vertex.
+   * @return the number of outgoing half-edges.
+   */
+  public int getOutgoingCount(int vertexIndex) {
+    return outgoingStart[vertexIndex + 1] - outgoingStart[vertexIndex];
+  }
+
+  /**
+   * Returns the i-th half-edge leaving the given vertex.
+   *
+   * @param vertexIndex the vertex.
+   * @param i the index within {@code [0, getOutgoingCount(vertexIndex))}.
+   * @return the half-edge.
+   */
+  public int getOutgoingAt(int vertexIndex, int i) {
+    return outgoing[outgoingStart[vertexIndex] + i];
+  }
+
+  public int getOrigin(int halfEdge) {
+    return origin[halfEdge];
+  }
+
+  public int getTarget(int halfEdge) {
+    return origin[next[halfEdge]];
+  }
+
+  public int getFace(int halfEdge) {
+    return face[halfEdge];
+  }
+
+  public int getNext(int halfEdge) {
+    return next[halfEdge];
+  }
+
+  /**
+   * Returns the half-edge before the given one in its face.
+   *
+   * @param halfEdge the half-edge.
+   * @return the previous half-edge, the one ending at the origin of {@code halfEdge}.
+   */
+  public int getPrevious(int halfEdge) {
+    int f = face[halfEdge];
+    return halfEdge == faceStart[f] ? faceStart[f + 1] - 1 : halfEdge - 1;
+  }
+
+  /**
+   * Returns the outgoing half-edge from which circulating with {@link #getTwinNext(int)} visits
+   * all faces around the vertex. For a vertex on a boundary this is the half-edge following the
+   * boundary, and the circulation ends at the outgoing boundary half-edge; for an interior vertex
+   * it is {@link #getOutgoing(int)}.
+   *
+   * @param vertexIndex the vertex.
+   * @return the first half-edge of the fan, or -1 if no face references the vertex.
+   */
+  public int getFanStart(int vertexIndex) {
+    int start = getOutgoing(vertexIndex);
+    int halfEdge = start;
+    for (int i = 0; halfEdge != -1 && i < getOutgoingCount(vertexIndex); i++) {
+      int previous = twin[getPrevious(halfEdge)];
+      if (previous == -1) {
+        return halfEdge;
+      }
+      halfEdge = previous;
+    }
+    return start;
+  }
+
+  /**
+   * Returns the opposite half-edge.
+   *
+   * @param halfEdge the half-edge.
+   * @return the twin, or -1 if the half-edge lies on a boundary.
+   */
+  public int getTwin(int halfEdge) {
+    return twin[halfEdge];
+  }
+
+  /**
+   * Returns the next half-edge of the twin, the equivalent of {@link
+   * TraverseHelper#getPairNext(int, int)}. Repeatedly applying this method circulates around the
+   * origin vertex.
+   *
+   * @param halfEdge the half-edge.
+   * @return the next half-edge of the twin, or -1 if the half-edge lies on a boundary.
+   */
+  public int getTwinNext(int halfEdge) {
+    int t = twin[halfEdge];
+    return t == -1 ? -1 : next[t];
+  }
+
+  public boolean isBoundary(int halfEdge) {
+    return twin[halfEdge] == -1;
+  }
+
+  /**
+   * Returns the first half-edge of the given face. The half-edges of a face are numbered
+   * consecutively starting at this index.
+   *
+   * @param faceIndex the face.
+   * @return the first half-edge of the face.
+   */
+  public int getFaceHalfEdge(int faceIndex) {
+    return faceStart[faceIndex];
+  }
+
+  public int getFaceHalfEdgeCount(int faceIndex) {
+    return faceStart[faceIndex + 1] - faceStart[faceIndex];
+  }
+
+  public int getHalfEdgeCount() {
+    return origin.length;
+  }
+
+  public int getFaceCount() {
+    return faceStart.length - 1;
+  }
+
+  public int getVertexCount() {
+    return outgoingStart.length - 1;
+  }
+
+  public Mesh3D getMesh() {
+    return mesh;
+  }
+}
@@ -0,0 +1,729 @@
+package mesh.util;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+import math.Ray3f;
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+
+/**
+ * A bounding volume hierarchy over the triangles of a mesh, for ray casts against meshes with
+ * millions of faces, such as picking.
+ *
+ * <p>Faces are fan triangulated and every triangle remembers its face. The tree is built top down
+ * with a binned surface area heuristic: triangle centroids are sorted into a few bins along the
+ * axis of their largest extent and the cheapest split between two bins is taken. Subtrees of large
+ * nodes are built in parallel.
+ *
+ * <p>The finished tree is flattened into arrays in depth first order, so the left child of a node
+ * is the next node and every node stores the index of the node following its subtree. Traversal
+ * walks these arrays without a stack: it descends into a node whose box the ray hits and skips to
+ * the following node otherwise. The triangles are stored in leaf order, so each leaf reads one
+ * contiguous range.
+ *
+ * <p>The tree is cached against {@link Mesh3D#getPositionsVersion()}, {@link
+ * Mesh3D#getTopologyVersion()} and the vertex and face counts, and rebuilt by the next query after
+ * the mesh changed. Code that moves vertices directly has to call {@link
+ * Mesh3D#markPositionsChanged()} to invalidate it.
+ */
+public class MeshBVH {
+
+  /** Number of centroid bins per axis evaluated for a split. */
+  private static final int BIN_COUNT = 16;
+
+  /** Nodes with at most this many triangles become leaves. */
+  private static final int MIN_LEAF_SIZE = 2;
+
+  /** Nodes with more triangles than this are always split. */
+  private static final int MAX_LEAF_SIZE = 8;
+
+  /** Cost of visiting a node relative to intersecting a triangle. */
+  private static final float TRAVERSAL_COST = 1;
+
+  /** Below this number of triangles a node is built on the calling thread only. */
+  private static final int PARALLEL_THRESHOLD = 4096;
+
+  private final Mesh3D mesh;
+
+  /** Positions version the tree was built for, -1 if none. */
+  private long positionsVersion = -1;
+
+  private long topologyVersion = -1;
+
+  private int vertexCount = -1;
+
+  private int faceCount = -1;
+
+  /** Corner positions of every triangle in leaf order, nine floats per triangle. */
+  private float[] triangles;
+
+  /** Face of every triangle in leaf order. */
+  private int[] triangleFaces;
+
+  /** Vertex indices of the corners of every triangle in leaf order, three per triangle. */
+  private int[] triangleVertices;
+
+  /** Bounds of every node, min x, y, z and max x, y, z. */
+  private float[] nodeBounds;
+
+  /** Index of the node following the subtree of every node. */
+  private int[] nodeSkip;
+
+  /** First triangle of every leaf. */
+  private int[] nodeStart;
+
+  /** Triangle count of every leaf, 0 for inner nodes. */
+  private int[] nodeCount;
+
+  private int nodeTotal;
+
+  /**
+   * Creates a tree over the given mesh. The tree is built by the first query.
+   *
+   * @param mesh the mesh.
+   * @throws IllegalArgumentException if the mesh is null.
+   */
+  public MeshBVH(Mesh3D mesh) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    this.mesh = mesh;
+  }
+
+  /**
+   * Rebuilds the tree if the mesh changed since it was last built.
+   *
+   * @return true if the tree was rebuilt.
+   */
+  public boolean update() {
+    if (isValid()) {
+      return false;
+    }
+    build();
+    return true;
+  }
+
+  /**
+   * Returns whether the tree still matches the mesh.
+   *
+   * @return true if no rebuild is needed.
+   */
+  public boolean isValid() {
+    return triangles != null
+        && positionsVersion == mesh.getPositionsVersion()
+        && topologyVersion == mesh.getTopologyVersion()
+        && vertexCount == mesh.getVertexCount()
+        && faceCount == mesh.getFaceCount();
+  }
+
+  /** Discards the tree, forcing a rebuild on the next query. */
+  public void invalidate() {
+    positionsVersion = -1;
+    topologyVersion = -1;
+  }
+
+  /**
+   * Finds the closest intersection of the ray with the mesh. Faces are hit from both sides.
+   *
+   * @param ray the ray, in the space of the mesh vertices.
+   * @return the closest hit, or null if the ray misses the mesh.
+   * @throws IllegalArgumentException if the ray is null.
+   */
+  public RayHit raycast(Ray3f ray) {
+    return raycast(ray, Float.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Finds the closest intersection of the ray with the mesh within the given distance.
+   *
+   * @param ray the ray, in the space of the mesh vertices.
+   * @param maxDistance the largest distance from the ray origin to consider.
+   * @return the closest hit, or null if the ray misses the mesh within the distance.
+   * @throws IllegalArgumentException if the ray is null.
+   */
+  public RayHit raycast(Ray3f ray, float maxDistance) {
+    Traversal traversal = traverse(ray, maxDistance, false);
+    if (traversal.triangle == -1) {
+      return null;
+    }
+    int t = traversal.triangle;
+    return new RayHit(
+        triangleFaces[t],
+        triangleVertices[t * 3],
+        triangleVertices[t * 3 + 1],
+        triangleVertices[t * 3 + 2],
+        traversal.distance,
+        traversal.u,
+        traversal.v,
+        ray.getPointAt(traversal.distance));
+  }
+
+  /**
+   * Returns whether the ray hits the mesh within the given distance, for example to test the
+   * visibility between two points. Stops at the first hit found instead of the closest one.
+   *
+   * @param ray the ray, in the space of the mesh vertices.
+   * @param maxDistance the largest distance from the ray origin to consider.
+   * @return true if the ray hits any face within the distance.
+   * @throws IllegalArgumentException if the ray is null.
+   */
+  public boolean anyHit(Ray3f ray, float maxDistance) {
+    return traverse(ray, maxDistance, true).triangle != -1;
+  }
+
+  private Traversal traverse(Ray3f ray, float maxDistance, boolean anyHit) {
+    if (ray == null) {
+      throw new IllegalArgumentException("Ray cannot be null.");
+    }
+    update();
+    Vector3f origin = ray.getOrigin();
+    Vector3f direction = ray.getDirection();
+    // Ray3f keeps the reciprocal of the direction it was given, not of the normalized one.
+    Vector3f inverse = new Vector3f(1 / direction.x, 1 / direction.y, 1 / direction.z);
+
+    Traversal traversal = new Traversal(maxDistance);
+    int node = 0;
+    while (node < nodeTotal) {
+      if (!hitsNode(node, origin, inverse, traversal.distance)) {
+        node = nodeSkip[node];
+        continue;
+      }
+      int count = nodeCount[node];
+      if (count == 0) {
+        node++;
+        continue;
+      }
+      int start = nodeStart[node];
+      for (int t = start; t < start + count; t++) {
+        if (intersect(t, origin, direction, traversal) && anyHit) {
+          return traversal;
+        }
+      }
+      node = nodeSkip[node];
+    }
+    return traversal;
+  }
+
+  /**
+   * Slab test of the ray against the box of a node. Comparisons are written so that the NaN of a
+   * ray parallel to and on a slab plane is ignored.
+   */
+  private boolean hitsNode(int node, Vector3f origin, Vector3f inverse, float maxDistance) {
+    int b = node * 6;
+    float near = 0;
+    float far = maxDistance;
+
+    float t1 = (nodeBounds[b] - origin.x) * inverse.x;
+    float t2 = (nodeBounds[b + 3] - origin.x) * inverse.x;
+    if (Math.min(t1, t2) > near) near = Math.min(t1, t2);
+    if (Math.max(t1, t2) < far) far = Math.max(t1, t2);
+
+    t1 = (nodeBounds[b + 1] - origin.y) * inverse.y;
+    t2 = (nodeBounds[b + 4] - origin.y) * inverse.y;
+    if (Math.min(t1, t2) > near) near = Math.min(t1, t2);
+    if (Math.max(t1, t2) < far) far = Math.max(t1, t2);
+
+    t1 = (nodeBounds[b + 2] - origin.z) * inverse.z;
+    t2 = (nodeBounds[b + 5] - origin.z) * inverse.z;
+    if (Math.min(t1, t2) > near) near = Math.min(t1, t2);
+    if (Math.max(t1, t2) < far) far = Math.max(t1, t2);
+
+    return near <= far;
+  }
+
+  /** Moller-Trumbore, records the hit in the traversal if it is closer than the current one. */
+  private boolean intersect(int triangle, Vector3f origin, Vector3f direction, Traversal hit) {
+    int p = triangle * 9;
+    float ax = triangles[p];
+    float ay = triangles[p + 1];
+    float az = triangles[p + 2];
+    float e1x = triangles[p + 3] - ax;
+    float e1y = triangles[p + 4] - ay;
+    float e1z = triangles[p + 5] - az;
+    float e2x = triangles[p + 6] - ax;
+    float e2y = triangles[p + 7] - ay;
+    float e2z = triangles[p + 8] - az;
+
+    float px = direction.y * e2z - direction.z * e2y;
+    float py = direction.z * e2x - direction.x * e2z;
+    float pz = direction.x * e2y - direction.y * e2x;
+    float determinant = e1x * px + e1y * py + e1z * pz;
+    // The determinant scales with the squared edge length, so any fixed cutoff would drop the
+    // hits on small triangles. Rays nearly parallel to the plane fail the range checks below.
+    if (determinant == 0) {
+      return false;
+    }
+    float inverse = 1 / determinant;
+    float sx = origin.x - ax;
+    float sy = origin.y - ay;
+    float sz = origin.z - az;
+    float u = (sx * px + sy * py + sz * pz) * inverse;
+    if (u < 0 || u > 1) {
+      return false;
+    }
+    float qx = sy * e1z - sz * e1y;
+    float qy = sz * e1x - sx * e1z;
+    float qz = sx * e1y - sy * e1x;
+    float v = (direction.x * qx + direction.y * qy + direction.z * qz) * inverse;
+    if (v < 0 || u + v > 1) {
+      return false;
+    }
+    float distance = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+    if (distance < 0 || distance >= hit.distance) {
+      return false;
+    }
+    hit.triangle = triangle;
+    hit.distance = distance;
+    hit.u = u;
+    hit.v = v;
+    return true;
+  }
+
+  private void build() {
+    positionsVersion = mesh.getPositionsVersion();
+    topologyVersion = mesh.getTopologyVersion();
+    vertexCount = mesh.getVertexCount();
+    faceCount = mesh.getFaceCount();
+
+    List<Face3D> faces = mesh.getFaces();
+    int[] firstTriangle = new int[faceCount + 1];
+    for (int f = 0; f < faceCount; f++) {
+      firstTriangle[f + 1] = firstTriangle[f] + Math.max(0, faces.get(f).indices.length - 2);
+    }
+    int count = firstTriangle[faceCount];
+    float[] corners = new float[count * 9];
+    int[] faceOf = new int[count];
+    int[] verticesOf = new int[count * 3];
+    range(faceCount)
+        .forEach(
+            f -> triangulate(faces.get(f), f, firstTriangle[f], corners, faceOf, verticesOf));
+
+    float[] boxes = new float[count * 6];
+    float[] centroids = new float[count * 3];
+    range(count).forEach(t -> computeBox(t, corners, boxes, centroids));
+
+    int[] order = new int[count];
+    for (int t = 0; t < count; t++) {
+      order[t] = t;
+    }
+    BuildNode root = new BuildNode(0, count);
+    if (count > 0) {
+      ForkJoinPool.commonPool().invoke(new BuildTask(root, order, boxes, centroids));
+    }
+
+    nodeTotal = count > 0 ? root.size() : 0;
+    nodeBounds = new float[nodeTotal * 6];
+    nodeSkip = new int[nodeTotal];
+    nodeStart = new int[nodeTotal];
+    nodeCount = new int[nodeTotal];
+    if (count > 0) {
+      flatten(root, 0);
+    }
+
+    triangles = new float[count * 9];
+    triangleFaces = new int[count];
+    triangleVertices = new int[count * 3];
+    range(count)
+        .forEach(
+            i -> {
+              int t = order[i];
+              System.arraycopy(corners, t * 9, triangles, i * 9, 9);
+              System.arraycopy(verticesOf, t * 3, triangleVertices, i * 3, 3);
+              triangleFaces[i] = faceOf[t];
+            });
+  }
+
+  private void triangulate(
+      Face3D face, int faceIndex, int first, float[] corners, int[] faceOf, int[] verticesOf) {
+    int[] indices = face.indices;
+    for (int i = 1; i < indices.length - 1; i++) {
+      int t = first + i - 1;
+      faceOf[t] = faceIndex;
+      verticesOf[t * 3] = indices[0];
+      verticesOf[t * 3 + 1] = indices[i];
+      verticesOf[t * 3 + 2] = indices[i + 1];
+      for (int corner = 0; corner < 3; corner++) {
+        Vector3f v = mesh.vertices.get(verticesOf[t * 3 + corner]);
+        corners[t * 9 + corner * 3] = v.x;
+        corners[t * 9 + corner * 3 + 1] = v.y;
+        corners[t * 9 + corner * 3 + 2] = v.z;
+      }
+    }
+  }
+
+  private static void computeBox(int t, float[] corners, float[] boxes, float[] centroids) {
+    for (int axis = 0; axis < 3; axis++) {
+      float a = corners[t * 9 + axis];
+      float b = corners[t * 9 + 3 + axis];
+      float c = corners[t * 9 + 6 + axis];
+      float min = Math.min(a, Math.min(b, c));
+      float max = Math.max(a, Math.max(b, c));
+      boxes[t * 6 + axis] = min;
+      boxes[t * 6 + 3 + axis] = max;
+      centroids[t * 3 + axis] = (min + max) * 0.5f;
+    }
+  }
+
+  /** Writes the subtree in depth first order and returns the index following it. */
+  private int flatten(BuildNode node, int index) {
+    System.arraycopy(node.bounds, 0, nodeBounds, index * 6, 6);
+    int next;
+    if (node.left == null) {
+      nodeStart[index] = node.start;
+      nodeCount[index] = node.end - node.start;
+      next = index + 1;
+    } else {
+      next = flatten(node.right, flatten(node.left, index + 1));
+    }
+    nodeSkip[index] = next;
+    return next;
+  }
+
+  private static float halfArea(float[] box, int offset) {
+    float x = box[offset + 3] - box[offset];
+    float y = box[offset + 4] - box[offset + 1];
+    float z = box[offset + 5] - box[offset + 2];
+    return x * y + y * z + z * x;
+  }
+
+  /** Grows a box to include another. Plain comparisons, the build has no NaN to care about. */
+  private static void grow(float[] box, int offset, float[] other, int otherOffset) {
+    for (int axis = 0; axis < 3; axis++) {
+      float min = other[otherOffset + axis];
+      float max = other[otherOffset + 3 + axis];
+      if (min < box[offset + axis]) box[offset + axis] = min;
+      if (max > box[offset + 3 + axis]) box[offset + 3 + axis] = max;
+    }
+  }
+
+  private static void empty(float[] box, int offset) {
+    for (int axis = 0; axis < 3; axis++) {
+      box[offset + axis] = Float.POSITIVE_INFINITY;
+      box[offset + 3 + axis] = Float.NEGATIVE_INFINITY;
+    }
+  }
+
+  private IntStream range(int count) {
+    IntStream range = IntStream.range(0, count);
+    return count >= PARALLEL_THRESHOLD ? range.parallel() : range;
+  }
+
+  /**
+   * Returns the number of triangles, updating the tree first if needed.
+   *
+   * @return the triangle count of the fan triangulated faces.
+   */
+  public int getTriangleCount() {
+    update();
+    return triangleFaces.length;
+  }
+
+  /**
+   * Returns the number of nodes, updating the tree first if needed.
+   *
+   * @return the node count, 0 for a mesh without faces.
+   */
+  public int getNodeCount() {
+    update();
+    return nodeTotal;
+  }
+
+  public Mesh3D getMesh() {
+    return mesh;
+  }
+
+  /** A node of the tree while it is built, before it is flattened. */
+  private static class BuildNode {
+
+    private final float[] bounds = new float[6];
+
+    /** Range of the node in the triangle order. */
+    private final int start;
+
+    private final int end;
+
+    private BuildNode left;
+
+    private BuildNode right;
+
+    BuildNode(int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    int size() {
+      return left == null ? 1 : 1 + left.size() + right.size();
+    }
+  }
+
+  /**
+   * Builds the subtree of a node, forking both halves of large nodes. Small subtrees are built on
+   * the thread of the task, reusing its scratch arrays.
+   */
+  private static class BuildTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BuildNode node;
+
+    /** Triangle at every position of the build order. */
+    private final int[] order;
+
+    /**
+     * Triangle boxes and centroids, kept in the build order so that every pass over a node reads
+     * one contiguous range.
+     */
+    private final float[] boxes;
+
+    private final float[] centroids;
+
+    private final float[] centroidBounds = new float[6];
+
+    private final int[] binCounts = new int[BIN_COUNT];
+
+    private final float[] binBounds = new float[BIN_COUNT * 6];
+
+    private final float[] rightCosts = new float[BIN_COUNT];
+
+    private final float[] sweep = new float[6];
+
+    BuildTask(BuildNode node, int[] order, float[] boxes, float[] centroids) {
+      this.node = node;
+      this.order = order;
+      this.boxes = boxes;
+      this.centroids = centroids;
+    }
+
+    @Override
+    protected void compute() {
+      build(node);
+    }
+
+    private void build(BuildNode node) {
+      BuildNode current = node;
+      while (current != null) {
+        int middle = split(current);
+        if (middle == -1) {
+          return;
+        }
+        current.left = new BuildNode(current.start, middle);
+        current.right = new BuildNode(middle, current.end);
+        if (current.end - current.start >= PARALLEL_THRESHOLD) {
+          invokeAll(
+              new BuildTask(current.left, order, boxes, centroids),
+              new BuildTask(current.right, order, boxes, centroids));
+          return;
+        }
+        build(current.left);
+        current = current.right;
+      }
+    }
+
+    /**
+     * Computes the bounds of the node and partitions its triangles.
+     *
+     * @return the first triangle of the right half, -1 if the node stays a leaf.
+     */
+    private int split(BuildNode node) {
+      int start = node.start;
+      int end = node.end;
+      int count = end - start;
+      float[] bounds = node.bounds;
+      empty(bounds, 0);
+      empty(centroidBounds, 0);
+      for (int i = start; i < end; i++) {
+        grow(bounds, 0, boxes, i * 6);
+        for (int axis = 0; axis < 3; axis++) {
+          float c = centroids[i * 3 + axis];
+          centroidBounds[axis] = Math.min(centroidBounds[axis], c);
+          centroidBounds[3 + axis] = Math.max(centroidBounds[3 + axis], c);
+        }
+      }
+      if (count <= MIN_LEAF_SIZE) {
+        return -1;
+      }
+
+      // Bins along the axis with the largest centroid extent only, as in Wald's binned builder.
+      int axis = 0;
+      float extent = centroidBounds[3] - centroidBounds[0];
+      for (int k = 1; k < 3; k++) {
+        if (centroidBounds[3 + k] - centroidBounds[k] > extent) {
+          axis = k;
+          extent = centroidBounds[3 + k] - centroidBounds[k];
+        }
+      }
+      float min = centroidBounds[axis];
+      float area = halfArea(bounds, 0);
+      if (extent <= 0) {
+        // All centroids coincide, split the range in the middle to bound the leaf size.
+        return count <= MAX_LEAF_SIZE ? -1 : start + count / 2;
+      }
+      // Small nodes get fewer bins, more than one bin per triangle buys nothing.
+      int binCount = Math.min(BIN_COUNT, count);
+      float scale = binCount / extent;
+      for (int b = 0; b < binCount; b++) {
+        binCounts[b] = 0;
+        empty(binBounds, b * 6);
+      }
+      for (int i = start; i < end; i++) {
+        int b = bin(centroids[i * 3 + axis], min, scale, binCount);
+        binCounts[b]++;
+        grow(binBounds, b * 6, boxes, i * 6);
+      }
+
+      // Cost of everything right of each bin boundary, then sweep from the left.
+      empty(sweep, 0);
+      int rightCount = 0;
+      for (int b = binCount - 1; b > 0; b--) {
+        rightCount += binCounts[b];
+        grow(sweep, 0, binBounds, b * 6);
+        rightCosts[b] = rightCount == 0 ? 0 : rightCount * halfArea(sweep, 0);
+      }
+      float bestCost = Float.POSITIVE_INFINITY;
+      int bestBin = -1;
+      empty(sweep, 0);
+      int leftCount = 0;
+      for (int b = 0; b < binCount - 1; b++) {
+        leftCount += binCounts[b];
+        grow(sweep, 0, binBounds, b * 6);
+        if (leftCount == 0 || leftCount == count) {
+          continue;
+        }
+        float cost = leftCount * halfArea(sweep, 0) + rightCosts[b + 1];
+        if (cost < bestCost) {
+          bestCost = cost;
+          bestBin = b;
+        }
+      }
+      if (count <= MAX_LEAF_SIZE && TRAVERSAL_COST * area + bestCost >= count * area) {
+        return -1;
+      }
+
+      int i = start;
+      int j = end - 1;
+      while (i <= j) {
+        if (bin(centroids[i * 3 + axis], min, scale, binCount) <= bestBin) {
+          i++;
+        } else {
+          swap(i, j--);
+        }
+      }
+      return i;
+    }
+
+    /** Swaps two triangles in the build order, together with their boxes and centroids. */
+    private void swap(int i, int j) {
+      int triangle = order[i];
+      order[i] = order[j];
+      order[j] = triangle;
+      for (int k = 0; k < 6; k++) {
+        float value = boxes[i * 6 + k];
+        boxes[i * 6 + k] = boxes[j * 6 + k];
+        boxes[j * 6 + k] = value;
+      }
+      for (int k = 0; k < 3; k++) {
+        float value = centroids[i * 3 + k];
+        centroids[i * 3 + k] = centroids[j * 3 + k];
+        centroids[j * 3 + k] = value;
+      }
+    }
+
+    private static int bin(float centroid, float min, float scale, int binCount) {
+      return Math.min(binCount - 1, (int) ((centroid - min) * scale));
+    }
+  }
+
+  /** The closest hit found so far during a traversal. */
+  private static class Traversal {
+
+    private int triangle = -1;
+
+    private float distance;
+
+    private float u;
+
+    private float v;
+
+    Traversal(float maxDistance) {
+      this.distance = maxDistance;
+    }
+  }
+
+  /**
+   * An intersection of a ray with a face. The barycentric coordinates refer to the triangle of the
+   * fan triangulated face that was hit, whose corners are {@link #getVertexIndex(int)}; the hit
+   * point is {@code (1 - u - v) * a + u * b + v * c}.
+   */
+  public static class RayHit {
+
+    private final int faceIndex;
+
+    private final int[] vertexIndices;
+
+    private final float distance;
+
+    private final float u;
+
+    private final float v;
+
+    private final Vector3f point;
+
+    RayHit(int faceIndex, int a, int b, int c, float distance, float u, float v, Vector3f point) {
+      this.faceIndex = faceIndex;
+      this.vertexIndices = new int[] {a, b, c};
+      this.distance = distance;
+      this.u = u;
+      this.v = v;
+      this.point = point;
+    }
+
+    public int getFaceIndex() {
+      return faceIndex;
+    }
+
+    /**
+     * Returns a corner of the triangle that was hit.
+     *
+     * @param corner 0, 1 or 2.
+     * @return the index of the mesh vertex at the corner.
+     */
+    public int getVertexIndex(int corner) {
+      return vertexIndices[corner];
+    }
+
+    /**
+     * Returns the distance from the ray origin to the hit point.
+     *
+     * @return the distance along the normalized ray direction.
+     */
+    public float getDistance() {
+      return distance;
+    }
+
+    /**
+     * Returns the barycentric weight of the second corner.
+     *
+     * @return the weight of {@code getVertexIndex(1)}.
+     */
+    public float getU() {
+      return u;
+    }
+
+    /**
+     * Returns the barycentric weight of the third corner.
+     *
+     * @return the weight of {@code getVertexIndex(2)}.
+     */
+    public float getV() {
+      return v;
+    }
+
+    public Vector3f getPoint() {
+      return new Vector3f(point);
+    }
+  }
+}
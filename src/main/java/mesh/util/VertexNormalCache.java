@@ -0,0 +1,327 @@
+package mesh.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+
+/**
+ * Computes and caches the vertex normals of a mesh by vertex index.
+ *
+ * <p>Unlike {@link VertexNormals}, which groups faces by vertex position, normals are accumulated
+ * per vertex index into a flat {@code float[]}, so coincident but distinct vertices (for example
+ * along UV seams) keep their own normals. Face normals are computed in parallel over face ranges;
+ * each vertex then gathers the normals of its incident faces in parallel over vertex ranges, so no
+ * two threads write to the same slot.
+ *
+ * <p>The result is cached against {@link Mesh3D#getPositionsVersion()}, {@link
+ * Mesh3D#getTopologyVersion()} and the vertex and face counts. Rendering an unchanged mesh every
+ * frame therefore computes its normals only once, and the vertex to face adjacency is only rebuilt
+ * when the topology changed. Code that moves vertices directly has to call {@link
+ * Mesh3D#markPositionsChanged()} to invalidate the cache.
+ *
+ * <p>Vertices that are not referenced by any face get a zero normal.
+ */
+public class VertexNormalCache {
+
+  /** How the normals of the faces around a vertex are weighted. */
+  public enum Weighting {
+    /** Every incident face contributes equally, like {@link VertexNormals}. */
+    UNIFORM,
+    /** Faces contribute proportionally to their area. */
+    AREA,
+    /** Faces contribute proportionally to the angle of their corner at the vertex. */
+    ANGLE
+  }
+
+  /** Below this number of elements the work is done on the calling thread only. */
+  private static final int PARALLEL_THRESHOLD = 4096;
+
+  private final Mesh3D mesh;
+
+  private final Weighting weighting;
+
+  /** Positions version the cached normals were computed for, -1 if none. */
+  private long positionsVersion = -1;
+
+  /** Topology version the adjacency was built for, -1 if none. */
+  private long topologyVersion = -1;
+
+  private int vertexCount = -1;
+
+  private int faceCount = -1;
+
+  private float[] positions;
+
+  /** Face normals, unit length for UNIFORM and ANGLE, area weighted for AREA. */
+  private float[] faceNormals;
+
+  /** Start of the corners of each face in {@link #cornerVertices}, one entry per face plus one. */
+  private int[] faceStart;
+
+  /** Vertex index of every face corner. */
+  private int[] cornerVertices;
+
+  /** Start of the corners of each vertex in {@link #vertexCorners}, per vertex plus one. */
+  private int[] vertexStart;
+
+  /** Face corners bucketed by vertex. */
+  private int[] vertexCorners;
+
+  /** Face of every face corner. */
+  private int[] cornerFaces;
+
+  private float[] normals;
+
+  /**
+   * Creates an area weighted normal cache for the given mesh.
+   *
+   * @param mesh the mesh.
+   * @throws IllegalArgumentException if the mesh is null.
+   */
+  public VertexNormalCache(Mesh3D mesh) {
+    this(mesh, Weighting.AREA);
+  }
+
+  /**
+   * Creates a normal cache for the given mesh.
+   *
+   * @param mesh the mesh.
+   * @param weighting how face normals are weighted.
+   * @throws IllegalArgumentException if the mesh or the weighting is null.
+   */
+  public VertexNormalCache(Mesh3D mesh, Weighting weighting) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    if (weighting == null) {
+      throw new IllegalArgumentException("Weighting cannot be null.");
+    }
+    this.mesh = mesh;
+    this.weighting = weighting;
+  }
+
+  /**
+   * Recomputes the normals if the mesh changed since they were last computed.
+   *
+   * @return true if the normals were recomputed.
+   */
+  public boolean update() {
+    if (isValid()) {
+      return false;
+    }
+    compute();
+    return true;
+  }
+
+  /**
+   * Returns whether the cached normals still match the mesh.
+   *
+   * @return true if no recomputation is needed.
+   */
+  public boolean isValid() {
+    return normals != null
+        && positionsVersion == mesh.getPositionsVersion()
+        && topologyVersion == mesh.getTopologyVersion()
+        && vertexCount == mesh.getVertexCount()
+        && faceCount == mesh.getFaceCount();
+  }
+
+  /** Discards the cached normals, forcing a recomputation on the next access. */
+  public void invalidate() {
+    positionsVersion = -1;
+    topologyVersion = -1;
+  }
+
+  /**
+   * Returns the unit normals of all vertices, x, y, z interleaved, updating them first if needed.
+   * The returned array is owned by the cache and must not be modified.
+   *
+   * @return the vertex normals.
+   */
+  public float[] getNormals() {
+    update();
+    return normals;
+  }
+
+  /**
+   * Stores the normal of the given vertex in {@code store}, updating the normals first if needed.
+   *
+   * @param index the vertex index.
+   * @param store the vector receiving the normal.
+   * @return {@code store}.
+   */
+  public Vector3f getNormalAt(int index, Vector3f store) {
+    float[] normals = getNormals();
+    return store.set(normals[index * 3], normals[index * 3 + 1], normals[index * 3 + 2]);
+  }
+
+  /**
+   * Returns the vertex normals as new vectors, in vertex order.
+   *
+   * @return a list with one normal per vertex.
+   */
+  public List<Vector3f> getVertexNormals() {
+    float[] normals = getNormals();
+    List<Vector3f> list = new ArrayList<Vector3f>(normals.length / 3);
+    for (int i = 0; i < normals.length; i += 3) {
+      list.add(new Vector3f(normals[i], normals[i + 1], normals[i + 2]));
+    }
+    return list;
+  }
+
+  private void compute() {
+    boolean topologyChanged =
+        topologyVersion != mesh.getTopologyVersion()
+            || vertexCount != mesh.getVertexCount()
+            || faceCount != mesh.getFaceCount();
+    positionsVersion = mesh.getPositionsVersion();
+    topologyVersion = mesh.getTopologyVersion();
+    vertexCount = mesh.getVertexCount();
+    faceCount = mesh.getFaceCount();
+
+    copyPositions();
+    if (topologyChanged) {
+      buildAdjacency();
+    }
+    range(faceCount).forEach(this::computeFaceNormal);
+    if (normals == null || normals.length != vertexCount * 3) {
+      normals = new float[vertexCount * 3];
+    }
+    range(vertexCount).forEach(this::gatherVertexNormal);
+  }
+
+  private void copyPositions() {
+    if (positions == null || positions.length != vertexCount * 3) {
+      positions = new float[vertexCount * 3];
+    }
+    range(vertexCount)
+        .forEach(
+            i -> {
+              Vector3f v = mesh.vertices.get(i);
+              positions[i * 3] = v.x;
+              positions[i * 3 + 1] = v.y;
+              positions[i * 3 + 2] = v.z;
+            });
+  }
+
+  private void buildAdjacency() {
+    if (faceStart == null || faceStart.length != faceCount + 1) {
+      faceStart = new int[faceCount + 1];
+      faceNormals = new float[faceCount * 3];
+    }
+    for (int f = 0; f < faceCount; f++) {
+      faceStart[f + 1] = faceStart[f] + mesh.faces.get(f).indices.length;
+    }
+    int cornerCount = faceStart[faceCount];
+    if (cornerVertices == null || cornerVertices.length != cornerCount) {
+      cornerVertices = new int[cornerCount];
+      cornerFaces = new int[cornerCount];
+      vertexCorners = new int[cornerCount];
+    }
+    for (int f = 0; f < faceCount; f++) {
+      int[] indices = mesh.faces.get(f).indices;
+      System.arraycopy(indices, 0, cornerVertices, faceStart[f], indices.length);
+      Arrays.fill(cornerFaces, faceStart[f], faceStart[f + 1], f);
+    }
+
+    // Counting sort of the corners by vertex.
+    vertexStart = new int[vertexCount + 1];
+    for (int c = 0; c < cornerCount; c++) {
+      vertexStart[cornerVertices[c] + 1]++;
+    }
+    for (int v = 0; v < vertexCount; v++) {
+      vertexStart[v + 1] += vertexStart[v];
+    }
+    int[] fill = Arrays.copyOf(vertexStart, vertexCount);
+    for (int c = 0; c < cornerCount; c++) {
+      vertexCorners[fill[cornerVertices[c]]++] = c;
+    }
+  }
+
+  /** Newell's method, as {@link Mesh3D#calculateFaceNormal(Face3D)}. */
+  private void computeFaceNormal(int face) {
+    int start = faceStart[face];
+    int n = faceStart[face + 1] - start;
+    float nx = 0;
+    float ny = 0;
+    float nz = 0;
+    for (int i = 0; i < n; i++) {
+      int a = cornerVertices[start + i] * 3;
+      int b = cornerVertices[start + (i + 1) % n] * 3;
+      nx += (positions[a + 1] - positions[b + 1]) * (positions[a + 2] + positions[b + 2]);
+      ny += (positions[a + 2] - positions[b + 2]) * (positions[a] + positions[b]);
+      nz += (positions[a] - positions[b]) * (positions[a + 1] + positions[b + 1]);
+    }
+    float scale;
+    if (weighting == Weighting.AREA) {
+      // The Newell vector has twice the polygon area as length.
+      scale = 0.5f;
+    } else {
+      float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+      scale = length != 0 ? 1 / length : 0;
+    }
+    faceNormals[face * 3] = nx * scale;
+    faceNormals[face * 3 + 1] = ny * scale;
+    faceNormals[face * 3 + 2] = nz * scale;
+  }
+
+  private void gatherVertexNormal(int vertex) {
+    float x = 0;
+    float y = 0;
+    float z = 0;
+    for (int i = vertexStart[vertex]; i < vertexStart[vertex + 1]; i++) {
+      int corner = vertexCorners[i];
+      int face = cornerFaces[corner];
+      float weight = weighting == Weighting.ANGLE ? cornerAngle(corner, face) : 1;
+      x += faceNormals[face * 3] * weight;
+      y += faceNormals[face * 3 + 1] * weight;
+      z += faceNormals[face * 3 + 2] * weight;
+    }
+    float length = (float) Math.sqrt(x * x + y * y + z * z);
+    float scale = length != 0 ? 1 / length : 0;
+    normals[vertex * 3] = x * scale;
+    normals[vertex * 3 + 1] = y * scale;
+    normals[vertex * 3 + 2] = z * scale;
+  }
+
+  /** Returns the interior angle of the face at the given corner. */
+  private float cornerAngle(int corner, int face) {
+    int start = faceStart[face];
+    int n = faceStart[face + 1] - start;
+    int i = corner - start;
+    int p = cornerVertices[start + (i + n - 1) % n] * 3;
+    int c = cornerVertices[corner] * 3;
+    int q = cornerVertices[start + (i + 1) % n] * 3;
+    float ax = positions[p] - positions[c];
+    float ay = positions[p + 1] - positions[c + 1];
+    float az = positions[p + 2] - positions[c + 2];
+    float bx = positions[q] - positions[c];
+    float by = positions[q + 1] - positions[c + 1];
+    float bz = positions[q + 2] - positions[c + 2];
+    float lengths =
+        (float) Math.sqrt((ax * ax + ay * ay + az * az) * (bx * bx + by * by + bz * bz));
+    if (lengths == 0) {
+      return 0;
+    }
+    float cos = (ax * bx + ay * by + az * bz) / lengths;
+    return (float) Math.acos(Math.max(-1, Math.min(1, cos)));
+  }
+
+  private IntStream range(int count) {
+    IntStream range = IntStream.range(0, count);
+    return count >= PARALLEL_THRESHOLD ? range.parallel() : range;
+  }
+
+  public Mesh3D getMesh() {
+    return mesh;
+  }
+
+  public Weighting getWeighting() {
+    return weighting;
+  }
+}
@@ -8,6 +8,13 @@ import math.Vector3f;
 import mesh.Face3D;
 import mesh.Mesh3D;
 
+/**
+ * Averages the face normals around each vertex position.
+ *
+ * Faces are grouped by vertex value, so coincident vertices share one normal.
+ * For rendering and other repeated use prefer {@link VertexNormalCache},
+ * which works by vertex index and only recomputes after the mesh changed.
+ */
 public class VertexNormals {
 
     private Mesh3D mesh;
@@ -0,0 +1,285 @@
+package mesh.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+import mesh.util.collections.LongIntHashMap;
+
+/**
+ * Merges vertices that share the same position, or lie within a given tolerance of each other, in
+ * linear time.
+ *
+ * <p>Vertices are visited in the order in which faces reference them. Each vertex is either merged
+ * into the first previously kept vertex within {@code tolerance}, or kept itself. Candidates are
+ * looked up in a spatial hash grid with a cell size equal to the tolerance, so only the 27
+ * surrounding cells need to be searched. With a tolerance of zero, positions must match exactly
+ * (bitwise, like {@link Vector3f#equals(Object)}) and only a single cell is searched.
+ *
+ * <p>The result is deterministic: the welded vertex list is ordered by first reference, and the
+ * kept {@link Vector3f} instances are the first referenced ones. Vertices that are not referenced
+ * by any face are dropped. Faces are remapped in place, so face attributes such as colors, tags and
+ * UV indices are preserved.
+ *
+ * <p>Grid key computation and face remapping can optionally run in parallel. Clustering itself is
+ * sequential to keep the result independent of thread scheduling.
+ */
+public class VertexWelder {
+
+  /** The maximum distance between two vertices that are merged. */
+  private float tolerance;
+
+  /** Whether key computation and face remapping run in parallel. */
+  private boolean parallel;
+
+  /** First kept vertex of each occupied grid cell, keyed by cell. */
+  private LongIntHashMap cellHeads;
+
+  /** Next kept vertex in the same cell, indexed by kept vertex. */
+  private int[] nextInCell;
+
+  /** Positions of the kept vertices, x, y, z interleaved. */
+  private float[] kept;
+
+  /** Creates a welder that merges exactly coincident vertices only. */
+  public VertexWelder() {
+    this(0);
+  }
+
+  /**
+   * Creates a welder with the given tolerance.
+   *
+   * @param tolerance the maximum distance between merged vertices, zero for exact matches.
+   * @throws IllegalArgumentException if the tolerance is negative or not finite.
+   */
+  public VertexWelder(float tolerance) {
+    setTolerance(tolerance);
+  }
+
+  /**
+   * Welds the vertices of the given mesh in place.
+   *
+   * @param mesh the mesh to weld.
+   * @return the number of vertices removed.
+   * @throws IllegalArgumentException if the mesh is null.
+   */
+  public int weld(Mesh3D mesh) {
+    if (mesh == null) {
+      throw new IllegalArgumentException("Mesh cannot be null.");
+    }
+    int vertexCount = mesh.getVertexCount();
+    int[] remap = createRemap(mesh);
+
+    // Kept indices were handed out in face visiting order, so visiting the
+    // faces again yields the kept vertices in their new order.
+    ArrayList<Vector3f> vertices = new ArrayList<Vector3f>(countKept(remap));
+    for (Face3D face : mesh.faces) {
+      for (int index : face.indices) {
+        if (remap[index] == vertices.size()) {
+          vertices.add(mesh.vertices.get(index));
+        }
+      }
+    }
+
+    remapFaces(mesh, remap);
+    mesh.clearVertices();
+    mesh.addVertices(vertices);
+    return vertexCount - vertices.size();
+  }
+
+  /**
+   * Computes the mapping from old to welded vertex indices without modifying the mesh.
+   *
+   * @param mesh the mesh to analyze.
+   * @return an array holding the new index of every old vertex, or -1 for vertices that are not
+   *     referenced by any face.
+   */
+  public int[] createRemap(Mesh3D mesh) {
+    int vertexCount = mesh.getVertexCount();
+    float[] positions = new float[vertexCount * 3];
+    for (int i = 0; i < vertexCount; i++) {
+      Vector3f v = mesh.vertices.get(i);
+      positions[i * 3] = v.x;
+      positions[i * 3 + 1] = v.y;
+      positions[i * 3 + 2] = v.z;
+    }
+
+    int[] remap = new int[vertexCount];
+    Arrays.fill(remap, -1);
+    long[] keys = computeCellKeys(positions, vertexCount);
+    initializeGrid(vertexCount);
+
+    int keptCount = 0;
+    for (Face3D face : mesh.faces) {
+      for (int index : face.indices) {
+        if (remap[index] != -1) continue;
+        int match = findMatch(positions, index, keys[index]);
+        if (match == -1) {
+          match = keptCount++;
+          insert(positions, index, keys[index], match);
+        }
+        remap[index] = match;
+      }
+    }
+    releaseGrid();
+    return remap;
+  }
+
+  private int countKept(int[] remap) {
+    int max = -1;
+    for (int index : remap) {
+      max = Math.max(max, index);
+    }
+    return max + 1;
+  }
+
+  private void remapFaces(Mesh3D mesh, int[] remap) {
+    if (parallel) {
+      mesh.faces.parallelStream().forEach(face -> remapFace(face, remap));
+    } else {
+      for (Face3D face : mesh.faces) remapFace(face, remap);
+    }
+  }
+
+  private void remapFace(Face3D face, int[] remap) {
+    for (int i = 0; i < face.indices.length; i++) {
+      face.indices[i] = remap[face.indices[i]];
+    }
+  }
+
+  private long[] computeCellKeys(float[] positions, int vertexCount) {
+    long[] keys = new long[vertexCount];
+    IntStream range = IntStream.range(0, vertexCount);
+    if (parallel) range = range.parallel();
+    range.forEach(i -> keys[i] = cellKey(positions, i));
+    return keys;
+  }
+
+  private long cellKey(float[] positions, int index) {
+    float x = positions[index * 3];
+    float y = positions[index * 3 + 1];
+    float z = positions[index * 3 + 2];
+    if (tolerance == 0) {
+      long h = Float.floatToIntBits(x);
+      h = h * 31 + Float.floatToIntBits(y);
+      h = h * 31 + Float.floatToIntBits(z);
+      return h;
+    }
+    return packCell(cell(x), cell(y), cell(z));
+  }
+
+  private long cell(float value) {
+    return (long) Math.floor(value / tolerance);
+  }
+
+  private static long packCell(long x, long y, long z) {
+    return ((x & 0x1FFFFF) << 42) | ((y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+  }
+
+  private static long unpack(long key, int shift) {
+    return (key << (64 - 21 - shift)) >> 43;
+  }
+
+  private int findMatch(float[] positions, int index, long key) {
+    if (tolerance == 0) {
+      return findInCell(positions, index, key, -1);
+    }
+    long cx = unpack(key, 42);
+    long cy = unpack(key, 21);
+    long cz = unpack(key, 0);
+    int best = -1;
+    for (long dx = -1; dx <= 1; dx++) {
+      for (long dy = -1; dy <= 1; dy++) {
+        for (long dz = -1; dz <= 1; dz++) {
+          best = findInCell(positions, index, packCell(cx + dx, cy + dy, cz + dz), best);
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Searches the given cell for a kept vertex matching the vertex at {@code index}. Returns the
+   * smaller of {@code best} and the lowest matching kept index, so the result does not depend on
+   * the order in which neighbor cells are visited.
+   */
+  private int findInCell(float[] positions, int index, long key, int best) {
+    int head = cellHeads.get(key);
+    if (head == -1) return best;
+
+    float x = positions[index * 3];
+    float y = positions[index * 3 + 1];
+    float z = positions[index * 3 + 2];
+    float toleranceSquared = tolerance * tolerance;
+
+    for (int k = head; k != -1; k = nextInCell[k]) {
+      if (best != -1 && k >= best) continue;
+      float kx = kept[k * 3];
+      float ky = kept[k * 3 + 1];
+      float kz = kept[k * 3 + 2];
+      boolean matches;
+      if (tolerance == 0) {
+        matches =
+            Float.floatToIntBits(x) == Float.floatToIntBits(kx)
+                && Float.floatToIntBits(y) == Float.floatToIntBits(ky)
+                && Float.floatToIntBits(z) == Float.floatToIntBits(kz);
+      } else {
+        float dx = x - kx;
+        float dy = y - ky;
+        float dz = z - kz;
+        matches = dx * dx + dy * dy + dz * dz <= toleranceSquared;
+      }
+      if (matches) best = k;
+    }
+    return best;
+  }
+
+  private void insert(float[] positions, int index, long key, int keptIndex) {
+    kept[keptIndex * 3] = positions[index * 3];
+    kept[keptIndex * 3 + 1] = positions[index * 3 + 1];
+    kept[keptIndex * 3 + 2] = positions[index * 3 + 2];
+
+    nextInCell[keptIndex] = cellHeads.get(key);
+    cellHeads.put(key, keptIndex);
+  }
+
+  private void initializeGrid(int vertexCount) {
+    cellHeads = new LongIntHashMap(vertexCount);
+    nextInCell = new int[vertexCount];
+    kept = new float[vertexCount * 3];
+  }
+
+  private void releaseGrid() {
+    cellHeads = null;
+    nextInCell = null;
+    kept = null;
+  }
+
+  public float getTolerance() {
+    return tolerance;
+  }
+
+  /**
+   * Sets the maximum distance between merged vertices.
+   *
+   * @param tolerance the tolerance, zero for exact matches.
+   * @throws IllegalArgumentException if the tolerance is negative or not finite.
+   */
+  public void setTolerance(float tolerance) {
+    if (tolerance < 0 || !Float.isFinite(tolerance)) {
+      throw new IllegalArgumentException("Tolerance must be a finite value >= 0.");
+    }
+    this.tolerance = tolerance;
+  }
+
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+}
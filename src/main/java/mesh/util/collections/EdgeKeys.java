@@ -0,0 +1,56 @@
+package mesh.util.collections;
+
+/**
+ * Packs pairs of vertex indices into {@code long} keys for {@link LongIntHashMap} and {@link
+ * LongHashSet}.
+ *
+ * <p>A directed key keeps the order of the two indices, so the edges {@code (a, b)} and {@code (b,
+ * a)} get different keys. An undirected key sorts the indices first, so both directions share one
+ * key.
+ */
+public final class EdgeKeys {
+
+  private EdgeKeys() {}
+
+  /**
+   * Returns the key of the directed edge {@code fromIndex -> toIndex}.
+   *
+   * @param fromIndex the origin vertex.
+   * @param toIndex the target vertex.
+   * @return the packed key.
+   */
+  public static long directed(int fromIndex, int toIndex) {
+    return ((long) fromIndex << 32) | (toIndex & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Returns the key of the undirected edge between the two vertices.
+   *
+   * @param a one vertex.
+   * @param b the other vertex.
+   * @return the packed key, the same for {@code (a, b)} and {@code (b, a)}.
+   */
+  public static long undirected(int a, int b) {
+    return a < b ? directed(a, b) : directed(b, a);
+  }
+
+  /**
+   * Returns the key of the reversed edge.
+   *
+   * @param key a directed key.
+   * @return the key of the opposite direction.
+   */
+  public static long reverse(long key) {
+    return directed(to(key), from(key));
+  }
+
+  /** Returns the first index of a packed key. */
+  public static int from(long key) {
+    return (int) (key >>> 32);
+  }
+
+  /** Returns the second index of a packed key. */
+  public static int to(long key) {
+    return (int) key;
+  }
+}
@@ -0,0 +1,122 @@
+package mesh.util.collections;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of primitive {@code long} values.
+ *
+ * <p>Uses the same open addressing scheme as {@link LongIntHashMap}: a single {@code long} array
+ * with linear probing, no boxing and no per-element objects. Every {@code long} is a valid element.
+ * Elements cannot be removed individually.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @see EdgeKeys
+ */
+public class LongHashSet {
+
+  private static final long FREE = 0;
+
+  private long[] keys;
+
+  private int mask;
+
+  private int size;
+
+  private boolean hasFreeKey;
+
+  /** Creates an empty set with a small default capacity. */
+  public LongHashSet() {
+    this(4);
+  }
+
+  /**
+   * Creates an empty set that can hold the expected number of elements without rehashing.
+   *
+   * @param expectedSize the expected number of elements.
+   * @throws IllegalArgumentException if the expected size is negative.
+   */
+  public LongHashSet(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Expected size cannot be negative.");
+    }
+    allocate(LongIntHashMap.capacityFor(expectedSize));
+  }
+
+  /**
+   * Adds the value to the set.
+   *
+   * @param value the value to add.
+   * @return true if the value was not contained before.
+   */
+  public boolean add(long value) {
+    if (value == FREE) {
+      if (hasFreeKey) {
+        return false;
+      }
+      hasFreeKey = true;
+      size++;
+      return true;
+    }
+    int slot = slot(value);
+    if (keys[slot] == value) {
+      return false;
+    }
+    keys[slot] = value;
+    if (++size * 2 > keys.length) {
+      rehash(keys.length * 2);
+    }
+    return true;
+  }
+
+  public boolean contains(long value) {
+    if (value == FREE) {
+      return hasFreeKey;
+    }
+    return keys[slot(value)] == value;
+  }
+
+  /** Removes all elements and keeps the allocated capacity. */
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    hasFreeKey = false;
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private int slot(long value) {
+    int slot = mix(value) & mask;
+    while (keys[slot] != FREE && keys[slot] != value) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    mask = capacity - 1;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    allocate(capacity);
+    for (long key : oldKeys) {
+      if (key != FREE) {
+        keys[slot(key)] = key;
+      }
+    }
+  }
+
+  /** Spreads the bits of a key, so packed index pairs do not cluster in the table. */
+  static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
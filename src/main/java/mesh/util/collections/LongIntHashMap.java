@@ -0,0 +1,185 @@
+package mesh.util.collections;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive {@code long} keys to primitive {@code int} values.
+ *
+ * <p>Entries are stored in two parallel arrays with open addressing and linear probing, so neither
+ * keys nor values are boxed and no per-entry objects are allocated. Every {@code long} is a valid
+ * key. Lookups of absent keys return a configurable {@link #getNoValue() no value} marker, -1 by
+ * default. Entries cannot be removed individually; the map is meant to be filled during one pass
+ * of an algorithm and then cleared or dropped.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @see EdgeKeys
+ */
+public class LongIntHashMap {
+
+  /** Marks an empty slot. The key itself is stored separately. */
+  private static final long FREE = 0;
+
+  private static final int MIN_CAPACITY = 8;
+
+  private long[] keys;
+
+  private int[] values;
+
+  private int mask;
+
+  private int size;
+
+  private boolean hasFreeKey;
+
+  private int freeValue;
+
+  private final int noValue;
+
+  /** Creates an empty map with a small default capacity. */
+  public LongIntHashMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Creates an empty map that can hold the expected number of entries without rehashing.
+   *
+   * @param expectedSize the expected number of entries.
+   */
+  public LongIntHashMap(int expectedSize) {
+    this(expectedSize, -1);
+  }
+
+  /**
+   * Creates an empty map with the given capacity hint and absent value marker.
+   *
+   * @param expectedSize the expected number of entries.
+   * @param noValue the value returned by {@link #get(long)} for absent keys.
+   * @throws IllegalArgumentException if the expected size is negative.
+   */
+  public LongIntHashMap(int expectedSize, int noValue) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Expected size cannot be negative.");
+    }
+    this.noValue = noValue;
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * Returns the value mapped to the key.
+   *
+   * @param key the key.
+   * @return the value, or {@link #getNoValue()} if the key is absent.
+   */
+  public int get(long key) {
+    return getOrDefault(key, noValue);
+  }
+
+  /**
+   * Returns the value mapped to the key, or the given default if the key is absent.
+   *
+   * @param key the key.
+   * @param defaultValue the value to return for absent keys.
+   * @return the mapped value or the default.
+   */
+  public int getOrDefault(long key, int defaultValue) {
+    if (key == FREE) {
+      return hasFreeKey ? freeValue : defaultValue;
+    }
+    int slot = slot(key);
+    return keys[slot] == key ? values[slot] : defaultValue;
+  }
+
+  public boolean containsKey(long key) {
+    if (key == FREE) {
+      return hasFreeKey;
+    }
+    return keys[slot(key)] == key;
+  }
+
+  /**
+   * Maps the key to the value, replacing a previous mapping.
+   *
+   * @param key the key.
+   * @param value the value.
+   * @return the previous value, or {@link #getNoValue()} if the key was absent.
+   */
+  public int put(long key, int value) {
+    if (key == FREE) {
+      int previous = hasFreeKey ? freeValue : noValue;
+      if (!hasFreeKey) {
+        hasFreeKey = true;
+        size++;
+      }
+      freeValue = value;
+      return previous;
+    }
+    int slot = slot(key);
+    if (keys[slot] == key) {
+      int previous = values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size * 2 > keys.length) {
+      rehash(keys.length * 2);
+    }
+    return noValue;
+  }
+
+  /** Removes all entries and keeps the allocated capacity. */
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    hasFreeKey = false;
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int getNoValue() {
+    return noValue;
+  }
+
+  private int slot(long key) {
+    int slot = LongHashSet.mix(key) & mask;
+    while (keys[slot] != FREE && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /** Returns a power of two table length keeping the load factor at or below one half. */
+  static int capacityFor(int expectedSize) {
+    long capacity = Long.highestOneBit(Math.max(MIN_CAPACITY / 2, expectedSize) * 2L - 1) << 1;
+    if (capacity > 1 << 30) {
+      throw new IllegalArgumentException("Expected size is too large: " + expectedSize);
+    }
+    return (int) capacity;
+  }
+}
@@ -1,6 +1,10 @@
 package workspace;
 
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 
 import engine.processing.LightGizmoRenderer;
 import engine.processing.LightRendererImpl;
@@ -16,12 +20,17 @@ import engine.resources.TextureWrapMode;
 import engine.scene.camera.Camera;
 import engine.scene.light.Light;
 import engine.scene.light.LightRenderer;
+import engine.vbo.InstanceData;
+import engine.vbo.InstancedVBO;
+import engine.vbo.MergedInstancedVBO;
 import engine.vbo.VBO;
 import math.Matrix4f;
 import math.Vector2f;
 import math.Vector3f;
 import mesh.Face3D;
+import mesh.IndexedMesh3D;
 import mesh.Mesh3D;
+import mesh.PackedMesh3D;
 import processing.core.PApplet;
 import processing.core.PFont;
 import processing.core.PGraphics;
@@ -62,6 +71,15 @@ public class GraphicsPImpl implements Graphics {
 
   private ProcessingFontManager fontManager;
 
+  /** Indices of the quads of the mesh being drawn, reused between draw calls. */
+  private int[] quadFaces = new int[0];
+
+  /** Indices of the faces with more than four vertices of the mesh being drawn. */
+  private int[] polygonFaces = new int[0];
+
+  /** Instanced buffers of the meshes passed to renderInstances, released with their meshes. */
+  private final Map<Mesh3D, InstanceBatch> instanceBatches = new WeakHashMap<>();
+
   public GraphicsPImpl(PApplet p) {
     this.g = p.g;
     this.p = p;
@@ -110,6 +128,20 @@ public class GraphicsPImpl implements Graphics {
     }
   }
 
+  @Override
+  public void fillFaces(PackedMesh3D mesh) {
+    faceCount += mesh.getFaceCount();
+    vertexCount += mesh.getVertexCount();
+    if (wireframeMode) {
+      g.noFill();
+      stroke();
+    } else {
+      g.noStroke();
+      fill();
+    }
+    drawPackedMeshFaces(mesh);
+  }
+
   @Override
   public void drawFaces(Mesh3D mesh) {
     g.noFill();
@@ -126,42 +158,29 @@ public class GraphicsPImpl implements Graphics {
     vboProcessing.draw(g);
   }
 
-  @Override // TODO remove or fix
+  @Override
+  public void draw(InstancedVBO vbo) {
+    // Processing has no hardware instancing, its strategy always creates merged buffers.
+    MergedInstancedVBO merged = (MergedInstancedVBO) vbo;
+    draw(merged.getBuffer());
+  }
+
+  @Override
   public void renderInstances(Mesh3D mesh, List<Matrix4f> instanceTransforms) {
-    if (mesh.getFaces().isEmpty() || mesh.getVertices().isEmpty()) {
+    if (mesh.faces.isEmpty() || mesh.vertices.isEmpty()) {
       return;
     }
-
-    setColor(Color.WHITE);
-
-    for (Matrix4f transform : instanceTransforms) {
-      g.pushMatrix();
-      applyTransform(transform);
-      drawMeshFaces(mesh, true);
-      g.popMatrix();
+    InstanceBatch batch = instanceBatches.get(mesh);
+    if (batch == null || batch.modificationCount != mesh.getModificationCount()) {
+      batch = new InstanceBatch(mesh, new MergedInstancedVBO(new VBOProcessing(g)));
+      instanceBatches.put(mesh, batch);
     }
-  }
-
-  private void applyTransform(Matrix4f transform) {
-    float[] matrix = transform.getValues();
-
-    g.applyMatrix(
-        matrix[0],
-        matrix[1],
-        matrix[2],
-        matrix[3],
-        matrix[4],
-        matrix[5],
-        matrix[6],
-        matrix[7],
-        matrix[8],
-        matrix[9],
-        matrix[10],
-        matrix[11],
-        matrix[12],
-        matrix[13],
-        matrix[14],
-        matrix[15]);
+    batch.instances.setCount(instanceTransforms.size());
+    for (int i = 0; i < instanceTransforms.size(); i++) {
+      batch.instances.setTransform(i, instanceTransforms.get(i));
+    }
+    batch.vbo.update(batch.instances);
+    draw(batch.vbo);
   }
 
   @Override
@@ -256,31 +275,122 @@ public class GraphicsPImpl implements Graphics {
     }
   }
 
+  /**
+   * Submits the faces of the mesh in as few shapes as possible, see {@link #submitFaces(int,
+   * IntUnaryOperator, IntConsumer, boolean)}.
+   */
   private void drawMeshFaces(Mesh3D mesh, boolean texture) {
-    for (Face3D f : mesh.getFaces()) {
-      if (f.indices.length == 3) {
-        g.beginShape(PApplet.TRIANGLES);
-      } else if (f.indices.length == 4) {
-        g.beginShape(PApplet.QUADS);
+    List<Face3D> faces = mesh.faces;
+    submitFaces(
+        faces.size(),
+        face -> faces.get(face).indices.length,
+        face -> drawFaceVertices(mesh, faces.get(face)),
+        texture);
+  }
+
+  /** Submits the faces of the packed mesh like {@link #drawMeshFaces(Mesh3D, boolean)}. */
+  private void drawPackedMeshFaces(PackedMesh3D mesh) {
+    int[] offsets = mesh.getFaceOffsets();
+    submitFaces(
+        mesh.getFaceCount(),
+        face -> offsets[face + 1] - offsets[face],
+        face -> drawFaceVertices(mesh, face),
+        true);
+  }
+
+  /**
+   * Submits faces in as few shapes as possible. All triangles are emitted in a single {@code
+   * TRIANGLES} shape and all quads in a single {@code QUADS} shape; only faces with more than four
+   * vertices get a {@code POLYGON} shape each. Quads and polygons are bucketed by face index while
+   * the triangles are emitted.
+   *
+   * @param faceCount the number of faces
+   * @param arity returns the vertex count of a face
+   * @param vertices emits the vertices of a face
+   * @param texture whether the texture is applied to the shapes
+   */
+  private void submitFaces(
+      int faceCount, IntUnaryOperator arity, IntConsumer vertices, boolean texture) {
+    int quadCount = 0;
+    int polygonCount = 0;
+    boolean trianglesStarted = false;
+    if (quadFaces.length < faceCount) {
+      quadFaces = new int[faceCount];
+      polygonFaces = new int[faceCount];
+    }
+
+    for (int i = 0; i < faceCount; i++) {
+      int count = arity.applyAsInt(i);
+      if (count == 3) {
+        if (!trianglesStarted) {
+          beginShape(PApplet.TRIANGLES, texture);
+          trianglesStarted = true;
+        }
+        vertices.accept(i);
+      } else if (count == 4) {
+        quadFaces[quadCount++] = i;
       } else {
-        g.beginShape(PApplet.POLYGON);
+        polygonFaces[polygonCount++] = i;
       }
+    }
+    if (trianglesStarted) {
+      g.endShape();
+    }
 
-      if (texture) applyTexture();
-
-      int[] indices = f.indices;
-      for (int i = 0; i < indices.length; i++) {
-        Vector3f v = mesh.vertices.get(f.indices[i]);
-        int uvIndex = f.getUvIndexAt(i);
-        if (uvIndex != -1) {
-          Vector2f uv = mesh.getUvAt(uvIndex);
-          g.vertex(v.getX(), v.getY(), v.getZ(), uv.getX(), 1 - uv.getY());
-        } else {
-          g.vertex(v.getX(), v.getY(), v.getZ());
-        }
+    if (quadCount > 0) {
+      beginShape(PApplet.QUADS, texture);
+      for (int i = 0; i < quadCount; i++) {
+        vertices.accept(quadFaces[i]);
       }
       g.endShape();
     }
+
+    for (int i = 0; i < polygonCount; i++) {
+      beginShape(PApplet.POLYGON, texture);
+      vertices.accept(polygonFaces[i]);
+      g.endShape();
+    }
+  }
+
+  private void beginShape(int kind, boolean texture) {
+    g.beginShape(kind);
+    if (texture) applyTexture();
+  }
+
+  private void drawFaceVertices(Mesh3D mesh, Face3D f) {
+    int[] indices = f.indices;
+    for (int i = 0; i < indices.length; i++) {
+      Vector3f v = mesh.vertices.get(indices[i]);
+      int uvIndex = f.getUvIndexAt(i);
+      if (uvIndex != -1) {
+        Vector2f uv = mesh.getUvAt(uvIndex);
+        g.vertex(v.getX(), v.getY(), v.getZ(), uv.getX(), 1 - uv.getY());
+      } else {
+        g.vertex(v.getX(), v.getY(), v.getZ());
+      }
+    }
+  }
+
+  private void drawFaceVertices(PackedMesh3D mesh, int face) {
+    float[] positions = mesh.getPositions();
+    int[] indices = mesh.getFaceIndices();
+    int[] uvIndices = mesh.getFaceUvIndices();
+    float[] uvs = mesh.getUvs();
+    int end = mesh.getFaceOffsets()[face + 1];
+    for (int i = mesh.getFaceOffsets()[face]; i < end; i++) {
+      int offset = indices[i] * 3;
+      int uvIndex = uvIndices == null ? -1 : uvIndices[i];
+      if (uvIndex != -1) {
+        g.vertex(
+            positions[offset],
+            positions[offset + 1],
+            positions[offset + 2],
+            uvs[uvIndex * 2],
+            1 - uvs[uvIndex * 2 + 1]);
+      } else {
+        g.vertex(positions[offset], positions[offset + 1], positions[offset + 2]);
+      }
+    }
   }
 
   @Override
@@ -681,4 +791,21 @@ public class GraphicsPImpl implements Graphics {
   public void clear(math.Color color) {
     g.background(color.getRedInt(), color.getGreenInt(), color.getBlueInt(), color.getAlphaInt());
   }
+
+  /** The instanced buffer {@link #renderInstances(Mesh3D, List)} keeps for a mesh. */
+  private static class InstanceBatch {
+
+    private final InstanceData instances = new InstanceData();
+
+    private final InstancedVBO vbo;
+
+    /** {@link Mesh3D#getModificationCount()} at the time the mesh was uploaded. */
+    private final long modificationCount;
+
+    InstanceBatch(Mesh3D mesh, InstancedVBO vbo) {
+      this.vbo = vbo;
+      modificationCount = mesh.getModificationCount();
+      vbo.create(IndexedMesh3D.fromMesh(mesh), Material.DEFAULT_WHITE);
+    }
+  }
 }
@@ -2,7 +2,6 @@ package workspace;
 
 import math.Vector3f;
 import mesh.Mesh3D;
-import mesh.util.VertexNormals;
 import processing.core.PApplet;
 import processing.event.KeyEvent;
 import processing.event.MouseEvent;
@@ -198,8 +197,7 @@ public class Workspace extends Editor implements ModelListener {
 
     if (isVertexNormalsVisible()) {
       p.stroke(35, 97, 221);
-      VertexNormals normals = new VertexNormals(mesh);
-      renderer.drawVertexNormals(mesh, normals.getVertexNormals());
+      renderer.drawVertexNormals(mesh);
     }
     p.popStyle();
   }
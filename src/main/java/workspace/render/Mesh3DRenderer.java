@@ -8,7 +8,7 @@ import mesh.Face3D;
 import mesh.Mesh3D;
 import mesh.modifier.UpdateFaceNormalsModifier;
 import mesh.selection.FaceSelection;
-import mesh.util.VertexNormals;
+import mesh.util.VertexNormalCache;
 import processing.core.PApplet;
 import processing.opengl.PGraphics3D;
 
@@ -16,6 +16,9 @@ public class Mesh3DRenderer {
 
   private PApplet context;
 
+  /** Vertex normals of the last mesh drawn smooth or with vertex normals. */
+  private VertexNormalCache normalCache;
+
   public Mesh3DRenderer(PApplet context) {
     this.context = context;
   }
@@ -63,6 +66,29 @@ public class Mesh3DRenderer {
     drawFaceNormals(mesh, 0.1f);
   }
 
+  /**
+   * Draws the cached vertex normals of the given mesh. The normals are only recomputed when the
+   * mesh was modified since the last call.
+   *
+   * @param mesh the mesh.
+   */
+  public void drawVertexNormals(Mesh3D mesh) {
+    float length = 0.1f;
+    float[] normals = getNormalCache(mesh).getNormals();
+    context.pushMatrix();
+    context.beginShape(PApplet.LINES);
+    for (int i = 0; i < mesh.vertices.size(); i++) {
+      Vector3f v = mesh.vertices.get(i);
+      context.vertex(v.getX(), v.getY(), v.getZ());
+      context.vertex(
+          v.getX() + normals[i * 3] * length,
+          v.getY() + normals[i * 3 + 1] * length,
+          v.getZ() + normals[i * 3 + 2] * length);
+    }
+    context.endShape();
+    context.popMatrix();
+  }
+
   public void drawVertexNormals(Mesh3D mesh, List<Vector3f> normals) {
     float length = 0.1f;
     context.pushMatrix();
@@ -91,9 +117,11 @@ public class Mesh3DRenderer {
   private void drawFacesSmooth(Mesh3D mesh, Collection<Face3D> faces) {
     context.pushMatrix();
 
-    mesh.apply(new UpdateFaceNormalsModifier());
-
-    VertexNormals normals = new VertexNormals(mesh);
+    VertexNormalCache normalCache = getNormalCache(mesh);
+    if (normalCache.update()) {
+      new UpdateFaceNormalsModifier().modify(mesh);
+    }
+    float[] normals = normalCache.getNormals();
 
     for (Face3D f : faces) {
       Vector3f v;
@@ -114,9 +142,9 @@ public class Mesh3DRenderer {
       context.normal(fn.getX(), fn.getY(), fn.getZ());
 
       for (int i = 0; i < f.indices.length; i++) {
-        Vector3f vn = normals.getVertexNormals().get(f.indices[i]);
-        v = mesh.vertices.get(f.indices[i]);
-        context.normal(vn.getX(), vn.getY(), vn.getZ());
+        int index = f.indices[i];
+        v = mesh.vertices.get(index);
+        context.normal(normals[index * 3], normals[index * 3 + 1], normals[index * 3 + 2]);
         context.vertex(v.getX(), v.getY(), v.getZ());
       }
 
@@ -130,6 +158,13 @@ public class Mesh3DRenderer {
     context.popMatrix();
   }
 
+  private VertexNormalCache getNormalCache(Mesh3D mesh) {
+    if (normalCache == null || normalCache.getMesh() != mesh) {
+      normalCache = new VertexNormalCache(mesh);
+    }
+    return normalCache;
+  }
+
   //	private void drawFacesFlat(PGraphics3D context, Mesh3D mesh,
   //	    Collection<Face3D> faces) {
   //		context.pushMatrix();
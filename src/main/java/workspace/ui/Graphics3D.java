@@ -6,9 +6,11 @@ import engine.render.Material;
 import engine.resources.Texture;
 import engine.scene.camera.Camera;
 import engine.scene.light.Light;
+import engine.vbo.InstancedVBO;
 import engine.vbo.VBO;
 import math.Matrix4f;
 import mesh.Mesh3D;
+import mesh.PackedMesh3D;
 
 public interface Graphics3D extends Graphics2D {
 
@@ -29,9 +31,25 @@ public interface Graphics3D extends Graphics2D {
   void drawFaces(Mesh3D mesh);
   
   void fillFaces(Mesh3D mesh);
+
+  void fillFaces(PackedMesh3D mesh);
   
   void draw(VBO vbo);
 
+  /**
+   * Draws all instances of an instanced buffer in one batch.
+   *
+   * @param vbo the instanced buffer, updated for the current frame
+   */
+  void draw(InstancedVBO vbo);
+
+  /**
+   * Draws the mesh once per transform as one batch. The instanced buffer of the mesh is kept
+   * between calls, transforms equal to those of the previous call are not uploaded again.
+   *
+   * @param mesh the mesh to draw
+   * @param instanceTransforms the transform of every instance
+   */
   void renderInstances(Mesh3D mesh, List<Matrix4f> instanceTransforms);
 
   void setShader(String vertexShaderName, String fragmentShaderName);
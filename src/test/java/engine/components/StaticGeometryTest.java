@@ -0,0 +1,122 @@
+package engine.components;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import engine.vbo.RecordingVBO;
+import engine.vbo.RecordingVBOCreationStrategy;
+import engine.vbo.VBOCreationStrategy;
+import engine.vbo.VBOFactory;
+import math.Vector3f;
+import mesh.IndexedMesh3D;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+import workspace.ui.Graphics;
+
+public class StaticGeometryTest {
+
+  private VBOCreationStrategy previous;
+
+  private RecordingVBOCreationStrategy strategy;
+
+  private Mesh3D cube;
+
+  private StaticGeometry geometry;
+
+  private RecordingVBO vbo;
+
+  private Graphics g;
+
+  @BeforeEach
+  public void setUp() {
+    previous = VBOFactory.getInstance().getVBOCreationStrategy();
+    strategy = new RecordingVBOCreationStrategy();
+    VBOFactory.getInstance().setVBOCreationStrategy(strategy);
+    cube = new CubeCreator().create();
+    geometry = new StaticGeometry(cube);
+    vbo = strategy.getCreated().get(0);
+    g =
+        (Graphics)
+            Proxy.newProxyInstance(
+                Graphics.class.getClassLoader(),
+                new Class<?>[] {Graphics.class},
+                (proxy, method, args) -> null);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    VBOFactory.getInstance().setVBOCreationStrategy(previous);
+  }
+
+  @Test
+  public void movingOneVertexUpdatesOnlyItsSpan() {
+    int[] positionIndices = IndexedMesh3D.fromMesh(cube).getPositionIndices();
+    int first = -1;
+    int last = -1;
+    for (int i = 0; i < positionIndices.length; i++) {
+      if (positionIndices[i] == 5) {
+        first = first < 0 ? i : first;
+        last = i;
+      }
+    }
+    assertTrue(last - first + 1 < positionIndices.length);
+
+    cube.getVertexAt(5).addLocal(0, 1, 0);
+    cube.markPositionsChanged();
+    geometry.render(g);
+
+    assertEquals(1, vbo.getCreateCount());
+    assertEquals(1, vbo.getUpdates().size());
+    assertArrayEquals(new int[] {first, last}, vbo.getUpdates().get(0));
+    float y = vbo.getVertexData()[first * vbo.getStride() + 1];
+    assertEquals(cube.getVertexAt(5).getY(), y, 0);
+  }
+
+  @Test
+  public void versionChangeWithoutMovedVerticesUploadsNothing() {
+    cube.markPositionsChanged();
+    geometry.render(g);
+    assertTrue(vbo.getUpdates().isEmpty());
+  }
+
+  @Test
+  public void unchangedMeshUploadsNothing() {
+    geometry.render(g);
+    geometry.render(g);
+    assertEquals(1, vbo.getCreateCount());
+    assertTrue(vbo.getUpdates().isEmpty());
+  }
+
+  @Test
+  public void topologyChangeRecreatesTheBuffer() {
+    cube.addFace(0, 1, 2);
+    geometry.render(g);
+    assertEquals(2, vbo.getCreateCount());
+    assertTrue(vbo.getUpdates().isEmpty());
+  }
+
+  @Test
+  public void movingEveryVertexUpdatesTheWholeBuffer() {
+    for (Vector3f vertex : cube.getVertices()) {
+      vertex.addLocal(1, 0, 0);
+    }
+    cube.markPositionsChanged();
+    geometry.render(g);
+    assertArrayEquals(new int[] {0, vbo.getVertexCount() - 1}, vbo.getUpdates().get(0));
+  }
+
+  @Test
+  public void boundsFollowTheMeshWithoutUploading() {
+    cube.getVertexAt(5).addLocal(0, 10, 0);
+    cube.markPositionsChanged();
+    assertEquals(cube.getVertexAt(5).getY(), geometry.getBounds().getMax().getY(), 0);
+    assertTrue(vbo.getUpdates().isEmpty());
+  }
+}
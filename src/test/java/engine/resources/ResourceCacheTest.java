@@ -0,0 +1,193 @@
+package engine.resources;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ResourceCacheTest {
+
+  private List<String> released;
+
+  private ResourceCache<Resource> cache;
+
+  private int loadCount;
+
+  @BeforeEach
+  public void setUp() {
+    released = new ArrayList<>();
+    cache = new ResourceCache<>(300, resource -> resource.size, r -> released.add(r.path));
+  }
+
+  private Resource load(String path) {
+    return cache.get(path, this::complete).join();
+  }
+
+  private CompletableFuture<Resource> complete(String path) {
+    loadCount++;
+    return CompletableFuture.completedFuture(new Resource(path, 100));
+  }
+
+  @Test
+  public void concurrentRequestsShareOneLoad() {
+    CompletableFuture<Resource> pending = new CompletableFuture<>();
+    CompletableFuture<Resource> first = cache.get("a", path -> pending);
+    CompletableFuture<Resource> second =
+        cache.get(
+            "a",
+            path -> {
+              throw new AssertionError("loaded twice");
+            });
+    assertSame(first, second);
+    assertFalse(first.isDone());
+
+    pending.complete(new Resource("a", 100));
+    assertSame(first.join(), second.join());
+    assertEquals(1, cache.getStatistics().getMissCount());
+    assertEquals(1, cache.getStatistics().getHitCount());
+    assertEquals(100, cache.getStatistics().getSize());
+  }
+
+  @Test
+  public void failedLoadsAreRetried() {
+    CompletableFuture<Resource> failed =
+        cache.get("a", path -> CompletableFuture.failedFuture(new IllegalStateException()));
+    assertTrue(failed.isCompletedExceptionally());
+    assertFalse(cache.contains("a"));
+
+    assertEquals("a", load("a").path);
+    assertEquals(1, loadCount);
+    assertTrue(cache.contains("a"));
+  }
+
+  @Test
+  public void loaderExceptionsFailTheFuture() {
+    CompletableFuture<Resource> failed =
+        cache.get(
+            "a",
+            path -> {
+              throw new IllegalStateException();
+            });
+    assertTrue(failed.isCompletedExceptionally());
+    assertFalse(cache.contains("a"));
+  }
+
+  @Test
+  public void lruEvictsTheLeastRecentlyRequested() {
+    load("a");
+    load("b");
+    load("c");
+    load("a");
+    load("d");
+
+    assertEquals(Arrays.asList("b"), released);
+    assertFalse(cache.contains("b"));
+    assertEquals(1, cache.getStatistics().getEvictionCount());
+    assertEquals(300, cache.getStatistics().getSize());
+  }
+
+  @Test
+  public void lfuEvictsTheLeastOftenRequested() {
+    cache.setEvictionPolicy(EvictionPolicy.LFU);
+    load("a");
+    load("a");
+    load("b");
+    load("b");
+    load("c");
+    load("d");
+
+    assertEquals(Arrays.asList("c"), released);
+  }
+
+  @Test
+  public void pinnedResourcesAreNotEvicted() {
+    load("a");
+    assertTrue(cache.pin("a"));
+    assertTrue(cache.pin("a"));
+    load("b");
+    load("c");
+    load("d");
+    assertEquals(Arrays.asList("b"), released);
+
+    cache.setMemoryBudget(0);
+    assertEquals(Arrays.asList("b", "c", "d"), released);
+    assertTrue(cache.contains("a"));
+
+    cache.unpin("a");
+    assertTrue(cache.contains("a"));
+    cache.unpin("a");
+    assertFalse(cache.contains("a"));
+    assertEquals(Arrays.asList("b", "c", "d", "a"), released);
+  }
+
+  @Test
+  public void releasingTheLastPinCountsAsUse() {
+    load("a");
+    cache.pin("a");
+    load("b");
+    load("c");
+    cache.unpin("a");
+    load("d");
+
+    // a was held until after b and c were requested.
+    assertEquals(Arrays.asList("b"), released);
+  }
+
+  @Test
+  public void resourcesArePinnedByIdentity() {
+    Resource a = load("a");
+    assertTrue(cache.pinResource(a));
+    assertFalse(cache.pinResource(new Resource("a", 100)));
+
+    cache.setMemoryBudget(0);
+    assertTrue(cache.contains("a"));
+    cache.unpinResource(a);
+    assertFalse(cache.contains("a"));
+    assertFalse(cache.pinResource(a));
+  }
+
+  @Test
+  public void lowerBudgetEvictsAndHigherBudgetKeeps() {
+    load("a");
+    load("b");
+    load("c");
+    cache.setMemoryBudget(1000);
+    assertTrue(released.isEmpty());
+
+    cache.setMemoryBudget(150);
+    assertEquals(Arrays.asList("a", "b"), released);
+    assertEquals(100, cache.getStatistics().getSize());
+    assertThrows(IllegalArgumentException.class, () -> cache.setMemoryBudget(-1));
+  }
+
+  @Test
+  public void removeReleasesEvenPinnedResources() {
+    load("a");
+    cache.pin("a");
+    cache.remove("a");
+    assertEquals(Arrays.asList("a"), released);
+    assertFalse(cache.contains("a"));
+    assertEquals(0, cache.getStatistics().getSize());
+  }
+
+  private static class Resource {
+
+    private final String path;
+
+    private final long size;
+
+    Resource(String path, long size) {
+      this.path = path;
+      this.size = size;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package engine.resources;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+public class ResourceLoaderTest {
+
+  @Test
+  public void awaitBeforeFirstFrameRunsMainThreadTasks() {
+    ResourceLoader loader = new ResourceLoader(1);
+    CompletableFuture<String> future =
+        loader
+            .supplyAsync(() -> "decoded")
+            .thenApplyAsync(value -> value + " uploaded", loader.getMainThreadExecutor());
+
+    // Without a main thread this waits forever, nothing else runs the upload task.
+    assertEquals("decoded uploaded", loader.await(future));
+    assertEquals(0, loader.getPendingMainThreadTaskCount());
+  }
+
+  @Test
+  public void awaitRethrowsTheCauseOfAFailedLoad() {
+    ResourceLoader loader = new ResourceLoader(1);
+    CompletableFuture<String> future =
+        loader.supplyAsync(
+            () -> {
+              throw new IllegalStateException("broken");
+            });
+    assertThrows(IllegalStateException.class, () -> loader.await(future));
+  }
+
+  @Test
+  public void workerCountMustBePositive() {
+    assertThrows(IllegalArgumentException.class, () -> new ResourceLoader(0));
+  }
+}
@@ -0,0 +1,68 @@
+package engine.vbo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Color;
+import math.Matrix4f;
+
+public class InstanceDataTest {
+
+  private InstanceData instances;
+
+  @BeforeEach
+  public void setUp() {
+    instances = new InstanceData(2);
+    for (int i = 0; i < 5; i++) {
+      instances.add(Matrix4f.createTranslation(i, 0, 0));
+    }
+    instances.markClean();
+  }
+
+  @Test
+  public void addGrowsAndDefaultsToWhite() {
+    assertEquals(5, instances.getCount());
+    assertEquals(0xFFFFFFFF, instances.getColors()[4]);
+    assertEquals(4, instances.getTransforms()[4 * 16 + 3], 0);
+  }
+
+  @Test
+  public void changesAreTrackedAsOneDirtyRange() {
+    instances.setColor(1, Color.RED);
+    instances.setTransform(3, Matrix4f.createTranslation(0, 1, 0));
+    assertTrue(instances.isDirty());
+    assertEquals(1, instances.getDirtyStart());
+    assertEquals(4, instances.getDirtyEnd());
+  }
+
+  @Test
+  public void settingEqualValuesMarksNothing() {
+    instances.setTransform(2, Matrix4f.createTranslation(2, 0, 0));
+    instances.setColor(2, null);
+    assertFalse(instances.isDirty());
+  }
+
+  @Test
+  public void removeMovesTheLastInstance() {
+    instances.remove(1);
+    assertEquals(4, instances.getCount());
+    assertEquals(4, instances.getTransforms()[16 + 3], 0);
+    assertEquals(1, instances.getDirtyStart());
+    assertEquals(2, instances.getDirtyEnd());
+  }
+
+  @Test
+  public void setCountFillsWithIdentity() {
+    instances.setCount(7);
+    assertEquals(1, instances.getTransforms()[6 * 16], 0);
+    assertEquals(0, instances.getTransforms()[6 * 16 + 3], 0);
+    assertEquals(5, instances.getDirtyStart());
+    assertEquals(7, instances.getDirtyEnd());
+    assertThrows(IndexOutOfBoundsException.class, () -> instances.setColor(7, Color.RED));
+  }
+}
@@ -0,0 +1,89 @@
+package engine.vbo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import engine.render.Material;
+import math.Color;
+import math.Matrix4f;
+import mesh.IndexedMesh3D;
+import mesh.creator.primitives.CubeCreator;
+
+public class MergedInstancedVBOTest {
+
+  private RecordingVBO buffer;
+
+  private MergedInstancedVBO vbo;
+
+  private InstanceData instances;
+
+  private int vertexCount;
+
+  @BeforeEach
+  public void setUp() {
+    IndexedMesh3D mesh = IndexedMesh3D.fromMesh(new CubeCreator().create());
+    vertexCount = mesh.getVertexCount();
+    buffer = new RecordingVBO();
+    vbo = new MergedInstancedVBO(buffer);
+    vbo.create(mesh, new Material(Color.RED));
+    instances = new InstanceData();
+    for (int i = 0; i < 10; i++) {
+      instances.add(Matrix4f.createTranslation(i, 0, 0));
+    }
+  }
+
+  @Test
+  public void uncoloredInstancesKeepTheMaterialColor() {
+    vbo.update(instances);
+    int[] expected = new int[10 * vertexCount];
+    Arrays.fill(expected, Color.RED.getRGBA());
+    assertEquals(Arrays.toString(expected), Arrays.toString(buffer.getColors()));
+  }
+
+  @Test
+  public void instanceColorsTintTheMaterialColor() {
+    instances.setColor(3, new Color(0.5f, 1, 1));
+    vbo.update(instances);
+    int[] colors = buffer.getColors();
+    assertEquals(0xFF800000, colors[3 * vertexCount]);
+    assertEquals(Color.RED.getRGBA(), colors[4 * vertexCount]);
+  }
+
+  @Test
+  public void mergesAllInstancesIntoOneBuffer() {
+    vbo.update(instances);
+    assertEquals(1, buffer.getCreateCount());
+    assertEquals(10 * vertexCount, buffer.getVertexCount());
+    assertEquals(10, vbo.getInstanceCount());
+    // The first instance is not moved, the last one is moved by 9 along x.
+    float[] data = buffer.getVertexData();
+    assertEquals(data[0] + 9, data[9 * vertexCount * buffer.getStride()], 1e-6f);
+  }
+
+  @Test
+  public void changedInstancesAreUploadedAsOneRange() {
+    vbo.update(instances);
+    instances.setTransform(5, Matrix4f.createTranslation(0, 1, 0));
+    instances.setTransform(6, Matrix4f.createTranslation(0, 2, 0));
+    vbo.update(instances);
+
+    assertEquals(1, buffer.getCreateCount());
+    assertEquals(1, buffer.getUpdates().size());
+    assertEquals(5 * vertexCount, buffer.getUpdates().get(0)[0]);
+    assertEquals(7 * vertexCount - 1, buffer.getUpdates().get(0)[1]);
+  }
+
+  @Test
+  public void refillingUnchangedInstancesUploadsNothing() {
+    vbo.update(instances);
+    for (int i = 0; i < 10; i++) {
+      instances.setTransform(i, Matrix4f.createTranslation(i, 0, 0));
+    }
+    vbo.update(instances);
+    assertEquals(0, buffer.getUpdates().size());
+  }
+}
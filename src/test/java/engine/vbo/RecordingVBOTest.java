@@ -0,0 +1,75 @@
+package engine.vbo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import engine.render.Material;
+import mesh.IndexedMesh3D;
+import mesh.creator.primitives.CubeCreator;
+
+public class RecordingVBOTest {
+
+  private RecordingVBO vbo;
+
+  private IndexedMesh3D mesh;
+
+  @BeforeEach
+  public void setUp() {
+    mesh = IndexedMesh3D.fromMesh(new CubeCreator().create());
+    vbo = new RecordingVBO();
+    vbo.create(mesh, Material.DEFAULT_WHITE, BufferUsage.DYNAMIC);
+  }
+
+  @Test
+  public void createUploadsEveryVertexOnce() {
+    assertEquals(1, vbo.getCreateCount());
+    assertEquals(mesh.getVertexCount(), vbo.getUploadedVertexCount());
+    assertEquals(BufferUsage.DYNAMIC, vbo.getUsage());
+    assertTrue(vbo.getUpdates().isEmpty());
+  }
+
+  @Test
+  public void rangeUpdateReportsOnlyTheTouchedVertices() {
+    int stride = vbo.getStride();
+    float[] data = new float[stride + 1];
+    vbo.updateRange(2 * stride + 1, data);
+
+    assertEquals(1, vbo.getUpdates().size());
+    assertArrayEquals(new int[] {2, 3}, vbo.getUpdates().get(0));
+    assertEquals(mesh.getVertexCount() + 2, vbo.getUploadedVertexCount());
+    assertEquals(0, vbo.getVertexData()[3 * stride + 1]);
+  }
+
+  @Test
+  public void updateDataReportsTheWholeBuffer() {
+    vbo.updateData(new float[mesh.getVertexData().length]);
+    assertArrayEquals(new int[] {0, mesh.getVertexCount() - 1}, vbo.getUpdates().get(0));
+  }
+
+  @Test
+  public void emptyRangeUploadsNothing() {
+    vbo.updateRange(0, new float[0]);
+    assertTrue(vbo.getUpdates().isEmpty());
+  }
+
+  @Test
+  public void rangeOutsideTheBufferIsRejected() {
+    float[] data = new float[vbo.getStride()];
+    int length = vbo.getVertexData().length;
+    assertThrows(IllegalArgumentException.class, () -> vbo.updateRange(length, data));
+    assertThrows(IllegalArgumentException.class, () -> vbo.updateRange(-1, data));
+    assertThrows(IllegalArgumentException.class, () -> vbo.updateRange(0, null));
+  }
+
+  @Test
+  public void deletedBufferCannotBeUpdated() {
+    vbo.delete();
+    assertTrue(vbo.isDeleted());
+    assertThrows(IllegalStateException.class, () -> vbo.updateRange(0, new float[3]));
+  }
+}
@@ -0,0 +1,133 @@
+package math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BoundsTreeTest {
+
+  private Random random;
+
+  private BoundsTree<Integer> tree;
+
+  private List<Bounds> bounds;
+
+  private List<Integer> proxies;
+
+  @BeforeEach
+  public void setUp() {
+    random = new Random(7);
+    tree = new BoundsTree<>();
+    bounds = new ArrayList<>();
+    proxies = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      bounds.add(randomBox());
+      proxies.add(tree.insert(bounds.get(i), i));
+    }
+  }
+
+  private Bounds randomBox() {
+    Vector3f min =
+        new Vector3f(
+            random.nextFloat() * 200 - 100,
+            random.nextFloat() * 200 - 100,
+            random.nextFloat() * 200 - 100);
+    Vector3f size = new Vector3f(random.nextFloat() * 5, random.nextFloat() * 5, 0.1f);
+    return new Bounds(min, min.add(size));
+  }
+
+  /** Compares every kind of query against a linear scan over the live boxes. */
+  private void assertQueriesMatchLinearScan() {
+    for (int q = 0; q < 50; q++) {
+      Bounds box = randomBox();
+      box.expand(20);
+      Set<Integer> expected = new HashSet<>();
+      Set<Integer> actual = new HashSet<>();
+      for (int i = 0; i < bounds.size(); i++) {
+        if (bounds.get(i) != null && bounds.get(i).intersects(box)) {
+          expected.add(i);
+        }
+      }
+      tree.query(box, actual::add);
+      assertEquals(expected, actual);
+
+      Vector3f center = box.getMin();
+      expected.clear();
+      actual.clear();
+      for (int i = 0; i < bounds.size(); i++) {
+        if (bounds.get(i) != null && bounds.get(i).sqrDistance(center) <= 15 * 15) {
+          expected.add(i);
+        }
+      }
+      tree.query(center, 15, actual::add);
+      assertEquals(expected, actual);
+
+      Ray3f ray = new Ray3f(new Vector3f(-120, center.y, center.z), new Vector3f(1, 0.05f, 0.02f));
+      expected.clear();
+      actual.clear();
+      for (int i = 0; i < bounds.size(); i++) {
+        if (bounds.get(i) != null && bounds.get(i).intersectsRay(ray)) {
+          expected.add(i);
+        }
+      }
+      tree.raycast(ray, Float.POSITIVE_INFINITY, (item, distance) -> actual.add(item));
+      assertEquals(expected, actual);
+    }
+    assertEquals(bounds.stream().filter(b -> b != null).count(), tree.size());
+  }
+
+  @Test
+  public void queriesMatchLinearScan() {
+    assertQueriesMatchLinearScan();
+  }
+
+  @Test
+  public void queriesMatchLinearScanAfterMovesAndRemoves() {
+    for (int i = 0; i < bounds.size(); i++) {
+      if (i % 3 == 0) {
+        tree.remove(proxies.get(i));
+        bounds.set(i, null);
+      } else if (i % 3 == 1) {
+        bounds.set(i, randomBox());
+        tree.move(proxies.get(i), bounds.get(i));
+      }
+    }
+    assertQueriesMatchLinearScan();
+    assertThrows(IllegalArgumentException.class, () -> tree.remove(proxies.get(0)));
+  }
+
+  @Test
+  public void smallMovesKeepTheTree() {
+    Bounds moved = new Bounds(bounds.get(1).getMin(), bounds.get(1).getMax());
+    moved.getMin().addLocal(0.01f, 0, 0);
+    moved.getMax().addLocal(0.01f, 0, 0);
+    assertEquals(false, tree.move(proxies.get(1), moved));
+    moved.getMin().addLocal(50, 0, 0);
+    moved.getMax().addLocal(50, 0, 0);
+    assertEquals(true, tree.move(proxies.get(1), moved));
+  }
+
+  @Test
+  public void sortedInsertsStayLogarithmic() {
+    BoundsTree<Integer> grid = new BoundsTree<>();
+    int side = 100;
+    for (int i = 0; i < side * side * 10; i++) {
+      Vector3f min = new Vector3f(i % side, (i / side) % side, i / (side * side));
+      grid.insert(new Bounds(min, min.add(new Vector3f(0.5f, 0.5f, 0.5f))), i);
+    }
+    // A balanced tree over 100k leaves has height 17.
+    assertTrue(grid.getHeight() < 40, "height " + grid.getHeight());
+    List<Integer> hits = new ArrayList<>();
+    grid.query(new Vector3f(50, 50, 5), 1, hits::add);
+    assertEquals(11, hits.size());
+  }
+}
@@ -0,0 +1,59 @@
+package math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FrustumTest {
+
+  private Frustum frustum;
+
+  /** A camera at the origin looking down -z with a 90 degree field of view. */
+  @BeforeEach
+  public void setUp() {
+    Matrix4f view = Matrix4f.lookAt(new Vector3f(), new Vector3f(0, 0, -1), new Vector3f(0, 1, 0));
+    Matrix4f projection =
+        new Matrix4f(Matrix4.perspective(Mathf.HALF_PI, 1, 0.1f, 100).getValues());
+    frustum = new Frustum(projection.multiply(view));
+  }
+
+  private static Bounds box(float x, float y, float z, float halfSize) {
+    return new Bounds(
+        new Vector3f(x - halfSize, y - halfSize, z - halfSize),
+        new Vector3f(x + halfSize, y + halfSize, z + halfSize));
+  }
+
+  @Test
+  public void boxInFrontIsVisible() {
+    assertTrue(frustum.intersects(box(0, 0, -10, 1)));
+    assertTrue(frustum.contains(new Vector3f(0, 0, -10)));
+  }
+
+  @Test
+  public void boxesBehindBesideAndBeyondAreCulled() {
+    assertFalse(frustum.intersects(box(0, 0, 10, 1)));
+    assertFalse(frustum.intersects(box(-30, 0, -10, 1)));
+    assertFalse(frustum.intersects(box(0, 30, -10, 1)));
+    assertFalse(frustum.intersects(box(0, 0, -200, 1)));
+  }
+
+  @Test
+  public void boxStraddlingAPlaneIsVisible() {
+    assertTrue(frustum.intersects(box(-10, 0, -10, 1)));
+    assertTrue(frustum.intersects(box(0, 0, 0, 1)));
+  }
+
+  @Test
+  public void transformedBoundsEncloseTransformedCorners() {
+    Matrix4f matrix = Matrix4f.createTranslation(5, 0, 0).rotateY(Mathf.QUARTER_PI);
+    Bounds bounds = new Bounds(new Vector3f(-1, -1, -1), new Vector3f(1, 1, 1)).transform(matrix);
+    float extent = Mathf.sqrt(2);
+    assertEquals(5 - extent, bounds.getMin().x, 1e-5f);
+    assertEquals(5 + extent, bounds.getMax().x, 1e-5f);
+    assertEquals(-1, bounds.getMin().y, 1e-5f);
+    assertEquals(extent, bounds.getMax().z, 1e-5f);
+  }
+}
@@ -0,0 +1,107 @@
+package mesh;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+
+public class IndexedMesh3DTest {
+
+  /** Triangulates the faces of the mesh with a builder, the n-th new corner becomes vertex n. */
+  private IndexedMesh3D triangulate(Mesh3D mesh) {
+    float[] positions = new float[mesh.getVertexCount() * 3];
+    for (int i = 0; i < mesh.getVertexCount(); i++) {
+      Vector3f v = mesh.getVertexAt(i);
+      positions[i * 3] = v.getX();
+      positions[i * 3 + 1] = v.getY();
+      positions[i * 3 + 2] = v.getZ();
+    }
+    IndexedMesh3D.Builder builder = new IndexedMesh3D.Builder(positions, null, null);
+    int[] vertices = new int[mesh.getVertexCount()];
+    for (Face3D face : mesh.getFaces()) {
+      for (int i = 0; i < face.indices.length; i++) {
+        vertices[i] = builder.addCorner(face.indices[i], -1, -1);
+      }
+      builder.addPolygon(vertices, 0, face.indices.length);
+    }
+    return builder.build();
+  }
+
+  /** Signed area of the triangles in the xy-plane, positive for counterclockwise triangles. */
+  private float signedArea(IndexedMesh3D mesh, int triangle) {
+    float[] data = mesh.getVertexData();
+    int stride = mesh.getStride();
+    int a = mesh.getIndices()[triangle * 3] * stride;
+    int b = mesh.getIndices()[triangle * 3 + 1] * stride;
+    int c = mesh.getIndices()[triangle * 3 + 2] * stride;
+    return ((data[b] - data[a]) * (data[c + 1] - data[a + 1])
+            - (data[b + 1] - data[a + 1]) * (data[c] - data[a]))
+        / 2;
+  }
+
+  @Test
+  public void convexPolygonsBecomeFans() {
+    Mesh3D mesh = new Mesh3D();
+    mesh.addVertex(0, 0, 0);
+    mesh.addVertex(1, 0, 0);
+    mesh.addVertex(1, 1, 0);
+    mesh.addVertex(0, 1, 0);
+    mesh.addFace(0, 1, 2, 3);
+
+    IndexedMesh3D indexed = triangulate(mesh);
+    assertArrayEquals(new int[] {0, 1, 2, 0, 2, 3}, indexed.getIndices());
+    assertEquals(1, indexed.getFaceCount());
+  }
+
+  @Test
+  public void concavePolygonsAreCoveredExactly() {
+    // An arrow head whose fan from the first corner would leave the polygon.
+    Mesh3D mesh = new Mesh3D();
+    mesh.addVertex(0, 0, 0);
+    mesh.addVertex(2, 1, 0);
+    mesh.addVertex(4, 0, 0);
+    mesh.addVertex(2, 3, 0);
+    mesh.addFace(0, 1, 2, 3);
+
+    IndexedMesh3D indexed = triangulate(mesh);
+    assertEquals(2, indexed.getIndices().length / 3);
+    float area = 0;
+    for (int i = 0; i < 2; i++) {
+      float triangle = signedArea(indexed, i);
+      assertTrue(triangle > 0, "triangle " + i + " is flipped");
+      area += triangle;
+    }
+    assertEquals(4, area, 1e-6f);
+  }
+
+  @Test
+  public void concavePolygonsKeepTheirWindingInAnyPlane() {
+    // An L shape in the xz-plane, wound clockwise when seen from above.
+    Mesh3D mesh = new Mesh3D();
+    mesh.addVertex(0, 0, 0);
+    mesh.addVertex(0, 0, 2);
+    mesh.addVertex(1, 0, 2);
+    mesh.addVertex(1, 0, 1);
+    mesh.addVertex(2, 0, 1);
+    mesh.addVertex(2, 0, 0);
+    mesh.addFace(0, 1, 2, 3, 4, 5);
+    Vector3f normal = mesh.calculateFaceNormal(mesh.getFaceAt(0));
+
+    IndexedMesh3D indexed = triangulate(mesh);
+    int[] indices = indexed.getIndices();
+    assertEquals(4 * 3, indices.length);
+    float area = 0;
+    for (int i = 0; i < indices.length; i += 3) {
+      Vector3f a = mesh.getVertexAt(indices[i]);
+      Vector3f b = mesh.getVertexAt(indices[i + 1]);
+      Vector3f c = mesh.getVertexAt(indices[i + 2]);
+      Vector3f cross = b.subtract(a).cross(c.subtract(a));
+      assertTrue(cross.dot(normal) > 0, "triangle " + i / 3 + " is flipped");
+      area += cross.length() / 2;
+    }
+    assertEquals(3, area, 1e-6f);
+  }
+}
@@ -0,0 +1,111 @@
+package mesh;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.creator.primitives.CubeCreator;
+import mesh.modifier.ScaleModifier;
+import mesh.util.Bounds3;
+
+public class PackedMesh3DTest {
+
+  private Mesh3D cube;
+
+  @BeforeEach
+  public void setUp() {
+    cube = new CubeCreator().create();
+  }
+
+  @Test
+  public void fromMeshKeepsVertexAndFaceCount() {
+    PackedMesh3D packed = PackedMesh3D.fromMesh(cube);
+    assertEquals(cube.getVertexCount(), packed.getVertexCount());
+    assertEquals(cube.getFaceCount(), packed.getFaceCount());
+    assertEquals(24, packed.getIndexCount());
+  }
+
+  @Test
+  public void roundTripPreservesGeometry() {
+    Mesh3D result = PackedMesh3D.fromMesh(cube).toMesh3D();
+    assertEquals(cube.vertices, result.vertices);
+    for (int i = 0; i < cube.getFaceCount(); i++) {
+      assertArrayEquals(cube.getFaceAt(i).indices, result.getFaceAt(i).indices);
+    }
+  }
+
+  @Test
+  public void faceIndexWrapsAroundLikeFace3D() {
+    PackedMesh3D packed = PackedMesh3D.fromMesh(cube);
+    Face3D face = cube.getFaceAt(2);
+    for (int i = -4; i < 8; i++) {
+      assertEquals(face.getIndexAt(Math.floorMod(i, 4)), packed.getFaceIndexAt(2, i));
+    }
+  }
+
+  @Test
+  public void faceNormalMatchesMesh3D() {
+    PackedMesh3D packed = PackedMesh3D.fromMesh(cube);
+    for (int i = 0; i < cube.getFaceCount(); i++) {
+      Vector3f expected = cube.calculateFaceNormal(cube.getFaceAt(i));
+      Vector3f actual = packed.calculateFaceNormal(i, new Vector3f());
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void boundsMatchMesh3D() {
+    Bounds3 expected = cube.calculateBounds();
+    Bounds3 actual = PackedMesh3D.fromMesh(cube).calculateBounds();
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void applyModifierUpdatesPositions() {
+    PackedMesh3D packed = PackedMesh3D.fromMesh(cube);
+    packed.apply(new ScaleModifier(2));
+    new ScaleModifier(2).modify(cube);
+    for (int i = 0; i < cube.getVertexCount(); i++) {
+      assertEquals(cube.getVertexAt(i), packed.getVertexAt(i));
+    }
+  }
+
+  @Test
+  public void growsBeyondInitialCapacity() {
+    PackedMesh3D packed = new PackedMesh3D(0, 0, 0);
+    for (int i = 0; i < 100; i++) {
+      packed.addVertex(i, i, i);
+      packed.addFace(i, i, i);
+    }
+    assertEquals(100, packed.getVertexCount());
+    assertEquals(100, packed.getFaceCount());
+    assertEquals(99, packed.getFaceIndexAt(99, 0));
+  }
+
+  @Test
+  public void uvIndicesSurviveRoundTrip() {
+    PackedMesh3D packed = new PackedMesh3D();
+    packed.addVertex(0, 0, 0);
+    packed.addVertex(1, 0, 0);
+    packed.addVertex(1, 1, 0);
+    packed.addUvCoordinate(0, 0);
+    packed.addUvCoordinate(1, 0);
+    packed.addUvCoordinate(1, 1);
+    packed.addFace(0, 1, 2);
+    packed.setFaceUvIndices(0, 2, 1, 0);
+    Mesh3D mesh = packed.toMesh3D();
+    assertEquals(3, mesh.getUvCount());
+    assertEquals(2, mesh.getFaceAt(0).getUvIndexAt(0));
+    assertEquals(0, mesh.getFaceAt(0).getUvIndexAt(2));
+  }
+
+  @Test
+  public void invalidFaceIndexThrowsException() {
+    PackedMesh3D packed = PackedMesh3D.fromMesh(cube);
+    assertThrows(IndexOutOfBoundsException.class, () -> packed.getFaceVertexCount(6));
+  }
+}
@@ -0,0 +1,117 @@
+package mesh;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class QuantizedMesh3DTest {
+
+  /** A grid of quads with positions, UVs and normals, one vertex per grid point. */
+  private IndexedMesh3D createGrid(int size) {
+    int points = size + 1;
+    float[] positions = new float[points * points * 3];
+    float[] uvs = new float[points * points * 2];
+    float[] normals = new float[points * points * 3];
+    for (int i = 0; i < points * points; i++) {
+      int x = i % points;
+      int z = i / points;
+      double angle = x * 0.37 + z * 0.11;
+      positions[i * 3] = x * 0.25f - 7;
+      positions[i * 3 + 1] = (float) Math.sin(angle) * 3;
+      positions[i * 3 + 2] = z * 0.5f + 100;
+      uvs[i * 2] = x / (float) size;
+      uvs[i * 2 + 1] = z / (float) size;
+      normals[i * 3] = (float) Math.cos(angle);
+      normals[i * 3 + 1] = (float) Math.sin(angle);
+      normals[i * 3 + 2] = x % 2 == 0 ? 0 : -0.5f;
+    }
+    IndexedMesh3D.Builder builder = new IndexedMesh3D.Builder(positions, uvs, normals);
+    for (int i = 0; i < points * points; i++) {
+      builder.addCorner(i, i, i);
+    }
+    for (int z = 0; z < size; z++) {
+      for (int x = 0; x < size; x++) {
+        int i = z * points + x;
+        builder.addPolygon(new int[] {i, i + points, i + points + 1, i + 1}, 0, 4);
+      }
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void decodeStaysWithinQuantizationError() {
+    IndexedMesh3D mesh = createGrid(40);
+    QuantizedMesh3D quantized = QuantizedMesh3D.encode(mesh);
+    IndexedMesh3D decoded = quantized.decode();
+
+    assertTrue(quantized.hasShortIndices());
+    assertEquals(mesh.getStride(), decoded.getStride());
+    assertArrayEquals(mesh.getIndices(), decoded.getIndices());
+    float[] expected = mesh.getVertexData();
+    float[] actual = decoded.getVertexData();
+    float[] extent = {10 / 65535f, 6 / 65535f, 20 / 65535f, 1 / 65535f, 1 / 65535f};
+    for (int v = 0; v < mesh.getVertexCount(); v++) {
+      int offset = v * mesh.getStride();
+      for (int j = 0; j < 5; j++) {
+        assertEquals(expected[offset + j], actual[offset + j], extent[j]);
+      }
+    }
+  }
+
+  @Test
+  public void octahedralNormalsStayWithinOneDegree() {
+    Random random = new Random(7);
+    byte[] encoded = new byte[2];
+    float[] decoded = new float[3];
+    for (int i = 0; i < 10000; i++) {
+      float x = (float) random.nextGaussian();
+      float y = (float) random.nextGaussian();
+      float z = (float) random.nextGaussian();
+      float length = (float) Math.sqrt(x * x + y * y + z * z);
+      QuantizedMesh3D.encodeNormal(x, y, z, encoded, 0);
+      QuantizedMesh3D.decodeNormal(encoded, 0, decoded, 0);
+      float dot = (x * decoded[0] + y * decoded[1] + z * decoded[2]) / length;
+      assertTrue(Math.toDegrees(Math.acos(Math.min(1, dot))) < 1);
+    }
+  }
+
+  @Test
+  public void axisNormalsAndLowerHemispherePlanesDecodeExactly() {
+    float[][] normals = {
+      {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1},
+      {0, 0.6f, -0.8f}, {0, -0.6f, -0.8f}, {0.6f, 0, -0.8f}, {-0.6f, 0, -0.8f}
+    };
+    byte[] encoded = new byte[2];
+    float[] decoded = new float[3];
+    for (float[] normal : normals) {
+      QuantizedMesh3D.encodeNormal(normal[0], normal[1], normal[2], encoded, 0);
+      QuantizedMesh3D.decodeNormal(encoded, 0, decoded, 0);
+      float dot = normal[0] * decoded[0] + normal[1] * decoded[1] + normal[2] * decoded[2];
+      assertTrue(Math.toDegrees(Math.acos(Math.min(1, dot))) < 1, Arrays.toString(normal));
+    }
+  }
+
+  @Test
+  public void quantizedMeshIsLessThanHalfTheSize() {
+    IndexedMesh3D mesh = createGrid(100);
+    QuantizedMesh3D quantized = QuantizedMesh3D.encode(mesh);
+
+    assertEquals(mesh.getVertexCount() * 12L + mesh.getIndices().length * 2L,
+        quantized.getSizeInBytes());
+    assertTrue(mesh.getSizeInBytes() > quantized.getSizeInBytes() * 2);
+  }
+
+  @Test
+  public void largeMeshesUseIntIndices() {
+    QuantizedMesh3D quantized = QuantizedMesh3D.encode(createGrid(256));
+
+    assertFalse(quantized.hasShortIndices());
+    assertEquals(66048, quantized.getIndex(quantized.getIndexCount() - 2));
+  }
+}
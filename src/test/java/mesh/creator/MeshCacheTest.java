@@ -0,0 +1,131 @@
+package mesh.creator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mesh.Mesh3D;
+import mesh.creator.primitives.TorusCreator;
+
+public class MeshCacheTest {
+
+  private File directory;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("meshcache").toFile();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void secondCreatorWithSameStateHitsCache() {
+    MeshCache cache = new MeshCache(directory, Long.MAX_VALUE);
+    Mesh3D created = new CachedMeshCreator(new TorusCreator(), cache).create();
+    Mesh3D loaded = new CachedMeshCreator(new TorusCreator(), cache).create();
+
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(created.vertices, loaded.vertices);
+    for (int i = 0; i < created.getFaceCount(); i++) {
+      assertArrayEquals(created.getFaceAt(i).indices, loaded.getFaceAt(i).indices);
+    }
+  }
+
+  @Test
+  public void keyDependsOnParameters() {
+    MeshCache cache = new MeshCache(directory, Long.MAX_VALUE);
+    TorusCreator creator = new TorusCreator();
+    String key = cache.createKey(creator);
+    assertEquals(key, cache.createKey(new TorusCreator()));
+    creator.setMajorSegments(7);
+    assertNotEquals(key, cache.createKey(creator));
+    assertNotEquals(cache.createKey(() -> new Mesh3D()), cache.createKey(new TorusCreator()));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedEntries() {
+    MeshCache cache = new MeshCache(directory, 0);
+    for (int segments = 3; segments < 6; segments++) {
+      TorusCreator creator = new TorusCreator();
+      creator.setMajorSegments(segments);
+      cache.create(creator);
+    }
+    assertEquals(1, directory.listFiles().length);
+
+    TorusCreator latest = new TorusCreator();
+    latest.setMajorSegments(5);
+    cache.create(latest);
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void explicitNamesAreCached() {
+    MeshCache cache = new MeshCache(directory, Long.MAX_VALUE);
+    cache.create("kd", () -> new TorusCreator().create());
+    Mesh3D mesh = cache.create("kd", () -> new Mesh3D());
+    assertEquals(new TorusCreator().create().getVertexCount(), mesh.getVertexCount());
+  }
+
+  @Test
+  public void taggedMeshesAreNotStored() {
+    MeshCache cache = new MeshCache(directory, Long.MAX_VALUE);
+    IMeshCreator creator =
+        () -> {
+          Mesh3D mesh = new TorusCreator().create();
+          mesh.getFaceAt(0).tag = "spikes";
+          return mesh;
+        };
+    Mesh3D first = cache.create("tagged", creator);
+    Mesh3D second = cache.create("tagged", creator);
+
+    assertEquals(0, cache.getHitCount());
+    assertEquals(0, directory.listFiles().length);
+    assertEquals("spikes", first.getFaceAt(0).tag);
+    assertEquals("spikes", second.getFaceAt(0).tag);
+  }
+
+  @Test
+  public void creatorsRunConcurrently() throws InterruptedException {
+    MeshCache cache = new MeshCache(directory, Long.MAX_VALUE);
+    CountDownLatch started = new CountDownLatch(2);
+    IMeshCreator creator =
+        () -> {
+          started.countDown();
+          try {
+            // Both creators have to be running at the same time to get past this.
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          return new TorusCreator().create();
+        };
+    Thread other = new Thread(() -> cache.create("a", creator));
+    other.start();
+    Mesh3D mesh = cache.create("b", creator);
+    other.join();
+
+    assertEquals(new TorusCreator().create().getVertexCount(), mesh.getVertexCount());
+    assertEquals(2, cache.getMissCount());
+  }
+}
@@ -0,0 +1,120 @@
+package mesh.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Color;
+import mesh.IndexedMesh3D;
+import mesh.Mesh3D;
+import mesh.PackedMesh3D;
+import mesh.QuantizedMesh3D;
+import mesh.creator.primitives.CubeCreator;
+
+public class BinaryMeshReaderTest {
+
+  private File file;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    file = File.createTempFile("mesh", ".msh");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void roundTripPreservesGeometry() throws IOException {
+    Mesh3D cube = new CubeCreator().create();
+    new BinaryMeshWriter(file).write(cube);
+
+    MappedMesh mapped = new BinaryMeshReader().read(file);
+    assertEquals(cube.getVertexCount(), mapped.getVertexCount());
+    assertEquals(cube.getFaceCount(), mapped.getFaceCount());
+    assertEquals(24, mapped.getIndexCount());
+    assertNull(mapped.getFaceUvIndices());
+
+    Mesh3D result = mapped.toMesh3D();
+    assertEquals(cube.vertices, result.vertices);
+    for (int i = 0; i < cube.getFaceCount(); i++) {
+      assertArrayEquals(cube.getFaceAt(i).indices, result.getFaceAt(i).indices);
+    }
+  }
+
+  @Test
+  public void roundTripPreservesUvsAndColors() throws IOException {
+    PackedMesh3D mesh = new PackedMesh3D();
+    mesh.addVertex(0, 0, 0);
+    mesh.addVertex(1, 0, 0);
+    mesh.addVertex(1, 0, 1);
+    mesh.addVertex(0, 0, 1);
+    mesh.addUvCoordinate(0, 0);
+    mesh.addUvCoordinate(1, 1);
+    mesh.addFace(0, 1, 2);
+    mesh.addFace(0, 2, 3);
+    mesh.setFaceUvIndices(1, 0, 1, 0);
+    mesh.setFaceColor(0, new Color(1, 0.5f, 0.25f, 1));
+    new BinaryMeshWriter(file).write(mesh);
+
+    PackedMesh3D result = new BinaryMeshReader().read(file).toPackedMesh3D();
+    assertEquals(2, result.getUvCount());
+    assertEquals(1f, result.getUvAt(1).getX());
+    assertEquals(-1, result.getFaceUvIndexAt(0, 0));
+    assertEquals(1, result.getFaceUvIndexAt(1, 1));
+    assertEquals(0.5f, result.getFaceColor(0).getGreen());
+    assertEquals(0, result.getFaceColor(1).getAlpha());
+  }
+
+  @Test
+  public void buffersAreMappedViews() throws IOException {
+    new BinaryMeshWriter(file).write(new CubeCreator().create());
+    MappedMesh mapped = new BinaryMeshReader().read(file);
+    assertEquals(24, mapped.getPositions().remaining());
+    assertEquals(7, mapped.getFaceOffsets().remaining());
+    assertEquals(true, mapped.getFaceIndices().isDirect());
+  }
+
+  @Test
+  public void rejectsFilesWithoutHeader() throws IOException {
+    Files.write(file.toPath(), "v 0 0 0\n".getBytes());
+    assertThrows(IOException.class, () -> new BinaryMeshReader().read(file));
+  }
+
+  @Test
+  public void rejectsTruncatedFiles() throws IOException {
+    new BinaryMeshWriter(file).write(new CubeCreator().create());
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(raf.length() - 64);
+    }
+    assertThrows(IOException.class, () -> new BinaryMeshReader().read(file));
+  }
+
+  @Test
+  public void quantizedRoundTripPreservesArrays() throws IOException {
+    QuantizedMesh3D mesh =
+        QuantizedMesh3D.encode(IndexedMesh3D.fromMesh(new CubeCreator().create()));
+    new BinaryMeshWriter(file).write(mesh);
+    QuantizedMesh3D read = new BinaryMeshReader().readQuantized(file);
+
+    assertEquals(mesh.getVertexCount(), read.getVertexCount());
+    assertEquals(mesh.getFaceCount(), read.getFaceCount());
+    assertEquals(mesh.getBounds().getMin(), read.getBounds().getMin());
+    assertEquals(mesh.getBounds().getMax(), read.getBounds().getMax());
+    assertArrayEquals(mesh.getPositions(), read.getPositions());
+    assertArrayEquals(mesh.getShortIndices(), read.getShortIndices());
+    assertNull(read.getNormals());
+    assertThrows(IOException.class, () -> new BinaryMeshReader().read(file));
+  }
+}
@@ -0,0 +1,87 @@
+package mesh.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+
+public class BinaryPlyReaderTest {
+
+  private File file;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    file = File.createTempFile("mesh", ".ply");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void roundTripPreservesPolygons() throws IOException {
+    Mesh3D cube = new CubeCreator().create();
+    new BinaryPlyWriter(file).write(cube);
+
+    Mesh3D mesh = new BinaryPlyReader().read(file);
+    assertEquals(cube.vertices, mesh.vertices);
+    assertEquals(cube.getFaceCount(), mesh.getFaceCount());
+    for (int i = 0; i < cube.getFaceCount(); i++) {
+      assertArrayEquals(cube.getFaceAt(i).indices, mesh.getFaceAt(i).indices);
+    }
+  }
+
+  @Test
+  public void triangulatesOnRequest() throws IOException {
+    BinaryPlyWriter writer = new BinaryPlyWriter(file);
+    writer.setTriangulate(true);
+    writer.write(new CubeCreator().create());
+    assertEquals(12, new BinaryPlyReader().read(file).getFaceCount());
+  }
+
+  @Test
+  public void readsBigEndianWithExtraProperties() throws IOException {
+    String header =
+        "ply\nformat binary_big_endian 1.0\ncomment test\n"
+            + "element vertex 3\nproperty double x\nproperty double y\n"
+            + "property double z\nproperty uchar red\n"
+            + "element face 1\nproperty uchar flags\n"
+            + "property list ushort uint vertex_index\nend_header\n";
+    byte[] text = header.getBytes(StandardCharsets.US_ASCII);
+    ByteBuffer body = ByteBuffer.allocate(3 * 25 + 1 + 2 + 12).order(ByteOrder.BIG_ENDIAN);
+    for (int i = 0; i < 3; i++) {
+      body.putDouble(i).putDouble(0.5).putDouble(-i).put((byte) 255);
+    }
+    body.put((byte) 7).putShort((short) 3).putInt(2).putInt(1).putInt(0);
+    try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+      out.write(text);
+      out.write(body.array());
+    }
+
+    Mesh3D mesh = new BinaryPlyReader().read(file);
+    assertEquals(new Vector3f(2, 0.5f, -2), mesh.getVertexAt(2));
+    assertArrayEquals(new int[] {2, 1, 0}, mesh.getFaceAt(0).indices);
+  }
+
+  @Test
+  public void rejectsAsciiPly() throws IOException {
+    Files.write(file.toPath(), "ply\nformat ascii 1.0\nend_header\n".getBytes());
+    assertThrows(IOException.class, () -> new BinaryPlyReader().read(file));
+  }
+}
@@ -0,0 +1,62 @@
+package mesh.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+
+public class BinaryStlReaderTest {
+
+  private File file;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    file = File.createTempFile("mesh", ".stl");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void roundTripTriangulatesAndWeldsVertices() throws IOException {
+    Mesh3D cube = new CubeCreator().create();
+    new BinaryStlWriter(file).write(cube);
+    assertEquals(84 + 12 * 50, file.length());
+
+    Mesh3D mesh = new BinaryStlReader().read(file);
+    assertEquals(8, mesh.getVertexCount());
+    assertEquals(12, mesh.getFaceCount());
+    for (int i = 0; i < 12; i++) {
+      Vector3f expected = cube.getVertexAt(cube.getFaceAt(i / 2).indices[(i % 2) + 1]);
+      assertEquals(expected, mesh.getVertexAt(mesh.getFaceAt(i).indices[1]));
+    }
+  }
+
+  @Test
+  public void readsUnweldedTriangles() throws IOException {
+    new BinaryStlWriter(file).write(new CubeCreator().create());
+    BinaryStlReader reader = new BinaryStlReader();
+    reader.setWeldVertices(false);
+    Mesh3D mesh = reader.read(file);
+    assertEquals(36, mesh.getVertexCount());
+    assertEquals(12, mesh.getFaceCount());
+  }
+
+  @Test
+  public void rejectsAsciiStl() throws IOException {
+    Files.write(file.toPath(), "solid cube\nendsolid cube\n".getBytes());
+    assertThrows(IOException.class, () -> new BinaryStlReader().read(file));
+  }
+}
@@ -0,0 +1,146 @@
+package mesh.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mesh.IndexedMesh3D;
+import mesh.Mesh3D;
+import mesh.creator.primitives.TorusCreator;
+
+public class MappedObjectReaderTest {
+
+  private File file;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    file = File.createTempFile("mapped", ".obj");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    file.delete();
+  }
+
+  private void write(String content) throws IOException {
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private void assertSameMesh(Mesh3D expected, Mesh3D actual) {
+    assertEquals(expected.vertices, actual.vertices);
+    assertEquals(expected.getFaceCount(), actual.getFaceCount());
+    for (int i = 0; i < expected.getFaceCount(); i++) {
+      assertArrayEquals(expected.getFaceAt(i).indices, actual.getFaceAt(i).indices);
+    }
+  }
+
+  @Test
+  public void readsSameMeshAsSimpleObjectReader() throws IOException {
+    SimpleObjectWriter writer = new SimpleObjectWriter(file);
+    writer.write(new TorusCreator().create(), "torus");
+    writer.close();
+
+    Mesh3D expected = new SimpleObjectReader().read(file);
+    assertSameMesh(expected, new MappedObjectReader().read(file));
+  }
+
+  @Test
+  public void chunkBoundariesDoNotChangeResult() throws IOException {
+    SimpleObjectWriter writer = new SimpleObjectWriter(file);
+    writer.write(new TorusCreator().create(), "torus");
+    writer.close();
+
+    Mesh3D expected = new MappedObjectReader().read(file);
+    for (int chunkSize : new int[] {1, 7, 64, 1000}) {
+      assertSameMesh(expected, new MappedObjectReader(chunkSize).read(file));
+    }
+  }
+
+  @Test
+  public void lastLineWithoutLineFeedIsReadForEveryChunkSize() throws IOException {
+    write("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3");
+    for (int chunkSize = 1; chunkSize <= 40; chunkSize++) {
+      Mesh3D mesh = new MappedObjectReader(chunkSize).read(file);
+      assertEquals(3, mesh.getVertexCount());
+      assertEquals(1, mesh.getFaceCount());
+      assertArrayEquals(new int[] {0, 1, 2}, mesh.getFaceAt(0).indices);
+    }
+  }
+
+  @Test
+  public void readsSlashSyntaxAndRelativeIndices() throws IOException {
+    write(
+        "# comment\r\nv 0 0 0\r\nv 1.5e0 0 -0.25\r\nvt 0 1\r\nvn 0 1 0\r\n"
+            + "v\t0  1 0\r\nf 1/1 2/1/1 3//1\r\nf -3 -2 -1 # inline\r\n");
+    Mesh3D mesh = new MappedObjectReader(5).read(file);
+    assertEquals(3, mesh.getVertexCount());
+    assertEquals(1.5f, mesh.getVertexAt(1).getX());
+    assertEquals(-0.25f, mesh.getVertexAt(1).getZ());
+    assertEquals(1f, mesh.getVertexAt(2).getY());
+    assertArrayEquals(new int[] {0, 1, 2}, mesh.getFaceAt(0).indices);
+    assertArrayEquals(new int[] {0, 1, 2}, mesh.getFaceAt(1).indices);
+    assertEquals(1, mesh.getUvCount());
+    assertEquals(0, mesh.getFaceAt(0).getUvIndexAt(1));
+    assertEquals(-1, mesh.getFaceAt(0).getUvIndexAt(2));
+    assertEquals(-1, mesh.getFaceAt(1).getUvIndexAt(0));
+  }
+
+  @Test
+  public void readIndexedDeduplicatesCorners() throws IOException {
+    write(
+        "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\n"
+            + "vt 0 0\nvt 1 0\nvt 1 1\nvt 0 1\nvt 0.5 0.5\nvn 0 0 1\n"
+            + "f 1/1/1 2/2/1 3/3/1 4/4/1\n"
+            + "f -4/-5/-1 -2/-3/-1 -1/-1/-1\n");
+    for (int chunkSize : new int[] {1, 1000}) {
+      IndexedMesh3D mesh = new MappedObjectReader(chunkSize).readIndexed(file);
+      assertEquals(5, mesh.getVertexCount());
+      assertEquals(2, mesh.getFaceCount());
+      assertEquals(8, mesh.getStride());
+      assertArrayEquals(new int[] {0, 1, 2, 0, 2, 3, 0, 2, 4}, mesh.getIndices());
+      float[] data = mesh.getVertexData();
+      assertEquals(0.5f, data[4 * 8 + mesh.getUvOffset() + 1]);
+      assertEquals(1f, data[2 * 8 + mesh.getNormalOffset() + 2]);
+    }
+  }
+
+  @Test
+  public void parsesFloatsLikeFloatParseFloat() throws IOException {
+    String[] values = {
+      "0.1", "-0.0", "3.4028235e38", "1e-30", "0.30000001192092896", "16777217",
+      "123456789.123456789", "1.00000017881393421514957253748434595763683319091796875001"
+    };
+    StringBuilder content = new StringBuilder();
+    for (String value : values) {
+      content.append("v ").append(value).append(" 0 0\n");
+    }
+    write(content.toString());
+    Mesh3D mesh = new MappedObjectReader().read(file);
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(
+          Float.floatToIntBits(Float.parseFloat(values[i])),
+          Float.floatToIntBits(mesh.getVertexAt(i).getX()));
+    }
+  }
+
+  @Test
+  public void malformedFileThrowsIOException() throws IOException {
+    write("v 0 0 0\nf 1 x 2\n");
+    assertThrows(IOException.class, () -> new MappedObjectReader().read(file));
+  }
+
+  @Test
+  public void outOfRangeIndexThrowsIOException() throws IOException {
+    write("v 0 0 0\nf 1 2 3\n");
+    assertThrows(IOException.class, () -> new MappedObjectReader().read(file));
+  }
+}
@@ -0,0 +1,106 @@
+package mesh.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+
+public class SimpleObjectWriterTest {
+
+  private File file;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    file = File.createTempFile("writer", ".obj");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    file.delete();
+  }
+
+  private String format(float value) {
+    byte[] out = new byte[FloatFormatter.MAX_LENGTH];
+    return new String(out, 0, FloatFormatter.format(value, out, 0), StandardCharsets.US_ASCII);
+  }
+
+  @Test
+  public void formattedFloatsReadBackExactly() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      float value = Float.intBitsToFloat(random.nextInt());
+      if (Float.isNaN(value)) continue;
+      String text = format(value);
+      assertEquals(Float.floatToIntBits(value), Float.floatToIntBits(Float.parseFloat(text)), text);
+      assertTrue(text.length() <= Float.toString(value).length(), text);
+    }
+  }
+
+  @Test
+  public void formatUsesFloatToStringLayout() {
+    assertEquals("0.0", format(0f));
+    assertEquals("-0.0", format(-0f));
+    assertEquals("1.0", format(1f));
+    assertEquals("100.0", format(100f));
+    assertEquals("0.001", format(0.001f));
+    assertEquals("-0.25", format(-0.25f));
+    assertEquals("1234567.0", format(1234567f));
+    assertEquals("1.0E7", format(1e7f));
+    assertEquals("3.4E-5", format(3.4e-5f));
+    assertEquals("-2.5E10", format(-2.5e10f));
+    assertEquals("NaN", format(Float.NaN));
+  }
+
+  @Test
+  public void fixedPrecisionRoundsToDecimals() throws IOException {
+    Mesh3D mesh = new Mesh3D();
+    mesh.add(new Vector3f(0.12345f, -2f, -0.0001f));
+    SimpleObjectWriter writer = new SimpleObjectWriter(file);
+    writer.setPrecision(3);
+    writer.write(mesh, "point");
+    writer.close();
+    String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII);
+    assertEquals("o point\nv 0.123 -2.000 0.000\n", content);
+  }
+
+  @Test
+  public void invalidPrecisionThrowsException() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new SimpleObjectWriter(file).setPrecision(10));
+  }
+
+  @Test
+  public void multipleWritesOffsetFaceIndices() throws IOException {
+    Mesh3D cube = new CubeCreator().create();
+    SimpleObjectWriter writer = new SimpleObjectWriter(file);
+    writer.write(cube, "a");
+    writer.write(cube, "b");
+    writer.close();
+
+    Mesh3D mesh = new MappedObjectReader().read(file);
+    assertEquals(cube.getVertexCount() * 2, mesh.getVertexCount());
+    assertEquals(cube.getFaceCount() * 2, mesh.getFaceCount());
+    for (int i = 0; i < cube.getVertexCount(); i++) {
+      assertEquals(cube.getVertexAt(i), mesh.getVertexAt(i + cube.getVertexCount()));
+    }
+    int[] expected = cube.getFaceAt(0).indices.clone();
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] += cube.getVertexCount();
+    }
+    assertArrayEquals(expected, mesh.getFaceAt(cube.getFaceCount()).indices);
+  }
+}
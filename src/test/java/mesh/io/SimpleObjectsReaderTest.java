@@ -0,0 +1,86 @@
+package mesh.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+
+public class SimpleObjectsReaderTest {
+
+  private File file;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    file = File.createTempFile("objects", ".obj");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void objectsOnlyReceiveTheirOwnVertices() throws IOException {
+    Mesh3D cube = new CubeCreator().create();
+    SimpleObjectWriter writer = new SimpleObjectWriter(file);
+    writer.write(cube, "a");
+    writer.write(cube, "b");
+    writer.write(cube, "c");
+    writer.close();
+
+    List<Mesh3D> meshes = new SimpleObjectsReader().read(file);
+    assertEquals(3, meshes.size());
+    for (Mesh3D mesh : meshes) {
+      assertEquals(cube.vertices, mesh.vertices);
+      assertEquals(cube.getFaceCount(), mesh.getFaceCount());
+      for (int i = 0; i < cube.getFaceCount(); i++) {
+        assertArrayEquals(cube.getFaceAt(i).indices, mesh.getFaceAt(i).indices);
+      }
+    }
+  }
+
+  @Test
+  public void streamsObjectsWithNamesAndRemappedIndices() throws IOException {
+    String content =
+        "v 0 0 0\nv 1 0 0\nv 2 0 0\nv 3 0 0\nvt 0 0\nvt 0.5 1\n"
+            + "f 1 2 3\n"
+            + "o second\nf 4/2/1 -3/-1 2/2\n"
+            + "o empty\n";
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+
+    List<String> names = new ArrayList<String>();
+    List<Mesh3D> meshes = new ArrayList<Mesh3D>();
+    new SimpleObjectsReader()
+        .read(
+            file,
+            (name, mesh) -> {
+              names.add(name);
+              meshes.add(mesh);
+            });
+
+    assertEquals(List.of("", "second", "empty"), names);
+    Mesh3D second = meshes.get(1);
+    assertEquals(2, second.getVertexCount());
+    assertEquals(new Vector3f(1, 0, 0), second.getVertexAt(0));
+    assertEquals(new Vector3f(3, 0, 0), second.getVertexAt(1));
+    assertArrayEquals(new int[] {1, 0, 0}, second.getFaceAt(0).indices);
+    assertEquals(1, second.getUvCount());
+    assertEquals(0.5f, second.getUvAt(0).getX());
+    assertEquals(0, second.getFaceAt(0).getUvIndexAt(2));
+    assertEquals(0, meshes.get(0).getUvCount());
+    assertEquals(0, meshes.get(2).getVertexCount());
+  }
+}
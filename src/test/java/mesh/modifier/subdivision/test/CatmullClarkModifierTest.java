@@ -0,0 +1,125 @@
+package mesh.modifier.subdivision.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+import mesh.creator.primitives.GridCreator;
+import mesh.modifier.subdivision.CatmullClarkModifier;
+
+public class CatmullClarkModifierTest {
+
+  private List<Vector3f> copyVertices(Mesh3D mesh) {
+    List<Vector3f> copies = new ArrayList<>();
+    for (Vector3f vertex : mesh.getVertices()) {
+      copies.add(new Vector3f(vertex));
+    }
+    return copies;
+  }
+
+  private void assertAllQuads(Mesh3D mesh) {
+    for (Face3D face : mesh.getFaces()) {
+      assertEquals(4, face.indices.length);
+    }
+  }
+
+  @Test
+  public void modifiesAndReturnsTheGivenMesh() {
+    Mesh3D cube = new CubeCreator().create();
+    assertSame(cube, new CatmullClarkModifier().modify(cube));
+  }
+
+  @Test
+  public void cubeLevelOneSplitsEveryFaceIntoFourQuads() {
+    Mesh3D cube = new CatmullClarkModifier(1).modify(new CubeCreator().create());
+    // 8 corners, 6 face points, 12 edge points.
+    assertEquals(26, cube.getVertexCount());
+    assertEquals(24, cube.getFaceCount());
+    assertAllQuads(cube);
+  }
+
+  @Test
+  public void cubeLevelTwoKeepsTheEulerCharacteristic() {
+    Mesh3D cube = new CatmullClarkModifier(2).modify(new CubeCreator().create());
+    assertEquals(98, cube.getVertexCount());
+    assertEquals(96, cube.getFaceCount());
+    assertAllQuads(cube);
+    // V - E + F = 2 with E = 2F for a closed quad mesh.
+    assertEquals(2, cube.getVertexCount() - 2 * cube.getFaceCount() + cube.getFaceCount());
+  }
+
+  @Test
+  public void cubeCornersMoveToTheCatmullClarkPositions() {
+    Mesh3D cube = new CubeCreator().create();
+    List<Vector3f> original = copyVertices(cube);
+    new CatmullClarkModifier(1).modify(cube);
+
+    // Valence 3: (F + 2R + (n - 3) P) / n = (1/3 + 4/3) / 3 = 5/9 of the corner.
+    for (int i = 0; i < original.size(); i++) {
+      Vector3f expected = original.get(i).mult(5f / 9f);
+      assertEquals(0, expected.distance(cube.getVertexAt(i)), 1e-6f);
+    }
+  }
+
+  @Test
+  public void cubeFaceAndEdgePointsLieOnTheSymmetryAxes() {
+    Mesh3D cube = new CatmullClarkModifier(1).modify(new CubeCreator().create());
+    int facePoints = 0;
+    int edgePoints = 0;
+    for (int i = 8; i < cube.getVertexCount(); i++) {
+      Vector3f v = cube.getVertexAt(i);
+      float[] abs = {Math.abs(v.getX()), Math.abs(v.getY()), Math.abs(v.getZ())};
+      int zeros = 0;
+      for (float value : abs) {
+        zeros += value == 0 ? 1 : 0;
+      }
+      // Face points sit at the face centers, edge points at 3/4 of the edge midpoints.
+      float expected = zeros == 2 ? 1 : 0.75f;
+      for (float value : abs) {
+        assertEquals(value == 0 ? 0 : expected, value, 1e-6f);
+      }
+      if (zeros == 2) {
+        facePoints++;
+      } else {
+        assertEquals(1, zeros);
+        edgePoints++;
+      }
+    }
+    assertEquals(6, facePoints);
+    assertEquals(12, edgePoints);
+  }
+
+  @Test
+  public void openGridGetsPointsForEveryFaceAndEdge() {
+    Mesh3D grid = new CatmullClarkModifier(1).modify(new GridCreator(3, 3, 1).create());
+    // 16 corners, 9 face points, 24 edge points.
+    assertEquals(16 + 9 + 24, grid.getVertexCount());
+    assertEquals(36, grid.getFaceCount());
+    assertAllQuads(grid);
+  }
+
+  @Test
+  public void unreferencedVerticesAreLeftUnchanged() {
+    Mesh3D cube = new CubeCreator().create();
+    cube.addVertex(5, 6, 7);
+    new CatmullClarkModifier(1).modify(cube);
+    assertEquals(new Vector3f(5, 6, 7), cube.getVertexAt(8));
+  }
+
+  @Test
+  public void zeroSubdivisionsLeaveTheMeshUnchanged() {
+    Mesh3D cube = new CubeCreator().create();
+    List<Vector3f> original = copyVertices(cube);
+    new CatmullClarkModifier(0).modify(cube);
+    assertEquals(original, cube.getVertices());
+    assertEquals(6, cube.getFaceCount());
+  }
+}
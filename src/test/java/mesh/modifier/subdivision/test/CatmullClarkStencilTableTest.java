@@ -0,0 +1,128 @@
+package mesh.modifier.subdivision.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+import mesh.creator.primitives.GridCreator;
+import mesh.creator.primitives.TorusCreator;
+import mesh.modifier.subdivision.CatmullClarkModifier;
+import mesh.modifier.subdivision.CatmullClarkStencilTable;
+import mesh.util.VertexNormalCache;
+
+public class CatmullClarkStencilTableTest {
+
+  private void assertSameSurface(Mesh3D expected, Mesh3D actual) {
+    assertEquals(expected.getVertexCount(), actual.getVertexCount());
+    assertEquals(expected.getFaceCount(), actual.getFaceCount());
+    for (int i = 0; i < expected.getFaceCount(); i++) {
+      assertArrayEquals(expected.getFaceAt(i).indices, actual.getFaceAt(i).indices);
+    }
+    for (int i = 0; i < expected.getVertexCount(); i++) {
+      assertEquals(0, expected.getVertexAt(i).distance(actual.getVertexAt(i)), 1e-5f);
+    }
+  }
+
+  @Test
+  public void matchesTheModifierAtEveryLevel() {
+    Mesh3D[] cages = {
+      new CubeCreator().create(), new TorusCreator().create(), new GridCreator(3, 3, 1).create()
+    };
+    for (Mesh3D cage : cages) {
+      for (int level = 0; level <= 2; level++) {
+        CatmullClarkStencilTable table = new CatmullClarkStencilTable(cage, level);
+        Mesh3D expected = new CatmullClarkModifier(level).modify(cage.copy());
+        assertEquals(expected.getVertexCount(), table.getVertexCount());
+        assertEquals(expected.getFaceCount(), table.getFaceCount());
+        assertSameSurface(expected, table.createMesh(cage));
+      }
+    }
+  }
+
+  @Test
+  public void reevaluatesForDeformedCages() {
+    Mesh3D cage = new TorusCreator().create();
+    CatmullClarkStencilTable table = new CatmullClarkStencilTable(cage, 2);
+    Mesh3D surface = table.createMesh(cage);
+
+    for (Vector3f vertex : cage.getVertices()) {
+      vertex.set(vertex.getX() * 2, vertex.getY() + vertex.getX(), vertex.getZ());
+    }
+    table.evaluate(cage, surface);
+    assertSameSurface(new CatmullClarkModifier(2).modify(cage.copy()), surface);
+  }
+
+  @Test
+  public void packedEvaluationMatchesMeshEvaluation() {
+    Mesh3D cage = new CubeCreator().create();
+    CatmullClarkStencilTable table = new CatmullClarkStencilTable(cage, 2);
+    Mesh3D surface = table.createMesh(cage);
+
+    float[] control = new float[cage.getVertexCount() * 3];
+    for (int i = 0; i < cage.getVertexCount(); i++) {
+      Vector3f v = cage.getVertexAt(i);
+      control[i * 3] = v.getX();
+      control[i * 3 + 1] = v.getY();
+      control[i * 3 + 2] = v.getZ();
+    }
+    float[] result = new float[table.getVertexCount() * 3];
+    table.evaluate(control, result);
+    for (int i = 0; i < table.getVertexCount(); i++) {
+      Vector3f v = surface.getVertexAt(i);
+      assertEquals(v.getX(), result[i * 3], 0);
+      assertEquals(v.getY(), result[i * 3 + 1], 0);
+      assertEquals(v.getZ(), result[i * 3 + 2], 0);
+    }
+  }
+
+  @Test
+  public void weightsOfEveryStencilSumToOne() {
+    // Translating the cage translates the surface only if all stencils are affine.
+    Mesh3D cage = new TorusCreator().create();
+    CatmullClarkStencilTable table = new CatmullClarkStencilTable(cage, 2);
+    Mesh3D surface = table.createMesh(cage);
+    Mesh3D moved = table.createMesh(cage.copy().translateX(3));
+    for (int i = 0; i < surface.getVertexCount(); i++) {
+      Vector3f expected = surface.getVertexAt(i).add(new Vector3f(3, 0, 0));
+      assertEquals(0, expected.distance(moved.getVertexAt(i)), 1e-5f);
+    }
+  }
+
+  @Test
+  public void rejectsMismatchedMeshes() {
+    Mesh3D cube = new CubeCreator().create();
+    CatmullClarkStencilTable table = new CatmullClarkStencilTable(cube, 1);
+    Mesh3D surface = table.createMesh(cube);
+    assertThrows(IllegalArgumentException.class, () -> table.evaluate(surface, surface));
+    assertThrows(IllegalArgumentException.class, () -> table.evaluate(cube, cube));
+    assertThrows(IllegalArgumentException.class, () -> table.evaluate(null, surface));
+    assertThrows(IllegalArgumentException.class, () -> new CatmullClarkStencilTable(cube, -1));
+  }
+
+  @Test
+  public void evaluateInvalidatesCachesOfTheTarget() {
+    Mesh3D cage = new CubeCreator().create();
+    CatmullClarkStencilTable table = new CatmullClarkStencilTable(cage, 1);
+    Mesh3D surface = table.createMesh(cage);
+    VertexNormalCache normals = new VertexNormalCache(surface);
+    normals.update();
+    assertTrue(normals.isValid());
+
+    long version = surface.getPositionsVersion();
+    for (Vector3f vertex : cage.getVertices()) {
+      vertex.multLocal(2);
+    }
+    table.evaluate(cage, surface);
+
+    assertTrue(surface.getPositionsVersion() != version);
+    assertFalse(normals.isValid());
+    assertTrue(normals.update());
+  }
+}
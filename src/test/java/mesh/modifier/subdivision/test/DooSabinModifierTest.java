@@ -0,0 +1,37 @@
+package mesh.modifier.subdivision.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import mesh.Face3D;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+import mesh.creator.primitives.GridCreator;
+import mesh.modifier.subdivision.DooSabinModifier;
+
+public class DooSabinModifierTest {
+
+  @Test
+  public void cubeGetsFacesForEveryFaceVertexAndEdge() {
+    Mesh3D cube = new DooSabinModifier().modify(new CubeCreator().create());
+    assertEquals(24, cube.getVertexCount());
+    assertEquals(6 + 8 + 12, cube.getFaceCount());
+  }
+
+  @Test
+  public void openGridSkipsBoundaryFans() {
+    Mesh3D grid = new DooSabinModifier().modify(new GridCreator(3, 3, 1).create());
+
+    // 9 face quads, 4 quads around the inner vertices, 12 quads across the inner edges.
+    assertEquals(36, grid.getVertexCount());
+    assertEquals(9 + 4 + 12, grid.getFaceCount());
+    for (Face3D face : grid.getFaces()) {
+      assertEquals(4, face.indices.length);
+      for (int index : face.indices) {
+        assertTrue(index >= 0 && index < grid.getVertexCount());
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package mesh.modifier.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import mesh.Face3D;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+import mesh.creator.primitives.GridCreator;
+import mesh.modifier.BevelVerticesModifier;
+
+public class BevelVerticesModifierTest {
+
+  @Test
+  public void cubeGetsOneFacePerOriginalFaceAndVertex() {
+    Mesh3D cube = new BevelVerticesModifier().modify(new CubeCreator().create());
+    assertEquals(24, cube.getVertexCount());
+    assertEquals(14, cube.getFaceCount());
+  }
+
+  @Test
+  public void openGridOnlyCreatesValidFaces() {
+    Mesh3D grid = new BevelVerticesModifier().modify(new GridCreator(3, 3, 1).create());
+
+    // 9 octagons, 4 quads around the inner vertices, 8 triangles along the border.
+    assertEquals(21, grid.getFaceCount());
+    int triangles = 0;
+    for (Face3D face : grid.getFaces()) {
+      assertTrue(face.indices.length >= 3);
+      for (int index : face.indices) {
+        assertTrue(index >= 0 && index < grid.getVertexCount());
+      }
+      triangles += face.indices.length == 3 ? 1 : 0;
+    }
+    assertEquals(8, triangles);
+  }
+}
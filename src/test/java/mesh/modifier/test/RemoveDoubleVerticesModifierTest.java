@@ -0,0 +1,92 @@
+package mesh.modifier.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.Mesh3D;
+import mesh.modifier.RemoveDoubleVerticesModifier;
+
+public class RemoveDoubleVerticesModifierTest {
+
+  private Mesh3D mesh;
+
+  /** Two triangles sharing an edge, but with four separate vertices for the shared corners. */
+  @BeforeEach
+  public void setUp() {
+    mesh = new Mesh3D();
+    mesh.addVertex(0, 0, 0);
+    mesh.addVertex(1, 0, 0);
+    mesh.addVertex(0, 0, 1);
+    mesh.addVertex(1, 0, 0.001f);
+    mesh.addVertex(1, 0, 1);
+    mesh.addVertex(0, 0, 1);
+    mesh.addFace(0, 1, 2);
+    mesh.addFace(3, 4, 5);
+  }
+
+  @Test
+  public void returnsReferenceToOriginalMeshInstance() {
+    assertSame(mesh, new RemoveDoubleVerticesModifier().modify(mesh));
+  }
+
+  @Test
+  public void exactModeMergesOnlyIdenticalPositions() {
+    new RemoveDoubleVerticesModifier().modify(mesh);
+    assertEquals(5, mesh.getVertexCount());
+    assertArrayEquals(new int[] {3, 4, 2}, mesh.getFaceAt(1).indices);
+  }
+
+  @Test
+  public void toleranceMergesNearbyPositions() {
+    new RemoveDoubleVerticesModifier(0.01f).modify(mesh);
+    assertEquals(4, mesh.getVertexCount());
+    assertArrayEquals(new int[] {0, 1, 2}, mesh.getFaceAt(0).indices);
+    assertArrayEquals(new int[] {1, 3, 2}, mesh.getFaceAt(1).indices);
+  }
+
+  @Test
+  public void keptVerticesAreOrderedByFirstReference() {
+    new RemoveDoubleVerticesModifier(0.01f).modify(mesh);
+    assertEquals(new Vector3f(0, 0, 0), mesh.getVertexAt(0));
+    assertEquals(new Vector3f(1, 0, 0), mesh.getVertexAt(1));
+    assertEquals(new Vector3f(0, 0, 1), mesh.getVertexAt(2));
+    assertEquals(new Vector3f(1, 0, 1), mesh.getVertexAt(3));
+  }
+
+  @Test
+  public void unreferencedVerticesAreRemoved() {
+    mesh.addVertex(5, 5, 5);
+    new RemoveDoubleVerticesModifier().modify(mesh);
+    assertEquals(5, mesh.getVertexCount());
+  }
+
+  @Test
+  public void parallelModeGivesSameResult() {
+    Mesh3D copy = mesh.copy();
+    RemoveDoubleVerticesModifier modifier = new RemoveDoubleVerticesModifier(0.01f);
+    modifier.modify(mesh);
+    modifier.setParallel(true);
+    modifier.modify(copy);
+    assertEquals(mesh.vertices, copy.vertices);
+    for (int i = 0; i < mesh.getFaceCount(); i++) {
+      assertArrayEquals(mesh.getFaceAt(i).indices, copy.getFaceAt(i).indices);
+    }
+  }
+
+  @Test
+  public void negativeToleranceThrowsException() {
+    assertThrows(IllegalArgumentException.class, () -> new RemoveDoubleVerticesModifier(-1));
+  }
+
+  @Test
+  public void nullMeshThrowsException() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new RemoveDoubleVerticesModifier().modify(null));
+  }
+}
@@ -0,0 +1,80 @@
+package mesh.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+import mesh.creator.primitives.PlaneCreator;
+
+public class HalfEdgeTopologyTest {
+
+  private Mesh3D cube;
+
+  private HalfEdgeTopology topology;
+
+  @BeforeEach
+  public void setUp() {
+    cube = new CubeCreator().create();
+    topology = new HalfEdgeTopology(cube);
+  }
+
+  @Test
+  public void cubeHasTwentyFourHalfEdges() {
+    assertEquals(24, topology.getHalfEdgeCount());
+  }
+
+  @Test
+  public void closedMeshHasNoBoundaryHalfEdges() {
+    for (int h = 0; h < topology.getHalfEdgeCount(); h++) {
+      assertTrue(!topology.isBoundary(h));
+    }
+  }
+
+  @Test
+  public void twinIsSymmetricAndReversed() {
+    for (int h = 0; h < topology.getHalfEdgeCount(); h++) {
+      int twin = topology.getTwin(h);
+      assertEquals(h, topology.getTwin(twin));
+      assertEquals(topology.getOrigin(h), topology.getTarget(twin));
+      assertEquals(topology.getTarget(h), topology.getOrigin(twin));
+    }
+  }
+
+  @Test
+  public void faceByEdgeMatchesTraverseHelper() {
+    TraverseHelper helper = new TraverseHelper(cube);
+    for (int h = 0; h < topology.getHalfEdgeCount(); h++) {
+      int from = topology.getOrigin(h);
+      int to = topology.getTarget(h);
+      assertEquals(helper.getFaceByEdge(from, to), topology.getFace3DByEdge(from, to));
+    }
+  }
+
+  @Test
+  public void circulatingAroundCubeVertexVisitsThreeFaces() {
+    for (int v = 0; v < cube.getVertexCount(); v++) {
+      int start = topology.getOutgoing(v);
+      int halfEdge = start;
+      int count = 0;
+      do {
+        assertEquals(v, topology.getOrigin(halfEdge));
+        halfEdge = topology.getTwinNext(halfEdge);
+        count++;
+      } while (halfEdge != start);
+      assertEquals(3, count);
+    }
+  }
+
+  @Test
+  public void planeEdgesAreBoundary() {
+    HalfEdgeTopology plane = new HalfEdgeTopology(new PlaneCreator().create());
+    for (int h = 0; h < plane.getHalfEdgeCount(); h++) {
+      assertTrue(plane.isBoundary(h));
+    }
+    assertEquals(-1, plane.getFaceByEdge(1, 0));
+  }
+}
@@ -0,0 +1,161 @@
+package mesh.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import math.Ray3f;
+import math.Vector3f;
+import mesh.Face3D;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+import mesh.creator.primitives.TorusCreator;
+
+public class MeshBVHTest {
+
+  private Random random;
+
+  private Mesh3D torus;
+
+  private MeshBVH bvh;
+
+  @BeforeEach
+  public void setUp() {
+    random = new Random(3);
+    torus = new TorusCreator().create();
+    bvh = new MeshBVH(torus);
+  }
+
+  private Ray3f randomRay() {
+    Vector3f origin =
+        new Vector3f(
+            random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2);
+    float y = random.nextFloat() * 0.5f - 0.25f;
+    Vector3f target = new Vector3f(random.nextFloat() * 2 - 1, y, random.nextFloat() * 2 - 1);
+    return new Ray3f(origin, target.subtract(origin));
+  }
+
+  /** Closest distance over all fan triangles of all faces, infinity if none is hit. */
+  private float bruteForce(Mesh3D mesh, Ray3f ray) {
+    Vector3f origin = ray.getOrigin();
+    Vector3f direction = ray.getDirection();
+    float closest = Float.POSITIVE_INFINITY;
+    for (Face3D face : mesh.getFaces()) {
+      for (int i = 1; i < face.indices.length - 1; i++) {
+        Vector3f a = mesh.getVertexAt(face.indices[0]);
+        Vector3f e1 = mesh.getVertexAt(face.indices[i]).subtract(a);
+        Vector3f e2 = mesh.getVertexAt(face.indices[i + 1]).subtract(a);
+        Vector3f p = direction.cross(e2);
+        float determinant = e1.dot(p);
+        if (determinant == 0) {
+          continue;
+        }
+        Vector3f s = origin.subtract(a);
+        float u = s.dot(p) / determinant;
+        Vector3f q = s.cross(e1);
+        float v = direction.dot(q) / determinant;
+        float t = e2.dot(q) / determinant;
+        if (u >= 0 && v >= 0 && u + v <= 1 && t >= 0) {
+          closest = Math.min(closest, t);
+        }
+      }
+    }
+    return closest;
+  }
+
+  @Test
+  public void raycastMatchesBruteForce() {
+    int hits = 0;
+    for (int i = 0; i < 500; i++) {
+      Ray3f ray = randomRay();
+      float expected = bruteForce(torus, ray);
+      MeshBVH.RayHit hit = bvh.raycast(ray);
+      if (expected == Float.POSITIVE_INFINITY) {
+        assertNull(hit);
+        assertFalse(bvh.anyHit(ray, Float.POSITIVE_INFINITY));
+        continue;
+      }
+      hits++;
+      assertNotNull(hit);
+      assertEquals(expected, hit.getDistance(), 1e-4f);
+      assertTrue(bvh.anyHit(ray, expected + 1e-3f));
+      assertFalse(bvh.anyHit(ray, expected - 1e-3f));
+    }
+    assertTrue(hits > 100, "hits " + hits);
+  }
+
+  @Test
+  public void tinyMeshesMatchBruteForce() {
+    float scale = 1e-4f;
+    for (Vector3f vertex : torus.getVertices()) {
+      vertex.multLocal(scale);
+    }
+    torus.markPositionsChanged();
+    int hits = 0;
+    for (int i = 0; i < 500; i++) {
+      Ray3f unscaled = randomRay();
+      Ray3f ray = new Ray3f(unscaled.getOrigin().mult(scale), unscaled.getDirection());
+      float expected = bruteForce(torus, ray);
+      MeshBVH.RayHit hit = bvh.raycast(ray);
+      if (expected == Float.POSITIVE_INFINITY) {
+        assertNull(hit);
+        continue;
+      }
+      hits++;
+      assertNotNull(hit);
+      assertEquals(expected, hit.getDistance(), scale * 1e-4f);
+    }
+    assertTrue(hits > 100, "hits " + hits);
+  }
+
+  @Test
+  public void hitReportsFaceAndBarycentrics() {
+    Mesh3D cube = new CubeCreator().create();
+    MeshBVH cubeBvh = new MeshBVH(cube);
+    Ray3f ray = new Ray3f(new Vector3f(0.25f, -0.5f, -5), new Vector3f(0, 0, 1));
+    MeshBVH.RayHit hit = cubeBvh.raycast(ray);
+    assertNotNull(hit);
+    assertEquals(4, hit.getDistance(), 1e-5f);
+
+    Face3D face = cube.getFaceAt(hit.getFaceIndex());
+    for (int index : face.indices) {
+      assertEquals(-1, cube.getVertexAt(index).z, 1e-6f);
+    }
+    Vector3f a = cube.getVertexAt(hit.getVertexIndex(0));
+    Vector3f b = cube.getVertexAt(hit.getVertexIndex(1));
+    Vector3f c = cube.getVertexAt(hit.getVertexIndex(2));
+    Vector3f point =
+        a.mult(1 - hit.getU() - hit.getV()).add(b.mult(hit.getU())).add(c.mult(hit.getV()));
+    assertEquals(0, point.distance(hit.getPoint()), 1e-5f);
+    assertEquals(0, point.distance(new Vector3f(0.25f, -0.5f, -1)), 1e-5f);
+  }
+
+  @Test
+  public void rebuildsWhenTheMeshChanges() {
+    Ray3f ray = new Ray3f(new Vector3f(1, 5, 0), new Vector3f(0, -1, 0));
+    float distance = bvh.raycast(ray).getDistance();
+    assertFalse(bvh.update());
+
+    for (Vector3f vertex : torus.getVertices()) {
+      vertex.addLocal(0, -1, 0);
+    }
+    torus.markPositionsChanged();
+    assertFalse(bvh.isValid());
+    assertEquals(distance + 1, bvh.raycast(ray).getDistance(), 1e-5f);
+    assertTrue(bvh.isValid());
+  }
+
+  @Test
+  public void meshWithoutFacesIsNeverHit() {
+    MeshBVH empty = new MeshBVH(new Mesh3D());
+    assertNull(empty.raycast(randomRay()));
+    assertEquals(0, empty.getNodeCount());
+  }
+}
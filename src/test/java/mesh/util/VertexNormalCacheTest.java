@@ -0,0 +1,157 @@
+package mesh.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import math.Vector3f;
+import mesh.Mesh3D;
+import mesh.creator.primitives.CubeCreator;
+import mesh.creator.primitives.IcoSphereCreator;
+import mesh.creator.primitives.TorusCreator;
+import mesh.modifier.subdivision.CatmullClarkModifier;
+
+public class VertexNormalCacheTest {
+
+  /**
+   * A vertex at the origin shared by a large triangle facing +z with a right angle at the vertex
+   * and a small triangle facing +x with a 45 degree angle at the vertex.
+   */
+  private Mesh3D createCorner() {
+    Mesh3D mesh = new Mesh3D();
+    mesh.addVertex(0, 0, 0);
+    mesh.addVertex(10, 0, 0);
+    mesh.addVertex(0, 10, 0);
+    mesh.addVertex(0, 1, 0);
+    mesh.addVertex(0, 1, 1);
+    mesh.addFace(0, 1, 2);
+    mesh.addFace(0, 3, 4);
+    return mesh;
+  }
+
+  private Vector3f normalAtCorner(VertexNormalCache.Weighting weighting) {
+    return new VertexNormalCache(createCorner(), weighting).getNormalAt(0, new Vector3f());
+  }
+
+  private void assertDirection(Vector3f expected, Vector3f actual) {
+    assertEquals(0, expected.normalize().distance(actual), 1e-5f);
+  }
+
+  @Test
+  public void cubeCornersPointAwayFromTheCenter() {
+    Mesh3D cube = new CubeCreator().create();
+    for (VertexNormalCache.Weighting weighting : VertexNormalCache.Weighting.values()) {
+      List<Vector3f> normals = new VertexNormalCache(cube, weighting).getVertexNormals();
+      for (int i = 0; i < cube.getVertexCount(); i++) {
+        assertDirection(cube.getVertexAt(i), normals.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void sphereNormalsFollowTheRadius() {
+    Mesh3D sphere = new IcoSphereCreator(1, 3).create();
+    VertexNormalCache cache = new VertexNormalCache(sphere);
+    Vector3f normal = new Vector3f();
+    for (int i = 0; i < sphere.getVertexCount(); i++) {
+      cache.getNormalAt(i, normal);
+      assertEquals(1, normal.length(), 1e-5f);
+      assertTrue(normal.dot(sphere.getVertexAt(i).normalize()) > 0.99f);
+    }
+  }
+
+  @Test
+  public void uniformWeightingBisectsTheFaces() {
+    assertDirection(new Vector3f(1, 0, 1), normalAtCorner(VertexNormalCache.Weighting.UNIFORM));
+  }
+
+  @Test
+  public void areaWeightingFavorsTheLargeFace() {
+    assertDirection(new Vector3f(0.5f, 0, 50), normalAtCorner(VertexNormalCache.Weighting.AREA));
+  }
+
+  @Test
+  public void angleWeightingFavorsTheWideCorner() {
+    Vector3f expected = new Vector3f((float) Math.PI / 4, 0, (float) Math.PI / 2);
+    assertDirection(expected, normalAtCorner(VertexNormalCache.Weighting.ANGLE));
+  }
+
+  @Test
+  public void uniformWeightingMatchesVertexNormalsOnLargeMeshes() {
+    // Enough faces to take the parallel path.
+    Mesh3D torus = new CatmullClarkModifier(2).modify(new TorusCreator().create());
+    assertTrue(torus.getFaceCount() >= 4096);
+    List<Vector3f> expected = new VertexNormals(torus).getVertexNormals();
+    List<Vector3f> actual =
+        new VertexNormalCache(torus, VertexNormalCache.Weighting.UNIFORM).getVertexNormals();
+    for (int i = 0; i < torus.getVertexCount(); i++) {
+      assertEquals(0, expected.get(i).distance(actual.get(i)), 1e-3f);
+    }
+  }
+
+  @Test
+  public void unreferencedVerticesGetZeroNormals() {
+    Mesh3D mesh = createCorner();
+    mesh.addVertex(5, 5, 5);
+    Vector3f normal = new VertexNormalCache(mesh).getNormalAt(5, new Vector3f());
+    assertEquals(new Vector3f(), normal);
+  }
+
+  @Test
+  public void computesOnlyOnceForAnUnchangedMesh() {
+    VertexNormalCache cache = new VertexNormalCache(new CubeCreator().create());
+    float[] normals = cache.getNormals();
+    assertTrue(cache.isValid());
+    assertFalse(cache.update());
+    assertSame(normals, cache.getNormals());
+  }
+
+  @Test
+  public void movedVerticesInvalidateTheNormals() {
+    Mesh3D mesh = createCorner();
+    VertexNormalCache cache = new VertexNormalCache(mesh, VertexNormalCache.Weighting.UNIFORM);
+    cache.update();
+
+    // Turn the small triangle to face +y.
+    mesh.getVertexAt(3).set(0, 0, 1);
+    mesh.getVertexAt(4).set(1, 0, 1);
+    mesh.markPositionsChanged();
+
+    assertFalse(cache.isValid());
+    assertDirection(new Vector3f(0, 1, 1), cache.getNormalAt(0, new Vector3f()));
+    assertTrue(cache.isValid());
+  }
+
+  @Test
+  public void newFacesInvalidateTheNormals() {
+    Mesh3D mesh = createCorner();
+    VertexNormalCache cache = new VertexNormalCache(mesh, VertexNormalCache.Weighting.UNIFORM);
+    cache.update();
+
+    mesh.addFace(0, 4, 1);
+    assertFalse(cache.isValid());
+    assertTrue(cache.update());
+  }
+
+  @Test
+  public void invalidateForcesARecomputation() {
+    VertexNormalCache cache = new VertexNormalCache(new CubeCreator().create());
+    cache.update();
+    cache.invalidate();
+    assertFalse(cache.isValid());
+    assertTrue(cache.update());
+  }
+
+  @Test
+  public void rejectsNullArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new VertexNormalCache(null));
+    assertThrows(
+        IllegalArgumentException.class, () -> new VertexNormalCache(new Mesh3D(), null));
+  }
+}
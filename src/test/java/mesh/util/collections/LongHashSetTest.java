@@ -0,0 +1,63 @@
+package mesh.util.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LongHashSetTest {
+
+  @Test
+  public void addReportsWhetherTheValueWasNew() {
+    LongHashSet set = new LongHashSet();
+    assertTrue(set.add(5));
+    assertFalse(set.add(5));
+    assertTrue(set.contains(5));
+    assertFalse(set.contains(6));
+    assertEquals(1, set.size());
+  }
+
+  @Test
+  public void zeroAndNegativeValuesAreValid() {
+    LongHashSet set = new LongHashSet();
+    assertFalse(set.contains(0));
+    set.add(0);
+    set.add(-1);
+    set.add(Long.MIN_VALUE);
+    assertTrue(set.contains(0));
+    assertTrue(set.contains(-1));
+    assertTrue(set.contains(Long.MIN_VALUE));
+    assertEquals(3, set.size());
+  }
+
+  @Test
+  public void growsBeyondCapacityHint() {
+    LongHashSet set = new LongHashSet(2);
+    for (int i = 0; i < 10000; i++) {
+      set.add(EdgeKeys.directed(i, i + 1));
+    }
+    assertEquals(10000, set.size());
+    for (int i = 0; i < 10000; i++) {
+      assertTrue(set.contains(EdgeKeys.directed(i, i + 1)));
+      assertFalse(set.contains(EdgeKeys.directed(i + 1, i)));
+    }
+  }
+
+  @Test
+  public void clearRemovesAllValues() {
+    LongHashSet set = new LongHashSet();
+    set.add(0);
+    set.add(1);
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(0));
+    assertFalse(set.contains(1));
+  }
+
+  @Test
+  public void negativeCapacityHintThrows() {
+    assertThrows(IllegalArgumentException.class, () -> new LongHashSet(-1));
+  }
+}
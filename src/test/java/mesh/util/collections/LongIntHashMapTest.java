@@ -0,0 +1,79 @@
+package mesh.util.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LongIntHashMapTest {
+
+  @Test
+  public void absentKeyReturnsNoValue() {
+    LongIntHashMap map = new LongIntHashMap();
+    assertEquals(-1, map.get(42));
+    assertEquals(7, new LongIntHashMap(4, 7).get(42));
+    assertEquals(3, map.getOrDefault(42, 3));
+    assertFalse(map.containsKey(42));
+  }
+
+  @Test
+  public void putReplacesAndReturnsPreviousValue() {
+    LongIntHashMap map = new LongIntHashMap();
+    assertEquals(-1, map.put(5, 1));
+    assertEquals(1, map.put(5, 2));
+    assertEquals(2, map.get(5));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void zeroAndNegativeKeysAreValid() {
+    LongIntHashMap map = new LongIntHashMap();
+    map.put(0, 10);
+    map.put(-1, 11);
+    map.put(Long.MIN_VALUE, 12);
+    assertEquals(10, map.get(0));
+    assertEquals(11, map.get(-1));
+    assertEquals(12, map.get(Long.MIN_VALUE));
+    assertEquals(3, map.size());
+  }
+
+  @Test
+  public void growsBeyondCapacityHint() {
+    LongIntHashMap map = new LongIntHashMap(2);
+    for (int i = 0; i < 10000; i++) {
+      map.put(EdgeKeys.directed(i, i + 1), i);
+    }
+    assertEquals(10000, map.size());
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(i, map.get(EdgeKeys.directed(i, i + 1)));
+      assertFalse(map.containsKey(EdgeKeys.directed(i + 1, i)));
+    }
+  }
+
+  @Test
+  public void clearRemovesAllEntries() {
+    LongIntHashMap map = new LongIntHashMap();
+    map.put(0, 1);
+    map.put(1, 2);
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(0));
+    assertFalse(map.containsKey(1));
+  }
+
+  @Test
+  public void undirectedKeysIgnoreOrder() {
+    assertEquals(EdgeKeys.undirected(3, 9), EdgeKeys.undirected(9, 3));
+    long key = EdgeKeys.directed(3, 9);
+    assertEquals(3, EdgeKeys.from(key));
+    assertEquals(9, EdgeKeys.to(key));
+    assertEquals(EdgeKeys.directed(9, 3), EdgeKeys.reverse(key));
+  }
+
+  @Test
+  public void negativeCapacityHintThrows() {
+    assertThrows(IllegalArgumentException.class, () -> new LongIntHashMap(-1));
+  }
+}